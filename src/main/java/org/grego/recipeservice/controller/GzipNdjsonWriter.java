@@ -0,0 +1,111 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * GzipNdjsonWriter writes values as gzip compressed newline delimited JSON a chunk at a time, so a stream can be
+ * compressed without holding all of it in memory.  Each chunk is flushed, so the client can decompress everything it
+ * has received so far.
+ */
+final class GzipNdjsonWriter implements Closeable {
+    /**
+     * ObjectMapper maps the values to JSON.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Compressed bytes not yet taken.
+     */
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    /**
+     * Compresses into the bytes.
+     */
+    private final GZIPOutputStream gzip;
+
+    /**
+     * Constructor to build GzipNdjsonWriter.
+     * @param mapper
+     * @throws IOException
+     */
+    GzipNdjsonWriter(final ObjectMapper mapper) throws IOException {
+        this.objectMapper = mapper;
+        this.gzip = new GZIPOutputStream(bytes, true);
+    }
+
+    /**
+     * Compress a stream of values, emitting the compressed bytes of each chunk of values and then the gzip trailer.
+     * @param mapper
+     * @param values
+     * @param chunkSize Number of values compressed between flushes
+     * @return The compressed bytes
+     */
+    static Flux<byte[]> write(final ObjectMapper mapper, final Flux<?> values, final int chunkSize) {
+        return Flux.using(() -> new GzipNdjsonWriter(mapper),
+                writer -> values
+                        .buffer(chunkSize)
+                        .map(writer::write)
+                        .concatWith(Mono.fromSupplier(writer::finish)),
+                GzipNdjsonWriter::close);
+    }
+
+    /**
+     * Compress values, one JSON document per line, and flush them.
+     * @param values
+     * @return The compressed bytes written since the last call
+     */
+    @SneakyThrows
+    byte[] write(final List<?> values) {
+        for (var value : values) {
+            gzip.write(objectMapper.writeValueAsBytes(value));
+            gzip.write('\n');
+        }
+
+        gzip.flush();
+
+        return take();
+    }
+
+    /**
+     * Finish compressing.
+     * @return The remaining compressed bytes and the gzip trailer
+     */
+    @SneakyThrows
+    byte[] finish() {
+        gzip.finish();
+
+        return take();
+    }
+
+    /**
+     * Release the compressor.
+     */
+    @Override
+    @SneakyThrows
+    public void close() {
+        gzip.close();
+    }
+
+    private byte[] take() {
+        var taken = bytes.toByteArray();
+
+        bytes.reset();
+
+        return taken;
+    }
+}
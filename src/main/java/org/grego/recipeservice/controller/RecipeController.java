@@ -15,25 +15,53 @@ import org.grego.recipeservice.model.Ingredient;
 import org.grego.recipeservice.model.Instruction;
 import org.grego.recipeservice.model.QuantitySpecifier;
 import org.grego.recipeservice.service.IRecipeService;
+import org.grego.recipeservice.service.RecipeCountMode;
+import org.grego.recipeservice.service.RecipeView;
 import org.grego.recipeservice.model.Recipe;
+import org.grego.recipeservice.model.RecipeCursor;
+import org.grego.recipeservice.model.RecipeSortKey;
+import org.grego.recipeservice.model.RecipeSummary;
+import org.grego.recipeservice.model.RecipeVersion;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
 import org.springframework.hateoas.Link;
 import org.springframework.hateoas.PagedModel;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.afford;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
@@ -67,6 +95,46 @@ public class RecipeController {
             .instruction("Sample Instruction")
             .build()))
         .build();
+    /**
+     * Content encoding of an export.
+     */
+    public static final String GZIP = "gzip";
+
+    /**
+     * Name of the file an export is saved as.
+     */
+    public static final String EXPORT_FILE_NAME = "recipes.ndjson.gz";
+
+    /**
+     * Number of exported recipes compressed between flushes.
+     */
+    static final int EXPORT_FLUSH_SIZE = 100;
+
+    /**
+     * Most recipe ids that can be gotten or deleted in one request.
+     */
+    static final int MAXIMUM_RECIPE_IDS = 1000;
+
+    /**
+     * Header listing the requested recipe ids that have no recipe.
+     */
+    static final String MISSING_RECIPE_IDS_HEADER = "Missing-Recipe-Ids";
+
+    /**
+     * Variant of the ETag of recipes as JSON.
+     */
+    static final String JSON_VARIANT = "json";
+
+    /**
+     * Variant of the ETag of recipes with hyper-links.
+     */
+    static final String SIREN_VARIANT = "siren";
+
+    /**
+     * Separator between the version and the variant in the ETag of a recipe.
+     */
+    static final String ETAG_VARIANT_SEPARATOR = "-";
+
     /**
      * IRecipeService is for performing recipe service operations.
      */
@@ -85,25 +153,40 @@ public class RecipeController {
     @Autowired
     private ObjectMapper objectMapper;
 
+    /**
+     * RecipeResponseCache holds the encoded bodies returned by get recipe.
+     */
+    @Autowired
+    private RecipeResponseCache recipeResponseCache;
+
     /**
      * Constructor to build RecipeController to set class variables.
      * @param service
      * @param resourceAssembler
      * @param mapper
+     * @param responseCache
      */
     public RecipeController(final IRecipeService service, final RecipeResourceAssembler resourceAssembler,
-                            final ObjectMapper mapper) {
+                            final ObjectMapper mapper, final RecipeResponseCache responseCache) {
         this.recipeService = service;
         this.recipeResourceAssembler = resourceAssembler;
         this.objectMapper = mapper;
+        this.recipeResponseCache = responseCache;
     }
 
     /**
-     * Retrieve a list of recipes.
+     * Retrieve a list of recipes.  Recipes are paged by page number unless a cursor or sort is given,
+     * in which case the page follows the cursor and the cursor for the next page is returned in a next link.
      * @param pageNumber
      * @param pageSize
+     * @param cursor
+     * @param sort
+     * @param count Whether the total in the page metadata is exact or estimated
      * @param includeHyperLinks
-     * @return the list of Recipes.
+     * @param view Whether each recipe is returned in full, the default, or as a summary without its ingredients and
+     *             instructions
+     * @param exchange
+     * @return the list of Recipes, or not modified if the page still has the ETag in If-None-Match.
      */
     @Timed
     @GetMapping(path = "/list",
@@ -117,8 +200,31 @@ public class RecipeController {
             final long pageNumber,
             @RequestParam(value = "page-size", required = false, defaultValue = "${service.default_page_size:20}")
             final int pageSize,
+            @RequestParam(value = "cursor", required = false)
+            final String cursor,
+            @RequestParam(value = "sort", required = false)
+            final String sort,
+            @RequestParam(value = "count", required = false, defaultValue = "${service.default_count_mode:exact}")
+            final String count,
             @RequestParam(name = "include-hyper-links", required = false, defaultValue = "false")
-            final Boolean includeHyperLinks) {
+            final Boolean includeHyperLinks,
+            @RequestParam(value = "view", required = false, defaultValue = "full")
+            final String view,
+            final ServerWebExchange exchange) {
+
+        RecipeView recipeView;
+
+        try {
+            recipeView = RecipeView.fromParameterValue(view);
+        } catch (IllegalArgumentException ex) {
+            return Mono.just(ResponseEntity.badRequest()
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(ex.getMessage()));
+        }
+
+        if (cursor != null || sort != null) {
+            return listRecipesAfterCursor(cursor, sort, pageSize, recipeView, includeHyperLinks, exchange);
+        }
 
         if (pageNumber < 1) {
             return Mono.just(ResponseEntity.badRequest()
@@ -127,16 +233,125 @@ public class RecipeController {
         }
 
         if (includeHyperLinks) {
-            return listRecipesWithHyperLinks(pageNumber, pageSize);
+            RecipeCountMode countMode;
+
+            try {
+                countMode = RecipeCountMode.fromParameterValue(count);
+            } catch (IllegalArgumentException ex) {
+                return Mono.just(ResponseEntity.badRequest()
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .body(ex.getMessage()));
+            }
+
+            return listRecipesWithHyperLinks(pageNumber, pageSize, countMode, recipeView, exchange);
         } else {
-            return listRecipesWithoutHyperLinks(pageNumber, pageSize);
+            return listRecipesWithoutHyperLinks(pageNumber, pageSize, recipeView, exchange);
+        }
+    }
+
+    /**
+     * Stream a list of recipes as newline delimited JSON or server-sent events.  Each recipe is written as soon
+     * as it has its ingredients and instructions, and the query is cancelled if the client disconnects.
+     * @param pageNumber
+     * @param pageSize
+     * @param cursor
+     * @param sort
+     * @param view Whether each recipe is streamed in full, the default, or as a summary without its ingredients and
+     *             instructions
+     * @return the stream of Recipes, or of their summaries.
+     */
+    @Timed
+    @GetMapping(path = "/list",
+            produces = {
+                MediaType.APPLICATION_NDJSON_VALUE,
+                MediaType.TEXT_EVENT_STREAM_VALUE
+            }
+    )
+    public ResponseEntity<?> streamRecipes(
+            @RequestParam(value = "page-number", required = false, defaultValue = "1")
+            final long pageNumber,
+            @RequestParam(value = "page-size", required = false, defaultValue = "${service.default_page_size:20}")
+            final int pageSize,
+            @RequestParam(value = "cursor", required = false)
+            final String cursor,
+            @RequestParam(value = "sort", required = false)
+            final String sort,
+            @RequestParam(value = "view", required = false, defaultValue = "full")
+            final String view) {
+
+        RecipeView recipeView;
+
+        try {
+            recipeView = RecipeView.fromParameterValue(view);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest()
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(ex.getMessage());
+        }
+
+        if (pageNumber < 1 || pageSize < 1) {
+            return ResponseEntity.badRequest()
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(String.format("Pages begin at 1 and have at least 1 recipe:  page-number = %d, page-size = %d",
+                    pageNumber, pageSize));
+        }
+
+        if (cursor == null && sort == null) {
+            return ResponseEntity.ok(getStreamBody(recipeService.streamAllRecipes(pageNumber, pageSize, recipeView),
+                recipeView));
+        }
+
+        try {
+            var after = parseCursor(cursor);
+
+            return ResponseEntity.ok(getStreamBody(
+                recipeService.streamRecipesAfter(parseSortKey(sort, after), after, pageSize, recipeView), recipeView));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest()
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(ex.getMessage());
+        }
+    }
+
+    /**
+     * Export every recipe with its ingredients and instructions as gzip compressed newline delimited JSON, in
+     * recipe id order.  An interrupted export can be resumed after the last recipe id it received.
+     * @param after Last recipe id already exported, or 0 to export every recipe
+     * @return The compressed stream of Recipes
+     */
+    @Timed
+    @GetMapping(path = "/export",
+            produces = MediaType.APPLICATION_NDJSON_VALUE
+    )
+    public ResponseEntity<?> exportRecipes(
+            @RequestParam(value = "after", required = false, defaultValue = "0")
+            final long after) {
+
+        if (after < 0) {
+            return ResponseEntity.badRequest()
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(String.format("Recipe ids begin at 1:  after = %d", after));
         }
+
+        return ResponseEntity.ok()
+            .header(HttpHeaders.CONTENT_ENCODING, GZIP)
+            .header(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(EXPORT_FILE_NAME).build().toString())
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(GzipNdjsonWriter.write(objectMapper, recipeService.exportRecipes(after), EXPORT_FLUSH_SIZE)
+                .map(DefaultDataBufferFactory.sharedInstance::wrap));
     }
 
     /**
-     * Get a recipe by the recipe id.
+     * Get a recipe by the recipe id.  A request conditional on If-None-Match or If-Modified-Since is first checked
+     * against the recipe's version, so a recipe the client already has is answered with not modified without loading
+     * it.  The body of a recipe is encoded once per version and written from the recipe response cache after that.
+     * The summary view reads only the recipes table and isn't cached.
      * @param id
      * @param includeHyperLinks
+     * @param view Whether the recipe is returned in full, the default, or as a summary without its ingredients and
+     *             instructions
+     * @param exchange
      * @return A recipe for the recipe id
      */
     @Timed
@@ -149,13 +364,82 @@ public class RecipeController {
     public Mono<ResponseEntity<?>> getRecipe(
             @PathVariable("id") final long id,
             @RequestParam(name = "include-hyper-links", required = false, defaultValue = "false")
-            final Boolean includeHyperLinks) {
-        Mono<ResponseEntity<?>> response = recipeService.getRecipeById(id)
-            .map(recipe -> getRecipeResponse(includeHyperLinks, recipe));
+            final Boolean includeHyperLinks,
+            @RequestParam(value = "view", required = false, defaultValue = "full")
+            final String view,
+            final ServerWebExchange exchange) {
+        RecipeView recipeView;
+
+        try {
+            recipeView = RecipeView.fromParameterValue(view);
+        } catch (IllegalArgumentException ex) {
+            return Mono.just(ResponseEntity.badRequest()
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(ex.getMessage()));
+        }
+
+        Mono<ResponseEntity<?>> recipeResponse = Mono.defer(() -> recipeService.getRecipeById(id, recipeView)
+            .map(recipe -> recipeView == RecipeView.SUMMARY
+                ? getRecipeSummaryResponse(includeHyperLinks, recipe)
+                : getCachedRecipeResponse(includeHyperLinks, recipe)));
+        var requestHeaders = exchange.getRequest().getHeaders();
+        var response = recipeResponse;
+
+        if (!requestHeaders.getIfNoneMatch().isEmpty() || requestHeaders.getIfModifiedSince() >= 0) {
+            response = recipeService.getRecipeVersionById(id)
+                .flatMap(version -> exchange.checkNotModified(getETag(version.getVersion(), includeHyperLinks, recipeView),
+                        getLastModified(version.getLastModifiedDateTime()))
+                    ? Mono.just(getNotModifiedResponse(exchange))
+                    : recipeResponse);
+        }
 
         return response.switchIfEmpty(Mono.just(ResponseEntity.notFound().build()));
     }
 
+    /**
+     * Get recipes by recipe ids in one response, in the order of the ids.  The recipes are loaded together with one
+     * query for each table, and the ids without a recipe are listed in the Missing-Recipe-Ids header, and as
+     * missingRecipeIds in the body.
+     * @param ids
+     * @param includeHyperLinks
+     * @return The recipes for the recipe ids
+     */
+    @Timed
+    @GetMapping(path = "/get",
+            produces = {
+                    de.ingogriebsch.spring.hateoas.siren.MediaTypes.SIREN_JSON_VALUE,
+                    org.springframework.http.MediaType.APPLICATION_JSON_VALUE
+            }
+    )
+    public Mono<ResponseEntity<?>> getRecipes(
+            @RequestParam(value = "ids") final List<Long> ids,
+            @RequestParam(name = "include-hyper-links", required = false, defaultValue = "false")
+            final Boolean includeHyperLinks) {
+        return getRecipesResponse(ids, includeHyperLinks, true);
+    }
+
+    /**
+     * Get recipes by a JSON array of recipe ids, for lists of ids too long for a query string.  There is no self link,
+     * since it would put the ids back in a query string.
+     * @param ids
+     * @param includeHyperLinks
+     * @return The recipes for the recipe ids
+     */
+    @Timed
+    @PostMapping(path = "/get",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = {
+                    de.ingogriebsch.spring.hateoas.siren.MediaTypes.SIREN_JSON_VALUE,
+                    org.springframework.http.MediaType.APPLICATION_JSON_VALUE
+            }
+    )
+    public Mono<ResponseEntity<?>> postGetRecipes(
+            @RequestBody final List<Long> ids,
+            @RequestParam(name = "include-hyper-links", required = false, defaultValue = "false")
+            final Boolean includeHyperLinks) {
+        return getRecipesResponse(ids, includeHyperLinks, false);
+    }
+
     /**
      * Add a recipe.
      * @param recipe
@@ -184,8 +468,25 @@ public class RecipeController {
     }
 
     /**
-     * Update a recipe.
+     * Import recipes in bulk from newline delimited JSON, one recipe per line.  Recipes are saved and indexed a batch
+     * at a time, and the result for each recipe is streamed back as newline delimited JSON once its batch is done.
+     * @param recipes
+     * @return The id or error for each recipe
+     */
+    @Timed
+    @PostMapping(path = "/import",
+            consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE
+    )
+    public ResponseEntity<?> importRecipes(@RequestBody final Flux<Recipe> recipes) {
+        return ResponseEntity.ok(recipeService.importRecipes(recipes));
+    }
+
+    /**
+     * Update a recipe.  When an If-Match header holds the ETag of the recipe as it was read, the update is only made
+     * if the recipe has not changed since, otherwise precondition failed is returned.
      * @param recipe
+     * @param ifMatch
      * @param includeHyperLinks
      * @return The recipe that was updated
      */
@@ -199,18 +500,52 @@ public class RecipeController {
     )
     public Mono<ResponseEntity<?>> updateRecipe(
             @RequestBody() final String recipe,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) final String ifMatch,
             @RequestParam(name = "include-hyper-links", required = false, defaultValue = "false")
             final Boolean includeHyperLinks) {
         try {
-            Mono<ResponseEntity<?>> response = recipeService.updateRecipe(objectMapper.readValue(recipe, Recipe.class))
+            var recipeToUpdate = objectMapper.readValue(recipe, Recipe.class);
+
+            recipeToUpdate.setVersion(parseIfMatch(ifMatch));
+
+            Mono<ResponseEntity<?>> response = recipeService.updateRecipe(recipeToUpdate)
+                    .doOnNext(updatedRecipe -> recipeResponseCache.invalidate(updatedRecipe.getRecipeId()))
                     .map(updatedRecipe -> getRecipeResponse(includeHyperLinks, updatedRecipe));
 
-            return response.switchIfEmpty(Mono.just(ResponseEntity.notFound().build()));
+            return response
+                    .onErrorResume(OptimisticLockingFailureException.class,
+                            ex -> Mono.just(getPreconditionFailedResponse(ex.getMessage())))
+                    .switchIfEmpty(Mono.just(ResponseEntity.notFound().build()));
+        } catch (NumberFormatException ex) {
+            return Mono.just(getPreconditionFailedResponse(String.format("Not a recipe ETag:  If-Match = %s", ifMatch)));
         } catch (JsonProcessingException ex) {
             return Mono.just(ResponseEntity.internalServerError().build());
         }
     }
 
+    /**
+     * Get the version of the recipe an If-Match header requires, or null if any version will do.  The ETag of any
+     * variant of the recipe names its version, and so does a bare version.
+     * @param ifMatch
+     * @return The version, null when there is no If-Match header or it is *
+     */
+    private static Long parseIfMatch(final String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+
+        var eTag = ifMatch.trim().replace("\"", "");
+        var separator = eTag.indexOf(ETAG_VARIANT_SEPARATOR);
+
+        return Long.valueOf(separator < 0 ? eTag : eTag.substring(0, separator));
+    }
+
+    private static ResponseEntity<?> getPreconditionFailedResponse(final String message) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(message);
+    }
+
     /**
      * Delete a recipe by recipe id.
      * @param id
@@ -222,11 +557,55 @@ public class RecipeController {
     )
     public Mono<ResponseEntity<?>> deleteRecipe(@PathVariable("id") final long id) {
         Mono<ResponseEntity<?>> response =  recipeService.deleteRecipeById(id)
+            .doOnNext(recipeResponseCache::invalidate)
             .map(recipeId -> ResponseEntity.ok(String.format("Deleted recipe %d", recipeId)));
 
         return response.switchIfEmpty(Mono.just(ResponseEntity.notFound().build()));
     }
 
+    /**
+     * Delete recipes in bulk by a JSON array of recipe ids.  The recipes are deleted a chunk at a time, and the
+     * progress after each chunk is streamed as newline delimited JSON.
+     * @param ids
+     * @return The progress after each chunk is deleted
+     */
+    @Timed
+    @PostMapping(path = "/delete",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE
+    )
+    public ResponseEntity<?> deleteRecipes(@RequestBody final List<Long> ids) {
+        if (ids == null || ids.isEmpty() || ids.size() > MAXIMUM_RECIPE_IDS || ids.stream().anyMatch(Objects::isNull)) {
+            return ResponseEntity.badRequest()
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(String.format("Between 1 and %d recipe ids are required", MAXIMUM_RECIPE_IDS));
+        }
+
+        return ResponseEntity.ok(recipeService.deleteRecipesByIds(ids));
+    }
+
+    /**
+     * Delete all recipes last modified before a date time.  The recipes are deleted a chunk at a time, and the
+     * progress after each chunk is streamed as newline delimited JSON.
+     * @param lastModifiedBefore ISO-8601 local date time, such as 2023-01-31T00:00:00
+     * @return The progress after each chunk is deleted
+     */
+    @Timed
+    @DeleteMapping(path = "/delete",
+            produces = MediaType.APPLICATION_NDJSON_VALUE
+    )
+    public ResponseEntity<?> deleteRecipesLastModifiedBefore(
+            @RequestParam(value = "last-modified-before") final String lastModifiedBefore) {
+
+        try {
+            return ResponseEntity.ok(recipeService.deleteRecipesLastModifiedBefore(LocalDateTime.parse(lastModifiedBefore)));
+        } catch (DateTimeParseException ex) {
+            return ResponseEntity.badRequest()
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(String.format("Invalid last-modified-before:  %s", lastModifiedBefore));
+        }
+    }
+
     /**
      * Search for recipes.
      * @param searchString
@@ -256,56 +635,407 @@ public class RecipeController {
         });
     }
 
-    private Mono<ResponseEntity<?>> listRecipesWithHyperLinks(final Long pageNumber, final Integer pageSize) {
-        return Mono.zip(recipeService.getAllRecipes(pageNumber, pageSize).collectList(),
-            recipeService.getRecipeCount()
-        ).map(tuple -> {
+    private Mono<ResponseEntity<?>> getRecipesResponse(final List<Long> ids, final Boolean includeHyperLinks,
+                                                       final boolean includeSelfLink) {
+        if (ids == null || ids.isEmpty() || ids.size() > MAXIMUM_RECIPE_IDS || ids.stream().anyMatch(Objects::isNull)) {
+            return Mono.just(ResponseEntity.badRequest()
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(String.format("Between 1 and %d recipe ids are required:  ids = %s", MAXIMUM_RECIPE_IDS, ids)));
+        }
+
+        return recipeService.getRecipesByIds(ids).map(recipesByIds -> {
+            try {
+                var response = ResponseEntity.ok();
+
+                if (!recipesByIds.getMissingRecipeIds().isEmpty()) {
+                    response.header(MISSING_RECIPE_IDS_HEADER, recipesByIds.getMissingRecipeIds().stream()
+                        .map(String::valueOf)
+                        .collect(Collectors.joining(",")));
+                }
+
+                if (includeHyperLinks) {
+                    var recipeCollectionModel = new RecipesByIdsModel(
+                        recipeResourceAssembler.toCollectionModel(recipesByIds.getRecipes()),
+                        recipesByIds.getMissingRecipeIds());
+
+                    if (includeSelfLink) {
+                        recipeCollectionModel.add(linkTo(methodOn(RecipeController.class).getRecipes(ids, true)).withSelfRel());
+                    }
+
+                    return response
+                        .contentType(de.ingogriebsch.spring.hateoas.siren.MediaTypes.SIREN_JSON)
+                        .body(objectMapper.writeValueAsString(recipeCollectionModel));
+                }
+
+                return response
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(objectMapper.writeValueAsString(recipesByIds));
+            } catch (JsonProcessingException ex) {
+                return ResponseEntity.internalServerError().build();
+            }
+        });
+    }
+
+    private Mono<ResponseEntity<?>> listRecipesWithHyperLinks(final Long pageNumber, final Integer pageSize,
+                                                              final RecipeCountMode countMode,
+                                                              final RecipeView view,
+                                                              final ServerWebExchange exchange) {
+        var variant = getVariant(SIREN_VARIANT, view);
+        var pageETag = Mono.defer(() -> Mono.zip(
+                recipeService.getAllRecipeVersions(pageNumber, pageSize).collectList(),
+                recipeService.getRecipeCount(countMode)))
+            .map(tuple -> getPageETag(tuple.getT1(), variant + tuple.getT2()));
+
+        return getPageUnlessNotModified(exchange, pageETag, Mono.defer(() -> Mono.zip(
+            recipeService.getAllRecipes(pageNumber, pageSize, view).collectList(),
+            recipeService.getRecipeCount(countMode)
+        )).map(tuple -> {
             try {
-                var recipeCollectionModel = recipeResourceAssembler.toCollectionModel(tuple.getT1());
+                var recipeModels = getRecipeModels(tuple.getT1(), view);
 
                 var metadata = new PagedModel.PageMetadata(tuple.getT1().size(), pageNumber, tuple.getT2(),
-                    (tuple.getT2() / pageNumber));
+                    getTotalPages(tuple.getT2(), pageSize));
                 Link link = linkTo(
-                    methodOn(RecipeController.class).listRecipes(pageNumber, pageSize, true))
-                    .withSelfRel()
+                    methodOn(RecipeController.class).listRecipes(pageNumber, pageSize, null, null,
+                        countMode.name().toLowerCase(), true, getViewParameterValue(view), null)).withSelfRel()
                     .andAffordance(afford(methodOn(RecipeController.class)
                         .addRecipe(objectMapper.writeValueAsString(SAMPLE_RECIPE), false)));
-                var pagedModel = PagedModel.of(recipeCollectionModel.getContent(), metadata, link);
+                var pagedModel = PagedModel.of(recipeModels, metadata, link);
 
                 return ResponseEntity.ok()
                     .contentType(de.ingogriebsch.spring.hateoas.siren.MediaTypes.SIREN_JSON)
+                    .eTag(getPageETag(getRecipeVersions(tuple.getT1()), variant + tuple.getT2()))
                     .body(objectMapper.writeValueAsString(pagedModel));
             } catch (JsonProcessingException ex) {
                 return ResponseEntity.internalServerError().build();
             }
-        });
+        }));
     }
 
-    private Mono<ResponseEntity<?>> listRecipesWithoutHyperLinks(final Long pageNumber, final Integer pageSize) {
-        return recipeService.getAllRecipes(pageNumber, pageSize).collectList().map(recipes -> {
+    private Mono<ResponseEntity<?>> listRecipesWithoutHyperLinks(final Long pageNumber, final Integer pageSize,
+                                                                 final RecipeView view,
+                                                                 final ServerWebExchange exchange) {
+        var variant = getVariant(JSON_VARIANT, view);
+        var pageETag = Mono.defer(() -> recipeService.getAllRecipeVersions(pageNumber, pageSize).collectList())
+            .map(versions -> getPageETag(versions, variant));
+
+        return getPageUnlessNotModified(exchange, pageETag, Mono.defer(() ->
+            recipeService.getAllRecipes(pageNumber, pageSize, view).collectList()
+        ).map(recipes -> {
             try {
                 return ResponseEntity.ok()
                     .contentType(MediaType.APPLICATION_JSON)
-                    .body(objectMapper.writeValueAsString(recipes));
+                    .eTag(getPageETag(getRecipeVersions(recipes), variant))
+                    .body(objectMapper.writeValueAsString(getRecipesBody(recipes, view)));
             } catch (JsonProcessingException ex) {
                 return ResponseEntity.internalServerError().build();
             }
-        });
+        }));
+    }
+
+    private Mono<ResponseEntity<?>> listRecipesAfterCursor(final String cursor, final String sort, final int pageSize,
+                                                          final RecipeView view, final Boolean includeHyperLinks,
+                                                          final ServerWebExchange exchange) {
+        if (pageSize < 1) {
+            return Mono.just(ResponseEntity.badRequest()
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(String.format("Page size must be at least 1:  page-size = %d", pageSize)));
+        }
+
+        RecipeSortKey sortKey;
+        RecipeCursor after;
+
+        try {
+            after = parseCursor(cursor);
+            sortKey = parseSortKey(sort, after);
+        } catch (IllegalArgumentException ex) {
+            return Mono.just(ResponseEntity.badRequest()
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(ex.getMessage()));
+        }
+
+        final var pageSortKey = sortKey;
+        final var pageAfter = after;
+        var variant = getVariant(includeHyperLinks ? SIREN_VARIANT : JSON_VARIANT, view);
+        var pageETag = Mono.defer(() -> recipeService.getRecipeVersionsAfter(pageSortKey, pageAfter, pageSize).collectList())
+            .map(versions -> getPageETag(versions, variant));
+
+        return getPageUnlessNotModified(exchange, pageETag, Mono.defer(() ->
+            recipeService.getRecipesAfter(pageSortKey, pageAfter, pageSize, view).collectList()
+        ).map(recipes -> {
+            try {
+                var nextLink = recipes.size() < pageSize
+                    ? null
+                    : linkTo(methodOn(RecipeController.class).listRecipes(1, pageSize,
+                        RecipeCursor.after(pageSortKey, recipes.get(recipes.size() - 1)).encode(), null, null,
+                        includeHyperLinks, getViewParameterValue(view), null)).withRel(IanaLinkRelations.NEXT);
+
+                if (includeHyperLinks) {
+                    var recipeModels = getRecipeModels(recipes, view);
+                    var links = new ArrayList<Link>();
+
+                    links.add(linkTo(methodOn(RecipeController.class)
+                        .listRecipes(1, pageSize, cursor, sort, null, true, getViewParameterValue(view), null))
+                        .withSelfRel()
+                        .andAffordance(afford(methodOn(RecipeController.class)
+                            .addRecipe(objectMapper.writeValueAsString(SAMPLE_RECIPE), false))));
+
+                    if (nextLink != null) {
+                        links.add(nextLink);
+                    }
+
+                    var pagedModel = PagedModel.of(recipeModels, null, links);
+
+                    return ResponseEntity.ok()
+                        .contentType(de.ingogriebsch.spring.hateoas.siren.MediaTypes.SIREN_JSON)
+                        .eTag(getPageETag(getRecipeVersions(recipes), variant))
+                        .body(objectMapper.writeValueAsString(pagedModel));
+                }
+
+                var response = ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .eTag(getPageETag(getRecipeVersions(recipes), variant));
+
+                if (nextLink != null) {
+                    response.header(HttpHeaders.LINK, nextLink.toString());
+                }
+
+                return response.body(objectMapper.writeValueAsString(getRecipesBody(recipes, view)));
+            } catch (JsonProcessingException ex) {
+                return ResponseEntity.internalServerError().build();
+            }
+        }));
+    }
+
+    /**
+     * Get a page, unless the request is conditional on If-None-Match and the page's ETag, computed from the versions
+     * of its recipes, still matches, in which case not modified is returned without loading the page.  A page has no
+     * Last-Modified, because deleting a recipe from the page doesn't make any of its recipes more recently modified.
+     * @param exchange
+     * @param pageETag
+     * @param page
+     * @return The page or not modified
+     */
+    private static Mono<ResponseEntity<?>> getPageUnlessNotModified(final ServerWebExchange exchange,
+                                                                   final Mono<String> pageETag,
+                                                                   final Mono<ResponseEntity<?>> page) {
+        if (exchange.getRequest().getHeaders().getIfNoneMatch().isEmpty()) {
+            return page;
+        }
+
+        return pageETag.flatMap(eTag -> exchange.checkNotModified(eTag)
+            ? Mono.just(getNotModifiedResponse(exchange))
+            : page);
+    }
+
+    /**
+     * Get the ETag of a page from the ids and versions of its recipes and the variant of its representation.
+     * @param versions
+     * @param variant
+     * @return The ETag
+     */
+    private static String getPageETag(final List<RecipeVersion> versions, final String variant) {
+        var content = new StringBuilder(variant);
+
+        versions.forEach(version -> content.append(';').append(version.getRecipeId()).append(':')
+            .append(version.getVersion()));
+
+        return DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Get the variant of the ETag of a recipe or page in a view, keeping the variant of the full view as it was.
+     * @param variant
+     * @param view
+     * @return The variant
+     */
+    private static String getVariant(final String variant, final RecipeView view) {
+        return view == RecipeView.FULL ? variant : variant + '-' + view.name().toLowerCase();
+    }
+
+    /**
+     * Get the value of the view request parameter that keeps a view in a link, which is left out for the full view,
+     * the default.
+     * @param view
+     * @return The value of the view request parameter, or null for the full view
+     */
+    private static String getViewParameterValue(final RecipeView view) {
+        return view == RecipeView.FULL ? null : view.name().toLowerCase();
+    }
+
+    /**
+     * Get the entities of a page of recipes with hyper-links in a view.
+     * @param recipes
+     * @param view
+     * @return The entities
+     */
+    private Collection<?> getRecipeModels(final List<Recipe> recipes, final RecipeView view) {
+        if (view == RecipeView.SUMMARY) {
+            return recipes.stream().map(RecipeController::getRecipeSummaryModel).toList();
+        }
+
+        return recipeResourceAssembler.toCollectionModel(recipes).getContent();
+    }
+
+    /**
+     * Get the body of a page of recipes as JSON in a view.
+     * @param recipes
+     * @param view
+     * @return The recipes, or their summaries
+     */
+    private static List<?> getRecipesBody(final List<Recipe> recipes, final RecipeView view) {
+        if (view == RecipeView.SUMMARY) {
+            return recipes.stream().map(RecipeSummary::of).toList();
+        }
+
+        return recipes;
+    }
+
+    /**
+     * Get the body of a stream of recipes in a view.
+     * @param recipes
+     * @param view
+     * @return The recipes, or their summaries
+     */
+    private static Flux<?> getStreamBody(final Flux<Recipe> recipes, final RecipeView view) {
+        if (view == RecipeView.SUMMARY) {
+            return recipes.map(RecipeSummary::of);
+        }
+
+        return recipes;
+    }
+
+    private static EntityModel<RecipeSummary> getRecipeSummaryModel(final Recipe recipe) {
+        return EntityModel.of(RecipeSummary.of(recipe), linkTo(methodOn(RecipeController.class)
+            .getRecipe(recipe.getRecipeId(), false, null, null)).withSelfRel());
+    }
+
+    private static List<RecipeVersion> getRecipeVersions(final List<Recipe> recipes) {
+        return recipes.stream().map(RecipeVersion::of).toList();
+    }
+
+    /**
+     * Get the ETag of a recipe from its version and the variant of its representation, so the JSON and Siren bodies
+     * and the views of a version each have their own ETag.
+     * @param version
+     * @param includeHyperLinks
+     * @param view
+     * @return The ETag, null if the recipe has no version
+     */
+    private static String getETag(final Long version, final Boolean includeHyperLinks, final RecipeView view) {
+        if (version == null) {
+            return null;
+        }
+
+        return version + ETAG_VARIANT_SEPARATOR + getVariant(includeHyperLinks ? SIREN_VARIANT : JSON_VARIANT, view);
+    }
+
+    private static Instant getLastModified(final LocalDateTime lastModifiedDateTime) {
+        return lastModifiedDateTime.atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    private static ResponseEntity<?> getNotModifiedResponse(final ServerWebExchange exchange) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+            .headers(exchange.getResponse().getHeaders())
+            .build();
+    }
+
+    private static long getTotalPages(final long totalElements, final int pageSize) {
+        if (pageSize < 1) {
+            return totalElements > 0 ? 1 : 0;
+        }
+
+        return Math.ceilDiv(totalElements, pageSize);
+    }
+
+    private static RecipeCursor parseCursor(final String cursor) {
+        return cursor == null || cursor.isEmpty() ? null : RecipeCursor.decode(cursor);
+    }
+
+    private static RecipeSortKey parseSortKey(final String sort, final RecipeCursor after) {
+        var sortKey = sort == null ? null : RecipeSortKey.fromParameterValue(sort);
+
+        if (after == null) {
+            return sortKey == null ? RecipeSortKey.RECIPE_ID : sortKey;
+        }
+
+        if (sortKey != null && sortKey != after.getSortKey()) {
+            throw new IllegalArgumentException(String.format("Cursor does not match sort:  sort = %s", sort));
+        }
+
+        return after.getSortKey();
     }
 
     private ResponseEntity<?> getRecipeResponse(final Boolean includeHyperLinks, final Recipe recipe) {
+        var response = getRecipeResponseBuilder(includeHyperLinks, recipe, RecipeView.FULL);
+
         try {
             if (includeHyperLinks) {
-                return ResponseEntity.ok()
-                        .contentType(de.ingogriebsch.spring.hateoas.siren.MediaTypes.SIREN_JSON)
-                        .body(objectMapper.writeValueAsString(recipeResourceAssembler.toModel(recipe)));
+                return response.body(objectMapper.writeValueAsString(recipeResourceAssembler.toModel(recipe)));
             } else {
-                return ResponseEntity.ok()
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .body(objectMapper.writeValueAsString(recipe));
+                return response.body(objectMapper.writeValueAsString(recipe));
             }
         } catch (JsonProcessingException ex) {
             return ResponseEntity.internalServerError().build();
         }
     }
+
+    private ResponseEntity<?> getRecipeSummaryResponse(final Boolean includeHyperLinks, final Recipe recipe) {
+        var response = getRecipeResponseBuilder(includeHyperLinks, recipe, RecipeView.SUMMARY);
+
+        try {
+            if (includeHyperLinks) {
+                return response.body(objectMapper.writeValueAsString(getRecipeSummaryModel(recipe)));
+            } else {
+                return response.body(objectMapper.writeValueAsString(RecipeSummary.of(recipe)));
+            }
+        } catch (JsonProcessingException ex) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Get the response for a recipe from the body cached for its version, encoding and caching the body if it isn't
+     * cached.  The body is written as the encoded bytes, so a cached body isn't encoded again.
+     * @param includeHyperLinks
+     * @param recipe
+     * @return The response
+     */
+    private ResponseEntity<?> getCachedRecipeResponse(final Boolean includeHyperLinks, final Recipe recipe) {
+        var content = recipeResponseCache.get(recipe, includeHyperLinks);
+
+        if (content == null) {
+            try {
+                if (includeHyperLinks) {
+                    content = objectMapper.writeValueAsBytes(recipeResourceAssembler.toModel(recipe));
+                } else {
+                    content = objectMapper.writeValueAsBytes(recipe);
+                }
+            } catch (JsonProcessingException ex) {
+                return ResponseEntity.internalServerError().build();
+            }
+
+            recipeResponseCache.put(recipe, includeHyperLinks, content);
+        }
+
+        return getRecipeResponseBuilder(includeHyperLinks, recipe, RecipeView.FULL)
+            .body(DefaultDataBufferFactory.sharedInstance.wrap(content));
+    }
+
+    private ResponseEntity.BodyBuilder getRecipeResponseBuilder(final Boolean includeHyperLinks, final Recipe recipe,
+                                                                final RecipeView view) {
+        var response = ResponseEntity.ok();
+
+        if (recipe.getVersion() != null) {
+            response.eTag(getETag(recipe.getVersion(), includeHyperLinks, view));
+        }
+
+        if (recipe.getLastModifiedDateTime() != null) {
+            response.lastModified(getLastModified(recipe.getLastModifiedDateTime()));
+        }
+
+        return response.contentType(includeHyperLinks
+            ? de.ingogriebsch.spring.hateoas.siren.MediaTypes.SIREN_JSON
+            : MediaType.APPLICATION_JSON);
+    }
 }
@@ -0,0 +1,110 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.grego.recipeservice.model.Recipe;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * RecipeResponseCache holds the encoded body of a recipe as it is returned by get recipe, by recipe id and whether
+ * it includes hyper-links, so a recipe that is read often is serialized once per version.  A body is only returned
+ * for the version of the recipe it was encoded from.  Bodies are evicted by Caffeine's W-TinyLFU policy when there are
+ * more than service.recipe_response_cache_size of them, and expire service.recipe_response_cache_ttl after they were
+ * encoded.  Hits, misses and evictions are recorded as cache metrics named recipe-responses.
+ */
+@Component
+public class RecipeResponseCache {
+    /**
+     * Name of the cache in its metrics.
+     */
+    public static final String CACHE_NAME = "recipe-responses";
+
+    /**
+     * Encoded bodies by recipe id and representation, or null when the cache is disabled.
+     */
+    private final Cache<Key, Body> bodies;
+
+    /**
+     * Constructor to build RecipeResponseCache.
+     * @param maximumSize Maximum number of bodies cached, 0 to disable the cache
+     * @param timeToLive How long a body is cached after it was encoded
+     */
+    public RecipeResponseCache(@Value("${service.recipe_response_cache_size:10000}") final long maximumSize,
+                               @Value("${service.recipe_response_cache_ttl:10m}") final Duration timeToLive) {
+        if (maximumSize > 0) {
+            this.bodies = CaffeineCacheMetrics.monitor(Metrics.globalRegistry, Caffeine.newBuilder()
+                    .maximumSize(maximumSize)
+                    .expireAfterWrite(timeToLive)
+                    .recordStats()
+                    .<Key, Body>build(), CACHE_NAME);
+        } else {
+            this.bodies = null;
+        }
+    }
+
+    /**
+     * Get the encoded body of a recipe.
+     * @param recipe
+     * @param includeHyperLinks
+     * @return The body, or null if the recipe's version isn't cached
+     */
+    public byte[] get(final Recipe recipe, final boolean includeHyperLinks) {
+        if (bodies == null || recipe.getVersion() == null) {
+            return null;
+        }
+
+        var body = bodies.getIfPresent(new Key(recipe.getRecipeId(), includeHyperLinks));
+
+        return body != null && body.version() == recipe.getVersion() ? body.content() : null;
+    }
+
+    /**
+     * Cache the encoded body of a recipe.  A recipe without a version isn't cached.
+     * @param recipe
+     * @param includeHyperLinks
+     * @param content
+     */
+    public void put(final Recipe recipe, final boolean includeHyperLinks, final byte[] content) {
+        if (bodies != null && recipe.getVersion() != null) {
+            bodies.put(new Key(recipe.getRecipeId(), includeHyperLinks), new Body(recipe.getVersion(), content));
+        }
+    }
+
+    /**
+     * Remove the bodies of a recipe from the cache.
+     * @param recipeId
+     */
+    public void invalidate(final long recipeId) {
+        if (bodies != null) {
+            bodies.invalidate(new Key(recipeId, false));
+            bodies.invalidate(new Key(recipeId, true));
+        }
+    }
+
+    /**
+     * Key of an encoded body.
+     * @param recipeId
+     * @param includeHyperLinks
+     */
+    private record Key(long recipeId, boolean includeHyperLinks) {
+    }
+
+    /**
+     * Encoded body and the version of the recipe it was encoded from.
+     * @param version
+     * @param content
+     */
+    private record Body(long version, byte[] content) {
+    }
+}
@@ -0,0 +1,36 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice.controller;
+
+import lombok.Getter;
+import org.grego.recipeservice.model.Recipe;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+
+import java.util.List;
+
+/**
+ * RecipesByIdsModel is the hyper-linked collection of the recipes found for a list of recipe ids, with the ids that
+ * have no recipe as a property of the collection.
+ */
+@Getter
+public final class RecipesByIdsModel extends CollectionModel<EntityModel<Recipe>> {
+    /**
+     * Ids without a recipe, in the order they were asked for.
+     */
+    private final List<Long> missingRecipeIds;
+
+    /**
+     * Constructor for RecipesByIdsModel.
+     * @param recipes
+     * @param missingIds
+     */
+    public RecipesByIdsModel(final CollectionModel<EntityModel<Recipe>> recipes, final List<Long> missingIds) {
+        super(recipes.getContent(), recipes.getLinks(), null);
+        this.missingRecipeIds = missingIds;
+    }
+}
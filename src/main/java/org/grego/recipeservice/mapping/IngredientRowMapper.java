@@ -0,0 +1,90 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice.mapping;
+
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import org.grego.recipeservice.model.Ingredient;
+import org.grego.recipeservice.model.QuantitySpecifier;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Ingredient row mapper reads an Ingredient straight from a row, by column index and with the column's native type,
+ * without first copying the row into a map.  The row must hold the columns in the order of COLUMN_NAMES, starting at
+ * the first column of the mapper.  The quantity is a DECIMAL column, so it's read as a BigDecimal, its native type.
+ */
+public final class IngredientRowMapper implements BiFunction<Row, RowMetadata, Ingredient> {
+    /**
+     * Names of the columns read, in the order they're read.
+     */
+    public static final List<String> COLUMN_NAMES = List.of(Ingredient.INGREDIENT_ID_COLUMN_NAME,
+            Ingredient.INGREDIENT_NUMBER_COLUMN_NAME, Ingredient.INGREDIENT_COLUMN_NAME,
+            Ingredient.QUANTITY_SPECIFIER_COLUMN_NAME, Ingredient.QUANTITY_COLUMN_NAME);
+
+    /**
+     * Mapper for rows that start with the ingredient columns.
+     */
+    public static final IngredientRowMapper INSTANCE = new IngredientRowMapper(0);
+
+    /**
+     * Index of the ingredient id column.
+     */
+    private static final int INGREDIENT_ID = COLUMN_NAMES.indexOf(Ingredient.INGREDIENT_ID_COLUMN_NAME);
+
+    /**
+     * Index of the ingredient number column.
+     */
+    private static final int INGREDIENT_NUMBER = COLUMN_NAMES.indexOf(Ingredient.INGREDIENT_NUMBER_COLUMN_NAME);
+
+    /**
+     * Index of the ingredient column.
+     */
+    private static final int INGREDIENT = COLUMN_NAMES.indexOf(Ingredient.INGREDIENT_COLUMN_NAME);
+
+    /**
+     * Index of the quantity specifier column.
+     */
+    private static final int QUANTITY_SPECIFIER = COLUMN_NAMES.indexOf(Ingredient.QUANTITY_SPECIFIER_COLUMN_NAME);
+
+    /**
+     * Index of the quantity column.
+     */
+    private static final int QUANTITY = COLUMN_NAMES.indexOf(Ingredient.QUANTITY_COLUMN_NAME);
+
+    /**
+     * Index of the column holding the ingredient id.
+     */
+    private final int firstColumn;
+
+    /**
+     * Constructor to build IngredientRowMapper.
+     * @param column Index of the column holding the ingredient id
+     */
+    public IngredientRowMapper(final int column) {
+        this.firstColumn = column;
+    }
+
+    /**
+     * Read the ingredient from the row.
+     * @param row
+     * @param rowMetadata
+     * @return The ingredient
+     */
+    @Override
+    public Ingredient apply(final Row row, final RowMetadata rowMetadata) {
+        return Ingredient.builder()
+                .ingredientId(row.get(firstColumn + INGREDIENT_ID, Long.class))
+                .ingredientNumber(row.get(firstColumn + INGREDIENT_NUMBER, Integer.class))
+                .ingredient(row.get(firstColumn + INGREDIENT, String.class))
+                .quantitySpecifier(QuantitySpecifier.valueOf(row.get(firstColumn + QUANTITY_SPECIFIER, String.class)))
+                .quantity(row.get(firstColumn + QUANTITY, BigDecimal.class).doubleValue())
+                .build();
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice.mapping;
+
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import org.grego.recipeservice.model.Instruction;
+
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Instruction row mapper reads an Instruction straight from a row, by column index and with the column's native type,
+ * without first copying the row into a map.  The row must hold the columns in the order of COLUMN_NAMES, starting at
+ * the first column of the mapper.
+ */
+public final class InstructionRowMapper implements BiFunction<Row, RowMetadata, Instruction> {
+    /**
+     * Names of the columns read, in the order they're read.
+     */
+    public static final List<String> COLUMN_NAMES = List.of(Instruction.INSTRUCTION_ID_COLUMN_NAME,
+            Instruction.INSTRUCTION_NUMBER_COLUMN_NAME, Instruction.INSTRUCTION_COLUMN_NAME);
+
+    /**
+     * Mapper for rows that start with the instruction columns.
+     */
+    public static final InstructionRowMapper INSTANCE = new InstructionRowMapper(0);
+
+    /**
+     * Index of the instruction id column.
+     */
+    private static final int INSTRUCTION_ID = COLUMN_NAMES.indexOf(Instruction.INSTRUCTION_ID_COLUMN_NAME);
+
+    /**
+     * Index of the instruction number column.
+     */
+    private static final int INSTRUCTION_NUMBER = COLUMN_NAMES.indexOf(Instruction.INSTRUCTION_NUMBER_COLUMN_NAME);
+
+    /**
+     * Index of the instruction column.
+     */
+    private static final int INSTRUCTION = COLUMN_NAMES.indexOf(Instruction.INSTRUCTION_COLUMN_NAME);
+
+    /**
+     * Index of the column holding the instruction id.
+     */
+    private final int firstColumn;
+
+    /**
+     * Constructor to build InstructionRowMapper.
+     * @param column Index of the column holding the instruction id
+     */
+    public InstructionRowMapper(final int column) {
+        this.firstColumn = column;
+    }
+
+    /**
+     * Read the instruction from the row.
+     * @param row
+     * @param rowMetadata
+     * @return The instruction
+     */
+    @Override
+    public Instruction apply(final Row row, final RowMetadata rowMetadata) {
+        return Instruction.builder()
+                .instructionId(row.get(firstColumn + INSTRUCTION_ID, Long.class))
+                .instructionNumber(row.get(firstColumn + INSTRUCTION_NUMBER, Integer.class))
+                .instruction(row.get(firstColumn + INSTRUCTION, String.class))
+                .build();
+    }
+}
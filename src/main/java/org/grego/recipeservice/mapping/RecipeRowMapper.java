@@ -0,0 +1,102 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice.mapping;
+
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import org.grego.recipeservice.model.Recipe;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Recipe row mapper reads a Recipe, without its ingredients and instructions, straight from a row by column index
+ * and with the column's native type, instead of looking each property up through the converter.  The row must hold
+ * the columns in the order of COLUMN_NAMES, starting at the first column.
+ */
+public final class RecipeRowMapper implements BiFunction<Row, RowMetadata, Recipe> {
+    /**
+     * Names of the columns read, in the order they're read.
+     */
+    public static final List<String> COLUMN_NAMES = List.of(Recipe.RECIPE_ID_COLUMN_NAME, Recipe.NAME_COLUMN_NAME,
+            Recipe.VARIATION_COLUMN_NAME, Recipe.DESCRIPTION_COLUMN_NAME, Recipe.VERSION_COLUMN_NAME,
+            Recipe.CREATION_DATE_TIME_COLUMN_NAME, Recipe.LAST_MODIFIED_DATE_TIME_COLUMN_NAME);
+
+    /**
+     * Mapper for rows that start with the recipe columns.
+     */
+    public static final RecipeRowMapper INSTANCE = new RecipeRowMapper();
+
+    /**
+     * Index of the recipe id column.
+     */
+    private static final int RECIPE_ID = COLUMN_NAMES.indexOf(Recipe.RECIPE_ID_COLUMN_NAME);
+
+    /**
+     * Index of the name column.
+     */
+    private static final int NAME = COLUMN_NAMES.indexOf(Recipe.NAME_COLUMN_NAME);
+
+    /**
+     * Index of the variation column.
+     */
+    private static final int VARIATION = COLUMN_NAMES.indexOf(Recipe.VARIATION_COLUMN_NAME);
+
+    /**
+     * Index of the description column.
+     */
+    private static final int DESCRIPTION = COLUMN_NAMES.indexOf(Recipe.DESCRIPTION_COLUMN_NAME);
+
+    /**
+     * Index of the version column.
+     */
+    private static final int VERSION = COLUMN_NAMES.indexOf(Recipe.VERSION_COLUMN_NAME);
+
+    /**
+     * Index of the creation date time column.
+     */
+    private static final int CREATION_DATE_TIME = COLUMN_NAMES.indexOf(Recipe.CREATION_DATE_TIME_COLUMN_NAME);
+
+    /**
+     * Index of the last modified date time column.
+     */
+    private static final int LAST_MODIFIED_DATE_TIME = COLUMN_NAMES.indexOf(Recipe.LAST_MODIFIED_DATE_TIME_COLUMN_NAME);
+
+    private RecipeRowMapper() {
+    }
+
+    /**
+     * Get the columns read, as a SQL select list.
+     * @param alias Alias of the recipes table, or empty for none
+     * @return The columns, separated by commas
+     */
+    public static String getSelectList(final String alias) {
+        var prefix = alias.isEmpty() ? "" : alias + ".";
+
+        return String.join(", ", COLUMN_NAMES.stream().map(column -> prefix + column).toList());
+    }
+
+    /**
+     * Read the recipe from the row.
+     * @param row
+     * @param rowMetadata
+     * @return The recipe
+     */
+    @Override
+    public Recipe apply(final Row row, final RowMetadata rowMetadata) {
+        return Recipe.builder()
+                .recipeId(row.get(RECIPE_ID, Long.class))
+                .name(row.get(NAME, String.class))
+                .variation(row.get(VARIATION, Integer.class))
+                .description(row.get(DESCRIPTION, String.class))
+                .version(row.get(VERSION, Long.class))
+                .creationDateTime(row.get(CREATION_DATE_TIME, LocalDateTime.class))
+                .lastModifiedDateTime(row.get(LAST_MODIFIED_DATE_TIME, LocalDateTime.class))
+                .build();
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice.mapping;
+
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import org.grego.recipeservice.model.Recipe;
+import org.grego.recipeservice.model.RecipeVersion;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Recipe version row mapper reads a RecipeVersion straight from a row, by column index and with the column's native
+ * type.  The row must hold the columns in the order of COLUMN_NAMES.
+ */
+public final class RecipeVersionRowMapper implements BiFunction<Row, RowMetadata, RecipeVersion> {
+    /**
+     * Names of the columns read, in the order they're read.
+     */
+    public static final List<String> COLUMN_NAMES = List.of(Recipe.RECIPE_ID_COLUMN_NAME, Recipe.VERSION_COLUMN_NAME,
+            Recipe.LAST_MODIFIED_DATE_TIME_COLUMN_NAME);
+
+    /**
+     * The select list of the columns read.
+     */
+    public static final String SELECT_LIST = String.join(", ", COLUMN_NAMES);
+
+    /**
+     * Mapper for rows that hold the recipe version columns.
+     */
+    public static final RecipeVersionRowMapper INSTANCE = new RecipeVersionRowMapper();
+
+    /**
+     * Index of the recipe id column.
+     */
+    private static final int RECIPE_ID = COLUMN_NAMES.indexOf(Recipe.RECIPE_ID_COLUMN_NAME);
+
+    /**
+     * Index of the version column.
+     */
+    private static final int VERSION = COLUMN_NAMES.indexOf(Recipe.VERSION_COLUMN_NAME);
+
+    /**
+     * Index of the last modified date time column.
+     */
+    private static final int LAST_MODIFIED_DATE_TIME = COLUMN_NAMES.indexOf(Recipe.LAST_MODIFIED_DATE_TIME_COLUMN_NAME);
+
+    private RecipeVersionRowMapper() {
+    }
+
+    /**
+     * Read the recipe version from the row.
+     * @param row
+     * @param rowMetadata
+     * @return The recipe version
+     */
+    @Override
+    public RecipeVersion apply(final Row row, final RowMetadata rowMetadata) {
+        return new RecipeVersion(row.get(RECIPE_ID, Long.class), row.get(VERSION, Long.class),
+                row.get(LAST_MODIFIED_DATE_TIME, LocalDateTime.class));
+    }
+}
@@ -4,7 +4,7 @@
  *
  * @author Greg-O
  *
- * Mappers for converting models to documents and documents to models.
+ * Mappers for converting models to documents and documents to models, and for reading models from rows.
  */
 @CheckReturnValue
 @ParametersAreNonnullByDefault
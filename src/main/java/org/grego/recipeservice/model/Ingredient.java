@@ -49,6 +49,11 @@ public class Ingredient {
      */
     public static final String INGREDIENT_ID_COLUMN_NAME = "ingredient_id";
 
+    /**
+     * Name of the column in the database holding the id of the recipe the ingredient belongs to.
+     */
+    public static final String RECIPE_ID_COLUMN_NAME = "recipe_id";
+
     /**
      * Name of the ingredient column in the database.
      */
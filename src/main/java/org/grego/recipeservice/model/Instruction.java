@@ -46,6 +46,11 @@ public class Instruction {
      */
     public static final String INSTRUCTION_ID_COLUMN_NAME = "instruction_id";
 
+    /**
+     * Name of the column in the database holding the id of the recipe the instruction belongs to.
+     */
+    public static final String RECIPE_ID_COLUMN_NAME = "recipe_id";
+
     /**
      * The name of the instruction column in the database.
      */
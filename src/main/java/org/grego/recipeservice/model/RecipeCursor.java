@@ -0,0 +1,105 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * RecipeCursor marks the last recipe of a page so the next page can be read by seeking past it
+ * instead of skipping an offset.  Clients only see it as an opaque string.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public final class RecipeCursor {
+    /**
+     * Separator between the parts of the cursor.
+     */
+    private static final String SEPARATOR = ":";
+
+    /**
+     * Number of parts in the cursor.
+     */
+    private static final int NUMBER_OF_PARTS = 3;
+
+    /**
+     * The sort key of the page.
+     */
+    private final RecipeSortKey sortKey;
+
+    /**
+     * The recipe id of the last recipe of the page.
+     */
+    private final long recipeId;
+
+    /**
+     * The value of the sort key of the last recipe of the page, null when sorting by recipe id.
+     */
+    private final String sortValue;
+
+    /**
+     * Create the cursor that follows a recipe.
+     * @param sortKey
+     * @param recipe
+     * @return The cursor for the page after the recipe
+     */
+    public static RecipeCursor after(final RecipeSortKey sortKey, final Recipe recipe) {
+        return new RecipeCursor(sortKey, recipe.getRecipeId(), sortKey.formatSortValue(recipe));
+    }
+
+    /**
+     * Decode a cursor that was returned to a client.
+     * @param cursor
+     * @return The decoded cursor
+     * @throws IllegalArgumentException if the cursor is not valid
+     */
+    public static RecipeCursor decode(final String cursor) {
+        try {
+            var parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                .split(SEPARATOR, NUMBER_OF_PARTS);
+
+            if (parts.length != NUMBER_OF_PARTS) {
+                throw new IllegalArgumentException();
+            }
+
+            var sortKey = RecipeSortKey.valueOf(parts[0]);
+            var sortValue = sortKey == RecipeSortKey.RECIPE_ID ? null : parts[2];
+
+            sortKey.parseSortValue(sortValue);
+
+            return new RecipeCursor(sortKey, Long.parseLong(parts[1]), sortValue);
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new IllegalArgumentException(String.format("Invalid cursor:  cursor = %s", cursor), ex);
+        }
+    }
+
+    /**
+     * Encode the cursor so it can be returned to a client.
+     * @return The encoded cursor
+     */
+    public String encode() {
+        var value = String.join(SEPARATOR, sortKey.name(), Long.toString(recipeId), sortValue == null ? "" : sortValue);
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Get the value of the sort key so it can be bound to a query.
+     * @return The value of the sort key, or null when sorting by recipe id
+     */
+    public Object getBindableSortValue() {
+        return sortKey.parseSortValue(sortValue);
+    }
+}
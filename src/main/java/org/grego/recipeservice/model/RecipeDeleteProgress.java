@@ -0,0 +1,52 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * RecipeDeleteProgress reports a chunk of recipes deleted by a bulk delete, and how many have been deleted so far.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public final class RecipeDeleteProgress {
+    /**
+     * Progress before any chunk has been deleted.
+     */
+    public static final RecipeDeleteProgress NONE = new RecipeDeleteProgress(0, List.of(), 0);
+
+    /**
+     * Number of the chunk, starting at 1.
+     */
+    private final int chunk;
+
+    /**
+     * Ids of the recipes deleted in the chunk.
+     */
+    private final List<Long> recipeIds;
+
+    /**
+     * Number of recipes deleted by this and the previous chunks.
+     */
+    private final long totalDeleted;
+
+    /**
+     * Get the progress after the next chunk is deleted.
+     * @param deletedRecipeIds Ids of the recipes deleted in the next chunk
+     * @return Progress including the next chunk
+     */
+    public RecipeDeleteProgress next(final List<Long> deletedRecipeIds) {
+        return new RecipeDeleteProgress(chunk + 1, deletedRecipeIds, totalDeleted + deletedRecipeIds.size());
+    }
+}
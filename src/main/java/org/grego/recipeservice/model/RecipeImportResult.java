@@ -0,0 +1,57 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * RecipeImportResult reports what happened to one recipe of a bulk import, either the id it was saved with or
+ * the error that stopped it from being imported.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public final class RecipeImportResult {
+    /**
+     * Position of the recipe in the import, starting at 0.
+     */
+    private final long index;
+
+    /**
+     * Id the recipe was saved with, or null if it wasn't saved.
+     */
+    private final Long recipeId;
+
+    /**
+     * Why the recipe wasn't imported, or null if it was.
+     */
+    private final String error;
+
+    /**
+     * Get the result for a recipe that was imported.
+     * @param index
+     * @param recipeId
+     * @return Result with the recipe id
+     */
+    public static RecipeImportResult imported(final long index, final long recipeId) {
+        return new RecipeImportResult(index, recipeId, null);
+    }
+
+    /**
+     * Get the result for a recipe that wasn't imported.
+     * @param index
+     * @param error
+     * @return Result with the error
+     */
+    public static RecipeImportResult failed(final long index, final String error) {
+        return new RecipeImportResult(index, null, error);
+    }
+}
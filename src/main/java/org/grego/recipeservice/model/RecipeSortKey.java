@@ -0,0 +1,83 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * RecipeSortKey is the column a page of recipes is ordered by when paging with a cursor.
+ * Ties are broken by the recipe id so the order is always unique.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum RecipeSortKey {
+    /**
+     * Order by recipe id.
+     */
+    RECIPE_ID("recipe-id", Recipe.RECIPE_ID_COLUMN_NAME),
+    /**
+     * Order by name then recipe id.
+     */
+    NAME("name", Recipe.NAME_COLUMN_NAME),
+    /**
+     * Order by last modified date time then recipe id.
+     */
+    LAST_MODIFIED_DATE_TIME("last-modified-date-time", Recipe.LAST_MODIFIED_DATE_TIME_COLUMN_NAME);
+
+    /**
+     * The value of the sort request parameter for the sort key.
+     */
+    private final String parameterValue;
+
+    /**
+     * The name of the column in the database for the sort key.
+     */
+    private final String columnName;
+
+    /**
+     * Get the sort key for the value of the sort request parameter.
+     * @param parameterValue
+     * @return The sort key
+     */
+    public static RecipeSortKey fromParameterValue(final String parameterValue) {
+        return Arrays.stream(values())
+            .filter(sortKey -> sortKey.getParameterValue().equalsIgnoreCase(parameterValue))
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException(String.format("Unsupported sort:  sort = %s",
+                parameterValue)));
+    }
+
+    /**
+     * Get the value of the sort key for a recipe as text.
+     * @param recipe
+     * @return The value of the sort key, or null when the sort key is the recipe id
+     */
+    public String formatSortValue(final Recipe recipe) {
+        return switch (this) {
+            case RECIPE_ID -> null;
+            case NAME -> recipe.getName();
+            case LAST_MODIFIED_DATE_TIME -> recipe.getLastModifiedDateTime().toString();
+        };
+    }
+
+    /**
+     * Get the value of the sort key from text so it can be bound to a query.
+     * @param sortValue
+     * @return The value of the sort key, or null when the sort key is the recipe id
+     */
+    public Object parseSortValue(final String sortValue) {
+        return switch (this) {
+            case RECIPE_ID -> null;
+            case NAME -> sortValue;
+            case LAST_MODIFIED_DATE_TIME -> LocalDateTime.parse(sortValue);
+        };
+    }
+}
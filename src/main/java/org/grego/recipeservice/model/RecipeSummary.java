@@ -0,0 +1,51 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * RecipeSummary is the part of a recipe returned by the summary view, enough to browse recipes without their
+ * ingredients and instructions.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public final class RecipeSummary {
+    /**
+     * Id of the recipe.
+     */
+    private final long recipeId;
+
+    /**
+     * Name of the recipe.
+     */
+    private final String name;
+
+    /**
+     * Variation of the recipe name.
+     */
+    private final int variation;
+
+    /**
+     * Description of the recipe.
+     */
+    private final String description;
+
+    /**
+     * Get the summary of a recipe.
+     * @param recipe
+     * @return The recipe's summary
+     */
+    public static RecipeSummary of(final Recipe recipe) {
+        return new RecipeSummary(recipe.getRecipeId(), recipe.getName(), recipe.getVariation(), recipe.getDescription());
+    }
+}
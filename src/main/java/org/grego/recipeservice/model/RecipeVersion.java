@@ -0,0 +1,48 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * RecipeVersion identifies the state of a recipe by its version and when it was last modified, without its contents,
+ * so a client's copy of the recipe can be validated without loading it.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public final class RecipeVersion {
+    /**
+     * Id of the recipe.
+     */
+    private final long recipeId;
+
+    /**
+     * Version of the recipe.
+     */
+    private final Long version;
+
+    /**
+     * When the recipe was last modified.
+     */
+    private final LocalDateTime lastModifiedDateTime;
+
+    /**
+     * Get the version of a recipe.
+     * @param recipe
+     * @return The recipe's version
+     */
+    public static RecipeVersion of(final Recipe recipe) {
+        return new RecipeVersion(recipe.getRecipeId(), recipe.getVersion(), recipe.getLastModifiedDateTime());
+    }
+}
@@ -0,0 +1,34 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * RecipesByIds holds the recipes found for a list of recipe ids, in the order they were asked for, and the ids that
+ * have no recipe.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public final class RecipesByIds {
+    /**
+     * Recipes found, in the order of their ids.
+     */
+    private final List<Recipe> recipes;
+
+    /**
+     * Ids without a recipe, in the order they were asked for.
+     */
+    private final List<Long> missingRecipeIds;
+}
@@ -0,0 +1,161 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice.repository;
+
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * BatchInserts builds insert statements that bind an array of values for each column and unnest them into rows, so a
+ * collection of rows is written in one round trip with the same SQL whatever the number of rows, and the driver
+ * prepares it once.  The generated id of each row is matched to the row by its position in the arrays, never by the
+ * order the database happens to return or assign the ids in.
+ */
+final class BatchInserts {
+    /**
+     * Default number of rows inserted by one statement.
+     */
+    static final int DEFAULT_BATCH_INSERT_SIZE = 100;
+
+    /**
+     * Name of the column holding the position of a row in the bound arrays, counting from 1.
+     */
+    static final String ORDINAL = "ordinal";
+
+    /**
+     * Name of the parameter holding the number of ids to allocate in H2.
+     */
+    static final String NUMBER_OF_ROWS = "numberOfRows";
+
+    /**
+     * SQL type of the id columns.
+     */
+    static final String ID_TYPE = "BIGINT";
+
+    /**
+     * SQL format to insert the unnested rows in PostgreSQL, taking their ids from the table's sequence, and return the
+     * id allocated for each position.  The new_rows CTE is read twice and calls nextval, so it's evaluated once and the
+     * ids returned are the ids inserted.
+     */
+    static final String POSTGRES_INSERT_FORMAT = "WITH new_rows AS (SELECT nextval(pg_get_serial_sequence('%1$s', '%2$s')) "
+            + "AS %2$s, u.* FROM %3$s WITH ORDINALITY AS u (%4$s, " + ORDINAL + ")), "
+            + "inserted AS (INSERT INTO %1$s (%2$s, %4$s) SELECT %2$s, %4$s FROM new_rows) "
+            + "SELECT %2$s, " + ORDINAL + " FROM new_rows";
+
+    /**
+     * SQL format to allocate ids for a number of rows from the table's sequence in H2, which doesn't support
+     * data-modifying CTEs, with the position each id is for.
+     */
+    static final String H2_ALLOCATE_IDS_FORMAT =
+            "SELECT NEXT VALUE FOR %1$s_%2$s_seq AS %2$s, X AS " + ORDINAL + " FROM SYSTEM_RANGE(1, :" + NUMBER_OF_ROWS + ")";
+
+    /**
+     * SQL format to insert the unnested rows with the ids allocated for them in H2.
+     */
+    static final String H2_INSERT_FORMAT = "INSERT INTO %1$s (%2$s, %4$s) SELECT * FROM %3$s";
+
+    private BatchInserts() {
+    }
+
+    /**
+     * Get the SQL to insert the rows of the arrays bound to the column parameters, returning the id allocated for the
+     * row at each position.  In H2 the ids are allocated first, with getAllocateIdsQuery, and bound to the id parameter.
+     * @param isH2
+     * @param tableName
+     * @param idColumnName
+     * @param columns
+     * @return SQL for inserting the rows
+     */
+    static String getInsertQuery(final boolean isH2, final String tableName, final String idColumnName,
+                                 final List<Column> columns) {
+        var columnNames = columns.stream().map(Column::name).collect(Collectors.joining(", "));
+
+        if (isH2) {
+            var columnsWithId = Stream.concat(Stream.of(new Column(idColumnName, ID_TYPE)), columns.stream()).toList();
+
+            return String.format(H2_INSERT_FORMAT, tableName, idColumnName, getUnnest(columnsWithId), columnNames);
+        }
+
+        return String.format(POSTGRES_INSERT_FORMAT, tableName, idColumnName, getUnnest(columns), columnNames);
+    }
+
+    /**
+     * Get the SQL to allocate ids for the number of rows bound to the numberOfRows parameter in H2.
+     * @param tableName
+     * @param idColumnName
+     * @return SQL for allocating the ids
+     */
+    static String getAllocateIdsQuery(final String tableName, final String idColumnName) {
+        return String.format(H2_ALLOCATE_IDS_FORMAT, tableName, idColumnName);
+    }
+
+    /**
+     * Get the UNNEST of the arrays bound to a parameter named after each column, cast to arrays of the column types.
+     * @param columns
+     * @return UNNEST of the columns
+     */
+    static String getUnnest(final List<Column> columns) {
+        return columns.stream()
+            .map(column -> String.format("CAST(:%s AS %s ARRAY)", column.name(), column.type()))
+            .collect(Collectors.joining(", ", "UNNEST(", ")"));
+    }
+
+    /**
+     * Insert rows, binding the array of values of each column, and get the id generated for each of them.
+     * @param template
+     * @param tableName
+     * @param idColumnName
+     * @param columns
+     * @param numberOfRows
+     * @param binder Binds the array of values of each column
+     * @return The generated ids, the id of each row at the row's position
+     */
+    static Mono<List<Long>> insertReturningIds(final R2dbcEntityTemplate template, final String tableName,
+                                               final String idColumnName, final List<Column> columns,
+                                               final int numberOfRows,
+                                               final UnaryOperator<DatabaseClient.GenericExecuteSpec> binder) {
+        var client = template.getDatabaseClient();
+
+        if (SqlDialects.isH2(template)) {
+            return getIds(client.sql(getAllocateIdsQuery(tableName, idColumnName)).bind(NUMBER_OF_ROWS, numberOfRows),
+                        idColumnName, numberOfRows)
+                .flatMap(ids -> binder.apply(client.sql(getInsertQuery(true, tableName, idColumnName, columns)))
+                    .bind(idColumnName, ids.toArray(Long[]::new))
+                    .fetch()
+                    .rowsUpdated()
+                    .thenReturn(ids));
+        }
+
+        return getIds(binder.apply(client.sql(getInsertQuery(false, tableName, idColumnName, columns))),
+            idColumnName, numberOfRows);
+    }
+
+    private static Mono<List<Long>> getIds(final DatabaseClient.GenericExecuteSpec executeSpec, final String idColumnName,
+                                           final int numberOfRows) {
+        return executeSpec
+            .map(row -> Map.entry(row.get(ORDINAL, Long.class), row.get(idColumnName, Long.class)))
+            .all()
+            .collect(() -> new Long[numberOfRows], (ids, id) -> ids[id.getKey().intValue() - 1] = id.getValue())
+            .map(Arrays::asList);
+    }
+
+    /**
+     * Column written by a batch statement.
+     * @param name Name of the column, and of the parameter its array of values is bound to
+     * @param type SQL type the array of values is cast to
+     */
+    record Column(String name, String type) {
+    }
+}
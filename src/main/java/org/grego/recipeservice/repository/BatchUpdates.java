@@ -0,0 +1,78 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice.repository;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * BatchUpdates builds set-based update and delete statements so a collection of rows is changed in one round trip.
+ * PostgreSQL returns the affected ids with RETURNING, H2 with a data change delta table.
+ */
+final class BatchUpdates {
+    /**
+     * Name of the parameter holding the array of ids to delete.
+     */
+    static final String IDS = "ids";
+
+    /**
+     * Alias of the unnested rows holding the new column values.
+     */
+    static final String VALUES_ALIAS = "v";
+
+    private BatchUpdates() {
+    }
+
+    /**
+     * Get the SQL to update the rows matched by id, binding an array of values for the id and each column, so the SQL
+     * is the same whatever the number of rows.  The statement returns the ids of the rows that were updated.
+     * @param isH2
+     * @param tableName
+     * @param idColumnName
+     * @param columns
+     * @return SQL for updating the rows
+     */
+    static String getUpdateQuery(final boolean isH2, final String tableName, final String idColumnName,
+                                 final List<BatchInserts.Column> columns) {
+        var valuesColumns = Stream.concat(Stream.of(new BatchInserts.Column(idColumnName, BatchInserts.ID_TYPE)),
+            columns.stream()).toList();
+        var values = BatchInserts.getUnnest(valuesColumns);
+        var valuesColumnNames = valuesColumns.stream().map(BatchInserts.Column::name).collect(Collectors.joining(", "));
+        var assignments = columns.stream()
+            .map(column -> String.format("%s = %s.%s", column.name(), VALUES_ALIAS, column.name()))
+            .collect(Collectors.joining(", "));
+        var matchIds = String.format("%s.%s = %s.%s", tableName, idColumnName, VALUES_ALIAS, idColumnName);
+
+        if (isH2) {
+            return String.format("SELECT %s FROM FINAL TABLE (MERGE INTO %s USING (SELECT * FROM %s AS u (%s)) AS %s "
+                    + "ON %s WHEN MATCHED THEN UPDATE SET %s)",
+                idColumnName, tableName, values, valuesColumnNames, VALUES_ALIAS, matchIds, assignments);
+        }
+
+        return String.format("UPDATE %s SET %s FROM %s AS %s (%s) WHERE %s RETURNING %s.%s",
+            tableName, assignments, values, VALUES_ALIAS, valuesColumnNames, matchIds, tableName, idColumnName);
+    }
+
+    /**
+     * Get the SQL to delete the rows whose id is in the array bound to the ids parameter.  The statement returns
+     * the ids of the rows that were deleted.
+     * @param isH2
+     * @param tableName
+     * @param idColumnName
+     * @return SQL for deleting the rows
+     */
+    static String getDeleteQuery(final boolean isH2, final String tableName, final String idColumnName) {
+        if (isH2) {
+            return String.format("SELECT %s FROM OLD TABLE (DELETE FROM %s WHERE %s = ANY(:%s))",
+                idColumnName, tableName, idColumnName, IDS);
+        }
+
+        return String.format("DELETE FROM %s WHERE %s = ANY(:%s) RETURNING %s",
+            tableName, idColumnName, IDS, idColumnName);
+    }
+}
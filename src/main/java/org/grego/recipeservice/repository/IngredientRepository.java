@@ -9,16 +9,29 @@ package org.grego.recipeservice.repository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.grego.recipeservice.model.Ingredient;
+import org.grego.recipeservice.model.Recipe;
+import org.grego.recipeservice.repository.BatchInserts.Column;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.r2dbc.core.ReactiveUpdateOperation;
 import org.springframework.data.relational.core.query.Update;
+import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
 import java.util.Collection;
-import java.util.stream.Collectors;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
+import static org.grego.recipeservice.repository.BatchInserts.DEFAULT_BATCH_INSERT_SIZE;
+import static org.grego.recipeservice.repository.BatchInserts.insertReturningIds;
+import static org.grego.recipeservice.repository.BatchUpdates.IDS;
+import static org.grego.recipeservice.repository.BatchUpdates.getDeleteQuery;
+import static org.grego.recipeservice.repository.BatchUpdates.getUpdateQuery;
 import static org.springframework.data.relational.core.query.Criteria.where;
 import static org.springframework.data.relational.core.query.Query.query;
 
@@ -29,11 +42,31 @@ import static org.springframework.data.relational.core.query.Query.query;
 @RequiredArgsConstructor
 @Slf4j
 public class IngredientRepository {
+    /**
+     * Columns written when inserting or updating ingredients.
+     */
+    static final List<Column> INGREDIENT_COLUMNS = List.of(new Column(Ingredient.INGREDIENT_COLUMN_NAME, "VARCHAR(256)"),
+            new Column(Ingredient.INGREDIENT_NUMBER_COLUMN_NAME, "INT"),
+            new Column(Ingredient.QUANTITY_COLUMN_NAME, "DECIMAL(10,2)"),
+            new Column(Ingredient.QUANTITY_SPECIFIER_COLUMN_NAME, "VARCHAR(255)"));
+
+    /**
+     * Columns written when inserting ingredients, which also set the recipe the ingredients belong to.
+     */
+    static final List<Column> INSERT_COLUMNS = Stream.concat(INGREDIENT_COLUMNS.stream(),
+            Stream.of(new Column(Ingredient.RECIPE_ID_COLUMN_NAME, BatchInserts.ID_TYPE))).toList();
+
     /**
      * Reactive database template used to query the database.
      */
     private final R2dbcEntityTemplate template;
 
+    /**
+     * Number of ingredients inserted or updated by one statement.
+     */
+    @Value("${service.batch_insert_size:100}")
+    private int batchInsertSize = DEFAULT_BATCH_INSERT_SIZE;
+
     /**
      * Save ingredient.
      * @param ingredient
@@ -46,12 +79,25 @@ public class IngredientRepository {
     }
 
     /**
-     * Save ingredients.
+     * Save the ingredients of a recipe with multi-row inserts of up to the batch insert size, setting the generated ids.
+     * @param recipeId Id of the recipe the ingredients belong to
      * @param ingredientList
      * @return List of Ingredients that were saved.
      */
-    public Flux<Ingredient> saveAll(final Collection<Ingredient> ingredientList) {
-        return Flux.concat(ingredientList.stream().map(this::save).collect(Collectors.toList()));
+    public Flux<Ingredient> saveAll(final long recipeId, final Collection<Ingredient> ingredientList) {
+        return insertAll(Flux.fromIterable(ingredientList).map(ingredient -> Tuples.of(recipeId, ingredient)));
+    }
+
+    /**
+     * Save the ingredients of recipes with multi-row inserts of up to the batch insert size, setting the generated ids.
+     * @param recipes Saved recipes, with their recipe ids
+     * @return List of Ingredients that were saved.
+     */
+    public Flux<Ingredient> saveAllOf(final Collection<Recipe> recipes) {
+        return insertAll(Flux.fromIterable(recipes)
+                .flatMapIterable(recipe -> recipe.getIngredients().stream()
+                        .map(ingredient -> Tuples.of(recipe.getRecipeId(), ingredient))
+                        .toList()));
     }
 
     /**
@@ -70,12 +116,14 @@ public class IngredientRepository {
     }
 
     /**
-     * Update ingredients.
+     * Update ingredients with set-based updates of up to the batch insert size.
      * @param ingredientList
      * @return Ids of updated ingredients.
      */
     public Flux<Long> updateAll(final Collection<Ingredient> ingredientList) {
-        return Flux.concat(ingredientList.stream().map(this::update).collect(Collectors.toList()));
+        return Flux.fromIterable(ingredientList)
+                .buffer(batchInsertSize)
+                .concatMap(this::updateBatch);
     }
 
     /**
@@ -91,12 +139,65 @@ public class IngredientRepository {
     }
 
     /**
-     * Delete ingredients by ingredient ids.
+     * Delete ingredients by ingredient ids with a single set-based delete.
      * @param ingredientIdList
      * @return Ids of deleted ingredients
      */
     public Flux<Long> deleteAllByIds(final Collection<Long> ingredientIdList) {
-        return Flux.concat(ingredientIdList.stream().map(this::deleteById)
-                .collect(Collectors.toList()));
+        if (ingredientIdList.isEmpty()) {
+            return Flux.empty();
+        }
+
+        return template.getDatabaseClient()
+                .sql(getDeleteQuery(SqlDialects.isH2(template), Ingredient.INGREDIENTS_TABLE_NAME,
+                        Ingredient.INGREDIENT_ID_COLUMN_NAME))
+                .bind(IDS, ingredientIdList.toArray(Long[]::new))
+                .map(row -> row.get(Ingredient.INGREDIENT_ID_COLUMN_NAME, Long.class))
+                .all();
+    }
+
+    private Flux<Ingredient> insertAll(final Flux<Tuple2<Long, Ingredient>> recipeIngredients) {
+        return recipeIngredients
+                .buffer(batchInsertSize)
+                .concatMap(this::insertBatch);
+    }
+
+    private Flux<Ingredient> insertBatch(final List<Tuple2<Long, Ingredient>> recipeIngredients) {
+        var ingredients = recipeIngredients.stream().map(Tuple2::getT2).toList();
+
+        return insertReturningIds(template, Ingredient.INGREDIENTS_TABLE_NAME, Ingredient.INGREDIENT_ID_COLUMN_NAME,
+                        INSERT_COLUMNS, ingredients.size(),
+                        executeSpec -> bindIngredients(executeSpec, ingredients)
+                                .bind(Ingredient.RECIPE_ID_COLUMN_NAME,
+                                        recipeIngredients.stream().map(Tuple2::getT1).toArray(Long[]::new)))
+                .flatMapMany(ids -> {
+                    IntStream.range(0, ids.size())
+                            .forEach(idx -> ingredients.get(idx).setIngredientId(ids.get(idx)));
+
+                    return Flux.fromIterable(ingredients);
+                });
+    }
+
+    private Flux<Long> updateBatch(final List<Ingredient> ingredients) {
+        return bindIngredients(template.getDatabaseClient()
+                        .sql(getUpdateQuery(SqlDialects.isH2(template), Ingredient.INGREDIENTS_TABLE_NAME,
+                                Ingredient.INGREDIENT_ID_COLUMN_NAME, INGREDIENT_COLUMNS)), ingredients)
+                .bind(Ingredient.INGREDIENT_ID_COLUMN_NAME,
+                        ingredients.stream().map(Ingredient::getIngredientId).toArray(Long[]::new))
+                .map(row -> row.get(Ingredient.INGREDIENT_ID_COLUMN_NAME, Long.class))
+                .all();
+    }
+
+    private DatabaseClient.GenericExecuteSpec bindIngredients(final DatabaseClient.GenericExecuteSpec executeSpec,
+                                                              final List<Ingredient> ingredients) {
+        return executeSpec
+                .bind(Ingredient.INGREDIENT_COLUMN_NAME,
+                        ingredients.stream().map(Ingredient::getIngredient).toArray(String[]::new))
+                .bind(Ingredient.INGREDIENT_NUMBER_COLUMN_NAME,
+                        ingredients.stream().map(Ingredient::getIngredientNumber).toArray(Integer[]::new))
+                .bind(Ingredient.QUANTITY_COLUMN_NAME,
+                        ingredients.stream().map(Ingredient::getQuantity).toArray(Double[]::new))
+                .bind(Ingredient.QUANTITY_SPECIFIER_COLUMN_NAME,
+                        ingredients.stream().map(ingredient -> ingredient.getQuantitySpecifier().name()).toArray(String[]::new));
     }
 }
@@ -9,16 +9,29 @@ package org.grego.recipeservice.repository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.grego.recipeservice.model.Instruction;
+import org.grego.recipeservice.model.Recipe;
+import org.grego.recipeservice.repository.BatchInserts.Column;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.r2dbc.core.ReactiveUpdateOperation;
 import org.springframework.data.relational.core.query.Update;
+import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
 import java.util.Collection;
-import java.util.stream.Collectors;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
+import static org.grego.recipeservice.repository.BatchInserts.DEFAULT_BATCH_INSERT_SIZE;
+import static org.grego.recipeservice.repository.BatchInserts.insertReturningIds;
+import static org.grego.recipeservice.repository.BatchUpdates.IDS;
+import static org.grego.recipeservice.repository.BatchUpdates.getDeleteQuery;
+import static org.grego.recipeservice.repository.BatchUpdates.getUpdateQuery;
 import static org.springframework.data.relational.core.query.Criteria.where;
 import static org.springframework.data.relational.core.query.Query.query;
 
@@ -29,11 +42,29 @@ import static org.springframework.data.relational.core.query.Query.query;
 @RequiredArgsConstructor
 @Slf4j
 public class InstructionRepository {
+    /**
+     * Columns written when inserting or updating instructions.
+     */
+    static final List<Column> INSTRUCTION_COLUMNS = List.of(new Column(Instruction.INSTRUCTION_COLUMN_NAME, "VARCHAR(255)"),
+            new Column(Instruction.INSTRUCTION_NUMBER_COLUMN_NAME, "INT"));
+
+    /**
+     * Columns written when inserting instructions, which also set the recipe the instructions belong to.
+     */
+    static final List<Column> INSERT_COLUMNS = Stream.concat(INSTRUCTION_COLUMNS.stream(),
+            Stream.of(new Column(Instruction.RECIPE_ID_COLUMN_NAME, BatchInserts.ID_TYPE))).toList();
+
     /**
      * Reactive database template used to query the database.
      */
     private final R2dbcEntityTemplate template;
 
+    /**
+     * Number of instructions inserted or updated by one statement.
+     */
+    @Value("${service.batch_insert_size:100}")
+    private int batchInsertSize = DEFAULT_BATCH_INSERT_SIZE;
+
     /**
      * Save instruction.
      * @param instruction
@@ -46,12 +77,25 @@ public class InstructionRepository {
     }
 
     /**
-     * Save instructions.
+     * Save the instructions of a recipe with multi-row inserts of up to the batch insert size, setting the generated ids.
+     * @param recipeId Id of the recipe the instructions belong to
      * @param instructionList
      * @return the Instructions that were saved
      */
-    public Flux<Instruction> saveAll(final Collection<Instruction> instructionList) {
-        return Flux.concat(instructionList.stream().map(this::save).collect(Collectors.toList()));
+    public Flux<Instruction> saveAll(final long recipeId, final Collection<Instruction> instructionList) {
+        return insertAll(Flux.fromIterable(instructionList).map(instruction -> Tuples.of(recipeId, instruction)));
+    }
+
+    /**
+     * Save the instructions of recipes with multi-row inserts of up to the batch insert size, setting the generated ids.
+     * @param recipes Saved recipes, with their recipe ids
+     * @return the Instructions that were saved
+     */
+    public Flux<Instruction> saveAllOf(final Collection<Recipe> recipes) {
+        return insertAll(Flux.fromIterable(recipes)
+                .flatMapIterable(recipe -> recipe.getInstructions().stream()
+                        .map(instruction -> Tuples.of(recipe.getRecipeId(), instruction))
+                        .toList()));
     }
 
     /**
@@ -68,12 +112,14 @@ public class InstructionRepository {
     }
 
     /**
-     * Update instructions.
+     * Update instructions with set-based updates of up to the batch insert size.
      * @param instructionList
      * @return ids for updated instructions
      */
     public Flux<Long> updateAll(final Collection<Instruction> instructionList) {
-        return Flux.concat(instructionList.stream().map(this::update).collect(Collectors.toList()));
+        return Flux.fromIterable(instructionList)
+                .buffer(batchInsertSize)
+                .concatMap(this::updateBatch);
     }
 
     /**
@@ -89,12 +135,61 @@ public class InstructionRepository {
     }
 
     /**
-     * Delete instructions by instruction ids.
+     * Delete instructions by instruction ids with a single set-based delete.
      * @param instructionIdList
      * @return ids for deleted instructions
      */
     public Flux<Long> deleteAllByIds(final Collection<Long> instructionIdList) {
-        return Flux.concat(instructionIdList.stream().map(this::deleteById)
-                .collect(Collectors.toList()));
+        if (instructionIdList.isEmpty()) {
+            return Flux.empty();
+        }
+
+        return template.getDatabaseClient()
+                .sql(getDeleteQuery(SqlDialects.isH2(template), Instruction.INSTRUCTIONS_TABLE_NAME,
+                        Instruction.INSTRUCTION_ID_COLUMN_NAME))
+                .bind(IDS, instructionIdList.toArray(Long[]::new))
+                .map(row -> row.get(Instruction.INSTRUCTION_ID_COLUMN_NAME, Long.class))
+                .all();
+    }
+
+    private Flux<Instruction> insertAll(final Flux<Tuple2<Long, Instruction>> recipeInstructions) {
+        return recipeInstructions
+                .buffer(batchInsertSize)
+                .concatMap(this::insertBatch);
+    }
+
+    private Flux<Instruction> insertBatch(final List<Tuple2<Long, Instruction>> recipeInstructions) {
+        var instructions = recipeInstructions.stream().map(Tuple2::getT2).toList();
+
+        return insertReturningIds(template, Instruction.INSTRUCTIONS_TABLE_NAME, Instruction.INSTRUCTION_ID_COLUMN_NAME,
+                        INSERT_COLUMNS, instructions.size(),
+                        executeSpec -> bindInstructions(executeSpec, instructions)
+                                .bind(Instruction.RECIPE_ID_COLUMN_NAME,
+                                        recipeInstructions.stream().map(Tuple2::getT1).toArray(Long[]::new)))
+                .flatMapMany(ids -> {
+                    IntStream.range(0, ids.size())
+                            .forEach(idx -> instructions.get(idx).setInstructionId(ids.get(idx)));
+
+                    return Flux.fromIterable(instructions);
+                });
+    }
+
+    private Flux<Long> updateBatch(final List<Instruction> instructions) {
+        return bindInstructions(template.getDatabaseClient()
+                        .sql(getUpdateQuery(SqlDialects.isH2(template), Instruction.INSTRUCTIONS_TABLE_NAME,
+                                Instruction.INSTRUCTION_ID_COLUMN_NAME, INSTRUCTION_COLUMNS)), instructions)
+                .bind(Instruction.INSTRUCTION_ID_COLUMN_NAME,
+                        instructions.stream().map(Instruction::getInstructionId).toArray(Long[]::new))
+                .map(row -> row.get(Instruction.INSTRUCTION_ID_COLUMN_NAME, Long.class))
+                .all();
+    }
+
+    private DatabaseClient.GenericExecuteSpec bindInstructions(final DatabaseClient.GenericExecuteSpec executeSpec,
+                                                               final List<Instruction> instructions) {
+        return executeSpec
+                .bind(Instruction.INSTRUCTION_COLUMN_NAME,
+                        instructions.stream().map(Instruction::getInstruction).toArray(String[]::new))
+                .bind(Instruction.INSTRUCTION_NUMBER_COLUMN_NAME,
+                        instructions.stream().map(Instruction::getInstructionNumber).toArray(Integer[]::new));
     }
 }
@@ -0,0 +1,225 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice.repository;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.grego.recipeservice.mapping.RecipeRowMapper;
+import org.grego.recipeservice.model.Ingredient;
+import org.grego.recipeservice.model.Instruction;
+import org.grego.recipeservice.model.Recipe;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * RecipeAggregateRepository loads a Recipe together with its ingredients and instructions
+ * from the database in a single statement.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RecipeAggregateRepository {
+    /**
+     * Name of the column holding the ingredients of the recipe as a JSON array.
+     */
+    public static final String INGREDIENTS_JSON_COLUMN_NAME = "ingredients_json";
+
+    /**
+     * Name of the column holding the instructions of the recipe as a JSON array.
+     */
+    public static final String INSTRUCTIONS_JSON_COLUMN_NAME = "instructions_json";
+
+    /**
+     * Index of the column holding the ingredients of the recipe, following the recipe columns.
+     */
+    static final int INGREDIENTS_JSON_COLUMN = RecipeRowMapper.COLUMN_NAMES.size();
+
+    /**
+     * Index of the column holding the instructions of the recipe.
+     */
+    static final int INSTRUCTIONS_JSON_COLUMN = INGREDIENTS_JSON_COLUMN + 1;
+
+    /**
+     * Name for recipe id.
+     */
+    public static final String RECIPE_ID = "recipeId";
+
+    /**
+     * SQL condition to match the recipe id.
+     */
+    static final String MATCH_RECIPE_ID = "r.recipe_id = :recipeId";
+
+    /**
+     * SQL condition to seek past a recipe id, in recipe id order.
+     */
+    static final String SEEK_RECIPE_ID = "r.recipe_id > :recipeId order by r.recipe_id";
+
+    /**
+     * SQL select list of the recipe columns, in the order RecipeRowMapper reads them.
+     */
+    static final String RECIPE_COLUMNS = RecipeRowMapper.getSelectList("r");
+
+    /**
+     * SQL subquery aggregating the ingredients of recipe r as a JSON array in PostgreSQL, null if it has none.
+     */
+    static final String POSTGRES_INGREDIENTS_JSON = """
+                (select json_agg(json_build_object('ingredientId', i.ingredient_id,
+                        'ingredientNumber', i.ingredient_number, 'ingredient', i.ingredient,
+                        'quantitySpecifier', i.quantity_specifier, 'quantity', i.quantity)
+                        order by i.ingredient_number)
+                    from ingredients i
+                    where i.recipe_id = r.recipe_id)""";
+
+    /**
+     * SQL subquery aggregating the instructions of recipe r as a JSON array in PostgreSQL, null if it has none.
+     */
+    static final String POSTGRES_INSTRUCTIONS_JSON = """
+                (select json_agg(json_build_object('instructionId', i.instruction_id,
+                        'instructionNumber', i.instruction_number, 'instruction', i.instruction)
+                        order by i.instruction_number)
+                    from instructions i
+                    where i.recipe_id = r.recipe_id)""";
+
+    /**
+     * SQL subquery aggregating the ingredients of recipe r as a JSON array in H2, null if it has none.
+     */
+    static final String H2_INGREDIENTS_JSON = """
+                (select json_arrayagg(json_object('ingredientId': i.ingredient_id,
+                        'ingredientNumber': i.ingredient_number, 'ingredient': i.ingredient,
+                        'quantitySpecifier': i.quantity_specifier, 'quantity': i.quantity)
+                        order by i.ingredient_number)
+                    from ingredients i
+                    where i.recipe_id = r.recipe_id)""";
+
+    /**
+     * SQL subquery aggregating the instructions of recipe r as a JSON array in H2, null if it has none.
+     */
+    static final String H2_INSTRUCTIONS_JSON = """
+                (select json_arrayagg(json_object('instructionId': i.instruction_id,
+                        'instructionNumber': i.instruction_number, 'instruction': i.instruction)
+                        order by i.instruction_number)
+                    from instructions i
+                    where i.recipe_id = r.recipe_id)""";
+
+    /**
+     * SQL format to get recipes with their ingredients and instructions aggregated as JSON in PostgreSQL.
+     */
+    static final String POSTGRES_AGGREGATE_QUERY_FORMAT = "select %s, "
+            + POSTGRES_INGREDIENTS_JSON + "::text as ingredients_json, "
+            + POSTGRES_INSTRUCTIONS_JSON + "::text as instructions_json "
+            + "from recipes r where %s";
+
+    /**
+     * SQL format to get recipes with their ingredients and instructions aggregated as JSON in H2.
+     */
+    static final String H2_AGGREGATE_QUERY_FORMAT = "select %s, "
+            + "cast(" + H2_INGREDIENTS_JSON + " as varchar) as ingredients_json, "
+            + "cast(" + H2_INSTRUCTIONS_JSON + " as varchar) as instructions_json "
+            + "from recipes r where %s";
+
+    /**
+     * SQL command to get a recipe with its ingredients and instructions aggregated as JSON in PostgreSQL.
+     */
+    static final String POSTGRES_AGGREGATE_QUERY =
+            String.format(POSTGRES_AGGREGATE_QUERY_FORMAT, RECIPE_COLUMNS, MATCH_RECIPE_ID);
+
+    /**
+     * SQL command to get a recipe with its ingredients and instructions aggregated as JSON in H2.
+     */
+    static final String H2_AGGREGATE_QUERY =
+            String.format(H2_AGGREGATE_QUERY_FORMAT, RECIPE_COLUMNS, MATCH_RECIPE_ID);
+
+    /**
+     * SQL command to get all recipes after a recipe id with their ingredients and instructions in PostgreSQL.
+     */
+    static final String POSTGRES_AGGREGATE_AFTER_QUERY =
+            String.format(POSTGRES_AGGREGATE_QUERY_FORMAT, RECIPE_COLUMNS, SEEK_RECIPE_ID);
+
+    /**
+     * SQL command to get all recipes after a recipe id with their ingredients and instructions in H2.
+     */
+    static final String H2_AGGREGATE_AFTER_QUERY =
+            String.format(H2_AGGREGATE_QUERY_FORMAT, RECIPE_COLUMNS, SEEK_RECIPE_ID);
+
+    /**
+     * Type of the list of ingredients read from JSON.
+     */
+    private static final TypeReference<List<Ingredient>> INGREDIENT_LIST = new TypeReference<>() { };
+
+    /**
+     * Type of the list of instructions read from JSON.
+     */
+    private static final TypeReference<List<Instruction>> INSTRUCTION_LIST = new TypeReference<>() { };
+
+    /**
+     * Reactive database template used to query the database.
+     */
+    private final R2dbcEntityTemplate template;
+
+    /**
+     * ObjectMapper maps the aggregated JSON to ingredients and instructions.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Get recipe with its ingredients and instructions by recipe id.
+     * @param recipeId
+     * @return Recipe for the recipe id
+     */
+    public Mono<Recipe> findById(final long recipeId) {
+        return template.getDatabaseClient()
+                .sql(SqlDialects.isH2(template) ? H2_AGGREGATE_QUERY : POSTGRES_AGGREGATE_QUERY)
+                .bind(RECIPE_ID, recipeId)
+                .map(this::toRecipe)
+                .one();
+    }
+
+    /**
+     * Stream all recipes after a recipe id with their ingredients and instructions, in recipe id order.  The rows
+     * are fetched from a server-side cursor a fetch size at a time, so memory stays flat however many recipes there
+     * are.
+     * @param afterRecipeId Last recipe id already read, or 0 to start from the first recipe
+     * @param fetchSize Number of rows fetched from the cursor at a time
+     * @return The recipes after the recipe id
+     */
+    public Flux<Recipe> findAllAfter(final long afterRecipeId, final int fetchSize) {
+        return template.getDatabaseClient()
+                .sql(SqlDialects.isH2(template) ? H2_AGGREGATE_AFTER_QUERY : POSTGRES_AGGREGATE_AFTER_QUERY)
+                .bind(RECIPE_ID, afterRecipeId)
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(this::toRecipe)
+                .all();
+    }
+
+    private Recipe toRecipe(final Row row, final RowMetadata metadata) {
+        var recipe = RecipeRowMapper.INSTANCE.apply(row, metadata);
+
+        recipe.setIngredients(readList(row.get(INGREDIENTS_JSON_COLUMN, String.class), INGREDIENT_LIST));
+        recipe.setInstructions(readList(row.get(INSTRUCTIONS_JSON_COLUMN, String.class), INSTRUCTION_LIST));
+
+        return recipe;
+    }
+
+    @SneakyThrows
+    private <T> List<T> readList(final String json, final TypeReference<List<T>> type) {
+        if (json == null) {
+            return Collections.emptyList();
+        }
+
+        return objectMapper.readValue(json, type);
+    }
+}
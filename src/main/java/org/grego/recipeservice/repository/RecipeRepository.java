@@ -8,17 +8,29 @@ package org.grego.recipeservice.repository;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.grego.recipeservice.mapping.RecipeRowMapper;
+import org.grego.recipeservice.mapping.RecipeVersionRowMapper;
 import org.grego.recipeservice.model.Recipe;
+import org.grego.recipeservice.model.RecipeCursor;
+import org.grego.recipeservice.model.RecipeSortKey;
+import org.grego.recipeservice.model.RecipeVersion;
+import org.grego.recipeservice.repository.BatchInserts.Column;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
-import org.springframework.data.r2dbc.core.ReactiveUpdateOperation;
-import org.springframework.data.relational.core.query.Query;
-import org.springframework.data.relational.core.query.Update;
+import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
 
+import static org.grego.recipeservice.repository.BatchInserts.DEFAULT_BATCH_INSERT_SIZE;
+import static org.grego.recipeservice.repository.BatchInserts.insertReturningIds;
 import static org.springframework.data.relational.core.query.Criteria.where;
 import static org.springframework.data.relational.core.query.Query.query;
 
@@ -29,21 +41,246 @@ import static org.springframework.data.relational.core.query.Query.query;
 @RequiredArgsConstructor
 @Slf4j
 public class RecipeRepository {
+    /**
+     * Columns written when inserting recipes.
+     */
+    static final List<Column> RECIPE_COLUMNS = List.of(new Column(Recipe.NAME_COLUMN_NAME, "VARCHAR(256)"),
+            new Column(Recipe.VARIATION_COLUMN_NAME, "INT"), new Column(Recipe.DESCRIPTION_COLUMN_NAME, "VARCHAR(255)"),
+            new Column(Recipe.CREATION_DATE_TIME_COLUMN_NAME, "TIMESTAMP"),
+            new Column(Recipe.LAST_MODIFIED_DATE_TIME_COLUMN_NAME, "TIMESTAMP"));
+
+    /**
+     * Name for recipe id.
+     */
+    static final String RECIPE_ID = "recipeId";
+
+    /**
+     * Name for the value of the sort key.
+     */
+    static final String SORT_VALUE = "sortValue";
+
+    /**
+     * Name for limit.
+     */
+    static final String LIMIT = "limit";
+
+    /**
+     * Name for name.
+     */
+    static final String NAME = "name";
+
+    /**
+     * SQL command to get all recipes, reading only the columns RecipeRowMapper maps.
+     */
+    static final String RECIPES_QUERY = "SELECT " + RecipeRowMapper.getSelectList("") + " FROM recipes";
+
+    /**
+     * SQL command to get the recipes with a name.
+     */
+    static final String RECIPES_BY_NAME_QUERY = RECIPES_QUERY + " WHERE name = :name";
+
+    /**
+     * SQL command to get all recipes in recipe id order.
+     */
+    static final String RECIPES_IN_ORDER_QUERY = RECIPES_QUERY + " ORDER BY recipe_id";
+
+    /**
+     * SQL command to get a page of recipes in recipe id order.
+     */
+    static final String RECIPES_PAGE_QUERY = RECIPES_IN_ORDER_QUERY + " LIMIT :limit OFFSET :offset";
+
+    /**
+     * SQL command to get a recipe by recipe id.
+     */
+    static final String RECIPE_BY_ID_QUERY = RECIPES_QUERY + " WHERE recipe_id = :recipeId";
+
+    /**
+     * SQL command to get the recipes for an array of recipe ids, in recipe id order.
+     */
+    static final String RECIPES_BY_IDS_QUERY = RECIPES_QUERY + " WHERE recipe_id = ANY(:recipeIds) ORDER BY recipe_id";
+
+    /**
+     * SQL command to count the recipes.
+     */
+    static final String COUNT_QUERY = "SELECT COUNT(*) FROM recipes";
+
+    /**
+     * SQL command to get the recipe id of a recipe, if it exists.
+     */
+    static final String RECIPE_ID_BY_ID_QUERY = "SELECT recipe_id FROM recipes WHERE recipe_id = :recipeId";
+
+    /**
+     * SQL format to get a page of recipes ordered by a sort key.
+     */
+    static final String KEYSET_QUERY_FORMAT = "SELECT %s FROM recipes %s ORDER BY %s LIMIT :limit";
+
+    /**
+     * SQL command to get the version of a recipe.
+     */
+    static final String VERSION_BY_ID_QUERY =
+            "SELECT " + RecipeVersionRowMapper.SELECT_LIST + " FROM recipes WHERE recipe_id = :recipeId";
+
+    /**
+     * SQL command to get the versions of all recipes, in the order of their pages.
+     */
+    static final String VERSIONS_QUERY = "SELECT " + RecipeVersionRowMapper.SELECT_LIST + " FROM recipes ORDER BY recipe_id";
+
+    /**
+     * SQL command to get the versions of a page of recipes.
+     */
+    static final String VERSIONS_PAGE_QUERY = VERSIONS_QUERY + " LIMIT :limit OFFSET :offset";
+
+    /**
+     * Name for offset.
+     */
+    static final String OFFSET = "offset";
+
+    /**
+     * SQL condition to seek past a recipe id.
+     */
+    static final String SEEK_RECIPE_ID = "WHERE recipe_id > :recipeId";
+
+    /**
+     * SQL format of the condition to seek past a sort key value and recipe id.
+     */
+    static final String SEEK_SORT_KEY_FORMAT = "WHERE (%s, recipe_id) > (:sortValue, :recipeId)";
+
+    /**
+     * SQL command to get the planner's estimate of the number of recipes in PostgreSQL.
+     */
+    static final String POSTGRES_ESTIMATED_COUNT_QUERY =
+            "SELECT reltuples::bigint FROM pg_class WHERE oid = 'recipes'::regclass";
+
+    /**
+     * SQL command to get the estimate of the number of recipes in H2.
+     */
+    static final String H2_ESTIMATED_COUNT_QUERY = "SELECT row_count_estimate FROM information_schema.tables "
+            + "WHERE table_name = 'RECIPES' AND table_schema = current_schema";
+
+    /**
+     * Name for recipe ids.
+     */
+    static final String RECIPE_IDS = "recipeIds";
+
+    /**
+     * Name for the last modified date time to delete recipes before.
+     */
+    static final String LAST_MODIFIED_BEFORE = "lastModifiedBefore";
+
+    /**
+     * SQL condition to match the recipe id.
+     */
+    static final String MATCH_RECIPE_ID = "= :recipeId";
+
+    /**
+     * SQL condition to match any of the recipe ids.
+     */
+    static final String MATCH_ANY_RECIPE_ID = "= ANY(:recipeIds)";
+
+    /**
+     * SQL format to delete recipes with their ingredients and instructions in PostgreSQL, returning the recipe ids.
+     * Every data-modifying CTE runs, whether or not the outer query reads it, and the foreign keys of the ingredients
+     * and instructions are checked once the whole statement has run.
+     */
+    static final String POSTGRES_DELETE_CASCADE_FORMAT = """
+            WITH deleted_ingredients AS (
+                DELETE FROM ingredients WHERE recipe_id %1$s
+            ), deleted_instructions AS (
+                DELETE FROM instructions WHERE recipe_id %1$s
+            )
+            DELETE FROM recipes WHERE recipe_id %1$s RETURNING recipe_id""";
+
+    /**
+     * SQL formats to delete the ingredients and instructions of recipes in H2, which doesn't support data-modifying
+     * CTEs.
+     */
+    static final List<String> H2_DELETE_CASCADE_FORMATS = List.of(
+            "DELETE FROM ingredients WHERE recipe_id %1$s",
+            "DELETE FROM instructions WHERE recipe_id %1$s");
+
+    /**
+     * SQL format to delete recipes in H2, returning the recipe ids.
+     */
+    static final String H2_DELETE_RECIPES_FORMAT =
+            "SELECT recipe_id FROM OLD TABLE (DELETE FROM recipes WHERE recipe_id %1$s)";
+
+    /**
+     * SQL command to get the ids of recipes last modified before a date time.
+     */
+    static final String IDS_LAST_MODIFIED_BEFORE_QUERY = "SELECT recipe_id FROM recipes "
+            + "WHERE last_modified_date_time < :lastModifiedBefore ORDER BY recipe_id LIMIT :limit";
+
+    /**
+     * Name for last modified date time.
+     */
+    static final String LAST_MODIFIED_DATE_TIME = "lastModifiedDateTime";
+
+    /**
+     * SQL command to update a recipe, adding one to its version.
+     */
+    static final String UPDATE_QUERY = "UPDATE recipes SET name = :name, description = :description, "
+            + "last_modified_date_time = :lastModifiedDateTime, version = version + 1 WHERE recipe_id = :recipeId";
+
+    /**
+     * SQL command to update a recipe only if its version hasn't changed, adding one to its version.
+     */
+    static final String UPDATE_VERSION_QUERY = UPDATE_QUERY + " AND version = :version";
+
+    /**
+     * Name for recipe names.
+     */
+    static final String NAMES = "names";
+
+    /**
+     * Name for the number of variations to allocate for each recipe name.
+     */
+    static final String COUNTS = "counts";
+
+    /**
+     * SQL command to allocate variations for each of the recipe names in PostgreSQL, returning the last variation
+     * allocated for each name.
+     */
+    static final String POSTGRES_ALLOCATE_VARIATIONS_QUERY = """
+                INSERT INTO recipe_variations (name, variation)
+                SELECT * FROM UNNEST(:names, :counts)
+                ON CONFLICT (name) DO UPDATE SET variation = recipe_variations.variation + EXCLUDED.variation
+                RETURNING name, variation
+            """;
+
+    /**
+     * SQL command to allocate variations for each of the recipe names in H2, returning the last variation
+     * allocated for each name.
+     */
+    static final String H2_ALLOCATE_VARIATIONS_QUERY = """
+                SELECT name, variation FROM FINAL TABLE (
+                    MERGE INTO recipe_variations v
+                    USING (SELECT * FROM UNNEST(:names, :counts) AS t (name, variation)) AS a
+                    ON v.name = a.name
+                    WHEN MATCHED THEN UPDATE SET variation = v.variation + a.variation
+                    WHEN NOT MATCHED THEN INSERT (name, variation) VALUES (a.name, a.variation))
+            """;
+
     /**
      * Reactive database template used to query the database.
      */
     private final R2dbcEntityTemplate template;
 
+    /**
+     * Number of recipes inserted by one statement.
+     */
+    @Value("${service.batch_insert_size:100}")
+    private int batchInsertSize = DEFAULT_BATCH_INSERT_SIZE;
+
     /**
      * Find all recipes by name.
      * @param name
      * @return Recipes that match the name
      */
     public Flux<Recipe> findAllByName(final String name) {
-        return template
-                .select(Recipe.class)
-                .from(Recipe.RECIPES_TABLE_NAME)
-                .matching(query(where(Recipe.NAME_COLUMN_NAME).is(name)))
+        return template.getDatabaseClient()
+                .sql(RECIPES_BY_NAME_QUERY)
+                .bind(NAME, name)
+                .map(RecipeRowMapper.INSTANCE)
                 .all();
     }
 
@@ -54,16 +291,67 @@ public class RecipeRepository {
      * @return All recipes for the given page
      */
     public Flux<Recipe> findAll(final long startPage, final int pageSize) {
-        var query = Query.empty();
+        if (startPage > 0 && pageSize > 0) {
+            return template.getDatabaseClient()
+                    .sql(RECIPES_PAGE_QUERY)
+                    .bind(LIMIT, pageSize)
+                    .bind(OFFSET, (startPage - 1) * pageSize)
+                    .map(RecipeRowMapper.INSTANCE)
+                    .all();
+        }
+
+        return template.getDatabaseClient()
+                .sql(RECIPES_IN_ORDER_QUERY)
+                .map(RecipeRowMapper.INSTANCE)
+                .all();
+    }
+
+    /**
+     * Find a page of recipes ordered by the sort key, seeking past the cursor instead of skipping an offset.
+     * @param sortKey
+     * @param after The cursor of the previous page for the same sort key, or null for the first page
+     * @param pageSize
+     * @return The recipes that follow the cursor
+     */
+    public Flux<Recipe> findAllAfter(final RecipeSortKey sortKey, final RecipeCursor after, final int pageSize) {
+        return getKeysetExecuteSpec(RecipeRowMapper.getSelectList(""), sortKey, after, pageSize)
+                .map(RecipeRowMapper.INSTANCE)
+                .all();
+    }
 
+    /**
+     * Find the versions of a page of recipes, the same page findAll finds.
+     * @param startPage
+     * @param pageSize
+     * @return The versions of the recipes on the page
+     */
+    public Flux<RecipeVersion> findAllVersions(final long startPage, final int pageSize) {
         if (startPage > 0 && pageSize > 0) {
-            query = query.offset((startPage - 1) * pageSize).limit(pageSize);
+            return template.getDatabaseClient()
+                    .sql(VERSIONS_PAGE_QUERY)
+                    .bind(LIMIT, pageSize)
+                    .bind(OFFSET, (startPage - 1) * pageSize)
+                    .map(RecipeVersionRowMapper.INSTANCE)
+                    .all();
         }
 
-        return template
-                .select(Recipe.class)
-                .from(Recipe.RECIPES_TABLE_NAME)
-                .matching(query)
+        return template.getDatabaseClient()
+                .sql(VERSIONS_QUERY)
+                .map(RecipeVersionRowMapper.INSTANCE)
+                .all();
+    }
+
+    /**
+     * Find the versions of a page of recipes ordered by the sort key, the same page findAllAfter finds.
+     * @param sortKey
+     * @param after The cursor of the previous page for the same sort key, or null for the first page
+     * @param pageSize
+     * @return The versions of the recipes that follow the cursor
+     */
+    public Flux<RecipeVersion> findAllVersionsAfter(final RecipeSortKey sortKey, final RecipeCursor after,
+                                                    final int pageSize) {
+        return getKeysetExecuteSpec(RecipeVersionRowMapper.SELECT_LIST, sortKey, after, pageSize)
+                .map(RecipeVersionRowMapper.INSTANCE)
                 .all();
     }
 
@@ -72,10 +360,24 @@ public class RecipeRepository {
      * @return The number of recipes
      */
     public Mono<Long> countAll() {
-        return template
-                .select(Recipe.class)
-                .from(Recipe.RECIPES_TABLE_NAME)
-                .count();
+        return template.getDatabaseClient()
+                .sql(COUNT_QUERY)
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    /**
+     * Get the estimated number of recipes from the statistics the database keeps for the recipes table, without
+     * scanning it.  Falls back to counting when the table has no statistics yet.
+     * @return The estimated number of recipes
+     */
+    public Mono<Long> estimateCount() {
+        return template.getDatabaseClient()
+                .sql(SqlDialects.isH2(template) ? H2_ESTIMATED_COUNT_QUERY : POSTGRES_ESTIMATED_COUNT_QUERY)
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .filter(estimate -> estimate >= 0)
+                .switchIfEmpty(Mono.defer(this::countAll));
     }
 
     /**
@@ -84,11 +386,12 @@ public class RecipeRepository {
      * @return If a Recipe exists for the recipe id
      */
     public Mono<Boolean> existsById(final long recipeId) {
-        return template
-                .select(Recipe.class)
-                .from(Recipe.RECIPES_TABLE_NAME)
-                .matching(query(where(Recipe.RECIPE_ID_COLUMN_NAME).is(recipeId)))
-                .exists();
+        return template.getDatabaseClient()
+                .sql(RECIPE_ID_BY_ID_QUERY)
+                .bind(RECIPE_ID, recipeId)
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .hasElement();
     }
 
     /**
@@ -97,10 +400,40 @@ public class RecipeRepository {
      * @return Recipe for the recipe id
      */
     public Mono<Recipe> findById(final long recipeId) {
-        return template
-                .select(Recipe.class)
-                .from(Recipe.RECIPES_TABLE_NAME)
-                .matching(query(where(Recipe.RECIPE_ID_COLUMN_NAME).is(recipeId)))
+        return template.getDatabaseClient()
+                .sql(RECIPE_BY_ID_QUERY)
+                .bind(RECIPE_ID, recipeId)
+                .map(RecipeRowMapper.INSTANCE)
+                .one();
+    }
+
+    /**
+     * Get recipes by recipe ids with one statement.  Ids without a recipe are skipped.
+     * @param recipeIds
+     * @return Recipes for the recipe ids, in recipe id order
+     */
+    public Flux<Recipe> findAllById(final Collection<Long> recipeIds) {
+        if (recipeIds.isEmpty()) {
+            return Flux.empty();
+        }
+
+        return template.getDatabaseClient()
+                .sql(RECIPES_BY_IDS_QUERY)
+                .bind(RECIPE_IDS, recipeIds.toArray(Long[]::new))
+                .map(RecipeRowMapper.INSTANCE)
+                .all();
+    }
+
+    /**
+     * Get the version of a recipe by recipe id, without reading the rest of the recipe.
+     * @param recipeId
+     * @return Version of the recipe for the recipe id
+     */
+    public Mono<RecipeVersion> findVersionById(final long recipeId) {
+        return template.getDatabaseClient()
+                .sql(VERSION_BY_ID_QUERY)
+                .bind(RECIPE_ID, recipeId)
+                .map(RecipeVersionRowMapper.INSTANCE)
                 .one();
     }
 
@@ -117,18 +450,61 @@ public class RecipeRepository {
     }
 
     /**
-     * Update recipe.
+     * Save recipes with multi-row inserts of up to the batch insert size, setting the generated ids.
+     * @param recipes
+     * @return The saved Recipes
+     */
+    public Flux<Recipe> saveAll(final Collection<Recipe> recipes) {
+        return Flux.fromIterable(recipes)
+                .buffer(batchInsertSize)
+                .concatMap(this::insertBatch);
+    }
+
+    /**
+     * Allocate the next variations of each of the recipe names with one statement, by adding to the counter for each
+     * name in the recipe_variations table.  The update locks the counter until the transaction ends, so concurrent
+     * adds of the same name get different variations, and it costs the same however many recipes have the name.  The
+     * names are allocated in order, so concurrent allocations lock the counters in the same order.
+     * @param counts Number of variations to allocate by recipe name
+     * @return Last variation allocated by recipe name
+     */
+    public Mono<Map<String, Integer>> allocateVariations(final Map<String, Integer> counts) {
+        if (counts.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+
+        var sortedCounts = new TreeMap<>(counts);
+
+        return template.getDatabaseClient()
+                .sql(SqlDialects.isH2(template) ? H2_ALLOCATE_VARIATIONS_QUERY : POSTGRES_ALLOCATE_VARIATIONS_QUERY)
+                .bind(NAMES, sortedCounts.keySet().toArray(String[]::new))
+                .bind(COUNTS, sortedCounts.values().toArray(Integer[]::new))
+                .map(row -> Map.entry(row.get(Recipe.NAME_COLUMN_NAME, String.class),
+                        row.get(Recipe.VARIATION_COLUMN_NAME, Integer.class)))
+                .all()
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    /**
+     * Update recipe, adding one to its version.  If the recipe has a version, it's only updated if that's still the
+     * version in the database, so an update based on a stale read changes nothing instead of overwriting a concurrent
+     * update.
      * @param recipe
-     * @return Id of the saved recipe
+     * @return Number of recipes updated, 0 if there's no recipe for the id or its version has changed
      */
     public Mono<Long> update(final Recipe recipe) {
-        return template
-                .update(ReactiveUpdateOperation.UpdateWithTable.class)
-                .inTable(Recipe.RECIPES_TABLE_NAME)
-                .matching(query(where(Recipe.RECIPE_ID_COLUMN_NAME).is(recipe.getRecipeId())))
-                .apply(Update.update(Recipe.NAME_COLUMN_NAME, recipe.getName())
-                        .set(Recipe.DESCRIPTION_COLUMN_NAME, recipe.getDescription())
-                        .set(Recipe.LAST_MODIFIED_DATE_TIME_COLUMN_NAME, LocalDateTime.now()));
+        var executeSpec = template.getDatabaseClient()
+                .sql(recipe.getVersion() == null ? UPDATE_QUERY : UPDATE_VERSION_QUERY)
+                .bind(RECIPE_ID, recipe.getRecipeId())
+                .bind(Recipe.NAME_COLUMN_NAME, recipe.getName())
+                .bind(Recipe.DESCRIPTION_COLUMN_NAME, recipe.getDescription())
+                .bind(LAST_MODIFIED_DATE_TIME, recipe.getLastModifiedDateTime());
+
+        if (recipe.getVersion() != null) {
+            executeSpec = executeSpec.bind(Recipe.VERSION_COLUMN_NAME, recipe.getVersion());
+        }
+
+        return executeSpec.fetch().rowsUpdated();
     }
 
     /**
@@ -143,4 +519,123 @@ public class RecipeRepository {
                 .matching(query(where(Recipe.RECIPE_ID_COLUMN_NAME).is(recipeId)))
                 .all();
     }
+
+    /**
+     * Delete recipe by recipe id together with its ingredients and instructions.  On PostgreSQL this
+     * is one statement.
+     * @param recipeId
+     * @return Id of the deleted recipe, or empty if there was no recipe for the id
+     */
+    public Mono<Long> deleteByIdWithIngredientsAndInstructions(final long recipeId) {
+        return deleteWithIngredientsAndInstructions(MATCH_RECIPE_ID, RECIPE_ID, recipeId).next();
+    }
+
+    /**
+     * Delete recipes by recipe ids together with their ingredients and instructions.  On PostgreSQL
+     * this is one statement.
+     * @param recipeIds
+     * @return Ids of the deleted recipes
+     */
+    public Flux<Long> deleteAllByIdsWithIngredientsAndInstructions(final Collection<Long> recipeIds) {
+        if (recipeIds.isEmpty()) {
+            return Flux.empty();
+        }
+
+        return deleteWithIngredientsAndInstructions(MATCH_ANY_RECIPE_ID, RECIPE_IDS, recipeIds.toArray(Long[]::new));
+    }
+
+    /**
+     * Find the ids of recipes last modified before a date time, in recipe id order.
+     * @param lastModifiedBefore
+     * @param limit
+     * @return Ids of up to limit recipes
+     */
+    public Flux<Long> findIdsLastModifiedBefore(final LocalDateTime lastModifiedBefore, final int limit) {
+        return template.getDatabaseClient()
+                .sql(IDS_LAST_MODIFIED_BEFORE_QUERY)
+                .bind(LAST_MODIFIED_BEFORE, lastModifiedBefore)
+                .bind(LIMIT, limit)
+                .map(row -> row.get(Recipe.RECIPE_ID_COLUMN_NAME, Long.class))
+                .all();
+    }
+
+    /**
+     * Get the SQL for a page of recipes ordered by the sort key.
+     * @param selectList Columns to select
+     * @param sortKey
+     * @param after
+     * @return SQL for the page
+     */
+    static String getKeysetQuery(final String selectList, final RecipeSortKey sortKey, final RecipeCursor after) {
+        if (sortKey == RecipeSortKey.RECIPE_ID) {
+            return String.format(KEYSET_QUERY_FORMAT, selectList, after == null ? "" : SEEK_RECIPE_ID,
+                    Recipe.RECIPE_ID_COLUMN_NAME);
+        }
+
+        return String.format(KEYSET_QUERY_FORMAT, selectList,
+                after == null ? "" : String.format(SEEK_SORT_KEY_FORMAT, sortKey.getColumnName()),
+                String.join(", ", sortKey.getColumnName(), Recipe.RECIPE_ID_COLUMN_NAME));
+    }
+
+    private DatabaseClient.GenericExecuteSpec getKeysetExecuteSpec(final String selectList, final RecipeSortKey sortKey,
+                                                                   final RecipeCursor after, final int pageSize) {
+        var executeSpec = template.getDatabaseClient()
+                .sql(getKeysetQuery(selectList, sortKey, after))
+                .bind(LIMIT, pageSize);
+
+        if (after != null) {
+            executeSpec = executeSpec.bind(RECIPE_ID, after.getRecipeId());
+
+            if (sortKey != RecipeSortKey.RECIPE_ID) {
+                executeSpec = executeSpec.bind(SORT_VALUE, after.getBindableSortValue());
+            }
+        }
+
+        return executeSpec;
+    }
+
+    private Flux<Recipe> insertBatch(final List<Recipe> recipes) {
+        return insertReturningIds(template, Recipe.RECIPES_TABLE_NAME, Recipe.RECIPE_ID_COLUMN_NAME, RECIPE_COLUMNS,
+                        recipes.size(), executeSpec -> executeSpec
+                                .bind(Recipe.NAME_COLUMN_NAME, recipes.stream().map(Recipe::getName).toArray(String[]::new))
+                                .bind(Recipe.VARIATION_COLUMN_NAME,
+                                        recipes.stream().map(Recipe::getVariation).toArray(Integer[]::new))
+                                .bind(Recipe.DESCRIPTION_COLUMN_NAME,
+                                        recipes.stream().map(Recipe::getDescription).toArray(String[]::new))
+                                .bind(Recipe.CREATION_DATE_TIME_COLUMN_NAME,
+                                        recipes.stream().map(Recipe::getCreationDateTime).toArray(LocalDateTime[]::new))
+                                .bind(Recipe.LAST_MODIFIED_DATE_TIME_COLUMN_NAME,
+                                        recipes.stream().map(Recipe::getLastModifiedDateTime).toArray(LocalDateTime[]::new)))
+                .flatMapMany(ids -> {
+                    IntStream.range(0, ids.size())
+                            .forEach(idx -> {
+                                recipes.get(idx).setRecipeId(ids.get(idx));
+                                recipes.get(idx).setVersion(0L);
+                            });
+
+                    return Flux.fromIterable(recipes);
+                });
+    }
+
+    private Flux<Long> deleteWithIngredientsAndInstructions(final String match, final String name, final Object value) {
+        if (SqlDialects.isH2(template)) {
+            return Flux.fromIterable(H2_DELETE_CASCADE_FORMATS)
+                    .concatMap(format -> template.getDatabaseClient()
+                            .sql(String.format(format, match))
+                            .bind(name, value)
+                            .fetch()
+                            .rowsUpdated())
+                    .thenMany(deleteReturningRecipeIds(String.format(H2_DELETE_RECIPES_FORMAT, match), name, value));
+        }
+
+        return deleteReturningRecipeIds(String.format(POSTGRES_DELETE_CASCADE_FORMAT, match), name, value);
+    }
+
+    private Flux<Long> deleteReturningRecipeIds(final String sql, final String name, final Object value) {
+        return template.getDatabaseClient()
+                .sql(sql)
+                .bind(name, value)
+                .map(row -> row.get(Recipe.RECIPE_ID_COLUMN_NAME, Long.class))
+                .all();
+    }
 }
@@ -0,0 +1,299 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import org.grego.recipeservice.mapping.RecipeRowMapper;
+import org.grego.recipeservice.model.Ingredient;
+import org.grego.recipeservice.model.Instruction;
+import org.grego.recipeservice.model.Recipe;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * RecipeSnapshotRepository maintains and reads the recipe_snapshot column of recipes, which holds the recipe's
+ * ingredients and instructions as one JSON document so a recipe is read from a single row.  The ingredients and
+ * instructions tables stay the source of truth:  the snapshot is rebuilt from them by the write paths in the same
+ * transaction, and read from them instead for rows the backfill hasn't reached yet.
+ */
+@Component
+@RequiredArgsConstructor
+public class RecipeSnapshotRepository {
+    /**
+     * Name for recipe id.
+     */
+    public static final String RECIPE_ID = "recipeId";
+
+    /**
+     * Name for recipe ids.
+     */
+    public static final String RECIPE_IDS = "recipeIds";
+
+    /**
+     * Name for limit.
+     */
+    public static final String LIMIT = "limit";
+
+    /**
+     * Name for offset.
+     */
+    public static final String OFFSET = "offset";
+
+    /**
+     * Index of the column holding the snapshot, following the recipe columns.
+     */
+    static final int SNAPSHOT_COLUMN = RecipeRowMapper.COLUMN_NAMES.size();
+
+    /**
+     * SQL expression building the snapshot of recipe r from its ingredients and instructions in PostgreSQL.
+     */
+    static final String POSTGRES_SNAPSHOT = "jsonb_build_object("
+            + "'ingredients', coalesce(" + RecipeAggregateRepository.POSTGRES_INGREDIENTS_JSON + ", '[]'), "
+            + "'instructions', coalesce(" + RecipeAggregateRepository.POSTGRES_INSTRUCTIONS_JSON + ", '[]'))";
+
+    /**
+     * SQL expression building the snapshot of recipe r from its ingredients and instructions in H2.
+     */
+    static final String H2_SNAPSHOT = "json_object("
+            + "'ingredients': coalesce(" + RecipeAggregateRepository.H2_INGREDIENTS_JSON + ", JSON '[]'), "
+            + "'instructions': coalesce(" + RecipeAggregateRepository.H2_INSTRUCTIONS_JSON + ", JSON '[]'))";
+
+    /**
+     * SQL format to rebuild the snapshots of recipes.
+     */
+    static final String REFRESH_FORMAT = "update recipes r set recipe_snapshot = %s where r.recipe_id = ANY(:recipeIds)";
+
+    /**
+     * SQL command to rebuild the snapshots of recipes in PostgreSQL.
+     */
+    static final String POSTGRES_REFRESH = String.format(REFRESH_FORMAT, POSTGRES_SNAPSHOT);
+
+    /**
+     * SQL command to rebuild the snapshots of recipes in H2.
+     */
+    static final String H2_REFRESH = String.format(REFRESH_FORMAT, H2_SNAPSHOT);
+
+    /**
+     * SQL command to remove the snapshots of recipes, so a snapshot left behind by a write that didn't rebuild it is
+     * never read.  Recipes without a snapshot are left alone, so nothing is written while the snapshots are off.
+     */
+    static final String CLEAR = "update recipes r set recipe_snapshot = null "
+            + "where r.recipe_id = ANY(:recipeIds) and r.recipe_snapshot is not null";
+
+    /**
+     * SQL condition to only backfill recipes without a snapshot, so a snapshot written by a concurrent update is
+     * never replaced with one built before it.
+     */
+    static final String WITHOUT_SNAPSHOT = " and r.recipe_snapshot is null";
+
+    /**
+     * SQL command to build the missing snapshots of recipes in PostgreSQL.
+     */
+    static final String POSTGRES_BACKFILL = POSTGRES_REFRESH + WITHOUT_SNAPSHOT;
+
+    /**
+     * SQL command to build the missing snapshots of recipes in H2.
+     */
+    static final String H2_BACKFILL = H2_REFRESH + WITHOUT_SNAPSHOT;
+
+    /**
+     * SQL command to get the next recipe ids without a snapshot after a recipe id.
+     */
+    static final String WITHOUT_SNAPSHOT_QUERY = "select r.recipe_id from recipes r "
+            + "where r.recipe_id > :recipeId" + WITHOUT_SNAPSHOT + " order by r.recipe_id limit :limit";
+
+    /**
+     * SQL format to get recipes with their snapshots in PostgreSQL, building the snapshot of rows without one.
+     */
+    static final String POSTGRES_QUERY_FORMAT = "select %s, coalesce(r.recipe_snapshot, " + POSTGRES_SNAPSHOT
+            + ")::text as recipe_snapshot from recipes r %s";
+
+    /**
+     * SQL format to get recipes with their snapshots in H2, building the snapshot of rows without one.
+     */
+    static final String H2_QUERY_FORMAT = "select %s, cast(coalesce(r.recipe_snapshot, " + H2_SNAPSHOT
+            + ") as varchar) as recipe_snapshot from recipes r %s";
+
+    /**
+     * SQL condition to match the recipe id.
+     */
+    static final String MATCH_RECIPE_ID = "where r.recipe_id = :recipeId";
+
+    /**
+     * SQL clause to order all recipes by recipe id.
+     */
+    static final String ALL = "order by r.recipe_id";
+
+    /**
+     * SQL clause to get a page of recipes in recipe id order.
+     */
+    static final String PAGE = ALL + " limit :limit offset :offset";
+
+    /**
+     * SQL command to get a recipe with its snapshot in PostgreSQL.
+     */
+    static final String POSTGRES_QUERY =
+            String.format(POSTGRES_QUERY_FORMAT, RecipeAggregateRepository.RECIPE_COLUMNS, MATCH_RECIPE_ID);
+
+    /**
+     * SQL command to get a recipe with its snapshot in H2.
+     */
+    static final String H2_QUERY = String.format(H2_QUERY_FORMAT, RecipeAggregateRepository.RECIPE_COLUMNS, MATCH_RECIPE_ID);
+
+    /**
+     * SQL command to get all recipes with their snapshots in PostgreSQL.
+     */
+    static final String POSTGRES_ALL_QUERY = String.format(POSTGRES_QUERY_FORMAT, RecipeAggregateRepository.RECIPE_COLUMNS, ALL);
+
+    /**
+     * SQL command to get all recipes with their snapshots in H2.
+     */
+    static final String H2_ALL_QUERY = String.format(H2_QUERY_FORMAT, RecipeAggregateRepository.RECIPE_COLUMNS, ALL);
+
+    /**
+     * SQL command to get a page of recipes with their snapshots in PostgreSQL.
+     */
+    static final String POSTGRES_PAGE_QUERY =
+            String.format(POSTGRES_QUERY_FORMAT, RecipeAggregateRepository.RECIPE_COLUMNS, PAGE);
+
+    /**
+     * SQL command to get a page of recipes with their snapshots in H2.
+     */
+    static final String H2_PAGE_QUERY = String.format(H2_QUERY_FORMAT, RecipeAggregateRepository.RECIPE_COLUMNS, PAGE);
+
+    /**
+     * Reactive database template used to query the database.
+     */
+    private final R2dbcEntityTemplate template;
+
+    /**
+     * ObjectMapper maps the snapshot JSON to ingredients and instructions.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Rebuild the snapshots of recipes from their ingredients and instructions.  Called by the write paths after they
+     * change the ingredients or instructions, in the same transaction.
+     * @param recipeIds
+     * @return Number of recipes whose snapshot was rebuilt
+     */
+    public Mono<Long> refresh(final Collection<Long> recipeIds) {
+        return update(H2_REFRESH, POSTGRES_REFRESH, recipeIds);
+    }
+
+    /**
+     * Remove the snapshots of recipes.  Called by the write paths instead of refresh while the snapshots aren't kept,
+     * so the backfill rebuilds them once they are.
+     * @param recipeIds
+     * @return Number of recipes whose snapshot was removed
+     */
+    public Mono<Long> clear(final Collection<Long> recipeIds) {
+        return update(CLEAR, CLEAR, recipeIds);
+    }
+
+    /**
+     * Build the snapshots of recipes that don't have one yet.
+     * @param recipeIds
+     * @return Number of recipes whose snapshot was built
+     */
+    public Mono<Long> backfill(final Collection<Long> recipeIds) {
+        return update(H2_BACKFILL, POSTGRES_BACKFILL, recipeIds);
+    }
+
+    /**
+     * Find the next recipe ids without a snapshot, in recipe id order.
+     * @param afterRecipeId Last recipe id already backfilled, or 0 to start from the first recipe
+     * @param limit Most recipe ids found
+     * @return The recipe ids without a snapshot after the recipe id
+     */
+    public Flux<Long> findIdsWithoutSnapshot(final long afterRecipeId, final int limit) {
+        return template.getDatabaseClient()
+                .sql(WITHOUT_SNAPSHOT_QUERY)
+                .bind(RECIPE_ID, afterRecipeId)
+                .bind(LIMIT, limit)
+                .map(row -> row.get(0, Long.class))
+                .all();
+    }
+
+    /**
+     * Get recipe with its ingredients and instructions from its snapshot by recipe id.
+     * @param recipeId
+     * @return Recipe for the recipe id
+     */
+    public Mono<Recipe> findById(final long recipeId) {
+        return template.getDatabaseClient()
+                .sql(SqlDialects.isH2(template) ? H2_QUERY : POSTGRES_QUERY)
+                .bind(RECIPE_ID, recipeId)
+                .map(this::toRecipe)
+                .one();
+    }
+
+    /**
+     * Get a page of recipes with their ingredients and instructions from their snapshots, in recipe id order.
+     * @param startPage
+     * @param pageSize
+     * @return All the recipes for the page, or all recipes if the page isn't positive
+     */
+    public Flux<Recipe> findAll(final long startPage, final int pageSize) {
+        var isH2 = SqlDialects.isH2(template);
+
+        if (startPage > 0 && pageSize > 0) {
+            return template.getDatabaseClient()
+                    .sql(isH2 ? H2_PAGE_QUERY : POSTGRES_PAGE_QUERY)
+                    .bind(LIMIT, pageSize)
+                    .bind(OFFSET, (startPage - 1) * pageSize)
+                    .map(this::toRecipe)
+                    .all();
+        }
+
+        return template.getDatabaseClient()
+                .sql(isH2 ? H2_ALL_QUERY : POSTGRES_ALL_QUERY)
+                .map(this::toRecipe)
+                .all();
+    }
+
+    private Mono<Long> update(final String h2Sql, final String postgresSql, final Collection<Long> recipeIds) {
+        if (recipeIds.isEmpty()) {
+            return Mono.just(0L);
+        }
+
+        return template.getDatabaseClient()
+                .sql(SqlDialects.isH2(template) ? h2Sql : postgresSql)
+                .bind(RECIPE_IDS, recipeIds.toArray(Long[]::new))
+                .fetch()
+                .rowsUpdated();
+    }
+
+    @SneakyThrows
+    private Recipe toRecipe(final Row row, final RowMetadata metadata) {
+        var recipe = RecipeRowMapper.INSTANCE.apply(row, metadata);
+        var snapshot = objectMapper.readValue(row.get(SNAPSHOT_COLUMN, String.class), RecipeSnapshot.class);
+
+        recipe.setIngredients(snapshot.ingredients() == null ? Collections.emptyList() : snapshot.ingredients());
+        recipe.setInstructions(snapshot.instructions() == null ? Collections.emptyList() : snapshot.instructions());
+
+        return recipe;
+    }
+
+    /**
+     * Ingredients and instructions of a recipe as held in its snapshot.
+     * @param ingredients
+     * @param instructions
+     */
+    record RecipeSnapshot(List<Ingredient> ingredients, List<Instruction> instructions) {
+    }
+}
@@ -0,0 +1,30 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice.repository;
+
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.dialect.DialectResolver;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+
+/**
+ * SqlDialects determines which database the repositories are talking to, for the statements
+ * that PostgreSQL and H2 spell differently.
+ */
+final class SqlDialects {
+
+    private SqlDialects() {
+    }
+
+    /**
+     * Determine if the template is connected to an H2 database.
+     * @param template
+     * @return If the database is H2
+     */
+    static boolean isH2(final R2dbcEntityTemplate template) {
+        return DialectResolver.getDialect(template.getDatabaseClient().getConnectionFactory()) instanceof H2Dialect;
+    }
+}
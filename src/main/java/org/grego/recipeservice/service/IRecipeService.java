@@ -9,9 +9,19 @@ package org.grego.recipeservice.service;
 import co.elastic.clients.elasticsearch.core.search.ResponseBody;
 import org.grego.recipeservice.document.RecipeDoc;
 import org.grego.recipeservice.model.Recipe;
+import org.grego.recipeservice.model.RecipeCursor;
+import org.grego.recipeservice.model.RecipeDeleteProgress;
+import org.grego.recipeservice.model.RecipeImportResult;
+import org.grego.recipeservice.model.RecipeSortKey;
+import org.grego.recipeservice.model.RecipeVersion;
+import org.grego.recipeservice.model.RecipesByIds;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Interface for recipe service.
  */
@@ -24,12 +34,108 @@ public interface IRecipeService {
      */
     Flux<Recipe> getAllRecipes(long startPage, int pageSize);
 
+    /**
+     * Get all recipes in a view.
+     * @param startPage
+     * @param pageSize
+     * @param view
+     * @return All the recipes for the page, without ingredients and instructions in the summary view
+     */
+    Flux<Recipe> getAllRecipes(long startPage, int pageSize, RecipeView view);
+
+    /**
+     * Get the page of recipes that follows a cursor.
+     * @param sortKey
+     * @param after The cursor of the previous page, or null for the first page
+     * @param pageSize
+     * @return The recipes for the page
+     */
+    Flux<Recipe> getRecipesAfter(RecipeSortKey sortKey, RecipeCursor after, int pageSize);
+
+    /**
+     * Get the page of recipes that follows a cursor in a view.
+     * @param sortKey
+     * @param after The cursor of the previous page, or null for the first page
+     * @param pageSize
+     * @param view
+     * @return The recipes for the page, without ingredients and instructions in the summary view
+     */
+    Flux<Recipe> getRecipesAfter(RecipeSortKey sortKey, RecipeCursor after, int pageSize, RecipeView view);
+
+    /**
+     * Get the versions of the recipes on a page, without loading the recipes.
+     * @param startPage
+     * @param pageSize
+     * @return The versions of the recipes getAllRecipes gets for the page
+     */
+    Flux<RecipeVersion> getAllRecipeVersions(long startPage, int pageSize);
+
+    /**
+     * Get the versions of the recipes on the page that follows a cursor, without loading the recipes.
+     * @param sortKey
+     * @param after The cursor of the previous page, or null for the first page
+     * @param pageSize
+     * @return The versions of the recipes getRecipesAfter gets for the page
+     */
+    Flux<RecipeVersion> getRecipeVersionsAfter(RecipeSortKey sortKey, RecipeCursor after, int pageSize);
+
+    /**
+     * Stream all recipes for the page, emitting each recipe once its ingredients and instructions are loaded.
+     * @param startPage
+     * @param pageSize
+     * @return The recipes for the page
+     */
+    Flux<Recipe> streamAllRecipes(long startPage, int pageSize);
+
+    /**
+     * Stream the page of recipes that follows a cursor, emitting each recipe once its ingredients and
+     * instructions are loaded.
+     * @param sortKey
+     * @param after The cursor of the previous page, or null for the first page
+     * @param pageSize
+     * @return The recipes for the page
+     */
+    Flux<Recipe> streamRecipesAfter(RecipeSortKey sortKey, RecipeCursor after, int pageSize);
+
+    /**
+     * Stream all recipes for the page in a view.
+     * @param startPage
+     * @param pageSize
+     * @param view
+     * @return The recipes for the page, without ingredients and instructions in the summary view
+     */
+    Flux<Recipe> streamAllRecipes(long startPage, int pageSize, RecipeView view);
+
+    /**
+     * Stream the page of recipes that follows a cursor in a view.
+     * @param sortKey
+     * @param after The cursor of the previous page, or null for the first page
+     * @param pageSize
+     * @param view
+     * @return The recipes for the page, without ingredients and instructions in the summary view
+     */
+    Flux<Recipe> streamRecipesAfter(RecipeSortKey sortKey, RecipeCursor after, int pageSize, RecipeView view);
+
+    /**
+     * Export all recipes after a recipe id with their ingredients and instructions, in recipe id order.
+     * @param afterRecipeId Last recipe id already exported, or 0 to export every recipe
+     * @return The recipes after the recipe id
+     */
+    Flux<Recipe> exportRecipes(long afterRecipeId);
+
     /**
      * Get the number of recipes.
      * @return The number of recipes
      */
     Mono<Long> getRecipeCount();
 
+    /**
+     * Get the number of recipes.
+     * @param countMode Whether to count the recipes or use the database's estimate
+     * @return The number of recipes
+     */
+    Mono<Long> getRecipeCount(RecipeCountMode countMode);
+
     /**
      * Get recipe by recipe id.
      * @param recipeId
@@ -37,6 +143,28 @@ public interface IRecipeService {
      */
     Mono<Recipe> getRecipeById(long recipeId);
 
+    /**
+     * Get recipe by recipe id in a view.
+     * @param recipeId
+     * @param view
+     * @return Recipe for the recipe id, without ingredients and instructions in the summary view
+     */
+    Mono<Recipe> getRecipeById(long recipeId, RecipeView view);
+
+    /**
+     * Get recipes by recipe ids, loaded together.
+     * @param recipeIds
+     * @return Recipes in the order of their ids, and the ids without a recipe
+     */
+    Mono<RecipesByIds> getRecipesByIds(List<Long> recipeIds);
+
+    /**
+     * Get the version of a recipe by recipe id, without loading the recipe.
+     * @param recipeId
+     * @return Version of the recipe for the recipe id
+     */
+    Mono<RecipeVersion> getRecipeVersionById(long recipeId);
+
     /**
      * Add a recipe.
      * @param recipe
@@ -44,6 +172,13 @@ public interface IRecipeService {
      */
     Mono<Recipe> addRecipe(Recipe recipe);
 
+    /**
+     * Import recipes in batches, each saved in its own transaction and indexed with one bulk request.
+     * @param recipes
+     * @return The id or error for each recipe, in the order they were imported
+     */
+    Flux<RecipeImportResult> importRecipes(Flux<Recipe> recipes);
+
     /**
      * Update a recipe.
      * @param recipe
@@ -52,12 +187,27 @@ public interface IRecipeService {
     Mono<Recipe> updateRecipe(Recipe recipe);
 
     /**
-     * Delete recipe by recipe id.
+     * Delete recipe by recipe id, along with its ingredients and instructions.
      * @param recipeId
-     * @return Id of the deleted recipe
+     * @return Id of the deleted recipe, or empty if there was no recipe for the id
      */
     Mono<Long> deleteRecipeById(long recipeId);
 
+    /**
+     * Delete recipes by recipe ids, along with their ingredients and instructions, a chunk at a time.
+     * @param recipeIds
+     * @return Progress after each chunk is deleted
+     */
+    Flux<RecipeDeleteProgress> deleteRecipesByIds(Collection<Long> recipeIds);
+
+    /**
+     * Delete the recipes last modified before a date time, along with their ingredients and instructions, a chunk
+     * at a time.
+     * @param lastModifiedBefore
+     * @return Progress after each chunk is deleted
+     */
+    Flux<RecipeDeleteProgress> deleteRecipesLastModifiedBefore(LocalDateTime lastModifiedBefore);
+
     /**
      * Search for recipes by search string.
      * @param searchString
@@ -0,0 +1,104 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.grego.recipeservice.model.Recipe;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * RecipeBatchLoader collects the ids of recipes requested by concurrent reads and loads them together.  A batch is
+ * loaded once it has maximumBatchSize ids or window has passed since its first id, and each read is completed with
+ * its own recipe, or empty if there is no recipe for its id.
+ */
+@Slf4j
+public class RecipeBatchLoader {
+    /**
+     * How long to keep retrying to queue a read that races with reads on other threads.
+     */
+    private static final Duration EMIT_RETRY_DURATION = Duration.ofSeconds(1);
+
+    /**
+     * Reads waiting to be loaded.
+     */
+    private final Sinks.Many<Read> reads = Sinks.many().unicast().onBackpressureBuffer();
+
+    /**
+     * Subscription loading the batches.
+     */
+    private final Disposable batches;
+
+    /**
+     * Constructor to build RecipeBatchLoader.
+     * @param loader Loads the recipes for a batch of recipe ids, by recipe id
+     * @param maximumBatchSize Most recipe ids loaded together
+     * @param window Longest a read waits for other reads to join its batch
+     */
+    public RecipeBatchLoader(final Function<List<Long>, Mono<Map<Long, Recipe>>> loader, final int maximumBatchSize,
+                             final Duration window) {
+        this.batches = reads.asFlux()
+                .bufferTimeout(maximumBatchSize, window)
+                .flatMap(batch -> load(loader, batch))
+                .subscribe();
+    }
+
+    /**
+     * Load a recipe with the next batch.
+     * @param recipeId
+     * @return The recipe for the recipe id
+     */
+    public Mono<Recipe> load(final long recipeId) {
+        return Mono.defer(() -> {
+            var read = new Read(recipeId, Sinks.one());
+
+            reads.emitNext(read, Sinks.EmitFailureHandler.busyLooping(EMIT_RETRY_DURATION));
+            return read.recipe().asMono();
+        });
+    }
+
+    /**
+     * Stop loading batches.  Reads still waiting are left incomplete.
+     */
+    public void dispose() {
+        batches.dispose();
+    }
+
+    private static Mono<Void> load(final Function<List<Long>, Mono<Map<Long, Recipe>>> loader, final List<Read> batch) {
+        return loader.apply(batch.stream().map(Read::recipeId).distinct().toList())
+                .defaultIfEmpty(Map.of())
+                .doOnNext(recipes -> batch.forEach(read -> {
+                    var recipe = recipes.get(read.recipeId());
+
+                    if (recipe == null) {
+                        read.recipe().tryEmitEmpty();
+                    } else {
+                        read.recipe().tryEmitValue(recipe);
+                    }
+                }))
+                .doOnError(ex -> {
+                    log.warn("Failed to load a batch of {} recipes", batch.size(), ex);
+                    batch.forEach(read -> read.recipe().tryEmitError(ex));
+                })
+                .onErrorResume(ex -> Mono.empty())
+                .then();
+    }
+
+    /**
+     * Read waiting for its recipe.
+     * @param recipeId
+     * @param recipe
+     */
+    private record Read(long recipeId, Sinks.One<Recipe> recipe) {
+    }
+}
@@ -0,0 +1,182 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.grego.recipeservice.model.Recipe;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * RecipeCache holds recipes with their ingredients and instructions, by recipe id, so a recipe that is read often is
+ * loaded from the database once.  Recipes are evicted by Caffeine's W-TinyLFU policy when there are more than
+ * service.recipe_cache_size of them, and expire service.recipe_cache_ttl after they were loaded.  Concurrent reads of
+ * a recipe that isn't cached share one load, even when the cache is disabled, and are counted by the
+ * recipe.loads.coalesced metric.  Hits, misses and evictions are recorded as cache metrics named recipes.
+ */
+@Component
+public class RecipeCache {
+    /**
+     * Name of the cache in its metrics.
+     */
+    public static final String CACHE_NAME = "recipes";
+
+    /**
+     * Name of the metric counting reads that shared a load already in flight.
+     */
+    public static final String COALESCED_METRIC_NAME = "recipe.loads.coalesced";
+
+    /**
+     * Recipes by recipe id, or null when the cache is disabled.
+     */
+    private final AsyncCache<Long, Recipe> recipes;
+
+    /**
+     * Loads in flight by recipe id, shared by concurrent reads when the cache is disabled.
+     */
+    private final Map<Long, Mono<Recipe>> loads = new ConcurrentHashMap<>();
+
+    /**
+     * Number of reads that shared a load already in flight.
+     */
+    private final Counter coalesced = Counter.builder(COALESCED_METRIC_NAME)
+            .description("Reads of a recipe that shared a load already in flight")
+            .tag("cache", CACHE_NAME)
+            .register(Metrics.globalRegistry);
+
+    /**
+     * Constructor to build RecipeCache.
+     * @param maximumSize Maximum number of recipes cached, 0 to disable the cache
+     * @param timeToLive How long a recipe is cached after it was loaded
+     */
+    public RecipeCache(@Value("${service.recipe_cache_size:10000}") final long maximumSize,
+                       @Value("${service.recipe_cache_ttl:10m}") final Duration timeToLive) {
+        if (maximumSize > 0) {
+            this.recipes = CaffeineCacheMetrics.monitor(Metrics.globalRegistry, Caffeine.newBuilder()
+                    .maximumSize(maximumSize)
+                    .expireAfterWrite(timeToLive)
+                    .recordStats()
+                    .<Long, Recipe>buildAsync(), CACHE_NAME);
+        } else {
+            this.recipes = null;
+        }
+    }
+
+    /**
+     * Get a recipe from the cache, loading it if it isn't cached.  A recipe that isn't found isn't cached.  A read that
+     * is cancelled doesn't cancel the load for the other reads sharing it.
+     * @param recipeId
+     * @param loader Loads the recipe for a recipe id
+     * @return The recipe for the recipe id
+     */
+    public Mono<Recipe> get(final long recipeId, final Function<Long, Mono<Recipe>> loader) {
+        if (recipes == null) {
+            return Mono.defer(() -> getInFlight(recipeId, loader));
+        }
+
+        return Mono.fromFuture(() -> {
+            var loading = new AtomicBoolean();
+            var recipe = recipes.get(recipeId, (id, executor) -> {
+                loading.set(true);
+                return loader.apply(id).toFuture();
+            });
+
+            if (!loading.get() && !recipe.isDone()) {
+                coalesced.increment();
+            }
+
+            return recipe;
+        }, true);
+    }
+
+    /**
+     * Get the load in flight for a recipe, starting it if there isn't one.  The load is cancelled once every read
+     * sharing it is cancelled.
+     * @param recipeId
+     * @param loader Loads the recipe for a recipe id
+     * @return The recipe for the recipe id
+     */
+    private Mono<Recipe> getInFlight(final long recipeId, final Function<Long, Mono<Recipe>> loader) {
+        var load = new AtomicReference<Mono<Recipe>>();
+
+        load.set(Mono.defer(() -> loader.apply(recipeId))
+                .doFinally(signal -> loads.remove(recipeId, load.get()))
+                .share());
+
+        var inFlight = loads.putIfAbsent(recipeId, load.get());
+
+        if (inFlight == null) {
+            return load.get();
+        }
+
+        coalesced.increment();
+        return inFlight;
+    }
+
+    /**
+     * Remove recipes from the cache once the current transaction completes, so a read before the transaction commits
+     * can't cache the recipe as it was.  Without a transaction the recipes are removed straight away.
+     * @param recipeIds
+     * @return Completes when the recipes are removed or their removal is registered with the transaction
+     */
+    public Mono<Void> invalidateAfterCompletion(final Collection<Long> recipeIds) {
+        if (recipeIds.isEmpty()) {
+            return Mono.empty();
+        }
+
+        return TransactionSynchronizationManager.forCurrentTransaction()
+                .filter(TransactionSynchronizationManager::isSynchronizationActive)
+                .doOnNext(manager -> manager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public Mono<Void> afterCompletion(final int status) {
+                        return Mono.fromRunnable(() -> invalidate(recipeIds));
+                    }
+                }))
+                .onErrorResume(NoTransactionException.class, ex -> Mono.empty())
+                .switchIfEmpty(Mono.fromRunnable(() -> invalidate(recipeIds)))
+                .then();
+    }
+
+    /**
+     * Remove recipes from the cache, and stop later reads sharing their loads in flight.
+     * @param recipeIds
+     */
+    public void invalidate(final Collection<Long> recipeIds) {
+        if (recipes != null) {
+            recipes.synchronous().invalidateAll(recipeIds);
+        }
+
+        loads.keySet().removeAll(recipeIds);
+    }
+
+    /**
+     * Remove every recipe from the cache.
+     */
+    public void invalidateAll() {
+        if (recipes != null) {
+            recipes.synchronous().invalidateAll();
+        }
+
+        loads.clear();
+    }
+}
@@ -0,0 +1,36 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice.service;
+
+import java.util.Arrays;
+
+/**
+ * RecipeCountMode selects how the number of recipes is determined.
+ */
+public enum RecipeCountMode {
+    /**
+     * Count every recipe.
+     */
+    EXACT,
+    /**
+     * Use the estimate the database keeps for the recipes table.
+     */
+    ESTIMATED;
+
+    /**
+     * Get the count mode for the value of the count request parameter.
+     * @param parameterValue
+     * @return The count mode
+     */
+    public static RecipeCountMode fromParameterValue(final String parameterValue) {
+        return Arrays.stream(values())
+            .filter(countMode -> countMode.name().equalsIgnoreCase(parameterValue))
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException(String.format("Unsupported count:  count = %s",
+                parameterValue)));
+    }
+}
@@ -0,0 +1,213 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice.service;
+
+import io.r2dbc.postgresql.api.Notification;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Wrapped;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * RecipeInvalidationBus keeps the recipe cache of every instance of the service current.  The write paths publish the
+ * ids of the recipes they change on the recipe_changed PostgreSQL channel, which is delivered when their transaction
+ * commits, and every instance listens on the channel and removes the changed recipes from its cache.  While the
+ * listener connection is lost, and once it is listening again, the whole cache is cleared because changes made in
+ * between are missed.  Only PostgreSQL has notifications, so the bus does nothing on other databases.
+ */
+@Component
+@Slf4j
+public class RecipeInvalidationBus {
+    /**
+     * Channel the ids of changed recipes are published on.
+     */
+    public static final String CHANNEL = "recipe_changed";
+
+    /**
+     * Query to publish the ids of changed recipes, one notification per recipe.
+     */
+    public static final String NOTIFY_QUERY = String.format(
+            "SELECT pg_notify('%s', CAST(recipe_id AS TEXT)) FROM unnest(CAST(:recipeIds AS INT8[])) AS recipe_id", CHANNEL);
+
+    /**
+     * Statement to listen on the channel.
+     */
+    public static final String LISTEN_STATEMENT = "LISTEN " + CHANNEL;
+
+    /**
+     * Bind parameter of the recipe ids.
+     */
+    public static final String RECIPE_IDS = "recipeIds";
+
+    /**
+     * Name of PostgreSQL in the connection factory metadata.
+     */
+    static final String POSTGRESQL = "PostgreSQL";
+
+    /**
+     * Database client to publish and listen with.
+     */
+    private final DatabaseClient client;
+
+    /**
+     * Cache the changed recipes are removed from.
+     */
+    private final RecipeCache recipeCache;
+
+    /**
+     * Whether changes are published and listened for.
+     */
+    private final boolean enabled;
+
+    /**
+     * Delay before the first attempt to listen again after the connection is lost.
+     */
+    private final Duration reconnectDelay;
+
+    /**
+     * Longest delay between attempts to listen again.
+     */
+    private final Duration maximumReconnectDelay;
+
+    /**
+     * Subscription to the notifications, null when not listening.
+     */
+    private Disposable listener;
+
+    /**
+     * Constructor to build RecipeInvalidationBus.
+     * @param databaseClient
+     * @param cache
+     * @param notifications Whether changes are published and listened for, when the database is PostgreSQL
+     * @param minimumBackoff Delay before the first attempt to listen again after the connection is lost
+     * @param maximumBackoff Longest delay between attempts to listen again
+     */
+    public RecipeInvalidationBus(final DatabaseClient databaseClient, final RecipeCache cache,
+                                 @Value("${service.recipe_change_notifications:true}") final boolean notifications,
+                                 @Value("${service.recipe_change_reconnect_delay:1s}") final Duration minimumBackoff,
+                                 @Value("${service.recipe_change_max_reconnect_delay:1m}") final Duration maximumBackoff) {
+        this.client = databaseClient;
+        this.recipeCache = cache;
+        this.enabled = notifications && POSTGRESQL.equals(getConnectionFactory().getMetadata().getName());
+        this.reconnectDelay = minimumBackoff;
+        this.maximumReconnectDelay = maximumBackoff;
+    }
+
+    /**
+     * Publish that recipes changed.  Inside a transaction the notifications are delivered when it commits, and not at
+     * all if it rolls back.
+     * @param recipeIds
+     * @return Completes when the notifications are sent or queued in the transaction
+     */
+    public Mono<Void> publish(final Collection<Long> recipeIds) {
+        if (!enabled || recipeIds.isEmpty()) {
+            return Mono.empty();
+        }
+
+        return client.sql(NOTIFY_QUERY)
+                .bind(RECIPE_IDS, recipeIds.toArray(new Long[0]))
+                .then();
+    }
+
+    /**
+     * Start listening for changed recipes once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (enabled && listener == null) {
+            listener = listen()
+                    .retryWhen(Retry.backoff(Long.MAX_VALUE, reconnectDelay)
+                            .maxBackoff(maximumReconnectDelay)
+                            .transientErrors(true)
+                            .doBeforeRetry(signal -> log.warn("Lost {} listener, reconnecting", CHANNEL,
+                                    signal.failure())))
+                    .subscribe(recipeId -> recipeCache.invalidate(List.of(recipeId)));
+        }
+    }
+
+    /**
+     * Stop listening for changed recipes.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        if (listener != null) {
+            listener.dispose();
+            listener = null;
+        }
+    }
+
+    /**
+     * Listen on a dedicated connection for the ids of changed recipes.  The cache is cleared once listening starts, and
+     * again if the connection is lost, which is signalled as an error so the caller can reconnect.
+     * @return The ids of changed recipes
+     */
+    Flux<Long> listen() {
+        return Flux.usingWhen(Mono.defer(() -> Mono.from(getConnectionFactory().create())).cast(PostgresqlConnection.class),
+                        connection -> connection.getNotifications()
+                                .mergeWith(listen(connection).then(Mono.empty()))
+                                .concatWith(Mono.error(() -> new IllegalStateException(
+                                        String.format("%s listener connection closed", CHANNEL))))
+                                .handle(this::parseRecipeId),
+                        Connection::close)
+                .doOnError(ex -> recipeCache.invalidateAll());
+    }
+
+    /**
+     * Start listening on the channel, after subscribing to the connection's notifications so none are missed, and
+     * clear the cache of any changes made before.
+     * @param connection
+     * @return Completes once listening
+     */
+    private Mono<Void> listen(final PostgresqlConnection connection) {
+        return Flux.from(connection.createStatement(LISTEN_STATEMENT).execute())
+                .flatMap(Result::getRowsUpdated)
+                .then(Mono.fromRunnable(() -> {
+                    log.info("Listening on {}", CHANNEL);
+                    recipeCache.invalidateAll();
+                }));
+    }
+
+    private void parseRecipeId(final Notification notification, final SynchronousSink<Long> sink) {
+        try {
+            sink.next(Long.valueOf(notification.getParameter()));
+        } catch (NumberFormatException ex) {
+            log.warn("Not a recipe id on {}:  {}", CHANNEL, notification.getParameter());
+        }
+    }
+
+    /**
+     * Get the connection factory beneath any pool, so the listener has a connection of its own for as long as it
+     * listens instead of holding one of the pool's.
+     * @return The connection factory
+     */
+    private ConnectionFactory getConnectionFactory() {
+        var connectionFactory = client.getConnectionFactory();
+
+        while (connectionFactory instanceof Wrapped<?> wrapped && wrapped.unwrap() instanceof ConnectionFactory unwrapped) {
+            connectionFactory = unwrapped;
+        }
+
+        return connectionFactory;
+    }
+}
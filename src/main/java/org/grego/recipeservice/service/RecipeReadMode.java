@@ -0,0 +1,25 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice.service;
+
+/**
+ * RecipeReadMode selects how a recipe is loaded with its ingredients and instructions.
+ */
+public enum RecipeReadMode {
+    /**
+     * Load the recipe, its ingredients and its instructions with separate queries.
+     */
+    MULTI_QUERY,
+    /**
+     * Load the recipe, its ingredients and its instructions with a single query.
+     */
+    AGGREGATE,
+    /**
+     * Load the recipe with its ingredients and instructions from the snapshot on its row.
+     */
+    SNAPSHOT
+}
@@ -10,35 +10,56 @@ import co.elastic.clients.elasticsearch._types.query_dsl.Query;
 import co.elastic.clients.elasticsearch._types.query_dsl.QueryStringQuery;
 import co.elastic.clients.elasticsearch.core.SearchRequest;
 import co.elastic.clients.elasticsearch.core.search.ResponseBody;
+import io.r2dbc.spi.Row;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.collections4.CollectionUtils;
 import org.grego.recipeservice.document.RecipeDoc;
+import org.grego.recipeservice.mapping.IngredientRowMapper;
+import org.grego.recipeservice.mapping.InstructionRowMapper;
 import org.grego.recipeservice.mapping.RecipeMapper;
 import org.grego.recipeservice.repository.IngredientRepository;
+import org.grego.recipeservice.repository.RecipeAggregateRepository;
 import org.grego.recipeservice.repository.InstructionRepository;
 import org.grego.recipeservice.repository.RecipeRepository;
 import org.grego.recipeservice.model.Ingredient;
 import org.grego.recipeservice.model.Instruction;
 import org.grego.recipeservice.model.Recipe;
+import org.grego.recipeservice.model.RecipeCursor;
+import org.grego.recipeservice.model.RecipeDeleteProgress;
+import org.grego.recipeservice.model.RecipeImportResult;
+import org.grego.recipeservice.model.RecipeSortKey;
+import org.grego.recipeservice.model.RecipeVersion;
+import org.grego.recipeservice.model.RecipesByIds;
 import org.grego.recipeservice.repository.RecipeSearchRepository;
+import org.grego.recipeservice.repository.RecipeSnapshotRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.elasticsearch.client.elc.ReactiveElasticsearchClient;
 import org.springframework.data.elasticsearch.core.ReactiveElasticsearchOperations;
 import org.springframework.data.r2dbc.repository.Modifying;
-import org.springframework.data.relational.core.sql.LockMode;
-import org.springframework.data.relational.repository.Lock;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.util.function.Tuple2;
 import reactor.util.function.Tuple3;
+import reactor.util.function.Tuples;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -47,108 +68,139 @@ import java.util.stream.IntStream;
 @Service
 @RequiredArgsConstructor
 public class RecipeService implements IRecipeService {
-    /**
-     * SQL command for inserting to recipes_instructions table.
-     */
-    public static final String INSERT_RECIPES_INSTRUCTIONS =
-            "INSERT INTO recipes_instructions (recipe_recipe_id, instructions_instruction_id) VALUES ";
-
-    /**
-     * SQL command for deleting recipes_ingredients.
-     */
-    public static final String DELETE_RECIPES_INGREDIENTS =
-            "DELETE FROM recipes_ingredients WHERE recipe_recipe_id IN (%s)";
-    /**
-     * SQL command for deleting recipes_instructions.
-     */
-    public static final String DELETE_RECIPES_INSTRUCTIONS =
-            "DELETE FROM recipes_instructions WHERE recipe_recipe_id IN (%s)";
-
     /**
      * Name for recipe id.
      */
     public static final String RECIPE_ID = "recipeId";
 
     /**
-     * Delimiter used in SQL statements.
+     * Name for recipe ids.
      */
-    public static final String DELIMITER = ", ";
+    public static final String RECIPE_IDS = "recipeIds";
 
     /**
-     * Insert values format string.
+     * Name of the column in the ingredients and instructions tables that holds the recipe id.
      */
-    public static final String INSERT_VALUES_FORMAT = "(%d, %d)";
+    public static final String RECIPE_ID_COLUMN_NAME = "recipe_id";
 
     /**
-     * SQL fragment to select recipes_ingredients.
+     * SQL fragment to select ingredients, in the column order IngredientRowMapper reads.
      */
     private static final String INGREDIENTS_QUERY = """
                 select i.ingredient_id, i.ingredient_number, i.ingredient, i.quantity_specifier, i.quantity
-                from recipes_ingredients ri
-                join ingredients i on i.ingredient_id = ri.ingredients_ingredient_id
+                from ingredients i
             """;
 
     /**
-     * SQL fragment to select recipes_instructions.
+     * SQL fragment to select instructions, in the column order InstructionRowMapper reads.
      */
     private static final String INSTRUCTIONS_QUERY = """
-                select i.instruction_id , i.instruction_number, i.instruction
-                from recipes_instructions ri
-                join instructions i on i.instruction_id  = ri.instructions_instruction_id
+                select i.instruction_id, i.instruction_number, i.instruction
+                from instructions i
             """;
 
     /**
-     * SQL fragment to select ingredients ids.
+     * SQL fragment to select ingredients along with the recipe id they belong to.
      */
-    private static final String INGREDIENT_IDS_QUERY = """
-                select i.ingredient_id
-                from recipes_ingredients ri
-                join ingredients i on i.ingredient_id = ri.ingredients_ingredient_id
+    private static final String RECIPE_INGREDIENTS_QUERY = """
+                select i.recipe_id, i.ingredient_id, i.ingredient_number, i.ingredient,
+                    i.quantity_specifier, i.quantity
+                from ingredients i
             """;
 
     /**
-     * SQL fragment to select instruction ids.
+     * SQL fragment to select instructions along with the recipe id they belong to.
      */
-    private static final String INSTRUCTION_IDS_QUERY = """
-                select i.instruction_id
-                from recipes_instructions ri
-                join instructions i on i.instruction_id  = ri.instructions_instruction_id
+    private static final String RECIPE_INSTRUCTIONS_QUERY = """
+                select i.recipe_id, i.instruction_id, i.instruction_number, i.instruction
+                from instructions i
             """;
 
+    /**
+     * Index of the recipe id column, which comes before the ingredient or instruction columns when they're selected
+     * along with the recipe id they belong to.
+     */
+    private static final int RECIPE_ID_COLUMN = 0;
+
+    /**
+     * Reads the ingredients selected along with the recipe id they belong to.
+     */
+    private static final IngredientRowMapper RECIPE_INGREDIENT_ROW_MAPPER =
+            new IngredientRowMapper(RECIPE_ID_COLUMN + 1);
+
+    /**
+     * Reads the instructions selected along with the recipe id they belong to.
+     */
+    private static final InstructionRowMapper RECIPE_INSTRUCTION_ROW_MAPPER =
+            new InstructionRowMapper(RECIPE_ID_COLUMN + 1);
+
     /**
      * SQL fragment to match recipe id.
      */
-    private static final String MATCH_RECIPE_ID = "WHERE ri.recipe_recipe_id = :recipeId";
+    private static final String MATCH_RECIPE_ID = "WHERE i.recipe_id = :recipeId";
+
+    /**
+     * SQL fragment to match any of the recipe ids.
+     */
+    private static final String MATCH_ANY_RECIPE_ID = "WHERE i.recipe_id = ANY(:recipeIds)";
 
     /**
-     * SQL comment to get ingredients that match the recipe id.
+     * SQL command to get the ingredients that match the recipe id, in order from the recipe id and ingredient number
+     * index.
      */
     static final String INGREDIENTS_MATCHING_QUERY =
-            String.format("%s %s", INGREDIENTS_QUERY, MATCH_RECIPE_ID);
+            String.format("%s %s ORDER BY i.ingredient_number", INGREDIENTS_QUERY, MATCH_RECIPE_ID);
 
     /**
-     * SQL command to get the instructions that match the recipe id.
+     * SQL command to get the instructions that match the recipe id, in order from the recipe id and instruction
+     * number index.
      */
     static final String INSTRUCTIONS_MATCHING_QUERY =
-            String.format("%s %s", INSTRUCTIONS_QUERY, MATCH_RECIPE_ID);
+            String.format("%s %s ORDER BY i.instruction_number", INSTRUCTIONS_QUERY, MATCH_RECIPE_ID);
+
+    /**
+     * SQL command to get the ingredients that match any of the recipe ids.
+     */
+    static final String INGREDIENTS_MATCHING_ANY_QUERY =
+            String.format("%s %s ORDER BY i.recipe_id, i.ingredient_number",
+                    RECIPE_INGREDIENTS_QUERY, MATCH_ANY_RECIPE_ID);
+
+    /**
+     * SQL command to get the instructions that match any of the recipe ids.
+     */
+    static final String INSTRUCTIONS_MATCHING_ANY_QUERY =
+            String.format("%s %s ORDER BY i.recipe_id, i.instruction_number",
+                    RECIPE_INSTRUCTIONS_QUERY, MATCH_ANY_RECIPE_ID);
+
+    /**
+     * Default number of streamed recipes that have their ingredients and instructions loaded together.
+     */
+    private static final int DEFAULT_STREAM_CHUNK_SIZE = 50;
 
     /**
-     * SQL command to get the ingredient ids that match the recipe id.
+     * Default number of recipes deleted together by a bulk delete.
      */
-    private static final String INGREDIENT_IDS_MATCHING_QUERY =
-            String.format("%s %s", INGREDIENT_IDS_QUERY, MATCH_RECIPE_ID);
+    private static final int DEFAULT_BULK_DELETE_CHUNK_SIZE = 500;
 
     /**
-     * SQL command to get the instruction ids that match the recipe id.
+     * Default number of recipes saved together by an import.
      */
-    private static final String INSTRUCTION_IDS_MATCHING_QUERY =
-            String.format("%s %s", INSTRUCTION_IDS_QUERY, MATCH_RECIPE_ID);
+    private static final int DEFAULT_IMPORT_BATCH_SIZE = 500;
 
     /**
-     * SQL fragment to insert into the recipes_ingredients table.
+     * Default number of recipes fetched from the cursor at a time by an export.
      */
-    private static final String INSERT_RECIPES_INGREDIENTS =
-            "INSERT INTO recipes_ingredients (recipe_recipe_id, ingredients_ingredient_id) VALUES ";
+    private static final int DEFAULT_EXPORT_FETCH_SIZE = 1000;
+
+    /**
+     * Default most recipes read by id that are loaded together.
+     */
+    private static final int DEFAULT_RECIPE_BATCH_SIZE = 100;
+
+    /**
+     * Default longest a recipe read by id waits for other reads to be loaded with.
+     */
+    private static final Duration DEFAULT_RECIPE_BATCH_WINDOW = Duration.ofMillis(2);
 
     /**
      * Elasticsearch operations.
@@ -182,12 +234,36 @@ public class RecipeService implements IRecipeService {
     @Autowired
     private InstructionRepository instructionRepository;
 
+    /**
+     * Recipe aggregate repository to load a recipe with its ingredients and instructions in one query.
+     */
+    @Autowired
+    private RecipeAggregateRepository recipeAggregateRepository;
+
+    /**
+     * Recipe snapshot repository to keep each recipe's snapshot of its ingredients and instructions and read from it.
+     */
+    @Autowired
+    private RecipeSnapshotRepository recipeSnapshotRepository;
+
     /**
      * Recipe search repository to perform operations in the search engine.
      */
     @Autowired
     private RecipeSearchRepository recipeSearchRepository;
 
+    /**
+     * Cache of recipes with their ingredients and instructions.
+     */
+    @Autowired
+    private RecipeCache recipeCache;
+
+    /**
+     * Bus to remove changed recipes from the recipe cache of every instance of the service.
+     */
+    @Autowired
+    private RecipeInvalidationBus recipeInvalidationBus;
+
     /**
      * Database client to perform operation in the database.
      */
@@ -200,6 +276,88 @@ public class RecipeService implements IRecipeService {
     @Autowired
     private RecipeMapper recipeMapper;
 
+    /**
+     * Transactional operator to save each batch of an import in its own transaction.
+     */
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    /**
+     * How a recipe is loaded with its ingredients and instructions.
+     */
+    @Value("${service.recipe_read_mode:MULTI_QUERY}")
+    private RecipeReadMode recipeReadMode = RecipeReadMode.MULTI_QUERY;
+
+    /**
+     * Whether each recipe's snapshot is rebuilt as it's written while recipes are read another way, so the snapshots
+     * are ready before switching to the snapshot read mode.  They're always rebuilt in the snapshot read mode.
+     * Otherwise the snapshot is removed, and built again by the backfill once the snapshots are kept.
+     */
+    @Value("${service.recipe_snapshot_enabled:false}")
+    private boolean recipeSnapshotEnabled;
+
+    /**
+     * Number of streamed recipes that have their ingredients and instructions loaded together.
+     */
+    @Value("${service.stream_chunk_size:50}")
+    private int streamChunkSize = DEFAULT_STREAM_CHUNK_SIZE;
+
+    /**
+     * Number of recipes deleted together by a bulk delete.
+     */
+    @Value("${service.bulk_delete_chunk_size:500}")
+    private int bulkDeleteChunkSize = DEFAULT_BULK_DELETE_CHUNK_SIZE;
+
+    /**
+     * Number of recipes saved together by an import.
+     */
+    @Value("${service.import_batch_size:500}")
+    private int importBatchSize = DEFAULT_IMPORT_BATCH_SIZE;
+
+    /**
+     * Number of recipes fetched from the cursor at a time by an export.
+     */
+    @Value("${service.export_fetch_size:1000}")
+    private int exportFetchSize = DEFAULT_EXPORT_FETCH_SIZE;
+
+    /**
+     * Most recipes read by id that are loaded together.
+     */
+    @Value("${service.recipe_batch_size:100}")
+    private int recipeBatchSize = DEFAULT_RECIPE_BATCH_SIZE;
+
+    /**
+     * Longest a recipe read by id waits for other reads to be loaded with, 0 to load each read on its own.
+     */
+    @Value("${service.recipe_batch_window:2ms}")
+    private Duration recipeBatchWindow = DEFAULT_RECIPE_BATCH_WINDOW;
+
+    /**
+     * Loads recipes read by id together, null when each read is loaded on its own.
+     */
+    private RecipeBatchLoader recipeBatchLoader;
+
+    /**
+     * Start loading recipes read by id in batches, unless the batch window is 0.
+     */
+    @PostConstruct
+    public void startRecipeBatchLoader() {
+        if (recipeBatchWindow.isPositive() && recipeBatchSize > 1) {
+            recipeBatchLoader = new RecipeBatchLoader(this::loadRecipesByIds, recipeBatchSize, recipeBatchWindow);
+        }
+    }
+
+    /**
+     * Stop loading recipes read by id in batches.
+     */
+    @PreDestroy
+    public void stopRecipeBatchLoader() {
+        if (recipeBatchLoader != null) {
+            recipeBatchLoader.dispose();
+            recipeBatchLoader = null;
+        }
+    }
+
     private static Function<Tuple3<Recipe, List<Ingredient>, List<Instruction>>,
             Recipe> mergeRecipeWithIngredientsAndInstructions() {
         return tuple -> {
@@ -226,40 +384,238 @@ public class RecipeService implements IRecipeService {
      */
     @Override
     @Transactional
-    @Lock(LockMode.PESSIMISTIC_READ)
     public Flux<Recipe> getAllRecipes(final long startPage, final int pageSize) {
+        if (recipeReadMode == RecipeReadMode.SNAPSHOT) {
+            return recipeSnapshotRepository.findAll(startPage, pageSize);
+        }
 
         Flux<Recipe> results = recipeRepository.findAll(startPage, pageSize)
-            .flatMap(recipe ->
-                Mono.zip(
-                        Mono.just(recipe),
-                        getIngredients(recipe.getRecipeId()),
-                        getInstructions(recipe.getRecipeId()))
-                    .map(mergeRecipeWithIngredientsAndInstructions()));
+            .collectList()
+            .flatMapMany(this::mergeRecipesWithIngredientsAndInstructions);
 
         return results.switchIfEmpty(Flux.empty());
     }
 
+    /**
+     * Get all recipes in a view.  The summary view reads only the recipes table.
+     * @param startPage
+     * @param pageSize
+     * @param view
+     * @return All the recipes for the page, without ingredients and instructions in the summary view
+     */
+    @Override
+    @Transactional
+    public Flux<Recipe> getAllRecipes(final long startPage, final int pageSize, final RecipeView view) {
+        if (view == RecipeView.SUMMARY) {
+            return recipeRepository.findAll(startPage, pageSize);
+        }
+
+        return getAllRecipes(startPage, pageSize);
+    }
+
+    /**
+     * Get the page of recipes that follows a cursor.
+     * @param sortKey
+     * @param after
+     * @param pageSize
+     * @return The recipes for the page
+     */
+    @Override
+    @Transactional
+    public Flux<Recipe> getRecipesAfter(final RecipeSortKey sortKey, final RecipeCursor after, final int pageSize) {
+        return recipeRepository.findAllAfter(sortKey, after, pageSize)
+            .collectList()
+            .flatMapMany(this::mergeRecipesWithIngredientsAndInstructions);
+    }
+
+    /**
+     * Get the page of recipes that follows a cursor in a view.  The summary view reads only the recipes table.
+     * @param sortKey
+     * @param after
+     * @param pageSize
+     * @param view
+     * @return The recipes for the page, without ingredients and instructions in the summary view
+     */
+    @Override
+    @Transactional
+    public Flux<Recipe> getRecipesAfter(final RecipeSortKey sortKey, final RecipeCursor after, final int pageSize,
+                                        final RecipeView view) {
+        if (view == RecipeView.SUMMARY) {
+            return recipeRepository.findAllAfter(sortKey, after, pageSize);
+        }
+
+        return getRecipesAfter(sortKey, after, pageSize);
+    }
+
+    /**
+     * Get the versions of the recipes on a page, without loading the recipes.
+     * @param startPage
+     * @param pageSize
+     * @return The versions of the recipes getAllRecipes gets for the page
+     */
+    @Override
+    public Flux<RecipeVersion> getAllRecipeVersions(final long startPage, final int pageSize) {
+        return recipeRepository.findAllVersions(startPage, pageSize);
+    }
+
+    /**
+     * Get the versions of the recipes on the page that follows a cursor, without loading the recipes.
+     * @param sortKey
+     * @param after The cursor of the previous page, or null for the first page
+     * @param pageSize
+     * @return The versions of the recipes getRecipesAfter gets for the page
+     */
+    @Override
+    public Flux<RecipeVersion> getRecipeVersionsAfter(final RecipeSortKey sortKey, final RecipeCursor after,
+                                                      final int pageSize) {
+        return recipeRepository.findAllVersionsAfter(sortKey, after, pageSize);
+    }
+
+    /**
+     * Stream all recipes for the page.  Recipes are emitted as soon as each chunk has its ingredients and
+     * instructions loaded.  Not run in a transaction so the chunk queries use their own connections while
+     * the recipe query is still being read.
+     * @param startPage
+     * @param pageSize
+     * @return The recipes for the page
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Flux<Recipe> streamAllRecipes(final long startPage, final int pageSize) {
+        return mergeRecipeChunksWithIngredientsAndInstructions(recipeRepository.findAll(startPage, pageSize));
+    }
+
+    /**
+     * Stream the page of recipes that follows a cursor.
+     * @param sortKey
+     * @param after
+     * @param pageSize
+     * @return The recipes for the page
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Flux<Recipe> streamRecipesAfter(final RecipeSortKey sortKey, final RecipeCursor after, final int pageSize) {
+        return mergeRecipeChunksWithIngredientsAndInstructions(recipeRepository.findAllAfter(sortKey, after, pageSize));
+    }
+
+    /**
+     * Stream all recipes for the page in a view.  The summary view reads only the recipes table.
+     * @param startPage
+     * @param pageSize
+     * @param view
+     * @return The recipes for the page, without ingredients and instructions in the summary view
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Flux<Recipe> streamAllRecipes(final long startPage, final int pageSize, final RecipeView view) {
+        if (view == RecipeView.SUMMARY) {
+            return recipeRepository.findAll(startPage, pageSize);
+        }
+
+        return streamAllRecipes(startPage, pageSize);
+    }
+
+    /**
+     * Stream the page of recipes that follows a cursor in a view.  The summary view reads only the recipes table.
+     * @param sortKey
+     * @param after
+     * @param pageSize
+     * @param view
+     * @return The recipes for the page, without ingredients and instructions in the summary view
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Flux<Recipe> streamRecipesAfter(final RecipeSortKey sortKey, final RecipeCursor after, final int pageSize,
+                                           final RecipeView view) {
+        if (view == RecipeView.SUMMARY) {
+            return recipeRepository.findAllAfter(sortKey, after, pageSize);
+        }
+
+        return streamRecipesAfter(sortKey, after, pageSize);
+    }
+
+    /**
+     * Export all recipes after a recipe id with their ingredients and instructions, in recipe id order.  Each recipe
+     * is read with its ingredients and instructions in one row from a server-side cursor.  Read only, in one
+     * transaction, so the export sees a single snapshot of the catalog.
+     * @param afterRecipeId
+     * @return The recipes after the recipe id
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<Recipe> exportRecipes(final long afterRecipeId) {
+        return recipeAggregateRepository.findAllAfter(afterRecipeId, exportFetchSize);
+    }
+
     /**
      * Get the number of recipes.
      * @return The number of recipes
      */
     @Override
     @Transactional
-    @Lock(LockMode.PESSIMISTIC_READ)
     public Mono<Long> getRecipeCount() {
         return recipeRepository.countAll();
     }
 
     /**
-     * Get recipe by recipe id.
+     * Get the number of recipes.
+     * @param countMode
+     * @return The number of recipes
+     */
+    @Override
+    @Transactional
+    public Mono<Long> getRecipeCount(final RecipeCountMode countMode) {
+        return countMode == RecipeCountMode.ESTIMATED ? recipeRepository.estimateCount() : recipeRepository.countAll();
+    }
+
+    /**
+     * Get recipe by recipe id, from the recipe cache if it's there.  Concurrent reads of a recipe that isn't cached
+     * share one load.  Not run in a transaction, so a cached recipe is returned without taking a connection.
      * @param recipeId
      * @return Recipe for the recipe id
      */
     @Override
-    @Transactional
-    @Lock(LockMode.PESSIMISTIC_READ)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Mono<Recipe> getRecipeById(final long recipeId) {
+        return recipeCache.get(recipeId, this::loadRecipeById);
+    }
+
+    /**
+     * Get recipe by recipe id in a view.  The summary view reads only the recipes table, and doesn't use the recipe
+     * cache.
+     * @param recipeId
+     * @param view
+     * @return Recipe for the recipe id, without ingredients and instructions in the summary view
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Mono<Recipe> getRecipeById(final long recipeId, final RecipeView view) {
+        if (view == RecipeView.SUMMARY) {
+            return recipeRepository.findById(recipeId);
+        }
+
+        return getRecipeById(recipeId);
+    }
+
+    /**
+     * Load a recipe by recipe id from the database, together with the other recipes read at the same time when reads
+     * are batched.
+     * @param recipeId
+     * @return Recipe for the recipe id
+     */
+    private Mono<Recipe> loadRecipeById(final long recipeId) {
+        if (recipeReadMode == RecipeReadMode.AGGREGATE) {
+            return recipeAggregateRepository.findById(recipeId);
+        }
+
+        if (recipeReadMode == RecipeReadMode.SNAPSHOT) {
+            return recipeSnapshotRepository.findById(recipeId);
+        }
+
+        if (recipeBatchLoader != null) {
+            return recipeBatchLoader.load(recipeId);
+        }
+
         return Mono.zip(
                         recipeRepository.findById(recipeId),
                         getIngredients(recipeId),
@@ -267,6 +623,31 @@ public class RecipeService implements IRecipeService {
                 .map(mergeRecipeWithIngredientsAndInstructions());
     }
 
+    /**
+     * Get recipes by recipe ids with one query for each table.  Repeated ids are only returned once.
+     * @param recipeIds
+     * @return Recipes in the order of their ids, and the ids without a recipe
+     */
+    @Override
+    public Mono<RecipesByIds> getRecipesByIds(final List<Long> recipeIds) {
+        var distinctRecipeIds = recipeIds.stream().distinct().toList();
+
+        return loadRecipesByIds(distinctRecipeIds)
+                .map(recipes -> new RecipesByIds(
+                        distinctRecipeIds.stream().filter(recipes::containsKey).map(recipes::get).toList(),
+                        distinctRecipeIds.stream().filter(recipeId -> !recipes.containsKey(recipeId)).toList()));
+    }
+
+    /**
+     * Get the version of a recipe by recipe id, without loading the recipe.
+     * @param recipeId
+     * @return Version of the recipe for the recipe id
+     */
+    @Override
+    public Mono<RecipeVersion> getRecipeVersionById(final long recipeId) {
+        return recipeRepository.findVersionById(recipeId);
+    }
+
     /**
      * Add a recipe.
      * @param recipe
@@ -274,27 +655,39 @@ public class RecipeService implements IRecipeService {
      */
     @Override
     @Modifying
-    @Lock(LockMode.PESSIMISTIC_WRITE)
     public Mono<Recipe> addRecipe(final Recipe recipe) {
         recipe.setCreationDateTime(LocalDateTime.now());
         recipe.setLastModifiedDateTime(recipe.getCreationDateTime());
         orderIngredientsAndInstructions(recipe);
 
-        return recipeRepository.findAllByName(recipe.getName())
-                .collectList()
-                .flatMap(recipesWithSameName -> {
-                    var nextVariation = recipesWithSameName
-                            .stream()
-                            .mapToInt(Recipe::getVariation).max().orElse(0) + 1;
-
-                    recipe.setVariation(nextVariation);
+        return recipeRepository.allocateVariations(Map.of(recipe.getName(), 1))
+                .flatMap(variations -> {
+                    recipe.setVariation(variations.get(recipe.getName()));
 
                     return saveRecipe(recipe).flatMap(savedRecipe ->
                             recipeSearchRepository.save(recipeMapper.toDoc(savedRecipe))
+                                    .then(recipeCache.invalidateAfterCompletion(List.of(savedRecipe.getRecipeId())))
                                     .then(Mono.just(savedRecipe)));
                 });
     }
 
+    /**
+     * Import recipes a batch at a time.  Each batch is saved in its own transaction with multi-row inserts and
+     * indexed with one bulk request.  Recipes are only requested as fast as batches are saved, so a large import
+     * isn't buffered in memory.  A recipe that fails validation, or a batch that fails to save, is reported in the
+     * results without stopping the import.
+     * @param recipes
+     * @return The id or error for each recipe, in the order they were imported
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Flux<RecipeImportResult> importRecipes(final Flux<Recipe> recipes) {
+        return recipes
+                .index()
+                .buffer(importBatchSize)
+                .concatMap(this::importBatch, 1);
+    }
+
     /**
      * Update a recipe.
      * @param recipe
@@ -302,17 +695,19 @@ public class RecipeService implements IRecipeService {
      */
     @Override
     @Modifying
-    @Lock(LockMode.PESSIMISTIC_WRITE)
     public Mono<Recipe> updateRecipe(final Recipe recipe) {
-        return Mono.zip(
-                        recipeRepository.findById(recipe.getRecipeId()),
-                        getIngredients(recipe.getRecipeId()),
-                        getInstructions(recipe.getRecipeId())
-                )
+        recipe.setLastModifiedDateTime(LocalDateTime.now());
+
+        return recipeRepository.update(recipe)
+                .flatMap(updatedCount -> updatedCount > 0
+                        ? recipeRepository.findById(recipe.getRecipeId())
+                        : getVersionConflict(recipe))
+                .flatMap(updatedRecipe -> Mono.zip(Mono.just(updatedRecipe), getIngredients(recipe.getRecipeId()),
+                        getInstructions(recipe.getRecipeId())))
                 .flatMap(tuple -> {
                     recipe.setVariation(tuple.getT1().getVariation());
+                    recipe.setVersion(tuple.getT1().getVersion());
                     recipe.setCreationDateTime(tuple.getT1().getCreationDateTime());
-                    recipe.setLastModifiedDateTime(LocalDateTime.now());
 
                     orderIngredientsAndInstructions(recipe);
 
@@ -355,18 +750,32 @@ public class RecipeService implements IRecipeService {
                             .collect(Collectors.toList());
 
                     return Mono.zip(
-                            recipeRepository.update(recipe),
                             deleteIngredientsByIds(abandonedIngredientIds).collectList(),
                             deleteInstructionsByIds(abandonedInstructionIds).collectList(),
                             updateIngredients(ingredientsToUpdate).collectList(),
                             updateInstructions(instructionsToUpdate).collectList(),
                             saveIngredients(recipe.getRecipeId(), ingredientsToAdd).collectList(),
                             saveInstructions(recipe.getRecipeId(), instructionsToAdd).collectList()
-                    ).map(tuple7 -> recipeSearchRepository.save(recipeMapper.toDoc(recipe)).then())
+                    ).then(refreshSnapshots(List.of(recipe.getRecipeId())))
+                    .then(recipeSearchRepository.save(recipeMapper.toDoc(recipe)))
+                    .then(recipeCache.invalidateAfterCompletion(List.of(recipe.getRecipeId())))
+                    .then(recipeInvalidationBus.publish(List.of(recipe.getRecipeId())))
                     .then(Mono.just(recipe));
                 });
     }
 
+    /**
+     * Get the error for an update that changed nothing, because the recipe's version has changed since it was read.
+     * @param recipe
+     * @return Error if the recipe exists, otherwise empty
+     */
+    private Mono<Recipe> getVersionConflict(final Recipe recipe) {
+        return recipeRepository.findById(recipe.getRecipeId())
+                .flatMap(existingRecipe -> Mono.error(new OptimisticLockingFailureException(
+                        String.format("Recipe %d is at version %d, not version %d", recipe.getRecipeId(),
+                                existingRecipe.getVersion(), recipe.getVersion()))));
+    }
+
     /**
      * Delete recipe by recipe id.
      * @param recipeId
@@ -374,29 +783,44 @@ public class RecipeService implements IRecipeService {
      */
     @Override
     @Modifying
-    @Lock(LockMode.PESSIMISTIC_WRITE)
     public Mono<Long> deleteRecipeById(final long recipeId) {
+        return recipeRepository.deleteByIdWithIngredientsAndInstructions(recipeId)
+                .flatMap(deletedRecipeId -> recipeSearchRepository.deleteById(deletedRecipeId)
+                        .then(recipeCache.invalidateAfterCompletion(List.of(deletedRecipeId)))
+                        .then(recipeInvalidationBus.publish(List.of(deletedRecipeId)))
+                        .thenReturn(deletedRecipeId));
+    }
 
-        var deleteRecipeIngredients = String.format(DELETE_RECIPES_INGREDIENTS, recipeId);
-        var deleteRecipeInstructions = String.format(DELETE_RECIPES_INSTRUCTIONS, recipeId);
-
-        return Mono.zip(getIngredientIds(recipeId),
-                        getInstructionIds(recipeId)
-                )
-                .flatMap(tuple ->
-                        Mono.zip(
-                                client.sql(deleteRecipeIngredients).fetch().all().collectList(),
-                                client.sql(deleteRecipeInstructions).fetch().all().collectList()).then(Mono.just(tuple))
-                )
-                .flatMap(tuple ->
-                        Mono.zip(
-                                        recipeRepository.deleteById(recipeId),
-                                        ingredientRepository.deleteAllByIds(tuple.getT1()).collectList(),
-                                        instructionRepository.deleteAllByIds(tuple.getT2()).collectList(),
-                                        recipeSearchRepository.deleteById(recipeId)
-                                )
-                                .map(Tuple2::getT1)
-                );
+    /**
+     * Delete recipes by recipe ids a chunk at a time.  Each chunk is deleted with one set-based statement and its
+     * documents with one delete by query.  Not run in a single transaction so a long bulk delete doesn't hold locks
+     * on every recipe until it is done.
+     * @param recipeIds
+     * @return Progress after each chunk is deleted
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Flux<RecipeDeleteProgress> deleteRecipesByIds(final Collection<Long> recipeIds) {
+        return getDeleteProgress(Flux.fromIterable(recipeIds)
+                .distinct()
+                .buffer(bulkDeleteChunkSize)
+                .concatMap(this::deleteRecipeChunk));
+    }
+
+    /**
+     * Delete the recipes last modified before a date time a chunk at a time, until no more recipes match.
+     * @param lastModifiedBefore
+     * @return Progress after each chunk is deleted
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Flux<RecipeDeleteProgress> deleteRecipesLastModifiedBefore(final LocalDateTime lastModifiedBefore) {
+        return getDeleteProgress(Mono.defer(() -> recipeRepository
+                        .findIdsLastModifiedBefore(lastModifiedBefore, bulkDeleteChunkSize)
+                        .collectList()
+                        .flatMap(this::deleteRecipeChunk))
+                .repeat()
+                .takeWhile(deletedRecipeIds -> !deletedRecipeIds.isEmpty()));
     }
 
     /**
@@ -423,79 +847,233 @@ public class RecipeService implements IRecipeService {
     private Mono<List<Ingredient>> getIngredients(final long recipeId) {
         return client.sql(INGREDIENTS_MATCHING_QUERY)
                 .bind(RECIPE_ID, recipeId)
-                .fetch()
+                .map(IngredientRowMapper.INSTANCE)
                 .all()
-                .map(Ingredient::fromRow)
-                .filter(Objects::nonNull)
                 .collectList();
     }
 
     private Mono<List<Instruction>> getInstructions(final long recipeId) {
         return client.sql(INSTRUCTIONS_MATCHING_QUERY)
                 .bind(RECIPE_ID, recipeId)
-                .fetch()
+                .map(InstructionRowMapper.INSTANCE)
                 .all()
-                .map(Instruction::fromRow)
-                .filter(Objects::nonNull)
                 .collectList();
     }
 
-    private Mono<Recipe> saveRecipe(final Recipe recipe) {
-        return Mono.zip(recipeRepository.save(recipe),
-                        ingredientRepository.saveAll(recipe.getIngredients()).collectList(),
-                        instructionRepository.saveAll(recipe.getInstructions()).collectList()
-                )
-                .flatMap(tuple -> {
-                    var ingredientsQuery = INSERT_RECIPES_INGREDIENTS.concat(
-                            tuple.getT2()
-                                    .stream()
-                                    .map(ingredient -> String.format(INSERT_VALUES_FORMAT,
-                                            tuple.getT1().getRecipeId(), ingredient.getIngredientId()))
-                                    .collect(Collectors.joining(DELIMITER)));
-                    var instructionsQuery = INSERT_RECIPES_INSTRUCTIONS.concat(
-                            tuple.getT3()
-                                    .stream()
-                                    .map(instruction -> String.format(INSERT_VALUES_FORMAT,
-                                            tuple.getT1().getRecipeId(), instruction.getInstructionId()))
-                                    .collect(Collectors.joining(DELIMITER)));
-
-                    return Mono.when(
-                                    client.sql(ingredientsQuery).fetch().all().collectList(),
-                                    client.sql(instructionsQuery).fetch().all().collectList())
-                            .then(Mono.just(tuple.getT1()));
+    /**
+     * Load the ingredients and instructions for all the recipes with one query for each table and
+     * attach them to the recipes, keeping the order of the recipes.
+     * @param recipes
+     * @return The recipes with their ingredients and instructions
+     */
+    private Flux<Recipe> mergeRecipeChunksWithIngredientsAndInstructions(final Flux<Recipe> recipes) {
+        return recipes
+                .buffer(streamChunkSize)
+                .concatMap(this::mergeRecipesWithIngredientsAndInstructions, 1);
+    }
+
+    private Flux<Recipe> mergeRecipesWithIngredientsAndInstructions(final List<Recipe> recipes) {
+        if (recipes.isEmpty()) {
+            return Flux.empty();
+        }
+
+        var recipeIds = recipes.stream().map(Recipe::getRecipeId).toArray(Long[]::new);
+
+        return Mono.zip(getIngredientsByRecipeIds(recipeIds), getInstructionsByRecipeIds(recipeIds))
+                .flatMapIterable(tuple -> {
+                    recipes.forEach(recipe -> {
+                        recipe.setIngredients(tuple.getT1().getOrDefault(recipe.getRecipeId(), Collections.emptyList()));
+                        recipe.setInstructions(tuple.getT2().getOrDefault(recipe.getRecipeId(), Collections.emptyList()));
+                    });
+                    return recipes;
                 });
     }
 
-    private Mono<List<Long>> getIngredientIds(final long recipeId) {
-        return client.sql(INGREDIENT_IDS_MATCHING_QUERY)
-                .bind(RECIPE_ID, recipeId)
-                .fetch()
+    /**
+     * Load recipes by recipe ids with one query for each table.
+     * @param recipeIds
+     * @return The recipes that exist, by recipe id
+     */
+    private Mono<Map<Long, Recipe>> loadRecipesByIds(final List<Long> recipeIds) {
+        return recipeRepository.findAllById(recipeIds)
+                .collectList()
+                .flatMapMany(this::mergeRecipesWithIngredientsAndInstructions)
+                .collectMap(Recipe::getRecipeId);
+    }
+
+    private Mono<Map<Long, List<Ingredient>>> getIngredientsByRecipeIds(final Long[] recipeIds) {
+        return client.sql(INGREDIENTS_MATCHING_ANY_QUERY)
+                .bind(RECIPE_IDS, recipeIds)
+                .map((row, rowMetadata) -> Tuples.of(getRecipeIdOfRow(row),
+                        RECIPE_INGREDIENT_ROW_MAPPER.apply(row, rowMetadata)))
                 .all()
-                .map(results -> Long.parseLong(results.get(Ingredient.INGREDIENT_ID_COLUMN_NAME).toString()))
-                .collectList();
+                .collect(Collectors.groupingBy(Tuple2::getT1, Collectors.mapping(Tuple2::getT2, Collectors.toList())));
     }
 
-    private Mono<List<Long>> getInstructionIds(final long recipeId) {
-        return client.sql(INSTRUCTION_IDS_MATCHING_QUERY)
-                .bind(RECIPE_ID, recipeId)
-                .fetch()
+    private Mono<Map<Long, List<Instruction>>> getInstructionsByRecipeIds(final Long[] recipeIds) {
+        return client.sql(INSTRUCTIONS_MATCHING_ANY_QUERY)
+                .bind(RECIPE_IDS, recipeIds)
+                .map((row, rowMetadata) -> Tuples.of(getRecipeIdOfRow(row),
+                        RECIPE_INSTRUCTION_ROW_MAPPER.apply(row, rowMetadata)))
                 .all()
-                .map(results -> Long.parseLong(results.get(Instruction.INSTRUCTION_ID_COLUMN_NAME).toString()))
-                .collectList();
+                .collect(Collectors.groupingBy(Tuple2::getT1, Collectors.mapping(Tuple2::getT2, Collectors.toList())));
+    }
+
+    private static Flux<RecipeDeleteProgress> getDeleteProgress(final Flux<List<Long>> deletedRecipeIdChunks) {
+        return deletedRecipeIdChunks
+                .scan(RecipeDeleteProgress.NONE, RecipeDeleteProgress::next)
+                .skip(1);
+    }
+
+    private Mono<List<Long>> deleteRecipeChunk(final List<Long> recipeIds) {
+        if (recipeIds.isEmpty()) {
+            return Mono.just(List.of());
+        }
+
+        return recipeRepository.deleteAllByIdsWithIngredientsAndInstructions(recipeIds)
+                .collectList()
+                .doOnNext(recipeCache::invalidate)
+                .flatMap(deletedRecipeIds -> recipeInvalidationBus.publish(deletedRecipeIds).thenReturn(deletedRecipeIds))
+                .flatMap(deletedRecipeIds -> deletedRecipeIds.isEmpty()
+                        ? Mono.just(deletedRecipeIds)
+                        : recipeSearchRepository.deleteAllById(deletedRecipeIds).thenReturn(deletedRecipeIds));
+    }
+
+    private Flux<RecipeImportResult> importBatch(final List<Tuple2<Long, Recipe>> indexedRecipes) {
+        var now = LocalDateTime.now();
+        var invalid = new ArrayList<RecipeImportResult>();
+        var valid = new ArrayList<Tuple2<Long, Recipe>>();
+
+        indexedRecipes.forEach(indexedRecipe -> {
+            var recipe = indexedRecipe.getT2();
+            var error = getImportError(recipe);
+
+            if (error != null) {
+                invalid.add(RecipeImportResult.failed(indexedRecipe.getT1(), error));
+            } else {
+                recipe.setCreationDateTime(now);
+                recipe.setLastModifiedDateTime(now);
+                orderIngredientsAndInstructions(recipe);
+                valid.add(indexedRecipe);
+            }
+        });
+
+        return saveImportBatch(valid)
+                .concatWith(Flux.fromIterable(invalid))
+                .sort(Comparator.comparingLong(RecipeImportResult::getIndex));
+    }
+
+    private static String getImportError(final Recipe recipe) {
+        if (recipe.getIngredients() == null) {
+            recipe.setIngredients(Collections.emptyList());
+        }
+
+        if (recipe.getInstructions() == null) {
+            recipe.setInstructions(Collections.emptyList());
+        }
+
+        if (recipe.getName() == null || recipe.getName().isBlank()) {
+            return "Name is required";
+        } else if (recipe.getName().length() > Recipe.NAME_COLUMN_LENGTH) {
+            return String.format("Name is longer than %d characters", Recipe.NAME_COLUMN_LENGTH);
+        } else if (recipe.getDescription() == null) {
+            return "Description is required";
+        } else if (recipe.getIngredients().stream().anyMatch(ingredient -> ingredient.getIngredient() == null
+                || ingredient.getQuantity() == null || ingredient.getQuantitySpecifier() == null)) {
+            return "Ingredients require an ingredient, quantity and quantity specifier";
+        } else if (recipe.getInstructions().stream().anyMatch(instruction -> instruction.getInstruction() == null)) {
+            return "Instructions require an instruction";
+        }
+
+        return null;
+    }
+
+    private Flux<RecipeImportResult> saveImportBatch(final List<Tuple2<Long, Recipe>> indexedRecipes) {
+        if (indexedRecipes.isEmpty()) {
+            return Flux.empty();
+        }
+
+        var recipes = indexedRecipes.stream().map(Tuple2::getT2).toList();
+
+        return transactionalOperator.transactional(saveRecipes(recipes))
+                .then(Mono.defer(() -> indexImportBatch(indexedRecipes)))
+                .onErrorResume(ex -> Mono.just(indexedRecipes.stream()
+                        .map(indexedRecipe -> RecipeImportResult.failed(indexedRecipe.getT1(), ex.getMessage()))
+                        .toList()))
+                .flatMapIterable(Function.identity());
+    }
+
+    private Mono<List<RecipeImportResult>> indexImportBatch(final List<Tuple2<Long, Recipe>> indexedRecipes) {
+        return recipeSearchRepository.saveAll(indexedRecipes.stream()
+                        .map(indexedRecipe -> recipeMapper.toDoc(indexedRecipe.getT2()))
+                        .toList())
+                .then(Mono.fromSupplier(() -> getSavedResults(indexedRecipes, null)))
+                .onErrorResume(ex -> Mono.just(getSavedResults(indexedRecipes,
+                        String.format("Saved but not indexed:  %s", ex.getMessage()))));
+    }
+
+    private static List<RecipeImportResult> getSavedResults(final List<Tuple2<Long, Recipe>> indexedRecipes,
+                                                            final String error) {
+        return indexedRecipes.stream()
+                .map(indexedRecipe -> new RecipeImportResult(indexedRecipe.getT1(),
+                        indexedRecipe.getT2().getRecipeId(), error))
+                .toList();
+    }
+
+    /**
+     * Save recipes with their ingredients and instructions using multi-row inserts, giving each recipe the next
+     * variation for its name.
+     * @param recipes
+     * @return Completes when the recipes are saved
+     */
+    private Mono<Void> saveRecipes(final List<Recipe> recipes) {
+        var counts = recipes.stream().collect(Collectors.groupingBy(Recipe::getName, Collectors.summingInt(recipe -> 1)));
+
+        return recipeRepository.allocateVariations(counts)
+                .flatMap(lastVariations -> {
+                    var variations = new HashMap<String, Integer>();
+
+                    lastVariations.forEach((name, lastVariation) -> variations.put(name, lastVariation - counts.get(name)));
+
+                    recipes.forEach(recipe -> recipe.setVariation(variations.merge(recipe.getName(), 1, Integer::sum)));
+
+                    return recipeRepository.saveAll(recipes).collectList();
+                })
+                .flatMap(savedRecipes -> Mono.when(ingredientRepository.saveAllOf(recipes).collectList(),
+                        instructionRepository.saveAllOf(recipes).collectList()))
+                .then(Mono.defer(() -> refreshSnapshots(recipes.stream().map(Recipe::getRecipeId).toList())))
+                .then();
+    }
+
+    private static Long getRecipeIdOfRow(final Row row) {
+        return row.get(RECIPE_ID_COLUMN, Long.class);
+    }
+
+    private Mono<Recipe> saveRecipe(final Recipe recipe) {
+        return recipeRepository.save(recipe)
+                .flatMap(savedRecipe -> {
+                    var recipeId = savedRecipe.getRecipeId();
+
+                    return Mono.when(ingredientRepository.saveAll(recipeId, recipe.getIngredients()).collectList(),
+                                    instructionRepository.saveAll(recipeId, recipe.getInstructions()).collectList())
+                            .then(refreshSnapshots(List.of(recipeId)))
+                            .then(Mono.just(savedRecipe));
+                });
+    }
+
+    private Mono<Long> refreshSnapshots(final List<Long> recipeIds) {
+        if (recipeReadMode != RecipeReadMode.SNAPSHOT && !recipeSnapshotEnabled) {
+            return recipeSnapshotRepository.clear(recipeIds);
+        }
+
+        return recipeSnapshotRepository.refresh(recipeIds);
     }
 
     private Flux<Long> deleteIngredientsByIds(final Collection<Long> ingredientsIds) {
         if (ingredientsIds.isEmpty()) {
             return Flux.empty();
         } else {
-            var deleteRecipeIngredients = String.format(DELETE_RECIPES_INGREDIENTS,
-                    ingredientsIds
-                            .stream()
-                            .map(Object::toString)
-                            .collect(Collectors.joining(DELIMITER)));
-
-            return client.sql(deleteRecipeIngredients).fetch().all()
-                    .thenMany(ingredientRepository.deleteAllByIds(ingredientsIds));
+            return ingredientRepository.deleteAllByIds(ingredientsIds);
         }
     }
 
@@ -503,14 +1081,7 @@ public class RecipeService implements IRecipeService {
         if (instructionsIds.isEmpty()) {
             return Flux.empty();
         } else {
-            var deleteRecipeInstructions = String.format(DELETE_RECIPES_INSTRUCTIONS,
-                    instructionsIds
-                            .stream()
-                            .map(instructionId -> instructionId.toString())
-                            .collect(Collectors.joining(DELIMITER)));
-
-            return client.sql(deleteRecipeInstructions).fetch().all()
-                    .thenMany(instructionRepository.deleteAllByIds(instructionsIds));
+            return instructionRepository.deleteAllByIds(instructionsIds);
         }
     }
 
@@ -534,14 +1105,7 @@ public class RecipeService implements IRecipeService {
         if (ingredients.isEmpty()) {
             return Flux.empty();
         } else {
-            Flux<Ingredient> savedIngredients = ingredientRepository.saveAll(ingredients);
-
-            return savedIngredients.map(ingredient -> {
-                var insertRecipeIngredients = INSERT_RECIPES_INGREDIENTS
-                        .concat(String.format(INSERT_VALUES_FORMAT, recipeId, ingredient.getIngredientId()));
-
-                return client.sql(insertRecipeIngredients).fetch().all().then(Mono.just(ingredient));
-            }).thenMany(savedIngredients);
+            return ingredientRepository.saveAll(recipeId, ingredients);
         }
     }
 
@@ -549,14 +1113,7 @@ public class RecipeService implements IRecipeService {
         if (instructions.isEmpty()) {
             return Flux.empty();
         } else {
-            Flux<Instruction> savedInstructions = instructionRepository.saveAll(instructions);
-
-            return savedInstructions.map(instruction -> {
-                var insertRecipeInstructions = INSERT_RECIPES_INSTRUCTIONS
-                        .concat(String.format(INSERT_VALUES_FORMAT, recipeId, instruction.getInstructionId()));
-
-                return client.sql(insertRecipeInstructions).fetch().all().then(Mono.just(instruction));
-            }).thenMany(savedInstructions);
+            return instructionRepository.saveAll(recipeId, instructions);
         }
     }
 }
@@ -0,0 +1,120 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.grego.recipeservice.repository.RecipeSnapshotRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * RecipeSnapshotBackfill builds the snapshots of the recipes saved before the recipe_snapshot column existed, a chunk
+ * of recipes at a time in recipe id order, once the application is ready.  Each chunk is its own statement, so rows
+ * are only locked briefly, and recipes given a snapshot by a write in the meantime are left alone.  Until a recipe is
+ * backfilled the snapshot read mode builds its snapshot from the ingredients and instructions tables as it reads it.
+ * Nothing is backfilled unless recipes are read in the snapshot read mode or service.recipe_snapshot_enabled is set.
+ */
+@Component
+@Slf4j
+public class RecipeSnapshotBackfill {
+    /**
+     * Repository maintaining the recipe snapshots.
+     */
+    private final RecipeSnapshotRepository recipeSnapshotRepository;
+
+    /**
+     * Number of recipes backfilled in each statement, or 0 to not backfill.
+     */
+    private final int chunkSize;
+
+    /**
+     * Whether the recipe snapshots are kept, and so backfilled.
+     */
+    private final boolean enabled;
+
+    /**
+     * Subscription to the backfill, null when not backfilling.
+     */
+    private Disposable backfill;
+
+    /**
+     * Constructor to build RecipeSnapshotBackfill.
+     * @param snapshotRepository
+     * @param backfillChunkSize Number of recipes backfilled in each statement, or 0 to not backfill
+     * @param snapshotEnabled Whether the snapshots are kept while recipes are read another way
+     * @param readMode How recipes are read
+     */
+    public RecipeSnapshotBackfill(final RecipeSnapshotRepository snapshotRepository,
+                                  @Value("${service.recipe_snapshot_backfill_chunk_size:500}") final int backfillChunkSize,
+                                  @Value("${service.recipe_snapshot_enabled:false}") final boolean snapshotEnabled,
+                                  @Value("${service.recipe_read_mode:MULTI_QUERY}") final RecipeReadMode readMode) {
+        this.recipeSnapshotRepository = snapshotRepository;
+        this.chunkSize = backfillChunkSize;
+        this.enabled = snapshotEnabled || readMode == RecipeReadMode.SNAPSHOT;
+    }
+
+    /**
+     * Start backfilling once the application is ready, if the snapshots are kept.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (enabled && chunkSize > 0 && backfill == null) {
+            backfill = backfill()
+                    .reduce(0L, Long::sum)
+                    .subscribe(count -> log.info("Backfilled {} recipe snapshots", count),
+                            ex -> log.warn("Failed to backfill recipe snapshots", ex));
+        }
+    }
+
+    /**
+     * Stop backfilling.  The recipes not reached yet are backfilled the next time the application starts.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        if (backfill != null) {
+            backfill.dispose();
+            backfill = null;
+        }
+    }
+
+    /**
+     * Build the missing snapshots a chunk at a time, until no recipe without a snapshot is left.
+     * @return Number of recipes backfilled by each chunk
+     */
+    Flux<Long> backfill() {
+        return backfillAfter(0L)
+                .expand(chunk -> chunk.recipeIds().isEmpty()
+                        ? Mono.empty()
+                        : backfillAfter(chunk.recipeIds().get(chunk.recipeIds().size() - 1)))
+                .filter(chunk -> !chunk.recipeIds().isEmpty())
+                .map(Chunk::backfilledCount);
+    }
+
+    private Mono<Chunk> backfillAfter(final long afterRecipeId) {
+        return recipeSnapshotRepository.findIdsWithoutSnapshot(afterRecipeId, chunkSize)
+                .collectList()
+                .flatMap(recipeIds -> recipeIds.isEmpty()
+                        ? Mono.just(new Chunk(recipeIds, 0L))
+                        : recipeSnapshotRepository.backfill(recipeIds).map(count -> new Chunk(recipeIds, count)));
+    }
+
+    /**
+     * Chunk of recipes backfilled.
+     * @param recipeIds Ids of the recipes without a snapshot in the chunk
+     * @param backfilledCount Number of them given a snapshot
+     */
+    private record Chunk(List<Long> recipeIds, long backfilledCount) {
+    }
+}
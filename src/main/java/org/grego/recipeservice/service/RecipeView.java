@@ -0,0 +1,36 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice.service;
+
+import java.util.Arrays;
+
+/**
+ * RecipeView selects how much of each recipe is read and returned.
+ */
+public enum RecipeView {
+    /**
+     * The whole recipe, with its ingredients and instructions.
+     */
+    FULL,
+    /**
+     * Only the recipe id, name, variation and description, read from the recipes table alone.
+     */
+    SUMMARY;
+
+    /**
+     * Get the view for the value of the view request parameter.
+     * @param parameterValue
+     * @return The view
+     */
+    public static RecipeView fromParameterValue(final String parameterValue) {
+        return Arrays.stream(values())
+            .filter(view -> view.name().equalsIgnoreCase(parameterValue))
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException(String.format("Unsupported view:  view = %s",
+                parameterValue)));
+    }
+}
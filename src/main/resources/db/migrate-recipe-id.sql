@@ -0,0 +1,48 @@
+-- One-off migration of a database where ingredients and instructions are linked to their recipe by the
+-- recipes_ingredients and recipes_instructions tables to recipe_id on ingredients and instructions.  Run it once,
+-- after stopping every instance of the service that writes the link tables and before starting the one that reads
+-- recipe_id, with psql and outside a transaction, since the indexes are built concurrently:
+--
+--   psql -v ON_ERROR_STOP=1 -f migrate-recipe-id.sql recipe
+--
+-- The migration is one-way.  Recipes added or changed afterwards are not linked by the link tables, so there is no
+-- rolling back to a version of the service that reads them, and the link tables can be dropped once it has run.
+
+-- Without a default or a constraint, so only the catalog is changed.
+ALTER TABLE ingredients ADD COLUMN IF NOT EXISTS recipe_id INT8;
+
+ALTER TABLE instructions ADD COLUMN IF NOT EXISTS recipe_id INT8;
+
+-- Copy the recipe ids of the link rows.  Only rows without a recipe id are updated, so running this again after a
+-- failure carries on where it stopped.
+UPDATE ingredients i SET recipe_id = ri.recipe_recipe_id
+    FROM recipes_ingredients ri
+    WHERE ri.ingredients_ingredient_id = i.ingredient_id AND i.recipe_id IS NULL;
+
+UPDATE instructions i SET recipe_id = ri.recipe_recipe_id
+    FROM recipes_instructions ri
+    WHERE ri.instructions_instruction_id = i.instruction_id AND i.recipe_id IS NULL;
+
+-- NOT VALID checks only the rows written from now on, so the lock is held without scanning the tables.  The existing
+-- rows are then checked by VALIDATE, whose lock doesn't block reads or writes.
+ALTER TABLE ingredients DROP CONSTRAINT IF EXISTS ingredients_recipe_id_fkey;
+
+ALTER TABLE ingredients ADD CONSTRAINT ingredients_recipe_id_fkey
+    FOREIGN KEY (recipe_id) REFERENCES recipes (recipe_id) NOT VALID;
+
+ALTER TABLE ingredients VALIDATE CONSTRAINT ingredients_recipe_id_fkey;
+
+ALTER TABLE instructions DROP CONSTRAINT IF EXISTS instructions_recipe_id_fkey;
+
+ALTER TABLE instructions ADD CONSTRAINT instructions_recipe_id_fkey
+    FOREIGN KEY (recipe_id) REFERENCES recipes (recipe_id) NOT VALID;
+
+ALTER TABLE instructions VALIDATE CONSTRAINT instructions_recipe_id_fkey;
+
+-- Built without blocking writes to the tables.  An index left invalid by a failed build has to be dropped before
+-- running this again.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ingredients_recipe_id_ingredient_number_idx
+    ON ingredients (recipe_id, ingredient_number);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS instructions_recipe_id_instruction_number_idx
+    ON instructions (recipe_id, instruction_number);
@@ -0,0 +1,186 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.grego.recipeservice.model.Recipe;
+import org.grego.recipeservice.service.RecipeCache;
+import org.grego.recipeservice.service.RecipeInvalidationBus;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Test RecipeInvalidationBus against PostgreSQL, with two buses standing in for two instances of the service sharing
+ * a database.  Skipped when Docker isn't available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Tag("IntegrationTests")
+class RecipeInvalidationBusIntegrationTest {
+    /**
+     * The PostgreSQL image.
+     */
+    private static final DockerImageName POSTGRES_IMAGE = DockerImageName.parse("postgres:14-alpine");
+
+    /**
+     * How long to wait for a notification.
+     */
+    private static final long TIMEOUT_MILLIS = 10000;
+
+    /**
+     * Maximum number of recipes cached.
+     */
+    private static final long MAXIMUM_SIZE = 10;
+
+    /**
+     * Delay before the first attempt to listen again.
+     */
+    private static final Duration RECONNECT_DELAY = Duration.ofMillis(100);
+
+    /**
+     * Statement to end the connections listening on the channel, as if they were lost.
+     */
+    private static final String TERMINATE_LISTENERS_STATEMENT = "SELECT pg_terminate_backend(pid) FROM pg_stat_activity "
+        + "WHERE query = '" + RecipeInvalidationBus.LISTEN_STATEMENT + "' AND pid <> pg_backend_pid()";
+
+    /**
+     * The PostgreSQL container.
+     */
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>(POSTGRES_IMAGE);
+
+    /**
+     * Connection factory for the PostgreSQL container.
+     */
+    private ConnectionFactory connectionFactory;
+
+    /**
+     * Create the connection factory once the container is started.
+     */
+    @BeforeAll
+    void setUp() {
+        connectionFactory = ConnectionFactories.get(ConnectionFactoryOptions.builder()
+            .option(ConnectionFactoryOptions.DRIVER, "postgresql")
+            .option(ConnectionFactoryOptions.HOST, POSTGRES.getHost())
+            .option(ConnectionFactoryOptions.PORT, POSTGRES.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT))
+            .option(ConnectionFactoryOptions.DATABASE, POSTGRES.getDatabaseName())
+            .option(ConnectionFactoryOptions.USER, POSTGRES.getUsername())
+            .option(ConnectionFactoryOptions.PASSWORD, POSTGRES.getPassword())
+            .build());
+    }
+
+    /**
+     * Test a recipe changed by one instance is removed from the cache of another, which then loads it again.
+     */
+    @Test
+    void testPublishInvalidatesOtherInstance() {
+
+        var publisher = getBus(new RecipeCache(MAXIMUM_SIZE, Duration.ofMinutes(1)));
+        var cache = spy(new RecipeCache(MAXIMUM_SIZE, Duration.ofMinutes(1)));
+        var listener = getBus(cache);
+        var recipe = Recipe.builder().recipeId(1L).name("chili").version(0L).build();
+        var updatedRecipe = Recipe.builder().recipeId(1L).name("chili").version(1L).build();
+
+        try {
+            listener.start();
+            verify(cache, timeout(TIMEOUT_MILLIS).times(1)).invalidateAll();
+
+            StepVerifier.create(cache.get(recipe.getRecipeId(), recipeId -> Mono.just(recipe)))
+                .expectNext(recipe)
+                .verifyComplete();
+
+            publisher.publish(List.of(recipe.getRecipeId())).block();
+            verify(cache, timeout(TIMEOUT_MILLIS).times(1)).invalidate(List.of(recipe.getRecipeId()));
+
+            StepVerifier.create(cache.get(recipe.getRecipeId(), recipeId -> Mono.just(updatedRecipe)))
+                .expectNext(updatedRecipe)
+                .verifyComplete();
+        } finally {
+            listener.stop();
+        }
+    }
+
+    /**
+     * Test a change published in a transaction that rolls back is never delivered, and one that commits is.
+     */
+    @Test
+    void testPublishOnlyWhenTransactionCommits() {
+
+        var publisher = getBus(new RecipeCache(MAXIMUM_SIZE, Duration.ofMinutes(1)));
+        var cache = spy(new RecipeCache(MAXIMUM_SIZE, Duration.ofMinutes(1)));
+        var listener = getBus(cache);
+        var transactionalOperator = TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+
+        try {
+            listener.start();
+            verify(cache, timeout(TIMEOUT_MILLIS).times(1)).invalidateAll();
+
+            transactionalOperator.execute(status -> {
+                status.setRollbackOnly();
+                return publisher.publish(List.of(1L));
+            }).blockLast();
+            transactionalOperator.execute(status -> publisher.publish(List.of(2L))).blockLast();
+
+            verify(cache, timeout(TIMEOUT_MILLIS).times(1)).invalidate(List.of(2L));
+            verify(cache, never()).invalidate(List.of(1L));
+        } finally {
+            listener.stop();
+        }
+    }
+
+    /**
+     * Test the listener clears the cache when its connection is lost, listens again, and then receives changes.
+     */
+    @Test
+    void testListenerReconnects() {
+
+        var publisher = getBus(new RecipeCache(MAXIMUM_SIZE, Duration.ofMinutes(1)));
+        var cache = spy(new RecipeCache(MAXIMUM_SIZE, Duration.ofMinutes(1)));
+        var listener = getBus(cache);
+
+        try {
+            listener.start();
+            verify(cache, timeout(TIMEOUT_MILLIS).times(1)).invalidateAll();
+
+            DatabaseClient.create(connectionFactory).sql(TERMINATE_LISTENERS_STATEMENT).then().block();
+
+            // Cleared once when the connection is lost and once more when listening again
+            verify(cache, timeout(TIMEOUT_MILLIS).times(1 + 2)).invalidateAll();
+
+            publisher.publish(List.of(1L)).block();
+            verify(cache, timeout(TIMEOUT_MILLIS).times(1)).invalidate(List.of(1L));
+        } finally {
+            listener.stop();
+        }
+    }
+
+    private RecipeInvalidationBus getBus(final RecipeCache cache) {
+        return new RecipeInvalidationBus(DatabaseClient.create(connectionFactory), cache, true,
+            RECONNECT_DELAY, Duration.ofSeconds(1));
+    }
+}
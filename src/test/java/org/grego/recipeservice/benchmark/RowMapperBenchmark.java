@@ -0,0 +1,119 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice.benchmark;
+
+import org.grego.recipeservice.mapping.ArrayRow;
+import org.grego.recipeservice.mapping.IngredientRowMapper;
+import org.grego.recipeservice.mapping.InstructionRowMapper;
+import org.grego.recipeservice.model.Ingredient;
+import org.grego.recipeservice.model.Instruction;
+import org.instancio.Instancio;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.r2dbc.core.ColumnMapRowMapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare reading ingredients and instructions through a column map, the way DatabaseClient.fetch() returns rows,
+ * with reading them through the typed row mappers.  The rows are held in memory, so only the mapping is measured.
+ * See the README for how to run them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class RowMapperBenchmark {
+    /**
+     * Number of rows mapped by each invocation, the ingredients or instructions of one recipe.
+     */
+    @Param({"5", "20"})
+    private int rowCount;
+
+    /**
+     * Ingredient rows.
+     */
+    private List<ArrayRow> ingredientRows;
+
+    /**
+     * Instruction rows.
+     */
+    private List<ArrayRow> instructionRows;
+
+    /**
+     * Create the rows.
+     */
+    @Setup
+    public void setup() {
+        ingredientRows = Instancio.ofList(Ingredient.class).size(rowCount).create().stream().map(ArrayRow::of).toList();
+        instructionRows = Instancio.ofList(Instruction.class).size(rowCount).create().stream().map(ArrayRow::of).toList();
+    }
+
+    /**
+     * Read the ingredients through a column map.
+     * @return The ingredients
+     */
+    @Benchmark
+    public List<Ingredient> ingredientsFromColumnMap() {
+        return ingredientRows.stream()
+                .map(row -> Ingredient.fromRow(ColumnMapRowMapper.INSTANCE.apply(row, row.getMetadata())))
+                .toList();
+    }
+
+    /**
+     * Read the ingredients with the typed row mapper.
+     * @return The ingredients
+     */
+    @Benchmark
+    public List<Ingredient> ingredientsFromRowMapper() {
+        return ingredientRows.stream()
+                .map(row -> IngredientRowMapper.INSTANCE.apply(row, row.getMetadata()))
+                .toList();
+    }
+
+    /**
+     * Read the instructions through a column map.
+     * @return The instructions
+     */
+    @Benchmark
+    public List<Instruction> instructionsFromColumnMap() {
+        return instructionRows.stream()
+                .map(row -> Instruction.fromRow(ColumnMapRowMapper.INSTANCE.apply(row, row.getMetadata())))
+                .toList();
+    }
+
+    /**
+     * Read the instructions with the typed row mapper.
+     * @return The instructions
+     */
+    @Benchmark
+    public List<Instruction> instructionsFromRowMapper() {
+        return instructionRows.stream()
+                .map(row -> InstructionRowMapper.INSTANCE.apply(row, row.getMetadata()))
+                .toList();
+    }
+
+    /**
+     * Run the benchmarks.
+     * @param args
+     * @throws RunnerException
+     */
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RowMapperBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,8 @@
+/**
+ * Recipe Service Test.
+ * Copyright: none
+ *
+ * @author Greg-O
+ * Recipe service benchmarks.
+ */
+package org.grego.recipeservice.benchmark;
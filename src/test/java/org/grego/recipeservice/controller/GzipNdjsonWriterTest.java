@@ -0,0 +1,89 @@
+package org.grego.recipeservice.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test the GzipNdjsonWriter.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Tag("UnitTests")
+public class GzipNdjsonWriterTest {
+    /**
+     * Values to write.
+     */
+    private static final List<Map<String, Object>> VALUES = List.of(
+        Map.of("recipeId", 1), Map.of("recipeId", 2), Map.of("recipeId", 3));
+
+    /**
+     * To convert the values to JSON.
+     */
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Test the values are written a chunk at a time and decompress to one JSON document per line.
+     * @throws IOException
+     */
+    @Test
+    void testWrite() throws IOException {
+
+        var chunks = GzipNdjsonWriter.write(objectMapper, Flux.fromIterable(VALUES), 2).collectList().block();
+
+        assertEquals(2 + 1, chunks.size());
+        assertEquals("{\"recipeId\":1}\n{\"recipeId\":2}\n", gunzip(chunks.subList(0, 1)));
+        assertEquals("{\"recipeId\":1}\n{\"recipeId\":2}\n{\"recipeId\":3}\n", gunzip(chunks));
+    }
+
+    /**
+     * Test nothing to write is still a complete gzip stream.
+     * @throws IOException
+     */
+    @Test
+    void testWriteEmpty() throws IOException {
+
+        var chunks = GzipNdjsonWriter.write(objectMapper, Flux.empty(), 2).collectList().block();
+
+        assertEquals(1, chunks.size());
+        assertEquals("", gunzip(chunks));
+    }
+
+    /**
+     * Decompress the chunks, reading as much as has been flushed.
+     * @param chunks
+     * @return The decompressed text
+     * @throws IOException
+     */
+    static String gunzip(final List<byte[]> chunks) throws IOException {
+        var compressed = new ByteArrayOutputStream();
+        for (var chunk : chunks) {
+            compressed.write(chunk);
+        }
+
+        var decompressed = new ByteArrayOutputStream();
+        try (var gzip = new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            var buffer = new byte[Byte.MAX_VALUE];
+            for (int read = gzip.read(buffer); read > 0; read = gzip.read(buffer)) {
+                decompressed.write(buffer, 0, read);
+            }
+        } catch (EOFException ex) {
+            // The stream isn't finished, so everything flushed so far has been read.
+            return decompressed.toString(StandardCharsets.UTF_8);
+        }
+
+        return decompressed.toString(StandardCharsets.UTF_8);
+    }
+}
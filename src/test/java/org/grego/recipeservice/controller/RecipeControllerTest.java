@@ -14,33 +14,68 @@ import com.jayway.jsonpath.spi.json.JsonProvider;
 import net.minidev.json.JSONArray;
 import org.grego.recipeservice.document.RecipeDoc;
 import org.grego.recipeservice.model.Recipe;
+import org.grego.recipeservice.model.RecipeCursor;
+import org.grego.recipeservice.model.RecipeDeleteProgress;
+import org.grego.recipeservice.model.RecipeImportResult;
+import org.grego.recipeservice.model.RecipeSortKey;
+import org.grego.recipeservice.model.RecipeSummary;
+import org.grego.recipeservice.model.RecipeVersion;
+import org.grego.recipeservice.model.RecipesByIds;
 import org.grego.recipeservice.service.IRecipeService;
+import org.grego.recipeservice.service.RecipeCountMode;
+import org.grego.recipeservice.service.RecipeView;
 import org.instancio.Instancio;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.powermock.modules.junit4.PowerMockRunner;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
 import java.util.Random;
+import java.util.stream.LongStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -71,6 +106,21 @@ public class RecipeControllerTest {
      */
     private static final int PAGE_SIZE_10 = 10;
 
+    /**
+     * Three pages.
+     */
+    private static final int NUMBER_OF_PAGES_3 = 3;
+
+    /**
+     * Count recipes exactly.
+     */
+    private static final String EXACT_COUNT = "exact";
+
+    /**
+     * Return the full recipes.
+     */
+    private static final String FULL_VIEW = "full";
+
     /**
      * Include hyper-links.
      */
@@ -110,6 +160,12 @@ public class RecipeControllerTest {
     @Spy
     private ObjectMapper objectMapper = new ObjectMapper();
 
+    /**
+     * Recipe response cache, disabled so every recipe is encoded.
+     */
+    @Spy
+    private RecipeResponseCache recipeResponseCache = new RecipeResponseCache(0, Duration.ZERO);
+
     /**
      * JsonProvider is used to execute JSON path queries.
      */
@@ -131,7 +187,8 @@ public class RecipeControllerTest {
     @Test
     void testListRecipesWithHyperLinksInvalidPage() throws Exception {
 
-        var response = recipeController.listRecipes(INVALID_PAGE_NUMBER, PAGE_SIZE_10, INCLUDE_HYPER_LINKS);
+        var response = recipeController.listRecipes(INVALID_PAGE_NUMBER, PAGE_SIZE_10, null, null,
+            EXACT_COUNT, INCLUDE_HYPER_LINKS, FULL_VIEW, getExchange());
 
         StepVerifier.create(response)
             .expectNextMatches(responseEntity -> {
@@ -152,7 +209,8 @@ public class RecipeControllerTest {
     @Test
     void testListRecipesWithoutHyperLinksInvalidPage() throws Exception {
 
-        var response = recipeController.listRecipes(INVALID_PAGE_NUMBER, PAGE_SIZE_10, DO_NOT_INCLUDE_HYPER_LINKS);
+        var response = recipeController.listRecipes(INVALID_PAGE_NUMBER, PAGE_SIZE_10, null, null,
+            EXACT_COUNT, DO_NOT_INCLUDE_HYPER_LINKS, FULL_VIEW, getExchange());
 
         StepVerifier.create(response)
             .expectNextMatches(responseEntity -> {
@@ -176,12 +234,13 @@ public class RecipeControllerTest {
         Flux<Recipe> recipeFlux = Flux.empty();
         RecipeResourceAssembler assembler = new RecipeResourceAssembler(objectMapper);
 
-        when(recipeService.getAllRecipes(anyLong(), anyInt())).thenReturn(recipeFlux);
-        when(recipeService.getRecipeCount()).thenReturn(Mono.just(0L));
+        when(recipeService.getAllRecipes(anyLong(), anyInt(), eq(RecipeView.FULL))).thenReturn(recipeFlux);
+        when(recipeService.getRecipeCount(eq(RecipeCountMode.EXACT))).thenReturn(Mono.just(0L));
         when(recipeResourceAssembler.toCollectionModel(any(Iterable.class)))
             .thenAnswer(invocation -> assembler.toCollectionModel(invocation.getArgument(0)));
 
-        var response = recipeController.listRecipes(PAGE_NUMBER_1, PAGE_SIZE_10, INCLUDE_HYPER_LINKS);
+        var response = recipeController.listRecipes(PAGE_NUMBER_1, PAGE_SIZE_10, null, null, EXACT_COUNT,
+            INCLUDE_HYPER_LINKS, FULL_VIEW, getExchange());
 
         StepVerifier.create(response)
             .expectNextMatches(responseEntity -> {
@@ -196,12 +255,98 @@ public class RecipeControllerTest {
             })
             .verifyComplete();
 
-        verify(recipeService, times(1)).getAllRecipes(anyLong(), anyInt());
-        verify(recipeService, times(1)).getRecipeCount();
+        verify(recipeService, times(1)).getAllRecipes(anyLong(), anyInt(), eq(RecipeView.FULL));
+        verify(recipeService, times(1)).getRecipeCount(eq(RecipeCountMode.EXACT));
         verify(recipeResourceAssembler, times(1)).toCollectionModel(any(Iterable.class));
         verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
     }
 
+    /**
+     * Test list recipes answers a request for the page's current ETag with not modified, without loading the page.
+     */
+    @Test
+    void testListRecipesIfNoneMatchNotModified() {
+
+        var recipes = Instancio.ofList(Recipe.class).size(PAGE_SIZE_10).create();
+        var versions = recipes.stream().map(RecipeVersion::of).toList();
+
+        when(recipeService.getAllRecipes(anyLong(), anyInt(), eq(RecipeView.FULL))).thenReturn(Flux.fromIterable(recipes));
+        when(recipeService.getAllRecipeVersions(anyLong(), anyInt())).thenReturn(Flux.fromIterable(versions));
+
+        var eTag = recipeController.listRecipes(PAGE_NUMBER_1, PAGE_SIZE_10, null, null, EXACT_COUNT,
+            DO_NOT_INCLUDE_HYPER_LINKS, FULL_VIEW, getExchange()).block().getHeaders().getETag();
+        var response = recipeController.listRecipes(PAGE_NUMBER_1, PAGE_SIZE_10, null, null, EXACT_COUNT,
+            DO_NOT_INCLUDE_HYPER_LINKS, FULL_VIEW, getExchange(HttpHeaders.IF_NONE_MATCH, eTag));
+
+        StepVerifier.create(response)
+            .expectNextMatches(responseEntity -> responseEntity.getStatusCode() == HttpStatus.NOT_MODIFIED
+                && eTag.equals(responseEntity.getHeaders().getETag()))
+            .verifyComplete();
+
+        verify(recipeService, times(1)).getAllRecipes(anyLong(), anyInt(), eq(RecipeView.FULL));
+        verify(recipeService, times(1)).getAllRecipeVersions(anyLong(), anyInt());
+        verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
+    }
+
+    /**
+     * Test list recipes answers a request for an earlier ETag of the page with the page.
+     */
+    @Test
+    void testListRecipesIfNoneMatchModified() {
+
+        var recipes = Instancio.ofList(Recipe.class).size(PAGE_SIZE_10).create();
+        var updatedRecipe = recipes.get(0);
+
+        when(recipeService.getAllRecipes(anyLong(), anyInt(), eq(RecipeView.FULL))).thenReturn(Flux.fromIterable(recipes));
+
+        var eTag = recipeController.listRecipes(PAGE_NUMBER_1, PAGE_SIZE_10, null, null, EXACT_COUNT,
+            DO_NOT_INCLUDE_HYPER_LINKS, FULL_VIEW, getExchange()).block().getHeaders().getETag();
+
+        updatedRecipe.setVersion(updatedRecipe.getVersion() + 1);
+        when(recipeService.getAllRecipeVersions(anyLong(), anyInt()))
+            .thenReturn(Flux.fromIterable(recipes.stream().map(RecipeVersion::of).toList()));
+
+        var response = recipeController.listRecipes(PAGE_NUMBER_1, PAGE_SIZE_10, null, null, EXACT_COUNT,
+            DO_NOT_INCLUDE_HYPER_LINKS, FULL_VIEW, getExchange(HttpHeaders.IF_NONE_MATCH, eTag));
+
+        StepVerifier.create(response)
+            .expectNextMatches(responseEntity -> statusCodeAndContentTypeAreExpected(HttpStatus.OK,
+                MediaType.APPLICATION_JSON_VALUE, responseEntity) && !eTag.equals(responseEntity.getHeaders().getETag()))
+            .verifyComplete();
+
+        verify(recipeService, times(2)).getAllRecipes(anyLong(), anyInt(), eq(RecipeView.FULL));
+        verify(recipeService, times(1)).getAllRecipeVersions(anyLong(), anyInt());
+        verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
+    }
+
+    /**
+     * Test list recipes by cursor answers a request for the page's current ETag with not modified.
+     */
+    @Test
+    void testListRecipesAfterCursorIfNoneMatchNotModified() {
+
+        var recipes = Instancio.ofList(Recipe.class).size(PAGE_SIZE_10).create();
+        var versions = recipes.stream().map(RecipeVersion::of).toList();
+
+        when(recipeService.getRecipesAfter(any(RecipeSortKey.class), isNull(), anyInt(), eq(RecipeView.FULL)))
+            .thenReturn(Flux.fromIterable(recipes));
+        when(recipeService.getRecipeVersionsAfter(any(RecipeSortKey.class), isNull(), anyInt()))
+            .thenReturn(Flux.fromIterable(versions));
+
+        var eTag = recipeController.listRecipes(PAGE_NUMBER_1, PAGE_SIZE_10, null, "name", EXACT_COUNT,
+            DO_NOT_INCLUDE_HYPER_LINKS, FULL_VIEW, getExchange()).block().getHeaders().getETag();
+        var response = recipeController.listRecipes(PAGE_NUMBER_1, PAGE_SIZE_10, null, "name", EXACT_COUNT,
+            DO_NOT_INCLUDE_HYPER_LINKS, FULL_VIEW, getExchange(HttpHeaders.IF_NONE_MATCH, eTag));
+
+        StepVerifier.create(response)
+            .expectNextMatches(responseEntity -> responseEntity.getStatusCode() == HttpStatus.NOT_MODIFIED)
+            .verifyComplete();
+
+        verify(recipeService, times(1)).getRecipesAfter(any(RecipeSortKey.class), isNull(), anyInt(), eq(RecipeView.FULL));
+        verify(recipeService, times(1)).getRecipeVersionsAfter(any(RecipeSortKey.class), isNull(), anyInt());
+        verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
+    }
+
     /**
      * Test list recipes without hyper-links and no recipes.
      * @throws Exception
@@ -212,9 +357,10 @@ public class RecipeControllerTest {
 
         Flux<Recipe> recipeFlux = Flux.empty();
 
-        when(recipeService.getAllRecipes(anyLong(), anyInt())).thenReturn(recipeFlux);
+        when(recipeService.getAllRecipes(anyLong(), anyInt(), eq(RecipeView.FULL))).thenReturn(recipeFlux);
 
-        var response = recipeController.listRecipes(PAGE_NUMBER_1, PAGE_SIZE_10, DO_NOT_INCLUDE_HYPER_LINKS);
+        var response = recipeController.listRecipes(PAGE_NUMBER_1, PAGE_SIZE_10, null, null,
+            EXACT_COUNT, DO_NOT_INCLUDE_HYPER_LINKS, FULL_VIEW, getExchange());
 
         StepVerifier.create(response)
             .expectNextMatches(responseEntity -> {
@@ -227,7 +373,7 @@ public class RecipeControllerTest {
             })
             .verifyComplete();
 
-        verify(recipeService, times(1)).getAllRecipes(anyLong(), anyInt());
+        verify(recipeService, times(1)).getAllRecipes(anyLong(), anyInt(), eq(RecipeView.FULL));
         verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
     }
 
@@ -242,12 +388,13 @@ public class RecipeControllerTest {
         Flux<Recipe> recipeFlux = Flux.fromIterable(recipes);
         RecipeResourceAssembler assembler = new RecipeResourceAssembler(objectMapper);
 
-        when(recipeService.getAllRecipes(anyLong(), anyInt())).thenReturn(recipeFlux);
-        when(recipeService.getRecipeCount()).thenReturn(Mono.just((long) recipes.size()));
+        when(recipeService.getAllRecipes(anyLong(), anyInt(), eq(RecipeView.FULL))).thenReturn(recipeFlux);
+        when(recipeService.getRecipeCount(eq(RecipeCountMode.EXACT))).thenReturn(Mono.just((long) recipes.size()));
         when(recipeResourceAssembler.toCollectionModel(any(Iterable.class)))
                 .thenAnswer(invocation -> assembler.toCollectionModel(invocation.getArgument(0)));
 
-        var response = recipeController.listRecipes(PAGE_NUMBER_1, PAGE_SIZE_10, INCLUDE_HYPER_LINKS);
+        var response = recipeController.listRecipes(PAGE_NUMBER_1, PAGE_SIZE_10, null, null, EXACT_COUNT,
+            INCLUDE_HYPER_LINKS, FULL_VIEW, getExchange());
 
         StepVerifier.create(response)
                 .expectNextMatches(responseEntity -> {
@@ -262,8 +409,8 @@ public class RecipeControllerTest {
                 })
                 .verifyComplete();
 
-        verify(recipeService, times(1)).getAllRecipes(anyLong(), anyInt());
-        verify(recipeService, times(1)).getRecipeCount();
+        verify(recipeService, times(1)).getAllRecipes(anyLong(), anyInt(), eq(RecipeView.FULL));
+        verify(recipeService, times(1)).getRecipeCount(eq(RecipeCountMode.EXACT));
         verify(recipeResourceAssembler, times(1)).toCollectionModel(any(Iterable.class));
         verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
     }
@@ -278,9 +425,10 @@ public class RecipeControllerTest {
         var recipes = Instancio.ofList(Recipe.class).size(1).create();
         Flux<Recipe> recipeFlux = Flux.fromIterable(recipes);
 
-        when(recipeService.getAllRecipes(anyLong(), anyInt())).thenReturn(recipeFlux);
+        when(recipeService.getAllRecipes(anyLong(), anyInt(), eq(RecipeView.FULL))).thenReturn(recipeFlux);
 
-        var response = recipeController.listRecipes(PAGE_NUMBER_1, PAGE_SIZE_10, DO_NOT_INCLUDE_HYPER_LINKS);
+        var response = recipeController.listRecipes(PAGE_NUMBER_1, PAGE_SIZE_10, null, null,
+            EXACT_COUNT, DO_NOT_INCLUDE_HYPER_LINKS, FULL_VIEW, getExchange());
 
         StepVerifier.create(response)
                 .expectNextMatches(responseEntity -> {
@@ -293,7 +441,7 @@ public class RecipeControllerTest {
                 })
                 .verifyComplete();
 
-        verify(recipeService, times(1)).getAllRecipes(anyLong(), anyInt());
+        verify(recipeService, times(1)).getAllRecipes(anyLong(), anyInt(), eq(RecipeView.FULL));
         verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
     }
 
@@ -308,12 +456,13 @@ public class RecipeControllerTest {
         Flux<Recipe> recipeFlux = Flux.fromIterable(recipes);
         RecipeResourceAssembler assembler = new RecipeResourceAssembler(objectMapper);
 
-        when(recipeService.getAllRecipes(anyLong(), anyInt())).thenReturn(recipeFlux);
-        when(recipeService.getRecipeCount()).thenReturn(Mono.just((long) recipes.size()));
+        when(recipeService.getAllRecipes(anyLong(), anyInt(), eq(RecipeView.FULL))).thenReturn(recipeFlux);
+        when(recipeService.getRecipeCount(eq(RecipeCountMode.EXACT))).thenReturn(Mono.just((long) recipes.size()));
         when(recipeResourceAssembler.toCollectionModel(any(Iterable.class)))
                 .thenAnswer(invocation -> assembler.toCollectionModel(invocation.getArgument(0)));
 
-        var response = recipeController.listRecipes(PAGE_NUMBER_1, PAGE_SIZE_10, INCLUDE_HYPER_LINKS);
+        var response = recipeController.listRecipes(PAGE_NUMBER_1, PAGE_SIZE_10, null, null, EXACT_COUNT,
+            INCLUDE_HYPER_LINKS, FULL_VIEW, getExchange());
 
         StepVerifier.create(response)
                 .expectNextMatches(responseEntity -> {
@@ -328,12 +477,155 @@ public class RecipeControllerTest {
                 })
                 .verifyComplete();
 
-        verify(recipeService, times(1)).getAllRecipes(anyLong(), anyInt());
-        verify(recipeService, times(1)).getRecipeCount();
+        verify(recipeService, times(1)).getAllRecipes(anyLong(), anyInt(), eq(RecipeView.FULL));
+        verify(recipeService, times(1)).getRecipeCount(eq(RecipeCountMode.EXACT));
+        verify(recipeResourceAssembler, times(1)).toCollectionModel(any(Iterable.class));
+        verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
+    }
+
+    /**
+     * Test list recipes with hyper-links and an estimated count computes the total pages from the page size.
+     * @throws Exception
+     */
+    @Test
+    void testListRecipesWithHyperLinksEstimatedCount() throws Exception {
+
+        var recipes = Instancio.ofList(Recipe.class).size(PAGE_SIZE_10).create();
+        var estimatedCount = (long) PAGE_SIZE_10 * (NUMBER_OF_PAGES_3 - 1) + 1;
+        RecipeResourceAssembler assembler = new RecipeResourceAssembler(objectMapper);
+
+        when(recipeService.getAllRecipes(anyLong(), anyInt(), eq(RecipeView.FULL))).thenReturn(Flux.fromIterable(recipes));
+        when(recipeService.getRecipeCount(any(RecipeCountMode.class))).thenReturn(Mono.just(estimatedCount));
+        when(recipeResourceAssembler.toCollectionModel(any(Iterable.class)))
+                .thenAnswer(invocation -> assembler.toCollectionModel(invocation.getArgument(0)));
+
+        var response = recipeController.listRecipes(PAGE_NUMBER_1, PAGE_SIZE_10, null, null, "estimated",
+            INCLUDE_HYPER_LINKS, FULL_VIEW, getExchange());
+
+        StepVerifier.create(response)
+                .expectNextMatches(responseEntity -> {
+                    if (!statusCodeAndContentTypeAreExpected(HttpStatus.OK,
+                            de.ingogriebsch.spring.hateoas.siren.MediaTypes.SIREN_JSON_VALUE, responseEntity)) {
+                        return false;
+                    }
+
+                    var json = jsonPath.parse(responseEntity.getBody().toString());
+                    return (estimatedCount == ((Number) JsonPath.read(json, "$.page.totalElements")).longValue()
+                            && NUMBER_OF_PAGES_3 == ((Number) JsonPath.read(json, "$.page.totalPages")).longValue());
+                })
+                .verifyComplete();
+
+        verify(recipeService, times(1)).getAllRecipes(anyLong(), anyInt(), eq(RecipeView.FULL));
+        verify(recipeService, times(1)).getRecipeCount(eq(RecipeCountMode.ESTIMATED));
         verify(recipeResourceAssembler, times(1)).toCollectionModel(any(Iterable.class));
         verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
     }
 
+    /**
+     * Test list recipes with hyper-links and an unsupported count.
+     * @throws Exception
+     */
+    @Test
+    void testListRecipesWithHyperLinksInvalidCount() throws Exception {
+
+        var response = recipeController.listRecipes(PAGE_NUMBER_1, PAGE_SIZE_10, null, null, "approximate",
+            INCLUDE_HYPER_LINKS, FULL_VIEW, getExchange());
+
+        StepVerifier.create(response)
+            .expectNextMatches(responseEntity ->
+                statusCodeAndContentTypeAreExpected(HttpStatus.BAD_REQUEST, MediaType.TEXT_PLAIN_VALUE, responseEntity))
+            .verifyComplete();
+
+        verifyNoInteractions(recipeService, recipeResourceAssembler);
+    }
+
+    /**
+     * Test list recipes with an unsupported view.
+     * @throws Exception
+     */
+    @Test
+    void testListRecipesInvalidView() throws Exception {
+
+        var response = recipeController.listRecipes(PAGE_NUMBER_1, PAGE_SIZE_10, null, null, EXACT_COUNT,
+            DO_NOT_INCLUDE_HYPER_LINKS, "brief", getExchange());
+
+        StepVerifier.create(response)
+            .expectNextMatches(responseEntity ->
+                statusCodeAndContentTypeAreExpected(HttpStatus.BAD_REQUEST, MediaType.TEXT_PLAIN_VALUE, responseEntity))
+            .verifyComplete();
+
+        verifyNoInteractions(recipeService, recipeResourceAssembler);
+    }
+
+    /**
+     * Test list recipes in the summary view returns only the summary of each recipe.
+     * @throws Exception
+     */
+    @Test
+    void testListRecipesWithoutHyperLinksSummary() throws Exception {
+
+        var recipes = Instancio.ofList(Recipe.class).size(2).create();
+
+        when(recipeService.getAllRecipes(anyLong(), anyInt(), eq(RecipeView.SUMMARY)))
+            .thenReturn(Flux.fromIterable(recipes));
+
+        var response = recipeController.listRecipes(PAGE_NUMBER_1, PAGE_SIZE_10, null, null, EXACT_COUNT,
+            DO_NOT_INCLUDE_HYPER_LINKS, "summary", getExchange());
+
+        StepVerifier.create(response)
+                .expectNextMatches(responseEntity -> {
+                    if (!statusCodeAndContentTypeAreExpected(HttpStatus.OK,
+                            MediaType.APPLICATION_JSON_VALUE, responseEntity)) {
+                        return false;
+                    }
+
+                    var json = jsonPath.parse(responseEntity.getBody().toString());
+                    return recipes.get(0).getName().equals(JsonPath.read(json, "$[0].name"))
+                            && recipes.get(1).getDescription().equals(JsonPath.read(json, "$[1].description"))
+                            && ((JSONArray) JsonPath.read(json, "$[*].ingredients")).isEmpty()
+                            && ((JSONArray) JsonPath.read(json, "$[*].instructions")).isEmpty();
+                })
+                .verifyComplete();
+
+        verify(recipeService, times(1)).getAllRecipes(anyLong(), anyInt(), eq(RecipeView.SUMMARY));
+        verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
+    }
+
+    /**
+     * Test list recipes with hyper-links in the summary view returns the summary of each recipe with a link to it.
+     * @throws Exception
+     */
+    @Test
+    void testListRecipesWithHyperLinksSummary() throws Exception {
+
+        var recipes = Instancio.ofList(Recipe.class).size(2).create();
+
+        when(recipeService.getAllRecipes(anyLong(), anyInt(), eq(RecipeView.SUMMARY)))
+            .thenReturn(Flux.fromIterable(recipes));
+        when(recipeService.getRecipeCount(eq(RecipeCountMode.EXACT))).thenReturn(Mono.just((long) recipes.size()));
+
+        var response = recipeController.listRecipes(PAGE_NUMBER_1, PAGE_SIZE_10, null, null, EXACT_COUNT,
+            INCLUDE_HYPER_LINKS, "summary", getExchange());
+
+        StepVerifier.create(response)
+                .expectNextMatches(responseEntity -> {
+                    if (!statusCodeAndContentTypeAreExpected(HttpStatus.OK,
+                            de.ingogriebsch.spring.hateoas.siren.MediaTypes.SIREN_JSON_VALUE, responseEntity)) {
+                        return false;
+                    }
+
+                    var json = jsonPath.parse(responseEntity.getBody().toString());
+                    return recipes.size() == ((JSONArray) JsonPath.read(json, "$.content")).size()
+                            && ((JSONArray) JsonPath.read(json, "$.content[*].ingredients")).isEmpty()
+                            && ((JSONArray) JsonPath.read(json, "$.content[*].links")).size() == recipes.size();
+                })
+                .verifyComplete();
+
+        verify(recipeService, times(1)).getAllRecipes(anyLong(), anyInt(), eq(RecipeView.SUMMARY));
+        verify(recipeService, times(1)).getRecipeCount(eq(RecipeCountMode.EXACT));
+        verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
+    }
+
     /**
      * Test list recipes without hyper-links and more than one recipe.
      * @throws Exception
@@ -341,12 +633,488 @@ public class RecipeControllerTest {
     @Test
     void testListRecipesWithoutHyperLinksWithMoreThanOneRecipe() throws Exception {
 
-        var recipes = Instancio.ofList(Recipe.class).size(new Random().nextInt(PAGE_SIZE_10 - 2) + 2).create();
-        Flux<Recipe> recipeFlux = Flux.fromIterable(recipes);
+        var recipes = Instancio.ofList(Recipe.class).size(new Random().nextInt(PAGE_SIZE_10 - 2) + 2).create();
+        Flux<Recipe> recipeFlux = Flux.fromIterable(recipes);
+
+        when(recipeService.getAllRecipes(anyLong(), anyInt(), eq(RecipeView.FULL))).thenReturn(recipeFlux);
+
+        var response = recipeController.listRecipes(PAGE_NUMBER_1, PAGE_SIZE_10, null, null,
+            EXACT_COUNT, DO_NOT_INCLUDE_HYPER_LINKS, FULL_VIEW, getExchange());
+
+        StepVerifier.create(response)
+                .expectNextMatches(responseEntity -> {
+                    if (!statusCodeAndContentTypeAreExpected(HttpStatus.OK,
+                            MediaType.APPLICATION_JSON_VALUE, responseEntity)) {
+                        return false;
+                    }
+
+                    return (recipes.size() == ((JSONArray) jsonPath.parse(responseEntity.getBody().toString())).size());
+                })
+                .verifyComplete();
+
+        verify(recipeService, times(1)).getAllRecipes(anyLong(), anyInt(), eq(RecipeView.FULL));
+        verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
+    }
+
+    /**
+     * Test list recipes after a cursor that is not valid.
+     * @throws Exception
+     */
+    @Test
+    void testListRecipesWithInvalidCursor() throws Exception {
+
+        var response = recipeController.listRecipes(PAGE_NUMBER_1, PAGE_SIZE_10, "not a cursor", null, EXACT_COUNT,
+            DO_NOT_INCLUDE_HYPER_LINKS, FULL_VIEW, getExchange());
+
+        StepVerifier.create(response)
+            .expectNextMatches(responseEntity ->
+                statusCodeAndContentTypeAreExpected(HttpStatus.BAD_REQUEST, MediaType.TEXT_PLAIN_VALUE, responseEntity))
+            .verifyComplete();
+
+        verifyNoInteractions(recipeService, recipeResourceAssembler);
+    }
+
+    /**
+     * Test list recipes with a sort that is not supported or does not match the cursor, or an invalid page size.
+     * @param pageSize
+     * @param sort
+     * @throws Exception
+     */
+    @ParameterizedTest
+    @CsvSource({"10, description", "10, recipe-id", "0, name"})
+    void testListRecipesWithCursorBadRequest(final int pageSize, final String sort) throws Exception {
+
+        var cursor = RecipeCursor.after(RecipeSortKey.NAME, Instancio.create(Recipe.class)).encode();
+
+        var response = recipeController.listRecipes(PAGE_NUMBER_1, pageSize, cursor, sort,
+            EXACT_COUNT, DO_NOT_INCLUDE_HYPER_LINKS, FULL_VIEW, getExchange());
+
+        StepVerifier.create(response)
+            .expectNextMatches(responseEntity ->
+                statusCodeAndContentTypeAreExpected(HttpStatus.BAD_REQUEST, MediaType.TEXT_PLAIN_VALUE, responseEntity))
+            .verifyComplete();
+
+        verifyNoInteractions(recipeService, recipeResourceAssembler);
+    }
+
+    /**
+     * Test list recipes without hyper-links from the first page with a sort returns the cursor of the next page.
+     * @throws Exception
+     */
+    @Test
+    void testListRecipesWithoutHyperLinksWithSortFullPage() throws Exception {
+
+        var recipes = Instancio.ofList(Recipe.class).size(PAGE_SIZE_10).create();
+
+        when(recipeService.getRecipesAfter(any(RecipeSortKey.class), any(), anyInt(), eq(RecipeView.FULL)))
+            .thenReturn(Flux.fromIterable(recipes));
+
+        var response = recipeController.listRecipes(PAGE_NUMBER_1, PAGE_SIZE_10, null, "name",
+            EXACT_COUNT, DO_NOT_INCLUDE_HYPER_LINKS, FULL_VIEW, getExchange());
+
+        StepVerifier.create(response)
+            .expectNextMatches(responseEntity -> {
+                if (!statusCodeAndContentTypeAreExpected(HttpStatus.OK,
+                        MediaType.APPLICATION_JSON_VALUE, responseEntity)) {
+                    return false;
+                }
+
+                var next = Link.valueOf(responseEntity.getHeaders().getFirst(HttpHeaders.LINK));
+                var cursor = UriComponentsBuilder.fromUriString(next.getHref()).build().getQueryParams().getFirst("cursor");
+
+                return (next.hasRel(IanaLinkRelations.NEXT)
+                    && RecipeCursor.after(RecipeSortKey.NAME, recipes.get(PAGE_SIZE_10 - 1)).equals(RecipeCursor.decode(cursor))
+                    && recipes.size() == ((JSONArray) jsonPath.parse(responseEntity.getBody().toString())).size());
+            })
+            .verifyComplete();
+
+        verify(recipeService, times(1)).getRecipesAfter(eq(RecipeSortKey.NAME), isNull(), eq(PAGE_SIZE_10), eq(RecipeView.FULL));
+        verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
+    }
+
+    /**
+     * Test list recipes in the summary view with a sort returns summaries and keeps the view in the next link.
+     * @throws Exception
+     */
+    @Test
+    void testListRecipesWithoutHyperLinksSummaryWithSortFullPage() throws Exception {
+
+        var recipes = Instancio.ofList(Recipe.class).size(PAGE_SIZE_10).create();
+
+        when(recipeService.getRecipesAfter(any(RecipeSortKey.class), any(), anyInt(), eq(RecipeView.SUMMARY)))
+            .thenReturn(Flux.fromIterable(recipes));
+
+        var response = recipeController.listRecipes(PAGE_NUMBER_1, PAGE_SIZE_10, null, "name",
+            EXACT_COUNT, DO_NOT_INCLUDE_HYPER_LINKS, "summary", getExchange());
+
+        StepVerifier.create(response)
+            .expectNextMatches(responseEntity -> {
+                if (!statusCodeAndContentTypeAreExpected(HttpStatus.OK,
+                        MediaType.APPLICATION_JSON_VALUE, responseEntity)) {
+                    return false;
+                }
+
+                var next = Link.valueOf(responseEntity.getHeaders().getFirst(HttpHeaders.LINK));
+                var queryParams = UriComponentsBuilder.fromUriString(next.expand().getHref()).build().getQueryParams();
+                var json = jsonPath.parse(responseEntity.getBody().toString());
+
+                return (next.hasRel(IanaLinkRelations.NEXT)
+                    && "summary".equals(queryParams.getFirst("view"))
+                    && queryParams.getFirst("cursor") != null
+                    && recipes.size() == ((JSONArray) JsonPath.read(json, "$[*].name")).size()
+                    && ((JSONArray) JsonPath.read(json, "$[*].ingredients")).isEmpty());
+            })
+            .verifyComplete();
+
+        verify(recipeService, times(1))
+            .getRecipesAfter(eq(RecipeSortKey.NAME), isNull(), eq(PAGE_SIZE_10), eq(RecipeView.SUMMARY));
+        verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
+    }
+
+    /**
+     * Test list recipes without hyper-links after a cursor on the last page has no next link.
+     * @throws Exception
+     */
+    @Test
+    void testListRecipesWithoutHyperLinksWithCursorLastPage() throws Exception {
+
+        var recipes = Instancio.ofList(Recipe.class).size(PAGE_SIZE_10 - 1).create();
+        var cursor = RecipeCursor.after(RecipeSortKey.LAST_MODIFIED_DATE_TIME, Instancio.create(Recipe.class));
+
+        when(recipeService.getRecipesAfter(any(RecipeSortKey.class), any(), anyInt(), eq(RecipeView.FULL)))
+            .thenReturn(Flux.fromIterable(recipes));
+
+        var response = recipeController.listRecipes(PAGE_NUMBER_1, PAGE_SIZE_10, cursor.encode(), null, EXACT_COUNT,
+            DO_NOT_INCLUDE_HYPER_LINKS, FULL_VIEW, getExchange());
+
+        StepVerifier.create(response)
+            .expectNextMatches(responseEntity ->
+                statusCodeAndContentTypeAreExpected(HttpStatus.OK, MediaType.APPLICATION_JSON_VALUE, responseEntity)
+                    && !responseEntity.getHeaders().containsKey(HttpHeaders.LINK))
+            .verifyComplete();
+
+        verify(recipeService, times(1))
+            .getRecipesAfter(eq(RecipeSortKey.LAST_MODIFIED_DATE_TIME), eq(cursor), eq(PAGE_SIZE_10), eq(RecipeView.FULL));
+        verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
+    }
+
+    /**
+     * Test list recipes with hyper-links after a cursor includes the next link in the paged model.
+     * @throws Exception
+     */
+    @Test
+    void testListRecipesWithHyperLinksWithCursorFullPage() throws Exception {
+
+        var recipes = Instancio.ofList(Recipe.class).size(PAGE_SIZE_10).create();
+        var cursor = RecipeCursor.after(RecipeSortKey.RECIPE_ID, Instancio.create(Recipe.class));
+        RecipeResourceAssembler assembler = new RecipeResourceAssembler(objectMapper);
+
+        when(recipeService.getRecipesAfter(any(RecipeSortKey.class), any(), anyInt(), eq(RecipeView.FULL)))
+            .thenReturn(Flux.fromIterable(recipes));
+        when(recipeResourceAssembler.toCollectionModel(any(Iterable.class)))
+            .thenAnswer(invocation -> assembler.toCollectionModel(invocation.getArgument(0)));
+
+        var response = recipeController.listRecipes(PAGE_NUMBER_1, PAGE_SIZE_10, cursor.encode(), null,
+            EXACT_COUNT, INCLUDE_HYPER_LINKS, FULL_VIEW, getExchange());
+
+        StepVerifier.create(response)
+            .expectNextMatches(responseEntity -> {
+                if (!statusCodeAndContentTypeAreExpected(HttpStatus.OK,
+                        de.ingogriebsch.spring.hateoas.siren.MediaTypes.SIREN_JSON_VALUE, responseEntity)) {
+                    return false;
+                }
+
+                var json = jsonPath.parse(responseEntity.getBody().toString());
+                return (recipes.size() == ((JSONArray) JsonPath.read(json, "$.content")).size()
+                    && 1 == ((JSONArray) JsonPath.read(json, "$.links[?(@.rel == 'next')]")).size());
+            })
+            .verifyComplete();
+
+        verify(recipeService, times(1))
+            .getRecipesAfter(eq(RecipeSortKey.RECIPE_ID), eq(cursor), eq(PAGE_SIZE_10), eq(RecipeView.FULL));
+        verify(recipeResourceAssembler, times(1)).toCollectionModel(any(Iterable.class));
+        verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
+    }
+
+    /**
+     * Test stream recipes by page number.
+     * @throws Exception
+     */
+    @Test
+    void testStreamRecipes() throws Exception {
+
+        var recipes = Instancio.ofList(Recipe.class).size(new Random().nextInt(PAGE_SIZE_10 - 2) + 2).create();
+
+        when(recipeService.streamAllRecipes(anyLong(), anyInt(), any(RecipeView.class)))
+            .thenReturn(Flux.fromIterable(recipes));
+
+        var response = recipeController.streamRecipes(PAGE_NUMBER_1, PAGE_SIZE_10, null, null, FULL_VIEW);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        StepVerifier.create((Flux<Recipe>) response.getBody())
+            .expectNextSequence(recipes)
+            .verifyComplete();
+
+        verify(recipeService, times(1)).streamAllRecipes(eq(PAGE_NUMBER_1), eq(PAGE_SIZE_10), eq(RecipeView.FULL));
+        verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
+    }
+
+    /**
+     * Test stream recipes in the summary view streams only the summary of each recipe.
+     * @throws Exception
+     */
+    @Test
+    void testStreamRecipesSummary() throws Exception {
+
+        var recipes = Instancio.ofList(Recipe.class).size(new Random().nextInt(PAGE_SIZE_10 - 2) + 2).create();
+
+        when(recipeService.streamAllRecipes(anyLong(), anyInt(), any(RecipeView.class)))
+            .thenReturn(Flux.fromIterable(recipes));
+
+        var response = recipeController.streamRecipes(PAGE_NUMBER_1, PAGE_SIZE_10, null, null,
+            "summary");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        StepVerifier.create((Flux<RecipeSummary>) response.getBody())
+            .expectNextSequence(recipes.stream().map(RecipeSummary::of).toList())
+            .verifyComplete();
+
+        verify(recipeService, times(1)).streamAllRecipes(eq(PAGE_NUMBER_1), eq(PAGE_SIZE_10), eq(RecipeView.SUMMARY));
+        verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
+    }
+
+    /**
+     * Test stream recipes after a cursor.
+     * @throws Exception
+     */
+    @Test
+    void testStreamRecipesWithCursor() throws Exception {
+
+        var recipes = Instancio.ofList(Recipe.class).size(new Random().nextInt(PAGE_SIZE_10 - 2) + 2).create();
+        var cursor = RecipeCursor.after(RecipeSortKey.NAME, Instancio.create(Recipe.class));
+
+        when(recipeService.streamRecipesAfter(any(RecipeSortKey.class), any(), anyInt(), any(RecipeView.class)))
+            .thenReturn(Flux.fromIterable(recipes));
+
+        var response = recipeController.streamRecipes(PAGE_NUMBER_1, PAGE_SIZE_10, cursor.encode(), "name",
+            FULL_VIEW);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        StepVerifier.create((Flux<Recipe>) response.getBody())
+            .expectNextSequence(recipes)
+            .verifyComplete();
+
+        verify(recipeService, times(1)).streamRecipesAfter(eq(RecipeSortKey.NAME), eq(cursor), eq(PAGE_SIZE_10),
+            eq(RecipeView.FULL));
+        verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
+    }
+
+    /**
+     * Test stream recipes with an invalid page, page size, cursor, sort or view.
+     * @param pageNumber
+     * @param pageSize
+     * @param cursor
+     * @param sort
+     * @param view
+     * @throws Exception
+     */
+    @ParameterizedTest
+    @CsvSource({"0, 10, , , full", "1, 0, , , full", "1, 10, not a cursor, , full", "1, 10, , description, full",
+        "1, 10, , , brief"})
+    void testStreamRecipesBadRequest(final long pageNumber, final int pageSize, final String cursor,
+                                     final String sort, final String view) throws Exception {
+
+        var response = recipeController.streamRecipes(pageNumber, pageSize, cursor, sort, view);
+
+        assertTrue(statusCodeAndContentTypeAreExpected(HttpStatus.BAD_REQUEST, MediaType.TEXT_PLAIN_VALUE, response));
+        verifyNoInteractions(recipeService, recipeResourceAssembler);
+    }
+
+    /**
+     * Test list recipes with hyper-links throws JsonProcessingException.
+     * @throws Exception
+     */
+    @Test
+    void testListRecipesWithHyperLinksJsonProcessiongException() throws Exception {
+
+        var recipes = Instancio.ofList(Recipe.class).size(1).create();
+        Flux<Recipe> recipeFlux = Flux.fromIterable(recipes);
+        RecipeResourceAssembler assembler = new RecipeResourceAssembler(objectMapper);
+
+        when(recipeService.getAllRecipes(anyLong(), anyInt(), eq(RecipeView.FULL))).thenReturn(recipeFlux);
+        when(recipeService.getRecipeCount(eq(RecipeCountMode.EXACT))).thenReturn(Mono.just((long) recipes.size()));
+        when(recipeResourceAssembler.toCollectionModel(any(Iterable.class)))
+                .thenAnswer(invocation -> assembler.toCollectionModel(invocation.getArgument(0)));
+        doThrow(JsonProcessingException.class).when(objectMapper).writeValueAsString(any());
+
+        var response = recipeController.listRecipes(PAGE_NUMBER_1, PAGE_SIZE_10, null, null, EXACT_COUNT,
+            INCLUDE_HYPER_LINKS, FULL_VIEW, getExchange());
+
+        StepVerifier.create(response)
+                .expectNextMatches(responseEntity -> {
+                    return responseEntity.getStatusCode() == HttpStatus.INTERNAL_SERVER_ERROR;
+                })
+                .verifyComplete();
+
+        verify(recipeService, times(1)).getAllRecipes(anyLong(), anyInt(), eq(RecipeView.FULL));
+        verify(recipeService, times(1)).getRecipeCount(eq(RecipeCountMode.EXACT));
+        verify(recipeResourceAssembler, times(1)).toCollectionModel(any(Iterable.class));
+        verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
+    }
+
+    /**
+     * Test list recipes without hyper-links throw JsonProcessingException.
+     * @throws Exception
+     */
+    @Test
+    void testListRecipesWithoutHyperLinksJsonProcessingException() throws Exception {
+
+        var recipes = Instancio.ofList(Recipe.class).size(1).create();
+        Flux<Recipe> recipeFlux = Flux.fromIterable(recipes);
+
+        when(recipeService.getAllRecipes(anyLong(), anyInt(), eq(RecipeView.FULL))).thenReturn(recipeFlux);
+        doThrow(JsonProcessingException.class).when(objectMapper).writeValueAsString(any());
+
+        var response = recipeController.listRecipes(PAGE_NUMBER_1, PAGE_SIZE_10, null, null,
+            EXACT_COUNT, DO_NOT_INCLUDE_HYPER_LINKS, FULL_VIEW, getExchange());
+
+        StepVerifier.create(response)
+                .expectNextMatches(responseEntity -> {
+                    return responseEntity.getStatusCode() == HttpStatus.INTERNAL_SERVER_ERROR;
+                })
+                .verifyComplete();
+
+        verify(recipeService, times(1)).getAllRecipes(anyLong(), anyInt(), eq(RecipeView.FULL));
+        verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
+    }
+
+    /**
+     * Test get recipe with hyper-links where recipe doesn't exist.
+     * @throws Exception
+     */
+    @Test
+    void testGetRecipeWithHyperLinksDoesNotExist() throws Exception {
+
+        Mono<Recipe> recipeMono = Mono.empty();
+
+        when(recipeService.getRecipeById(anyLong(), eq(RecipeView.FULL))).thenReturn(recipeMono);
+
+        var response = recipeController.getRecipe(-1L, INCLUDE_HYPER_LINKS, FULL_VIEW, getExchange());
+
+        StepVerifier.create(response)
+                .expectNextMatches(responseEntity -> {
+                    return responseEntity.getStatusCode() == HttpStatus.NOT_FOUND;
+                })
+                .verifyComplete();
+
+        verify(recipeService, times(1)).getRecipeById(anyLong(), eq(RecipeView.FULL));
+        verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
+    }
+
+    /**
+     * Test get recipe without hyper-links where recipe doesn't exist.
+     * @throws Exception
+     */
+    @Test
+    void testGetRecipeWithoutHyperLinksDoesNotExist() throws Exception {
+
+        Mono<Recipe> recipeMono = Mono.empty();
+
+        when(recipeService.getRecipeById(anyLong(), eq(RecipeView.FULL))).thenReturn(recipeMono);
+
+        var response = recipeController.getRecipe(-1L, DO_NOT_INCLUDE_HYPER_LINKS, FULL_VIEW, getExchange());
+
+        StepVerifier.create(response)
+                .expectNextMatches(responseEntity -> {
+                    return responseEntity.getStatusCode() == HttpStatus.NOT_FOUND;
+                })
+                .verifyComplete();
+
+        verify(recipeService, times(1)).getRecipeById(anyLong(), eq(RecipeView.FULL));
+        verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
+    }
+
+    /**
+     * Test get recipe with hyper-links where recipe exists.
+     * @throws Exception
+     */
+    @Test
+    void testGetRecipeWithHyperLinksExists() throws Exception {
+
+        var recipe = Instancio.create(Recipe.class);
+        Mono<Recipe> recipeMono = Mono.just(recipe);
+        RecipeResourceAssembler assembler = new RecipeResourceAssembler(objectMapper);
+
+        when(recipeService.getRecipeById(anyLong(), eq(RecipeView.FULL))).thenReturn(recipeMono);
+        when(recipeResourceAssembler.toModel(any(Recipe.class)))
+                .thenAnswer(invocation -> assembler.toModel(invocation.getArgument(0)));
+
+        var response = recipeController.getRecipe(-1L, INCLUDE_HYPER_LINKS, FULL_VIEW, getExchange());
+
+        StepVerifier.create(response)
+                .expectNextMatches(responseEntity -> {
+                    if (!statusCodeAndContentTypeAreExpected(HttpStatus.OK,
+                            de.ingogriebsch.spring.hateoas.siren.MediaTypes.SIREN_JSON_VALUE, responseEntity)) {
+                        return false;
+                    }
+
+                    var json = jsonPath.parse(getBodyAsString(responseEntity));
+                    return recipe.getName().equals(JsonPath.read(json, "$.name"));
+                })
+                .verifyComplete();
+
+        verify(recipeService, times(1)).getRecipeById(anyLong(), eq(RecipeView.FULL));
+        verify(recipeResourceAssembler, times(1)).toModel(any(Recipe.class));
+        verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
+    }
+
+    /**
+     * Test get recipe without hyper-links where recipe exists.
+     * @throws Exception
+     */
+    @Test
+    void testGetRecipeWithoutHyperLinksExists() throws Exception {
+
+        var recipe = Instancio.create(Recipe.class);
+        Mono<Recipe> recipeMono = Mono.just(recipe);
+
+        when(recipeService.getRecipeById(anyLong(), eq(RecipeView.FULL))).thenReturn(recipeMono);
+
+        var response = recipeController.getRecipe(-1L, DO_NOT_INCLUDE_HYPER_LINKS, FULL_VIEW, getExchange());
+
+        StepVerifier.create(response)
+                .expectNextMatches(responseEntity -> {
+                    if (!statusCodeAndContentTypeAreExpected(HttpStatus.OK,
+                            MediaType.APPLICATION_JSON_VALUE, responseEntity)) {
+                        return false;
+                    }
+
+                    if (!String.format("\"%d-json\"", recipe.getVersion()).equals(responseEntity.getHeaders().getETag())) {
+                        return false;
+                    }
+
+                    var json = jsonPath.parse(getBodyAsString(responseEntity));
+                    return recipe.getName().equals(JsonPath.read(json, "$.name"));
+                })
+                .verifyComplete();
+
+        verify(recipeService, times(1)).getRecipeById(anyLong(), eq(RecipeView.FULL));
+        verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
+    }
+
+    /**
+     * Test get recipe in the summary view returns only the summary of the recipe, without caching it.
+     * @throws Exception
+     */
+    @Test
+    void testGetRecipeSummary() throws Exception {
+
+        var recipe = Instancio.create(Recipe.class);
 
-        when(recipeService.getAllRecipes(anyLong(), anyInt())).thenReturn(recipeFlux);
+        when(recipeService.getRecipeById(anyLong(), eq(RecipeView.SUMMARY))).thenReturn(Mono.just(recipe));
 
-        var response = recipeController.listRecipes(PAGE_NUMBER_1, PAGE_SIZE_10, DO_NOT_INCLUDE_HYPER_LINKS);
+        var response = recipeController.getRecipe(-1L, DO_NOT_INCLUDE_HYPER_LINKS,
+            "summary", getExchange());
 
         StepVerifier.create(response)
                 .expectNextMatches(responseEntity -> {
@@ -355,32 +1123,66 @@ public class RecipeControllerTest {
                         return false;
                     }
 
-                    return (recipes.size() == ((JSONArray) jsonPath.parse(responseEntity.getBody().toString())).size());
+                    var json = jsonPath.parse(responseEntity.getBody().toString());
+                    return String.format("\"%d-json-summary\"", recipe.getVersion()).equals(responseEntity.getHeaders().getETag())
+                            && recipe.getName().equals(JsonPath.read(json, "$.name"))
+                            && !responseEntity.getBody().toString().contains("ingredients");
                 })
                 .verifyComplete();
 
-        verify(recipeService, times(1)).getAllRecipes(anyLong(), anyInt());
+        verify(recipeService, times(1)).getRecipeById(anyLong(), eq(RecipeView.SUMMARY));
+        verifyNoInteractions(recipeResponseCache);
         verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
     }
 
     /**
-     * Test list recipes with hyper-links throws JsonProcessingException.
+     * Test get recipe encodes a recipe once per version and writes the cached body after that.
      * @throws Exception
      */
     @Test
-    void testListRecipesWithHyperLinksJsonProcessiongException() throws Exception {
+    void testGetRecipeCached() throws Exception {
 
-        var recipes = Instancio.ofList(Recipe.class).size(1).create();
-        Flux<Recipe> recipeFlux = Flux.fromIterable(recipes);
+        var recipe = Instancio.create(Recipe.class);
+        var updatedRecipe = objectMapper.readValue(objectMapper.writeValueAsString(recipe), Recipe.class);
+
+        updatedRecipe.setVersion(recipe.getVersion() + 1);
+
+        ReflectionTestUtils.setField(recipeController, "recipeResponseCache",
+            new RecipeResponseCache(NUMBER_OF_PAGES_3, Duration.ofMinutes(1)));
+        when(recipeService.getRecipeById(anyLong(), eq(RecipeView.FULL)))
+            .thenReturn(Mono.just(recipe), Mono.just(recipe), Mono.just(updatedRecipe));
+
+        for (var expected : List.of(recipe, recipe, updatedRecipe)) {
+            StepVerifier.create(recipeController.getRecipe(-1L, DO_NOT_INCLUDE_HYPER_LINKS, FULL_VIEW, getExchange()))
+                    .expectNextMatches(responseEntity -> statusCodeAndContentTypeAreExpected(HttpStatus.OK,
+                            MediaType.APPLICATION_JSON_VALUE, responseEntity)
+                        && String.format("\"%d-json\"", expected.getVersion()).equals(responseEntity.getHeaders().getETag())
+                        && recipe.getName().equals(JsonPath.read(jsonPath.parse(getBodyAsString(responseEntity)), "$.name")))
+                    .verifyComplete();
+        }
+
+        verify(objectMapper, times(2)).writeValueAsBytes(any(Recipe.class));
+        verify(recipeService, times(NUMBER_OF_PAGES_3)).getRecipeById(anyLong(), eq(RecipeView.FULL));
+        verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
+    }
+
+    /**
+     * Test get recipe with hyper-links throws JsonProcessingException.
+     * @throws Exception
+     */
+    @Test
+    void testGetRecipeWithHyperLinksJsonProcessingException() throws Exception {
+
+        var recipe = Instancio.create(Recipe.class);
+        Mono<Recipe> recipeMono = Mono.just(recipe);
         RecipeResourceAssembler assembler = new RecipeResourceAssembler(objectMapper);
 
-        when(recipeService.getAllRecipes(anyLong(), anyInt())).thenReturn(recipeFlux);
-        when(recipeService.getRecipeCount()).thenReturn(Mono.just((long) recipes.size()));
-        when(recipeResourceAssembler.toCollectionModel(any(Iterable.class)))
-                .thenAnswer(invocation -> assembler.toCollectionModel(invocation.getArgument(0)));
-        doThrow(JsonProcessingException.class).when(objectMapper).writeValueAsString(any());
+        when(recipeService.getRecipeById(anyLong(), eq(RecipeView.FULL))).thenReturn(recipeMono);
+        when(recipeResourceAssembler.toModel(any(Recipe.class)))
+                .thenAnswer(invocation -> assembler.toModel(invocation.getArgument(0)));
+        doThrow(JsonProcessingException.class).when(objectMapper).writeValueAsBytes(any());
 
-        var response = recipeController.listRecipes(PAGE_NUMBER_1, PAGE_SIZE_10, INCLUDE_HYPER_LINKS);
+        var response = recipeController.getRecipe(-1L, INCLUDE_HYPER_LINKS, FULL_VIEW, getExchange());
 
         StepVerifier.create(response)
                 .expectNextMatches(responseEntity -> {
@@ -388,26 +1190,25 @@ public class RecipeControllerTest {
                 })
                 .verifyComplete();
 
-        verify(recipeService, times(1)).getAllRecipes(anyLong(), anyInt());
-        verify(recipeService, times(1)).getRecipeCount();
-        verify(recipeResourceAssembler, times(1)).toCollectionModel(any(Iterable.class));
+        verify(recipeService, times(1)).getRecipeById(anyLong(), eq(RecipeView.FULL));
+        verify(recipeResourceAssembler, times(1)).toModel(any(Recipe.class));
         verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
     }
 
     /**
-     * Test list recipes without hyper-links throw JsonProcessingException.
+     * Test get recipe without hyper-links throw JsonProcessingException.
      * @throws Exception
      */
     @Test
-    void testListRecipesWithoutHyperLinksJsonProcessingException() throws Exception {
+    void testGetRecipeWithoutHyperLinksJsonProcessingException() throws Exception {
 
-        var recipes = Instancio.ofList(Recipe.class).size(1).create();
-        Flux<Recipe> recipeFlux = Flux.fromIterable(recipes);
+        var recipe = Instancio.create(Recipe.class);
+        Mono<Recipe> recipeMono = Mono.just(recipe);
 
-        when(recipeService.getAllRecipes(anyLong(), anyInt())).thenReturn(recipeFlux);
-        doThrow(JsonProcessingException.class).when(objectMapper).writeValueAsString(any());
+        when(recipeService.getRecipeById(anyLong(), eq(RecipeView.FULL))).thenReturn(recipeMono);
+        doThrow(JsonProcessingException.class).when(objectMapper).writeValueAsBytes(any());
 
-        var response = recipeController.listRecipes(PAGE_NUMBER_1, PAGE_SIZE_10, DO_NOT_INCLUDE_HYPER_LINKS);
+        var response = recipeController.getRecipe(-1L, DO_NOT_INCLUDE_HYPER_LINKS, FULL_VIEW, getExchange());
 
         StepVerifier.create(response)
                 .expectNextMatches(responseEntity -> {
@@ -415,103 +1216,144 @@ public class RecipeControllerTest {
                 })
                 .verifyComplete();
 
-        verify(recipeService, times(1)).getAllRecipes(anyLong(), anyInt());
+        verify(recipeService, times(1)).getRecipeById(anyLong(), eq(RecipeView.FULL));
         verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
     }
 
     /**
-     * Test get recipe with hyper-links where recipe doesn't exist.
-     * @throws Exception
+     * Test get recipe answers a request for the recipe's current ETag with not modified, without loading the recipe.
      */
     @Test
-    void testGetRecipeWithHyperLinksDoesNotExist() throws Exception {
+    void testGetRecipeIfNoneMatchNotModified() {
 
-        Mono<Recipe> recipeMono = Mono.empty();
+        var version = Instancio.create(RecipeVersion.class);
 
-        when(recipeService.getRecipeById(anyLong())).thenReturn(recipeMono);
+        when(recipeService.getRecipeVersionById(anyLong())).thenReturn(Mono.just(version));
 
-        var response = recipeController.getRecipe(-1L, INCLUDE_HYPER_LINKS);
+        var response = recipeController.getRecipe(-1L, DO_NOT_INCLUDE_HYPER_LINKS,
+            FULL_VIEW, getExchange(HttpHeaders.IF_NONE_MATCH, String.format("\"%d-json\"", version.getVersion())));
 
         StepVerifier.create(response)
-                .expectNextMatches(responseEntity -> {
-                    return responseEntity.getStatusCode() == HttpStatus.NOT_FOUND;
-                })
+                .expectNextMatches(responseEntity -> responseEntity.getStatusCode() == HttpStatus.NOT_MODIFIED
+                        && responseEntity.getBody() == null)
                 .verifyComplete();
 
-        verify(recipeService, times(1)).getRecipeById(anyLong());
+        verify(recipeService, times(1)).getRecipeVersionById(anyLong());
         verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
     }
 
     /**
-     * Test get recipe without hyper-links where recipe doesn't exist.
-     * @throws Exception
+     * Test get recipe answers a request for an earlier ETag with the recipe.
      */
     @Test
-    void testGetRecipeWithoutHyperLinksDoesNotExist() throws Exception {
+    void testGetRecipeIfNoneMatchModified() {
 
-        Mono<Recipe> recipeMono = Mono.empty();
+        var recipe = Instancio.create(Recipe.class);
 
-        when(recipeService.getRecipeById(anyLong())).thenReturn(recipeMono);
+        when(recipeService.getRecipeVersionById(anyLong())).thenReturn(Mono.just(RecipeVersion.of(recipe)));
+        when(recipeService.getRecipeById(anyLong(), eq(RecipeView.FULL))).thenReturn(Mono.just(recipe));
 
-        var response = recipeController.getRecipe(-1L, DO_NOT_INCLUDE_HYPER_LINKS);
+        var response = recipeController.getRecipe(-1L, DO_NOT_INCLUDE_HYPER_LINKS,
+            FULL_VIEW, getExchange(HttpHeaders.IF_NONE_MATCH, String.format("\"%d-json\"", recipe.getVersion() - 1)));
 
         StepVerifier.create(response)
-                .expectNextMatches(responseEntity -> {
-                    return responseEntity.getStatusCode() == HttpStatus.NOT_FOUND;
-                })
+                .expectNextMatches(responseEntity -> statusCodeAndContentTypeAreExpected(HttpStatus.OK,
+                        MediaType.APPLICATION_JSON_VALUE, responseEntity))
                 .verifyComplete();
 
-        verify(recipeService, times(1)).getRecipeById(anyLong());
+        verify(recipeService, times(1)).getRecipeVersionById(anyLong());
+        verify(recipeService, times(1)).getRecipeById(anyLong(), eq(RecipeView.FULL));
         verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
     }
 
     /**
-     * Test get recipe with hyper-links where recipe exists.
-     * @throws Exception
+     * Test get recipe answers a request for another variant of the recipe's current ETag with the recipe, since the
+     * summary and the Siren body aren't the representation the client has.
+     * @param includeHyperLinks
+     * @param view
      */
-    @Test
-    void testGetRecipeWithHyperLinksExists() throws Exception {
+    @ParameterizedTest
+    @CsvSource({"false, summary", "true, full"})
+    void testGetRecipeIfNoneMatchOtherVariant(final boolean includeHyperLinks, final String view) {
 
         var recipe = Instancio.create(Recipe.class);
-        Mono<Recipe> recipeMono = Mono.just(recipe);
-        RecipeResourceAssembler assembler = new RecipeResourceAssembler(objectMapper);
+        var recipeView = RecipeView.fromParameterValue(view);
+        var exchange = getExchange(HttpHeaders.IF_NONE_MATCH, String.format("\"%d-json\"", recipe.getVersion()));
 
-        when(recipeService.getRecipeById(anyLong())).thenReturn(recipeMono);
-        when(recipeResourceAssembler.toModel(any(Recipe.class)))
-                .thenAnswer(invocation -> assembler.toModel(invocation.getArgument(0)));
+        when(recipeService.getRecipeVersionById(anyLong())).thenReturn(Mono.just(RecipeVersion.of(recipe)));
+        when(recipeService.getRecipeById(anyLong(), eq(recipeView))).thenReturn(Mono.just(recipe));
+        if (includeHyperLinks) {
+            RecipeResourceAssembler assembler = new RecipeResourceAssembler(objectMapper);
+
+            when(recipeResourceAssembler.toModel(any(Recipe.class)))
+                    .thenAnswer(invocation -> assembler.toModel(invocation.getArgument(0)));
+        }
 
-        var response = recipeController.getRecipe(-1L, INCLUDE_HYPER_LINKS);
+        var response = recipeController.getRecipe(-1L, includeHyperLinks, view, exchange);
 
         StepVerifier.create(response)
-                .expectNextMatches(responseEntity -> {
-                    if (!statusCodeAndContentTypeAreExpected(HttpStatus.OK,
-                            de.ingogriebsch.spring.hateoas.siren.MediaTypes.SIREN_JSON_VALUE, responseEntity)) {
-                        return false;
-                    }
+                .expectNextMatches(responseEntity -> responseEntity.getStatusCode() == HttpStatus.OK
+                        && !String.format("\"%d-json\"", recipe.getVersion()).equals(responseEntity.getHeaders().getETag()))
+                .verifyComplete();
 
-                    var json = jsonPath.parse(responseEntity.getBody().toString());
-                    return recipe.getName().equals(JsonPath.read(json, "$.name"));
-                })
+        verify(recipeService, times(1)).getRecipeVersionById(anyLong());
+        verify(recipeService, times(1)).getRecipeById(anyLong(), eq(recipeView));
+    }
+
+    /**
+     * Test get recipe answers a request for a recipe that hasn't been modified since a date with not modified.
+     */
+    @Test
+    void testGetRecipeIfModifiedSinceNotModified() {
+
+        var version = Instancio.create(RecipeVersion.class);
+        var lastModified = version.getLastModifiedDateTime().atZone(ZoneId.systemDefault());
+
+        when(recipeService.getRecipeVersionById(anyLong())).thenReturn(Mono.just(version));
+
+        var response = recipeController.getRecipe(-1L, DO_NOT_INCLUDE_HYPER_LINKS, FULL_VIEW, getExchange(
+            HttpHeaders.IF_MODIFIED_SINCE, DateTimeFormatter.RFC_1123_DATE_TIME.format(lastModified.plusSeconds(1))));
+
+        StepVerifier.create(response)
+                .expectNextMatches(responseEntity -> responseEntity.getStatusCode() == HttpStatus.NOT_MODIFIED)
                 .verifyComplete();
 
-        verify(recipeService, times(1)).getRecipeById(anyLong());
-        verify(recipeResourceAssembler, times(1)).toModel(any(Recipe.class));
+        verify(recipeService, times(1)).getRecipeVersionById(anyLong());
         verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
     }
 
     /**
-     * Test get recipe without hyper-links where recipe exists.
-     * @throws Exception
+     * Test get recipe answers a conditional request for a recipe that doesn't exist with not found.
      */
     @Test
-    void testGetRecipeWithoutHyperLinksExists() throws Exception {
+    void testGetRecipeIfNoneMatchDoesNotExist() {
 
-        var recipe = Instancio.create(Recipe.class);
-        Mono<Recipe> recipeMono = Mono.just(recipe);
+        when(recipeService.getRecipeVersionById(anyLong())).thenReturn(Mono.empty());
+
+        var response = recipeController.getRecipe(-1L, DO_NOT_INCLUDE_HYPER_LINKS,
+            FULL_VIEW, getExchange(HttpHeaders.IF_NONE_MATCH, "\"0\""));
+
+        StepVerifier.create(response)
+                .expectNextMatches(responseEntity -> responseEntity.getStatusCode() == HttpStatus.NOT_FOUND)
+                .verifyComplete();
+
+        verify(recipeService, times(1)).getRecipeVersionById(anyLong());
+        verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
+    }
+
+    /**
+     * Test get recipes without hyper-links returns the recipes in the order of their ids and lists the missing ids.
+     */
+    @Test
+    void testGetRecipesWithoutHyperLinks() {
 
-        when(recipeService.getRecipeById(anyLong())).thenReturn(recipeMono);
+        var recipes = Instancio.ofList(Recipe.class).size(2).create();
+        var ids = List.of(recipes.get(1).getRecipeId(), -1L, recipes.get(0).getRecipeId());
 
-        var response = recipeController.getRecipe(-1L, DO_NOT_INCLUDE_HYPER_LINKS);
+        when(recipeService.getRecipesByIds(eq(ids)))
+            .thenReturn(Mono.just(new RecipesByIds(List.of(recipes.get(1), recipes.get(0)), List.of(-1L))));
+
+        var response = recipeController.getRecipes(ids, DO_NOT_INCLUDE_HYPER_LINKS);
 
         StepVerifier.create(response)
                 .expectNextMatches(responseEntity -> {
@@ -521,66 +1363,73 @@ public class RecipeControllerTest {
                     }
 
                     var json = jsonPath.parse(responseEntity.getBody().toString());
-                    return recipe.getName().equals(JsonPath.read(json, "$.name"));
+                    return "-1".equals(responseEntity.getHeaders().getFirst(RecipeController.MISSING_RECIPE_IDS_HEADER))
+                            && List.of(recipes.get(1).getRecipeId(), recipes.get(0).getRecipeId())
+                                .equals(((JSONArray) JsonPath.read(json, "$.recipes[*].recipeId")).stream()
+                                    .map(recipeId -> ((Number) recipeId).longValue()).toList())
+                            && List.of(-1).equals(JsonPath.read(json, "$.missingRecipeIds"));
                 })
                 .verifyComplete();
 
-        verify(recipeService, times(1)).getRecipeById(anyLong());
+        verify(recipeService, times(1)).getRecipesByIds(eq(ids));
         verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
     }
 
     /**
-     * Test get recipe with hyper-links throws JsonProcessingException.
-     * @throws Exception
+     * Test get recipes with hyper-links returns the recipes and missing ids, with a self link only for a GET.
+     * @param idsInBody
      */
-    @Test
-    void testGetRecipeWithHyperLinksJsonProcessingException() throws Exception {
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void testGetRecipesWithHyperLinks(final boolean idsInBody) {
 
-        var recipe = Instancio.create(Recipe.class);
-        Mono<Recipe> recipeMono = Mono.just(recipe);
+        var recipes = Instancio.ofList(Recipe.class).size(2).create();
+        var ids = List.of(recipes.get(0).getRecipeId(), recipes.get(1).getRecipeId(), -1L);
         RecipeResourceAssembler assembler = new RecipeResourceAssembler(objectMapper);
 
-        when(recipeService.getRecipeById(anyLong())).thenReturn(recipeMono);
-        when(recipeResourceAssembler.toModel(any(Recipe.class)))
-                .thenAnswer(invocation -> assembler.toModel(invocation.getArgument(0)));
-        doThrow(JsonProcessingException.class).when(objectMapper).writeValueAsString(any());
+        when(recipeService.getRecipesByIds(eq(ids))).thenReturn(Mono.just(new RecipesByIds(recipes, List.of(-1L))));
+        when(recipeResourceAssembler.toCollectionModel(any(Iterable.class)))
+            .thenAnswer(invocation -> assembler.toCollectionModel(invocation.getArgument(0)));
 
-        var response = recipeController.getRecipe(-1L, INCLUDE_HYPER_LINKS);
+        var response = idsInBody ? recipeController.postGetRecipes(ids, INCLUDE_HYPER_LINKS)
+            : recipeController.getRecipes(ids, INCLUDE_HYPER_LINKS);
 
         StepVerifier.create(response)
                 .expectNextMatches(responseEntity -> {
-                    return responseEntity.getStatusCode() == HttpStatus.INTERNAL_SERVER_ERROR;
+                    if (!statusCodeAndContentTypeAreExpected(HttpStatus.OK,
+                            de.ingogriebsch.spring.hateoas.siren.MediaTypes.SIREN_JSON_VALUE, responseEntity)) {
+                        return false;
+                    }
+
+                    var json = jsonPath.parse(responseEntity.getBody().toString());
+                    return "-1".equals(responseEntity.getHeaders().getFirst(RecipeController.MISSING_RECIPE_IDS_HEADER))
+                            && recipes.size() == ((JSONArray) JsonPath.read(json, "$.content")).size()
+                            && List.of(-1).equals(JsonPath.read(json, "$.missingRecipeIds"))
+                            && ((JSONArray) JsonPath.read(json, "$.links[?(@.rel == 'self')]")).size() == (idsInBody ? 0 : 1);
                 })
                 .verifyComplete();
 
-        verify(recipeService, times(1)).getRecipeById(anyLong());
-        verify(recipeResourceAssembler, times(1)).toModel(any(Recipe.class));
+        verify(recipeService, times(1)).getRecipesByIds(eq(ids));
+        verify(recipeResourceAssembler, times(1)).toCollectionModel(any(Iterable.class));
         verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
     }
 
     /**
-     * Test get recipe without hyper-links throw JsonProcessingException.
-     * @throws Exception
+     * Test get recipes with no ids or too many ids is a bad request.
      */
     @Test
-    void testGetRecipeWithoutHyperLinksJsonProcessingException() throws Exception {
-
-        var recipe = Instancio.create(Recipe.class);
-        Mono<Recipe> recipeMono = Mono.just(recipe);
-
-        when(recipeService.getRecipeById(anyLong())).thenReturn(recipeMono);
-        doThrow(JsonProcessingException.class).when(objectMapper).writeValueAsString(any());
+    void testGetRecipesBadRequest() {
 
-        var response = recipeController.getRecipe(-1L, DO_NOT_INCLUDE_HYPER_LINKS);
+        var tooManyIds = LongStream.rangeClosed(1, RecipeController.MAXIMUM_RECIPE_IDS + 1).boxed().toList();
 
-        StepVerifier.create(response)
-                .expectNextMatches(responseEntity -> {
-                    return responseEntity.getStatusCode() == HttpStatus.INTERNAL_SERVER_ERROR;
-                })
-                .verifyComplete();
+        for (var ids : List.of(List.<Long>of(), tooManyIds)) {
+            StepVerifier.create(recipeController.getRecipes(ids, DO_NOT_INCLUDE_HYPER_LINKS))
+                    .expectNextMatches(responseEntity -> statusCodeAndContentTypeAreExpected(HttpStatus.BAD_REQUEST,
+                            MediaType.TEXT_PLAIN_VALUE, responseEntity))
+                    .verifyComplete();
+        }
 
-        verify(recipeService, times(1)).getRecipeById(anyLong());
-        verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
+        verifyNoInteractions(recipeService, recipeResourceAssembler);
     }
 
     /**
@@ -697,7 +1546,7 @@ public class RecipeControllerTest {
 
         when(recipeService.updateRecipe(any(Recipe.class))).thenReturn(recipeMono);
 
-        var response = recipeController.updateRecipe(objectMapper.writeValueAsString(recipe), INCLUDE_HYPER_LINKS);
+        var response = recipeController.updateRecipe(objectMapper.writeValueAsString(recipe), null, INCLUDE_HYPER_LINKS);
 
         StepVerifier.create(response)
                 .expectNextMatches(responseEntity -> {
@@ -721,7 +1570,7 @@ public class RecipeControllerTest {
 
         when(recipeService.updateRecipe(any(Recipe.class))).thenReturn(recipeMono);
 
-        var response = recipeController.updateRecipe(objectMapper.writeValueAsString(recipe), DO_NOT_INCLUDE_HYPER_LINKS);
+        var response = recipeController.updateRecipe(objectMapper.writeValueAsString(recipe), null, DO_NOT_INCLUDE_HYPER_LINKS);
 
         StepVerifier.create(response)
                 .expectNextMatches(responseEntity -> {
@@ -733,6 +1582,80 @@ public class RecipeControllerTest {
         verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
     }
 
+    /**
+     * Test update recipe only updates the version of the recipe If-Match names.
+     * @param ifMatch
+     * @param version
+     * @throws Exception
+     */
+    @ParameterizedTest
+    @CsvSource(value = {"\"3-json\", 3", "\"5-siren-summary\", 5", "\"3\", 3", "7, 7", "*, null", "null, null"},
+        nullValues = "null")
+    void testUpdateRecipeIfMatch(final String ifMatch, final Long version) throws Exception {
+
+        var recipe = Instancio.create(Recipe.class);
+
+        when(recipeService.updateRecipe(any(Recipe.class))).thenAnswer(invocation -> {
+            Recipe updatedRecipe = invocation.getArgument(0);
+            return Mono.just(updatedRecipe);
+        });
+
+        var response = recipeController.updateRecipe(objectMapper.writeValueAsString(recipe), ifMatch,
+                DO_NOT_INCLUDE_HYPER_LINKS);
+
+        StepVerifier.create(response)
+                .expectNextMatches(responseEntity -> statusCodeAndContentTypeAreExpected(HttpStatus.OK,
+                        MediaType.APPLICATION_JSON_VALUE, responseEntity))
+                .verifyComplete();
+
+        verify(recipeService, times(1)).updateRecipe(argThat(updatedRecipe -> Objects.equals(updatedRecipe.getVersion(),
+                version)));
+        verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
+    }
+
+    /**
+     * Test update recipe where the recipe has changed since it was read.
+     * @throws Exception
+     */
+    @Test
+    void testUpdateRecipeVersionConflict() throws Exception {
+
+        var recipe = Instancio.create(Recipe.class);
+
+        when(recipeService.updateRecipe(any(Recipe.class)))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("version conflict")));
+
+        var response = recipeController.updateRecipe(objectMapper.writeValueAsString(recipe),
+                String.valueOf(recipe.getVersion()), DO_NOT_INCLUDE_HYPER_LINKS);
+
+        StepVerifier.create(response)
+                .expectNextMatches(responseEntity -> statusCodeAndContentTypeAreExpected(HttpStatus.PRECONDITION_FAILED,
+                        MediaType.TEXT_PLAIN_VALUE, responseEntity))
+                .verifyComplete();
+
+        verify(recipeService, times(1)).updateRecipe(any(Recipe.class));
+        verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
+    }
+
+    /**
+     * Test update recipe where If-Match isn't the ETag of a recipe.
+     * @throws Exception
+     */
+    @Test
+    void testUpdateRecipeIfMatchNotAVersion() throws Exception {
+
+        var recipe = Instancio.create(Recipe.class);
+
+        var response = recipeController.updateRecipe(objectMapper.writeValueAsString(recipe), "W/\"abc\"",
+                DO_NOT_INCLUDE_HYPER_LINKS);
+
+        StepVerifier.create(response)
+                .expectNextMatches(responseEntity -> responseEntity.getStatusCode() == HttpStatus.PRECONDITION_FAILED)
+                .verifyComplete();
+
+        verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
+    }
+
     /**
      * Test update recipe with hyper-links where recipe exists.
      * @throws Exception
@@ -749,7 +1672,7 @@ public class RecipeControllerTest {
         when(recipeResourceAssembler.toModel(any(Recipe.class)))
                 .thenAnswer(invocation -> assembler.toModel(invocation.getArgument(0)));
 
-        var response = recipeController.updateRecipe(objectMapper.writeValueAsString(recipe), INCLUDE_HYPER_LINKS);
+        var response = recipeController.updateRecipe(objectMapper.writeValueAsString(recipe), null, INCLUDE_HYPER_LINKS);
 
         StepVerifier.create(response)
                 .expectNextMatches(responseEntity -> {
@@ -782,7 +1705,7 @@ public class RecipeControllerTest {
 
         when(recipeService.updateRecipe(any(Recipe.class))).thenReturn(recipeMono);
 
-        var response = recipeController.updateRecipe(objectMapper.writeValueAsString(recipe), DO_NOT_INCLUDE_HYPER_LINKS);
+        var response = recipeController.updateRecipe(objectMapper.writeValueAsString(recipe), null, DO_NOT_INCLUDE_HYPER_LINKS);
 
         StepVerifier.create(response)
                 .expectNextMatches(responseEntity -> {
@@ -811,7 +1734,7 @@ public class RecipeControllerTest {
 
         doThrow(JsonProcessingException.class).when(objectMapper).readValue(anyString(), any(Class.class));
 
-        var response = recipeController.updateRecipe(objectMapper.writeValueAsString(recipe), INCLUDE_HYPER_LINKS);
+        var response = recipeController.updateRecipe(objectMapper.writeValueAsString(recipe), null, INCLUDE_HYPER_LINKS);
 
         StepVerifier.create(response)
                 .expectNextMatches(responseEntity -> {
@@ -832,7 +1755,7 @@ public class RecipeControllerTest {
 
         doThrow(JsonProcessingException.class).when(objectMapper).readValue(anyString(), any(Class.class));
 
-        var response = recipeController.updateRecipe(objectMapper.writeValueAsString(recipe), DO_NOT_INCLUDE_HYPER_LINKS);
+        var response = recipeController.updateRecipe(objectMapper.writeValueAsString(recipe), null, DO_NOT_INCLUDE_HYPER_LINKS);
 
         StepVerifier.create(response)
                 .expectNextMatches(responseEntity -> {
@@ -866,6 +1789,144 @@ public class RecipeControllerTest {
         verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
     }
 
+    /**
+     * Test export recipes streams the recipes as gzip compressed newline delimited JSON.
+     * @throws Exception
+     */
+    @Test
+    void testExportRecipes() throws Exception {
+
+        var recipes = Instancio.ofList(Recipe.class).size(2).create();
+
+        when(recipeService.exportRecipes(1L)).thenReturn(Flux.fromIterable(recipes));
+
+        var response = recipeController.exportRecipes(1L);
+
+        assertTrue(statusCodeAndContentTypeAreExpected(HttpStatus.OK, MediaType.APPLICATION_NDJSON_VALUE, response));
+        assertEquals(RecipeController.GZIP, response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        var chunks = ((Flux<DataBuffer>) response.getBody())
+            .map(dataBuffer -> {
+                var bytes = new byte[dataBuffer.readableByteCount()];
+                dataBuffer.read(bytes);
+                return bytes;
+            })
+            .collectList()
+            .block();
+        var lines = GzipNdjsonWriterTest.gunzip(chunks).lines().toList();
+        assertEquals(recipes.size(), lines.size());
+        for (int idx = 0; idx < recipes.size(); idx++) {
+            assertEquals(recipes.get(idx), objectMapper.readValue(lines.get(idx), Recipe.class));
+        }
+
+        verify(recipeService, times(1)).exportRecipes(1L);
+        verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
+    }
+
+    /**
+     * Test export recipes after a negative recipe id.
+     */
+    @Test
+    void testExportRecipesBadRequest() {
+
+        var response = recipeController.exportRecipes(-1L);
+
+        assertTrue(statusCodeAndContentTypeAreExpected(HttpStatus.BAD_REQUEST, MediaType.TEXT_PLAIN_VALUE, response));
+        verifyNoInteractions(recipeService, recipeResourceAssembler);
+    }
+
+    /**
+     * Test import recipes.
+     */
+    @Test
+    void testImportRecipes() {
+
+        var recipes = Flux.fromIterable(Instancio.ofList(Recipe.class).size(2).create());
+        var results = Flux.just(RecipeImportResult.imported(0, 1L), RecipeImportResult.failed(1, "Name is required"));
+
+        when(recipeService.importRecipes(recipes)).thenReturn(results);
+
+        var response = recipeController.importRecipes(recipes);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(results, response.getBody());
+
+        verify(recipeService, times(1)).importRecipes(recipes);
+        verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
+    }
+
+    /**
+     * Test delete recipes by ids.
+     */
+    @Test
+    void testDeleteRecipesByIds() {
+
+        var ids = List.of(1L, 2L);
+        var progress = RecipeDeleteProgress.NONE.next(ids);
+
+        when(recipeService.deleteRecipesByIds(ids)).thenReturn(Flux.just(progress));
+
+        var response = recipeController.deleteRecipes(ids);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        StepVerifier.create((Flux<RecipeDeleteProgress>) response.getBody())
+                .expectNext(progress)
+                .verifyComplete();
+
+        verify(recipeService, times(1)).deleteRecipesByIds(ids);
+        verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
+    }
+
+    /**
+     * Test delete recipes last modified before a date and time.
+     */
+    @Test
+    void testDeleteRecipesLastModifiedBefore() {
+
+        var lastModifiedBefore = LocalDateTime.parse("2023-01-01T00:00");
+        var progress = RecipeDeleteProgress.NONE.next(List.of(1L));
+
+        when(recipeService.deleteRecipesLastModifiedBefore(lastModifiedBefore)).thenReturn(Flux.just(progress));
+
+        var response = recipeController.deleteRecipesLastModifiedBefore(lastModifiedBefore.toString());
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        StepVerifier.create((Flux<RecipeDeleteProgress>) response.getBody())
+                .expectNext(progress)
+                .verifyComplete();
+
+        verify(recipeService, times(1)).deleteRecipesLastModifiedBefore(lastModifiedBefore);
+        verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
+    }
+
+    /**
+     * Test delete recipes by ids with no ids, a null id, or more ids than can be deleted in one request.
+     * @param numberOfIds
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {0, -1, RecipeController.MAXIMUM_RECIPE_IDS + 1})
+    void testDeleteRecipesByIdsBadRequest(final int numberOfIds) {
+
+        var ids = numberOfIds < 0 ? Collections.<Long>singletonList(null)
+            : LongStream.rangeClosed(1, numberOfIds).boxed().toList();
+
+        var response = recipeController.deleteRecipes(ids);
+
+        assertTrue(statusCodeAndContentTypeAreExpected(HttpStatus.BAD_REQUEST, MediaType.TEXT_PLAIN_VALUE, response));
+        verifyNoInteractions(recipeService, recipeResourceAssembler);
+    }
+
+    /**
+     * Test delete recipes last modified before an invalid date and time.
+     */
+    @Test
+    void testDeleteRecipesLastModifiedBeforeBadRequest() {
+
+        var response = recipeController.deleteRecipesLastModifiedBefore("not a date");
+
+        assertTrue(statusCodeAndContentTypeAreExpected(HttpStatus.BAD_REQUEST, MediaType.TEXT_PLAIN_VALUE, response));
+        verifyNoInteractions(recipeService, recipeResourceAssembler);
+    }
+
     /**
      * Test delete recipe where recipe exists.
      * @throws Exception
@@ -919,6 +1980,18 @@ public class RecipeControllerTest {
         verifyNoMoreInteractions(recipeService, recipeResourceAssembler);
     }
 
+    private static String getBodyAsString(final ResponseEntity<?> responseEntity) {
+        return ((DataBuffer) responseEntity.getBody()).toString(StandardCharsets.UTF_8);
+    }
+
+    private static ServerWebExchange getExchange() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/recipes"));
+    }
+
+    private static ServerWebExchange getExchange(final String headerName, final String headerValue) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/recipes").header(headerName, headerValue));
+    }
+
     private static boolean statusCodeAndContentTypeAreExpected(final HttpStatus expectedStatus,
                final String expectedContentType, final ResponseEntity<?> responseEntity) {
         return (expectedStatus == responseEntity.getStatusCode()
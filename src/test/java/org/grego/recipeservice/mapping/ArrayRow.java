@@ -0,0 +1,159 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice.mapping;
+
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Type;
+import org.grego.recipeservice.model.Ingredient;
+import org.grego.recipeservice.model.Instruction;
+import org.grego.recipeservice.model.Recipe;
+import org.grego.recipeservice.service.RecipeService;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.IntStream;
+
+/**
+ * ArrayRow is an in memory row holding the values the database would return for each column, so row mappers can be
+ * run without a database.
+ */
+public final class ArrayRow implements Row, RowMetadata {
+    /**
+     * Metadata of the columns.
+     */
+    private final List<ColumnMetadata> columnMetadatas;
+
+    /**
+     * Values of the columns.
+     */
+    private final List<Object> values;
+
+    /**
+     * Constructor to build ArrayRow.
+     * @param columnNames
+     * @param columnValues
+     */
+    public ArrayRow(final List<String> columnNames, final List<Object> columnValues) {
+        this.columnMetadatas = IntStream.range(0, columnNames.size())
+                .mapToObj(column -> (ColumnMetadata) new Column(columnNames.get(column), columnValues.get(column)))
+                .toList();
+        this.values = columnValues;
+    }
+
+    /**
+     * Get the row the database returns for an ingredient.
+     * @param ingredient
+     * @return The row
+     */
+    public static ArrayRow of(final Ingredient ingredient) {
+        return new ArrayRow(IngredientRowMapper.COLUMN_NAMES, Arrays.asList(ingredient.getIngredientId(),
+                ingredient.getIngredientNumber(), ingredient.getIngredient(), ingredient.getQuantitySpecifier().name(),
+                BigDecimal.valueOf(ingredient.getQuantity())));
+    }
+
+    /**
+     * Get the row the database returns for an instruction.
+     * @param instruction
+     * @return The row
+     */
+    public static ArrayRow of(final Instruction instruction) {
+        return new ArrayRow(InstructionRowMapper.COLUMN_NAMES, Arrays.asList(instruction.getInstructionId(),
+                instruction.getInstructionNumber(), instruction.getInstruction()));
+    }
+
+    /**
+     * Get the row the database returns for a recipe, without its ingredients and instructions.
+     * @param recipe
+     * @return The row
+     */
+    public static ArrayRow of(final Recipe recipe) {
+        return new ArrayRow(RecipeRowMapper.COLUMN_NAMES, Arrays.asList(recipe.getRecipeId(), recipe.getName(),
+                recipe.getVariation(), recipe.getDescription(), recipe.getVersion(), recipe.getCreationDateTime(),
+                recipe.getLastModifiedDateTime()));
+    }
+
+    /**
+     * Get this row preceded by the recipe id it belongs to, as selected from the ingredients or instructions tables.
+     * @param recipeId
+     * @return The row with the recipe id as its first column
+     */
+    public ArrayRow withRecipeId(final long recipeId) {
+        var columnNames = new ArrayList<String>();
+        var columnValues = new ArrayList<Object>();
+
+        columnNames.add(RecipeService.RECIPE_ID_COLUMN_NAME);
+        columnValues.add(recipeId);
+        columnMetadatas.forEach(column -> columnNames.add(column.getName()));
+        columnValues.addAll(values);
+
+        return new ArrayRow(columnNames, columnValues);
+    }
+
+    @Override
+    public RowMetadata getMetadata() {
+        return this;
+    }
+
+    @Override
+    public <T> T get(final int index, final Class<T> type) {
+        return type.cast(values.get(index));
+    }
+
+    @Override
+    public <T> T get(final String name, final Class<T> type) {
+        return get(indexOf(name), type);
+    }
+
+    @Override
+    public ColumnMetadata getColumnMetadata(final int index) {
+        return columnMetadatas.get(index);
+    }
+
+    @Override
+    public ColumnMetadata getColumnMetadata(final String name) {
+        return columnMetadatas.get(indexOf(name));
+    }
+
+    @Override
+    public List<? extends ColumnMetadata> getColumnMetadatas() {
+        return columnMetadatas;
+    }
+
+    private int indexOf(final String name) {
+        return IntStream.range(0, columnMetadatas.size())
+                .filter(column -> columnMetadatas.get(column).getName().equalsIgnoreCase(name))
+                .findFirst()
+                .orElseThrow(() -> new NoSuchElementException("No column " + name));
+    }
+
+    /**
+     * Column of an ArrayRow, typed by its value.
+     * @param name
+     * @param value
+     */
+    private record Column(String name, Object value) implements ColumnMetadata, Type {
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Type getType() {
+            return this;
+        }
+
+        @Override
+        public Class<?> getJavaType() {
+            return value == null ? Object.class : value.getClass();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice.mapping;
+
+import org.grego.recipeservice.model.Ingredient;
+import org.instancio.Instancio;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test functionality of IngredientRowMapper class.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Tag("UnitTests")
+public class IngredientRowMapperTest {
+
+    /**
+     * Test apply reads the ingredient from the row.
+     */
+    @Test
+    void testApply() {
+        var ingredient = Instancio.create(Ingredient.class);
+        var row = ArrayRow.of(ingredient);
+
+        assertEquals(ingredient, IngredientRowMapper.INSTANCE.apply(row, row.getMetadata()));
+    }
+
+    /**
+     * Test apply reads the ingredient from the columns following the recipe id.
+     */
+    @Test
+    void testApplyAfterRecipeId() {
+        var ingredient = Instancio.create(Ingredient.class);
+        var row = ArrayRow.of(ingredient).withRecipeId(Instancio.create(Long.class));
+
+        assertEquals(ingredient, new IngredientRowMapper(1).apply(row, row.getMetadata()));
+    }
+}
@@ -0,0 +1,45 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice.mapping;
+
+import org.grego.recipeservice.model.Instruction;
+import org.instancio.Instancio;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test functionality of InstructionRowMapper class.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Tag("UnitTests")
+public class InstructionRowMapperTest {
+
+    /**
+     * Test apply reads the instruction from the row.
+     */
+    @Test
+    void testApply() {
+        var instruction = Instancio.create(Instruction.class);
+        var row = ArrayRow.of(instruction);
+
+        assertEquals(instruction, InstructionRowMapper.INSTANCE.apply(row, row.getMetadata()));
+    }
+
+    /**
+     * Test apply reads the instruction from the columns following the recipe id.
+     */
+    @Test
+    void testApplyAfterRecipeId() {
+        var instruction = Instancio.create(Instruction.class);
+        var row = ArrayRow.of(instruction).withRecipeId(Instancio.create(Long.class));
+
+        assertEquals(instruction, new InstructionRowMapper(1).apply(row, row.getMetadata()));
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice.mapping;
+
+import org.grego.recipeservice.model.Recipe;
+import org.instancio.Instancio;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test functionality of RecipeRowMapper class.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Tag("UnitTests")
+public class RecipeRowMapperTest {
+
+    /**
+     * Test apply reads the recipe, without its ingredients and instructions, from the row.
+     */
+    @Test
+    void testApply() {
+        var recipe = Instancio.create(Recipe.class);
+        var row = ArrayRow.of(recipe);
+
+        var mappedRecipe = RecipeRowMapper.INSTANCE.apply(row, row.getMetadata());
+
+        assertEquals(recipe.getRecipeId(), mappedRecipe.getRecipeId());
+        assertEquals(recipe.getName(), mappedRecipe.getName());
+        assertEquals(recipe.getVariation(), mappedRecipe.getVariation());
+        assertEquals(recipe.getDescription(), mappedRecipe.getDescription());
+        assertEquals(recipe.getVersion(), mappedRecipe.getVersion());
+        assertEquals(recipe.getCreationDateTime(), mappedRecipe.getCreationDateTime());
+        assertEquals(recipe.getLastModifiedDateTime(), mappedRecipe.getLastModifiedDateTime());
+        assertEquals(Collections.emptyList(), mappedRecipe.getIngredients());
+        assertEquals(Collections.emptyList(), mappedRecipe.getInstructions());
+    }
+
+    /**
+     * Test getSelectList lists the columns in the order they're read.
+     */
+    @Test
+    void testGetSelectList() {
+        assertEquals("recipe_id, name, variation, description, version, creation_date_time, last_modified_date_time",
+            RecipeRowMapper.getSelectList(""));
+        assertEquals("r.recipe_id, r.name, r.variation, r.description, r.version, r.creation_date_time, "
+            + "r.last_modified_date_time", RecipeRowMapper.getSelectList("r"));
+    }
+}
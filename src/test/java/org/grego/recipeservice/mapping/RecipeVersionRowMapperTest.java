@@ -0,0 +1,45 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice.mapping;
+
+import org.grego.recipeservice.model.RecipeVersion;
+import org.instancio.Instancio;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test functionality of RecipeVersionRowMapper class.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Tag("UnitTests")
+public class RecipeVersionRowMapperTest {
+
+    /**
+     * Test apply reads the recipe version from the row.
+     */
+    @Test
+    void testApply() {
+        var version = Instancio.create(RecipeVersion.class);
+        var row = new ArrayRow(RecipeVersionRowMapper.COLUMN_NAMES, Arrays.asList(version.getRecipeId(),
+                version.getVersion(), version.getLastModifiedDateTime()));
+
+        assertEquals(version, RecipeVersionRowMapper.INSTANCE.apply(row, row.getMetadata()));
+    }
+
+    /**
+     * Test the select list names the columns in the order they're read.
+     */
+    @Test
+    void testSelectList() {
+        assertEquals("recipe_id, version, last_modified_date_time", RecipeVersionRowMapper.SELECT_LIST);
+    }
+}
@@ -0,0 +1,74 @@
+package org.grego.recipeservice.model;
+
+import org.instancio.Instancio;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Test functionality of RecipeCursor and RecipeSortKey classes.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Tag("UnitTests")
+public class RecipeCursorTest {
+
+    /**
+     * Test a cursor survives being encoded and decoded for every sort key.
+     * @param sortKey
+     */
+    @ParameterizedTest
+    @EnumSource(RecipeSortKey.class)
+    void testEncodeDecode(final RecipeSortKey sortKey) {
+        var recipe = Instancio.create(Recipe.class);
+        recipe.setName("name:with:separators");
+
+        var cursor = RecipeCursor.after(sortKey, recipe);
+        var decodedCursor = RecipeCursor.decode(cursor.encode());
+
+        assertEquals(cursor, decodedCursor);
+        assertEquals(sortKey, decodedCursor.getSortKey());
+        assertEquals(recipe.getRecipeId(), decodedCursor.getRecipeId());
+        switch (sortKey) {
+            case RECIPE_ID -> assertNull(decodedCursor.getBindableSortValue());
+            case NAME -> assertEquals(recipe.getName(), decodedCursor.getBindableSortValue());
+            case LAST_MODIFIED_DATE_TIME ->
+                assertEquals(recipe.getLastModifiedDateTime(), decodedCursor.getBindableSortValue());
+            default -> throw new IllegalStateException();
+        }
+    }
+
+    /**
+     * Test decoding invalid cursors.
+     * @param value
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"not base64!", "NAME:1", "UNKNOWN:1:x", "RECIPE_ID:x:", "LAST_MODIFIED_DATE_TIME:1:yesterday"})
+    void testDecodeInvalidCursor(final String value) {
+        var cursor = value.contains(":")
+            ? Base64.getUrlEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8))
+            : value;
+
+        assertThrows(IllegalArgumentException.class, () -> RecipeCursor.decode(cursor));
+    }
+
+    /**
+     * Test getting sort keys from the sort request parameter.
+     */
+    @Test
+    void testSortKeyFromParameterValue() {
+        assertEquals(RecipeSortKey.RECIPE_ID, RecipeSortKey.fromParameterValue("recipe-id"));
+        assertEquals(RecipeSortKey.NAME, RecipeSortKey.fromParameterValue("NAME"));
+        assertEquals(RecipeSortKey.LAST_MODIFIED_DATE_TIME, RecipeSortKey.fromParameterValue("last-modified-date-time"));
+        assertThrows(IllegalArgumentException.class, () -> RecipeSortKey.fromParameterValue("description"));
+    }
+}
@@ -1,11 +1,17 @@
 package org.grego.recipeservice.repository;
 
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import org.apache.commons.collections4.ListUtils;
 import org.grego.recipeservice.model.Ingredient;
+import org.grego.recipeservice.model.Recipe;
 import org.instancio.Instancio;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -17,14 +23,24 @@ import org.springframework.data.r2dbc.core.ReactiveInsertOperation;
 import org.springframework.data.r2dbc.core.ReactiveUpdateOperation;
 import org.springframework.data.relational.core.query.Query;
 import org.springframework.data.relational.core.query.Update;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.FetchSpec;
+import org.springframework.r2dbc.core.RowsFetchSpec;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.function.Function;
 import java.util.stream.LongStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -48,12 +64,59 @@ public class IngredientRepositoryTest {
      * Range for the number of additional ingredients.
      */
     public static final int NUMBER_OF_ADDITIONAL_INGREDIENTS_RANGE = 3;
+
+    /**
+     * Id of the recipe the ingredients belong to.
+     */
+    public static final long RECIPE_ID = 1L;
     /**
      * The Rddbc entity template used to perform reactive database operations.
      */
     @Mock
     private R2dbcEntityTemplate template;
 
+    /**
+     * Database client.
+     */
+    @Mock
+    private DatabaseClient databaseClient;
+
+    /**
+     * Execute spec.
+     */
+    @Mock
+    private DatabaseClient.GenericExecuteSpec executeSpec;
+
+    /**
+     * Connection factory.
+     */
+    @Mock
+    private ConnectionFactory connectionFactory;
+
+    /**
+     * Connection factory metadata.
+     */
+    @Mock
+    private ConnectionFactoryMetadata connectionFactoryMetadata;
+
+    /**
+     * Fetch spec for generated ids.
+     */
+    @Mock
+    private RowsFetchSpec<Long> idsFetchSpec;
+
+    /**
+     * Fetch spec for generated ids by the position of their rows.
+     */
+    @Mock
+    private RowsFetchSpec<Map.Entry<Long, Long>> idsByOrdinalFetchSpec;
+
+    /**
+     * Fetch spec for inserted rows.
+     */
+    @Mock
+    private FetchSpec<Map<String, Object>> fetchSpec;
+
     /**
      * Reactive insert.
      */
@@ -128,37 +191,89 @@ public class IngredientRepositoryTest {
     }
 
     /**
-     * Test saveAll.
+     * Test saveAll inserts the ingredients of a recipe in batches and sets the generated ids in input order.
+     * @param databaseName
      */
-    @Test
-    void testSaveAll() {
+    @ParameterizedTest
+    @ValueSource(strings = {"PostgreSQL", "H2"})
+    void testSaveAll(final String databaseName) {
 
         IngredientRepository ingredientRepository = new IngredientRepository(template);
         List<Ingredient> ingredients =
             Instancio.ofList(Ingredient.class)
                 .size(AT_LEAST_INGREDIENTS + new Random().nextInt(NUMBER_OF_ADDITIONAL_INGREDIENTS_RANGE))
                 .create();
-
-        when(template.insert(eq(Ingredient.class))).thenReturn(reactiveInsert);
-        when(reactiveInsert.into(eq(Ingredient.INGREDIENTS_TABLE_NAME))).thenReturn(terminatingInsert);
-        OngoingStubbing<Mono<Ingredient>> when = when(terminatingInsert.using(any(Ingredient.class)));
-        for (var ingredient : ingredients) {
-            when = when.thenReturn(Mono.just(ingredient));
+        ingredients.forEach(ingredient -> ingredient.setIngredientId(null));
+        var batches = ListUtils.partition(ingredients, AT_LEAST_INGREDIENTS);
+        var isH2 = "H2".equals(databaseName);
+
+        ReflectionTestUtils.setField(ingredientRepository, "batchInsertSize", AT_LEAST_INGREDIENTS);
+        mockDatabase(databaseName);
+        when(databaseClient.sql(anyString())).thenReturn(executeSpec);
+        when(executeSpec.bind(anyString(), any())).thenReturn(executeSpec);
+        when(executeSpec.<Map.Entry<Long, Long>>map(any(Function.class))).thenReturn(idsByOrdinalFetchSpec);
+        OngoingStubbing<Flux<Map.Entry<Long, Long>>> when = when(idsByOrdinalFetchSpec.all());
+        for (int batch = 0; batch < batches.size(); batch++) {
+            var firstId = (long) batch * AT_LEAST_INGREDIENTS;
+            when = when.thenReturn(Flux.fromStream(LongStream.rangeClosed(1, batches.get(batch).size()).boxed()
+                .sorted(Comparator.reverseOrder())
+                .map(ordinal -> Map.entry(ordinal, firstId + ordinal))));
+        }
+        if (isH2) {
+            when(executeSpec.fetch()).thenReturn(fetchSpec);
+            when(fetchSpec.rowsUpdated()).thenReturn(Mono.just((long) AT_LEAST_INGREDIENTS));
         }
 
-        var response = ingredientRepository.saveAll(ingredients);
+        var response = ingredientRepository.saveAll(RECIPE_ID, ingredients);
 
-        StepVerifier.FirstStep<Ingredient> verifier = StepVerifier.create(response);
+        StepVerifier.create(response)
+            .expectNextSequence(ingredients)
+            .verifyComplete();
 
-        for (var ingredient : ingredients) {
-            verifier.expectNextMatches(result -> result.equals(ingredient));
+        for (int idx = 0; idx < ingredients.size(); idx++) {
+            assertEquals(idx + 1L, ingredients.get(idx).getIngredientId());
         }
-        verifier.verifyComplete();
+        verify(databaseClient, times(batches.size())).sql(eq(BatchInserts.getInsertQuery(isH2,
+            Ingredient.INGREDIENTS_TABLE_NAME, Ingredient.INGREDIENT_ID_COLUMN_NAME,
+            IngredientRepository.INSERT_COLUMNS)));
+        verify(databaseClient, times(isH2 ? batches.size() : 0)).sql(eq(BatchInserts.getAllocateIdsQuery(
+            Ingredient.INGREDIENTS_TABLE_NAME, Ingredient.INGREDIENT_ID_COLUMN_NAME)));
+        for (var batchSize : batches.stream().map(List::size).distinct().toList()) {
+            var numberOfBatches = batches.stream().filter(batch -> batch.size() == batchSize).count();
+            verify(executeSpec, times((int) numberOfBatches)).bind(eq(Ingredient.RECIPE_ID_COLUMN_NAME),
+                eq(LongStream.range(0, batchSize).mapToObj(row -> RECIPE_ID).toArray(Long[]::new)));
+        }
+        verify(idsByOrdinalFetchSpec, times(batches.size())).all();
+        verify(template, times(0)).insert(eq(Ingredient.class));
+    }
 
-        verify(template, times(ingredients.size())).insert(eq(Ingredient.class));
-        verify(reactiveInsert, times(ingredients.size())).into(eq(Ingredient.INGREDIENTS_TABLE_NAME));
-        verify(terminatingInsert, times(ingredients.size())).using(any(Ingredient.class));
-        verifyNoMoreInteractions(template);
+    /**
+     * Test saveAllOf inserts the ingredients of recipes together, each with the id of its recipe.
+     */
+    @Test
+    void testSaveAllOf() {
+
+        IngredientRepository ingredientRepository = new IngredientRepository(template);
+        var recipes = Instancio.ofList(Recipe.class).size(2).create();
+        var ingredients = recipes.stream().flatMap(recipe -> recipe.getIngredients().stream()).toList();
+
+        ReflectionTestUtils.setField(ingredientRepository, "batchInsertSize", ingredients.size());
+        mockDatabase("PostgreSQL");
+        when(databaseClient.sql(anyString())).thenReturn(executeSpec);
+        when(executeSpec.bind(anyString(), any())).thenReturn(executeSpec);
+        when(executeSpec.<Map.Entry<Long, Long>>map(any(Function.class))).thenReturn(idsByOrdinalFetchSpec);
+        when(idsByOrdinalFetchSpec.all()).thenReturn(Flux.fromStream(
+            LongStream.rangeClosed(1, ingredients.size()).mapToObj(ordinal -> Map.entry(ordinal, ordinal))));
+
+        StepVerifier.create(ingredientRepository.saveAllOf(recipes))
+            .expectNextSequence(ingredients)
+            .verifyComplete();
+
+        verify(databaseClient, times(1)).sql(eq(BatchInserts.getInsertQuery(false, Ingredient.INGREDIENTS_TABLE_NAME,
+            Ingredient.INGREDIENT_ID_COLUMN_NAME, IngredientRepository.INSERT_COLUMNS)));
+        verify(executeSpec, times(1)).bind(eq(Ingredient.RECIPE_ID_COLUMN_NAME), eq(recipes.stream()
+            .flatMap(recipe -> recipe.getIngredients().stream().map(ingredient -> recipe.getRecipeId()))
+            .toArray(Long[]::new)));
     }
 
     /**
@@ -189,38 +304,44 @@ public class IngredientRepositoryTest {
     }
 
     /**
-     * Test updateAll.
+     * Test updateAll updates the ingredients in batches with set-based updates.
+     * @param databaseName
      */
-    @Test
-    void testUpdateAll() {
+    @ParameterizedTest
+    @ValueSource(strings = {"PostgreSQL", "H2"})
+    void testUpdateAll(final String databaseName) {
 
         IngredientRepository ingredientRepository = new IngredientRepository(template);
         List<Ingredient> ingredients =
             Instancio.ofList(Ingredient.class)
                 .size(AT_LEAST_INGREDIENTS + new Random().nextInt(NUMBER_OF_ADDITIONAL_INGREDIENTS_RANGE))
                 .create();
-
-        when(template.update(eq(ReactiveUpdateOperation.UpdateWithTable.class))).thenReturn(reactiveUpdate);
-        when(reactiveUpdate.inTable(eq(Ingredient.INGREDIENTS_TABLE_NAME))).thenReturn(updateWithQuery);
-        when(updateWithQuery.matching(any(Query.class))).thenReturn(terminatingUpdate);
-        OngoingStubbing<Mono<Long>> when = when(terminatingUpdate.apply(any(Update.class)));
-        for (var ingredient : ingredients) {
-            when = when.thenReturn(Mono.just(ingredient.getIngredientId()));
+        var batches = ListUtils.partition(ingredients, AT_LEAST_INGREDIENTS);
+        var isH2 = "H2".equals(databaseName);
+
+        ReflectionTestUtils.setField(ingredientRepository, "batchInsertSize", AT_LEAST_INGREDIENTS);
+        mockDatabase(databaseName);
+        when(databaseClient.sql(anyString())).thenReturn(executeSpec);
+        when(executeSpec.bind(anyString(), any())).thenReturn(executeSpec);
+        when(executeSpec.<Long>map(any(Function.class))).thenReturn(idsFetchSpec);
+        OngoingStubbing<Flux<Long>> when = when(idsFetchSpec.all());
+        for (var batch : batches) {
+            when = when.thenReturn(Flux.fromStream(batch.stream().map(Ingredient::getIngredientId)));
         }
 
         var response = ingredientRepository.updateAll(ingredients);
 
-        StepVerifier.FirstStep<Long> verifier = StepVerifier.create(response);
-        for (var ingredient : ingredients) {
-            verifier.expectNextMatches(result -> result == ingredient.getIngredientId());
-        }
-        verifier.verifyComplete();
-
-        verify(template, times(ingredients.size())).update(eq(ReactiveUpdateOperation.UpdateWithTable.class));
-        verify(reactiveUpdate, times(ingredients.size())).inTable(eq(Ingredient.INGREDIENTS_TABLE_NAME));
-        verify(updateWithQuery, times(ingredients.size())).matching(any(Query.class));
-        verify(terminatingUpdate, times(ingredients.size())).apply(any(Update.class));
-        verifyNoMoreInteractions(template);
+        StepVerifier.create(response)
+            .expectNextSequence(ingredients.stream().map(Ingredient::getIngredientId).toList())
+            .verifyComplete();
+
+        verify(databaseClient, times(batches.size())).sql(eq(BatchUpdates.getUpdateQuery(isH2,
+            Ingredient.INGREDIENTS_TABLE_NAME, Ingredient.INGREDIENT_ID_COLUMN_NAME,
+            IngredientRepository.INGREDIENT_COLUMNS)));
+        verify(executeSpec, times(batches.size() * (IngredientRepository.INGREDIENT_COLUMNS.size() + 1)))
+            .bind(anyString(), any());
+        verify(idsFetchSpec, times(batches.size())).all();
+        verify(template, times(0)).update(eq(ReactiveUpdateOperation.UpdateWithTable.class));
     }
 
     /**
@@ -251,10 +372,12 @@ public class IngredientRepositoryTest {
     }
 
     /**
-     * Test deleteAllByIds.
+     * Test deleteAllByIds deletes the ingredients with one set-based delete.
+     * @param databaseName
      */
-    @Test
-    void testDeleteAllByIds() {
+    @ParameterizedTest
+    @ValueSource(strings = {"PostgreSQL", "H2"})
+    void testDeleteAllByIds(final String databaseName) {
 
         IngredientRepository ingredientRepository = new IngredientRepository(template);
         var ingredientIds =
@@ -262,26 +385,45 @@ public class IngredientRepositoryTest {
                 .range(0, AT_LEAST_INGREDIENTS + new Random().nextInt(NUMBER_OF_ADDITIONAL_INGREDIENTS_RANGE))
                 .boxed()
                 .toList();
-        when(template.delete(eq(Ingredient.class))).thenReturn(reactiveDelete);
-        when(reactiveDelete.from(eq(Ingredient.INGREDIENTS_TABLE_NAME))).thenReturn(deleteWithQuery);
-        when(deleteWithQuery.matching(any(Query.class))).thenReturn(terminatingDelete);
-        OngoingStubbing<Mono<Long>> when = when(terminatingDelete.all());
-        for (var ingredientId : ingredientIds) {
-            when = when.thenReturn(Mono.just(ingredientId));
-        }
+        var deleteQuery = BatchUpdates.getDeleteQuery("H2".equals(databaseName), Ingredient.INGREDIENTS_TABLE_NAME,
+            Ingredient.INGREDIENT_ID_COLUMN_NAME);
+
+        mockDatabase(databaseName);
+        when(databaseClient.sql(eq(deleteQuery))).thenReturn(executeSpec);
+        when(executeSpec.bind(eq(BatchUpdates.IDS), any(Long[].class))).thenReturn(executeSpec);
+        when(executeSpec.<Long>map(any(Function.class))).thenReturn(idsFetchSpec);
+        when(idsFetchSpec.all()).thenReturn(Flux.fromIterable(ingredientIds));
 
         var response = ingredientRepository.deleteAllByIds(ingredientIds);
 
-        StepVerifier.FirstStep<Long> verifier = StepVerifier.create(response);
-        for (var ingredientId : ingredientIds) {
-            verifier.expectNextMatches(result -> result == ingredientId);
-        }
-        verifier.verifyComplete();
+        StepVerifier.create(response)
+            .expectNextSequence(ingredientIds)
+            .verifyComplete();
+
+        verify(databaseClient, times(1)).sql(eq(deleteQuery));
+        verify(executeSpec, times(1)).bind(eq(BatchUpdates.IDS), eq(ingredientIds.toArray(Long[]::new)));
+        verify(idsFetchSpec, times(1)).all();
+        verify(template, times(0)).delete(eq(Ingredient.class));
+    }
+
+    /**
+     * Test deleteAllByIds does not query the database when there are no ids.
+     */
+    @Test
+    void testDeleteAllByIdsWithoutIds() {
+
+        IngredientRepository ingredientRepository = new IngredientRepository(template);
+
+        StepVerifier.create(ingredientRepository.deleteAllByIds(List.of()))
+            .verifyComplete();
 
-        verify(template, times(ingredientIds.size())).delete(eq(Ingredient.class));
-        verify(reactiveDelete, times(ingredientIds.size())).from(eq(Ingredient.INGREDIENTS_TABLE_NAME));
-        verify(deleteWithQuery, times(ingredientIds.size())).matching(any(Query.class));
-        verify(terminatingDelete, times(ingredientIds.size())).all();
         verifyNoMoreInteractions(template);
     }
+
+    private void mockDatabase(final String databaseName) {
+        when(template.getDatabaseClient()).thenReturn(databaseClient);
+        when(databaseClient.getConnectionFactory()).thenReturn(connectionFactory);
+        when(connectionFactory.getMetadata()).thenReturn(connectionFactoryMetadata);
+        when(connectionFactoryMetadata.getName()).thenReturn(databaseName);
+    }
 }
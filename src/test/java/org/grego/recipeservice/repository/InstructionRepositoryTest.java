@@ -1,11 +1,17 @@
 package org.grego.recipeservice.repository;
 
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import org.apache.commons.collections4.ListUtils;
 import org.grego.recipeservice.model.Instruction;
+import org.grego.recipeservice.model.Recipe;
 import org.instancio.Instancio;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -17,14 +23,24 @@ import org.springframework.data.r2dbc.core.ReactiveInsertOperation;
 import org.springframework.data.r2dbc.core.ReactiveUpdateOperation;
 import org.springframework.data.relational.core.query.Query;
 import org.springframework.data.relational.core.query.Update;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.FetchSpec;
+import org.springframework.r2dbc.core.RowsFetchSpec;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.function.Function;
 import java.util.stream.LongStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -48,12 +64,59 @@ public class InstructionRepositoryTest {
      * Range for the number of additional instructions.
      */
     public static final int NUMBER_OF_ADDITIONAL_INSTRUCTIONS_RANGE = 3;
+
+    /**
+     * Id of the recipe the instructions belong to.
+     */
+    public static final long RECIPE_ID = 1L;
     /**
      * The Rddbc entity template used to perform reactive database operations.
      */
     @Mock
     private R2dbcEntityTemplate template;
 
+    /**
+     * Database client.
+     */
+    @Mock
+    private DatabaseClient databaseClient;
+
+    /**
+     * Execute spec.
+     */
+    @Mock
+    private DatabaseClient.GenericExecuteSpec executeSpec;
+
+    /**
+     * Connection factory.
+     */
+    @Mock
+    private ConnectionFactory connectionFactory;
+
+    /**
+     * Connection factory metadata.
+     */
+    @Mock
+    private ConnectionFactoryMetadata connectionFactoryMetadata;
+
+    /**
+     * Fetch spec for generated ids.
+     */
+    @Mock
+    private RowsFetchSpec<Long> idsFetchSpec;
+
+    /**
+     * Fetch spec for generated ids by the position of their rows.
+     */
+    @Mock
+    private RowsFetchSpec<Map.Entry<Long, Long>> idsByOrdinalFetchSpec;
+
+    /**
+     * Fetch spec for inserted rows.
+     */
+    @Mock
+    private FetchSpec<Map<String, Object>> fetchSpec;
+
     /**
      * Reactive insert.
      */
@@ -128,37 +191,89 @@ public class InstructionRepositoryTest {
     }
 
     /**
-     * Test saveAll.
+     * Test saveAll inserts the instructions of a recipe in batches and sets the generated ids in input order.
+     * @param databaseName
      */
-    @Test
-    void testSaveAll() {
+    @ParameterizedTest
+    @ValueSource(strings = {"PostgreSQL", "H2"})
+    void testSaveAll(final String databaseName) {
 
         InstructionRepository instructionRepository = new InstructionRepository(template);
         List<Instruction> instructions =
-                Instancio.ofList(Instruction.class)
-                        .size(AT_LEAST_INSTRUCTIONS + new Random().nextInt(NUMBER_OF_ADDITIONAL_INSTRUCTIONS_RANGE))
-                        .create();
-
-        when(template.insert(eq(Instruction.class))).thenReturn(reactiveInsert);
-        when(reactiveInsert.into(eq(Instruction.INSTRUCTIONS_TABLE_NAME))).thenReturn(terminatingInsert);
-        OngoingStubbing<Mono<Instruction>> when = when(terminatingInsert.using(any(Instruction.class)));
-        for (var instruction : instructions) {
-            when = when.thenReturn(Mono.just(instruction));
+            Instancio.ofList(Instruction.class)
+                .size(AT_LEAST_INSTRUCTIONS + new Random().nextInt(NUMBER_OF_ADDITIONAL_INSTRUCTIONS_RANGE))
+                .create();
+        instructions.forEach(instruction -> instruction.setInstructionId(null));
+        var batches = ListUtils.partition(instructions, AT_LEAST_INSTRUCTIONS);
+        var isH2 = "H2".equals(databaseName);
+
+        ReflectionTestUtils.setField(instructionRepository, "batchInsertSize", AT_LEAST_INSTRUCTIONS);
+        mockDatabase(databaseName);
+        when(databaseClient.sql(anyString())).thenReturn(executeSpec);
+        when(executeSpec.bind(anyString(), any())).thenReturn(executeSpec);
+        when(executeSpec.<Map.Entry<Long, Long>>map(any(Function.class))).thenReturn(idsByOrdinalFetchSpec);
+        OngoingStubbing<Flux<Map.Entry<Long, Long>>> when = when(idsByOrdinalFetchSpec.all());
+        for (int batch = 0; batch < batches.size(); batch++) {
+            var firstId = (long) batch * AT_LEAST_INSTRUCTIONS;
+            when = when.thenReturn(Flux.fromStream(LongStream.rangeClosed(1, batches.get(batch).size()).boxed()
+                .sorted(Comparator.reverseOrder())
+                .map(ordinal -> Map.entry(ordinal, firstId + ordinal))));
+        }
+        if (isH2) {
+            when(executeSpec.fetch()).thenReturn(fetchSpec);
+            when(fetchSpec.rowsUpdated()).thenReturn(Mono.just((long) AT_LEAST_INSTRUCTIONS));
         }
 
-        var response = instructionRepository.saveAll(instructions);
+        var response = instructionRepository.saveAll(RECIPE_ID, instructions);
 
-        StepVerifier.FirstStep<Instruction> verifier = StepVerifier.create(response);
+        StepVerifier.create(response)
+            .expectNextSequence(instructions)
+            .verifyComplete();
 
-        for (var instruction : instructions) {
-            verifier.expectNextMatches(result -> result.equals(instruction));
+        for (int idx = 0; idx < instructions.size(); idx++) {
+            assertEquals(idx + 1L, instructions.get(idx).getInstructionId());
+        }
+        verify(databaseClient, times(batches.size())).sql(eq(BatchInserts.getInsertQuery(isH2,
+            Instruction.INSTRUCTIONS_TABLE_NAME, Instruction.INSTRUCTION_ID_COLUMN_NAME,
+            InstructionRepository.INSERT_COLUMNS)));
+        verify(databaseClient, times(isH2 ? batches.size() : 0)).sql(eq(BatchInserts.getAllocateIdsQuery(
+            Instruction.INSTRUCTIONS_TABLE_NAME, Instruction.INSTRUCTION_ID_COLUMN_NAME)));
+        for (var batchSize : batches.stream().map(List::size).distinct().toList()) {
+            var numberOfBatches = batches.stream().filter(batch -> batch.size() == batchSize).count();
+            verify(executeSpec, times((int) numberOfBatches)).bind(eq(Instruction.RECIPE_ID_COLUMN_NAME),
+                eq(LongStream.range(0, batchSize).mapToObj(row -> RECIPE_ID).toArray(Long[]::new)));
         }
-        verifier.verifyComplete();
+        verify(idsByOrdinalFetchSpec, times(batches.size())).all();
+        verify(template, times(0)).insert(eq(Instruction.class));
+    }
 
-        verify(template, times(instructions.size())).insert(eq(Instruction.class));
-        verify(reactiveInsert, times(instructions.size())).into(eq(Instruction.INSTRUCTIONS_TABLE_NAME));
-        verify(terminatingInsert, times(instructions.size())).using(any(Instruction.class));
-        verifyNoMoreInteractions(template);
+    /**
+     * Test saveAllOf inserts the instructions of recipes together, each with the id of its recipe.
+     */
+    @Test
+    void testSaveAllOf() {
+
+        InstructionRepository instructionRepository = new InstructionRepository(template);
+        var recipes = Instancio.ofList(Recipe.class).size(2).create();
+        var instructions = recipes.stream().flatMap(recipe -> recipe.getInstructions().stream()).toList();
+
+        ReflectionTestUtils.setField(instructionRepository, "batchInsertSize", instructions.size());
+        mockDatabase("PostgreSQL");
+        when(databaseClient.sql(anyString())).thenReturn(executeSpec);
+        when(executeSpec.bind(anyString(), any())).thenReturn(executeSpec);
+        when(executeSpec.<Map.Entry<Long, Long>>map(any(Function.class))).thenReturn(idsByOrdinalFetchSpec);
+        when(idsByOrdinalFetchSpec.all()).thenReturn(Flux.fromStream(
+            LongStream.rangeClosed(1, instructions.size()).mapToObj(ordinal -> Map.entry(ordinal, ordinal))));
+
+        StepVerifier.create(instructionRepository.saveAllOf(recipes))
+            .expectNextSequence(instructions)
+            .verifyComplete();
+
+        verify(databaseClient, times(1)).sql(eq(BatchInserts.getInsertQuery(false, Instruction.INSTRUCTIONS_TABLE_NAME,
+            Instruction.INSTRUCTION_ID_COLUMN_NAME, InstructionRepository.INSERT_COLUMNS)));
+        verify(executeSpec, times(1)).bind(eq(Instruction.RECIPE_ID_COLUMN_NAME), eq(recipes.stream()
+            .flatMap(recipe -> recipe.getInstructions().stream().map(instruction -> recipe.getRecipeId()))
+            .toArray(Long[]::new)));
     }
 
     /**
@@ -189,38 +304,44 @@ public class InstructionRepositoryTest {
     }
 
     /**
-     * Test updateAll.
+     * Test updateAll updates the instructions in batches with set-based updates.
+     * @param databaseName
      */
-    @Test
-    void testUpdateAll() {
+    @ParameterizedTest
+    @ValueSource(strings = {"PostgreSQL", "H2"})
+    void testUpdateAll(final String databaseName) {
 
         InstructionRepository instructionRepository = new InstructionRepository(template);
         List<Instruction> instructions =
-                Instancio.ofList(Instruction.class)
-                        .size(AT_LEAST_INSTRUCTIONS + new Random().nextInt(NUMBER_OF_ADDITIONAL_INSTRUCTIONS_RANGE))
-                        .create();
-
-        when(template.update(eq(ReactiveUpdateOperation.UpdateWithTable.class))).thenReturn(reactiveUpdate);
-        when(reactiveUpdate.inTable(eq(Instruction.INSTRUCTIONS_TABLE_NAME))).thenReturn(updateWithQuery);
-        when(updateWithQuery.matching(any(Query.class))).thenReturn(terminatingUpdate);
-        OngoingStubbing<Mono<Long>> when = when(terminatingUpdate.apply(any(Update.class)));
-        for (var instruction : instructions) {
-            when = when.thenReturn(Mono.just(instruction.getInstructionId()));
+            Instancio.ofList(Instruction.class)
+                .size(AT_LEAST_INSTRUCTIONS + new Random().nextInt(NUMBER_OF_ADDITIONAL_INSTRUCTIONS_RANGE))
+                .create();
+        var batches = ListUtils.partition(instructions, AT_LEAST_INSTRUCTIONS);
+        var isH2 = "H2".equals(databaseName);
+
+        ReflectionTestUtils.setField(instructionRepository, "batchInsertSize", AT_LEAST_INSTRUCTIONS);
+        mockDatabase(databaseName);
+        when(databaseClient.sql(anyString())).thenReturn(executeSpec);
+        when(executeSpec.bind(anyString(), any())).thenReturn(executeSpec);
+        when(executeSpec.<Long>map(any(Function.class))).thenReturn(idsFetchSpec);
+        OngoingStubbing<Flux<Long>> when = when(idsFetchSpec.all());
+        for (var batch : batches) {
+            when = when.thenReturn(Flux.fromStream(batch.stream().map(Instruction::getInstructionId)));
         }
 
         var response = instructionRepository.updateAll(instructions);
 
-        StepVerifier.FirstStep<Long> verifier = StepVerifier.create(response);
-        for (var instruction : instructions) {
-            verifier.expectNextMatches(result -> result == instruction.getInstructionId());
-        }
-        verifier.verifyComplete();
-
-        verify(template, times(instructions.size())).update(eq(ReactiveUpdateOperation.UpdateWithTable.class));
-        verify(reactiveUpdate, times(instructions.size())).inTable(eq(Instruction.INSTRUCTIONS_TABLE_NAME));
-        verify(updateWithQuery, times(instructions.size())).matching(any(Query.class));
-        verify(terminatingUpdate, times(instructions.size())).apply(any(Update.class));
-        verifyNoMoreInteractions(template);
+        StepVerifier.create(response)
+            .expectNextSequence(instructions.stream().map(Instruction::getInstructionId).toList())
+            .verifyComplete();
+
+        verify(databaseClient, times(batches.size())).sql(eq(BatchUpdates.getUpdateQuery(isH2,
+            Instruction.INSTRUCTIONS_TABLE_NAME, Instruction.INSTRUCTION_ID_COLUMN_NAME,
+            InstructionRepository.INSTRUCTION_COLUMNS)));
+        verify(executeSpec, times(batches.size() * (InstructionRepository.INSTRUCTION_COLUMNS.size() + 1)))
+            .bind(anyString(), any());
+        verify(idsFetchSpec, times(batches.size())).all();
+        verify(template, times(0)).update(eq(ReactiveUpdateOperation.UpdateWithTable.class));
     }
 
     /**
@@ -251,37 +372,58 @@ public class InstructionRepositoryTest {
     }
 
     /**
-     * Test deleteAllByIds.
+     * Test deleteAllByIds deletes the instructions with one set-based delete.
+     * @param databaseName
      */
-    @Test
-    void testDeleteAllByIds() {
+    @ParameterizedTest
+    @ValueSource(strings = {"PostgreSQL", "H2"})
+    void testDeleteAllByIds(final String databaseName) {
 
         InstructionRepository instructionRepository = new InstructionRepository(template);
         var instructionIds =
-                LongStream
-                        .range(0, AT_LEAST_INSTRUCTIONS + new Random().nextInt(NUMBER_OF_ADDITIONAL_INSTRUCTIONS_RANGE))
-                        .boxed()
-                        .toList();
-        when(template.delete(eq(Instruction.class))).thenReturn(reactiveDelete);
-        when(reactiveDelete.from(eq(Instruction.INSTRUCTIONS_TABLE_NAME))).thenReturn(deleteWithQuery);
-        when(deleteWithQuery.matching(any(Query.class))).thenReturn(terminatingDelete);
-        OngoingStubbing<Mono<Long>> when = when(terminatingDelete.all());
-        for (var instructionId : instructionIds) {
-            when = when.thenReturn(Mono.just(instructionId));
-        }
+            LongStream
+                .range(0, AT_LEAST_INSTRUCTIONS + new Random().nextInt(NUMBER_OF_ADDITIONAL_INSTRUCTIONS_RANGE))
+                .boxed()
+                .toList();
+        var deleteQuery = BatchUpdates.getDeleteQuery("H2".equals(databaseName), Instruction.INSTRUCTIONS_TABLE_NAME,
+            Instruction.INSTRUCTION_ID_COLUMN_NAME);
+
+        mockDatabase(databaseName);
+        when(databaseClient.sql(eq(deleteQuery))).thenReturn(executeSpec);
+        when(executeSpec.bind(eq(BatchUpdates.IDS), any(Long[].class))).thenReturn(executeSpec);
+        when(executeSpec.<Long>map(any(Function.class))).thenReturn(idsFetchSpec);
+        when(idsFetchSpec.all()).thenReturn(Flux.fromIterable(instructionIds));
 
         var response = instructionRepository.deleteAllByIds(instructionIds);
 
-        StepVerifier.FirstStep<Long> verifier = StepVerifier.create(response);
-        for (var instructionId : instructionIds) {
-            verifier.expectNextMatches(result -> result == instructionId);
-        }
-        verifier.verifyComplete();
+        StepVerifier.create(response)
+            .expectNextSequence(instructionIds)
+            .verifyComplete();
+
+        verify(databaseClient, times(1)).sql(eq(deleteQuery));
+        verify(executeSpec, times(1)).bind(eq(BatchUpdates.IDS), eq(instructionIds.toArray(Long[]::new)));
+        verify(idsFetchSpec, times(1)).all();
+        verify(template, times(0)).delete(eq(Instruction.class));
+    }
+
+    /**
+     * Test deleteAllByIds does not query the database when there are no ids.
+     */
+    @Test
+    void testDeleteAllByIdsWithoutIds() {
+
+        InstructionRepository instructionRepository = new InstructionRepository(template);
+
+        StepVerifier.create(instructionRepository.deleteAllByIds(List.of()))
+            .verifyComplete();
 
-        verify(template, times(instructionIds.size())).delete(eq(Instruction.class));
-        verify(reactiveDelete, times(instructionIds.size())).from(eq(Instruction.INSTRUCTIONS_TABLE_NAME));
-        verify(deleteWithQuery, times(instructionIds.size())).matching(any(Query.class));
-        verify(terminatingDelete, times(instructionIds.size())).all();
         verifyNoMoreInteractions(template);
     }
+
+    private void mockDatabase(final String databaseName) {
+        when(template.getDatabaseClient()).thenReturn(databaseClient);
+        when(databaseClient.getConnectionFactory()).thenReturn(connectionFactory);
+        when(connectionFactory.getMetadata()).thenReturn(connectionFactoryMetadata);
+        when(connectionFactoryMetadata.getName()).thenReturn(databaseName);
+    }
 }
@@ -0,0 +1,201 @@
+package org.grego.recipeservice.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Statement;
+import org.grego.recipeservice.mapping.ArrayRow;
+import org.grego.recipeservice.mapping.RecipeRowMapper;
+import org.grego.recipeservice.model.Recipe;
+import org.instancio.Instancio;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.powermock.modules.junit4.PowerMockRunner;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.RowsFetchSpec;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test the RecipeAggregateRepository.
+ */
+@ExtendWith(MockitoExtension.class)
+@RunWith(PowerMockRunner.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Tag("UnitTests")
+public class RecipeAggregateRepositoryTest {
+    /**
+     * Recipe id to seek past.
+     */
+    public static final long RECIPE_ID = 1L;
+
+    /**
+     * Number of rows fetched at a time.
+     */
+    public static final int FETCH_SIZE = 10;
+
+    /**
+     * The Rddbc entity template used to perform reactive database operations.
+     */
+    @Mock
+    private R2dbcEntityTemplate template;
+
+    /**
+     * Database client.
+     */
+    @Mock
+    private DatabaseClient databaseClient;
+
+    /**
+     * Connection factory.
+     */
+    @Mock
+    private ConnectionFactory connectionFactory;
+
+    /**
+     * Connection factory metadata.
+     */
+    @Mock
+    private ConnectionFactoryMetadata connectionFactoryMetadata;
+
+    /**
+     * Execute spec.
+     */
+    @Mock
+    private DatabaseClient.GenericExecuteSpec executeSpec;
+
+    /**
+     * Fetch spec.
+     */
+    @Mock
+    private RowsFetchSpec<Recipe> fetchSpec;
+
+    /**
+     * Object mapper for reading the aggregated JSON.
+     */
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Test findById picks the statement for the database and maps the aggregated ingredients and instructions.
+     * @param databaseName
+     * @param h2
+     * @throws Exception
+     */
+    @ParameterizedTest
+    @CsvSource({"PostgreSQL, false", "H2, true"})
+    void testFindById(final String databaseName, final boolean h2) throws Exception {
+
+        RecipeAggregateRepository recipeAggregateRepository = new RecipeAggregateRepository(template, objectMapper);
+        var recipe = Instancio.create(Recipe.class);
+        var recipeRow = ArrayRow.of(recipe);
+        var columnNames = new ArrayList<>(RecipeRowMapper.COLUMN_NAMES);
+        var columnValues = new ArrayList<>(RecipeRowMapper.COLUMN_NAMES.stream()
+            .map(column -> recipeRow.get(column, Object.class)).toList());
+        columnNames.addAll(List.of(RecipeAggregateRepository.INGREDIENTS_JSON_COLUMN_NAME,
+            RecipeAggregateRepository.INSTRUCTIONS_JSON_COLUMN_NAME));
+        columnValues.addAll(Arrays.asList(objectMapper.writeValueAsString(recipe.getIngredients()), null));
+        var row = new ArrayRow(columnNames, columnValues);
+        ArgumentCaptor<BiFunction<Row, RowMetadata, Recipe>> mappingFunction = ArgumentCaptor.forClass(BiFunction.class);
+        var expectedQuery =
+            h2 ? RecipeAggregateRepository.H2_AGGREGATE_QUERY : RecipeAggregateRepository.POSTGRES_AGGREGATE_QUERY;
+
+        when(template.getDatabaseClient()).thenReturn(databaseClient);
+        when(databaseClient.getConnectionFactory()).thenReturn(connectionFactory);
+        when(connectionFactory.getMetadata()).thenReturn(connectionFactoryMetadata);
+        when(connectionFactoryMetadata.getName()).thenReturn(databaseName);
+        when(databaseClient.sql(anyString())).thenReturn(executeSpec);
+        when(executeSpec.bind(anyString(), anyLong())).thenReturn(executeSpec);
+        when(executeSpec.map(mappingFunction.capture())).thenReturn(fetchSpec);
+        when(fetchSpec.one()).thenReturn(Mono.just(recipe));
+
+        var response = recipeAggregateRepository.findById(recipe.getRecipeId());
+
+        StepVerifier.create(response)
+            .expectNextMatches(result -> result.equals(recipe))
+            .verifyComplete();
+
+        var mappedRecipe = mappingFunction.getValue().apply(row, row.getMetadata());
+
+        verify(databaseClient, times(1)).sql(eq(expectedQuery));
+        verify(executeSpec, times(1)).bind(eq(RecipeAggregateRepository.RECIPE_ID), eq(recipe.getRecipeId()));
+        verify(fetchSpec, times(1)).one();
+        assertEquals(recipe.getRecipeId(), mappedRecipe.getRecipeId());
+        assertEquals(recipe.getName(), mappedRecipe.getName());
+        assertEquals(recipe.getVariation(), mappedRecipe.getVariation());
+        assertEquals(recipe.getDescription(), mappedRecipe.getDescription());
+        assertEquals(recipe.getVersion(), mappedRecipe.getVersion());
+        assertEquals(recipe.getCreationDateTime(), mappedRecipe.getCreationDateTime());
+        assertEquals(recipe.getLastModifiedDateTime(), mappedRecipe.getLastModifiedDateTime());
+        assertEquals(recipe.getIngredients(), mappedRecipe.getIngredients());
+        assertEquals(Collections.emptyList(), mappedRecipe.getInstructions());
+    }
+
+    /**
+     * Test findAllAfter picks the statement for the database, seeks past the recipe id and sets the fetch size.
+     * @param databaseName
+     * @param h2
+     */
+    @ParameterizedTest
+    @CsvSource({"PostgreSQL, false", "H2, true"})
+    void testFindAllAfter(final String databaseName, final boolean h2) {
+
+        RecipeAggregateRepository recipeAggregateRepository = new RecipeAggregateRepository(template, objectMapper);
+        var recipes = Instancio.ofList(Recipe.class).size(2).create();
+        var statement = mock(Statement.class);
+        ArgumentCaptor<Function<Statement, Statement>> filterFunction = ArgumentCaptor.forClass(Function.class);
+        var expectedQuery = h2
+            ? RecipeAggregateRepository.H2_AGGREGATE_AFTER_QUERY
+            : RecipeAggregateRepository.POSTGRES_AGGREGATE_AFTER_QUERY;
+
+        when(template.getDatabaseClient()).thenReturn(databaseClient);
+        when(databaseClient.getConnectionFactory()).thenReturn(connectionFactory);
+        when(connectionFactory.getMetadata()).thenReturn(connectionFactoryMetadata);
+        when(connectionFactoryMetadata.getName()).thenReturn(databaseName);
+        when(databaseClient.sql(anyString())).thenReturn(executeSpec);
+        when(executeSpec.bind(anyString(), anyLong())).thenReturn(executeSpec);
+        when(executeSpec.filter(filterFunction.capture())).thenReturn(executeSpec);
+        when(executeSpec.map(any(BiFunction.class))).thenReturn(fetchSpec);
+        when(fetchSpec.all()).thenReturn(Flux.fromIterable(recipes));
+
+        var response = recipeAggregateRepository.findAllAfter(RECIPE_ID, FETCH_SIZE);
+
+        StepVerifier.create(response)
+            .expectNextSequence(recipes)
+            .verifyComplete();
+
+        filterFunction.getValue().apply(statement);
+
+        verify(databaseClient, times(1)).sql(eq(expectedQuery));
+        verify(executeSpec, times(1)).bind(eq(RecipeAggregateRepository.RECIPE_ID), eq(RECIPE_ID));
+        verify(statement, times(1)).fetchSize(eq(FETCH_SIZE));
+        verify(fetchSpec, times(1)).all();
+    }
+}
@@ -1,6 +1,13 @@
 package org.grego.recipeservice.repository;
 
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import org.grego.recipeservice.mapping.RecipeRowMapper;
+import org.grego.recipeservice.mapping.RecipeVersionRowMapper;
 import org.grego.recipeservice.model.Recipe;
+import org.grego.recipeservice.model.RecipeCursor;
+import org.grego.recipeservice.model.RecipeSortKey;
+import org.grego.recipeservice.model.RecipeVersion;
 import org.instancio.Instancio;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
@@ -8,24 +15,36 @@ import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.powermock.modules.junit4.PowerMockRunner;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.r2dbc.core.ReactiveDeleteOperation;
-import org.springframework.data.r2dbc.core.ReactiveSelectOperation;
 import org.springframework.data.r2dbc.core.ReactiveInsertOperation;
-import org.springframework.data.r2dbc.core.ReactiveUpdateOperation;
 import org.springframework.data.relational.core.query.Query;
-import org.springframework.data.relational.core.query.Update;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.FetchSpec;
+import org.springframework.r2dbc.core.RowsFetchSpec;
+import org.springframework.test.util.ReflectionTestUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.LongStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -67,70 +86,200 @@ public class RecipeRepositoryTest {
     private R2dbcEntityTemplate template;
 
     /**
-     * Reactive select.
+     * Reactive insert.
      */
     @Mock
-    private ReactiveSelectOperation.ReactiveSelect<Recipe> reactiveSelect;
+    private ReactiveInsertOperation.ReactiveInsert<Recipe> reactiveInsert;
 
     /**
-     * Select with projection.
+     * Termination insert.
      */
     @Mock
-    private ReactiveSelectOperation.SelectWithProjection<Recipe> selectWithProjection;
+    private ReactiveInsertOperation.TerminatingInsert<Recipe> terminatingInsert;
 
     /**
-     * Terminating select.
+     * Reactive delete.
      */
     @Mock
-    private ReactiveSelectOperation.TerminatingSelect<Recipe> terminatingSelect;
+    private ReactiveDeleteOperation.ReactiveDelete reactiveDelete;
 
     /**
-     * Reactive insert.
+     * Delete with query.
      */
     @Mock
-    private ReactiveInsertOperation.ReactiveInsert<Recipe> reactiveInsert;
+    private ReactiveDeleteOperation.DeleteWithQuery deleteWithQuery;
 
     /**
-     * Termination insert.
+     * Terminating delete.
      */
     @Mock
-    private ReactiveInsertOperation.TerminatingInsert<Recipe> terminatingInsert;
+    private ReactiveDeleteOperation.TerminatingDelete terminatingDelete;
 
     /**
-     * Reactive update.
+     * Database client.
      */
     @Mock
-    private ReactiveUpdateOperation.ReactiveUpdate reactiveUpdate;
+    private DatabaseClient databaseClient;
 
     /**
-     * Update with query.
+     * Execute spec.
      */
     @Mock
-    private ReactiveUpdateOperation.UpdateWithQuery updateWithQuery;
+    private DatabaseClient.GenericExecuteSpec executeSpec;
 
     /**
-     * Terminating update.
+     * Fetch spec.
      */
     @Mock
-    private ReactiveUpdateOperation.TerminatingUpdate terminatingUpdate;
+    private RowsFetchSpec<Recipe> rowsFetchSpec;
 
     /**
-     * Reactive delete.
+     * Fetch spec for counts.
      */
     @Mock
-    private ReactiveDeleteOperation.ReactiveDelete reactiveDelete;
+    private RowsFetchSpec<Long> countFetchSpec;
 
     /**
-     * Delete with query.
+     * Fetch spec for the highest variation of each name.
      */
     @Mock
-    private ReactiveDeleteOperation.DeleteWithQuery deleteWithQuery;
+    private RowsFetchSpec<Map.Entry<String, Integer>> variationsFetchSpec;
 
     /**
-     * Terminating delete.
+     * Fetch spec for generated ids by the position of their rows.
      */
     @Mock
-    private ReactiveDeleteOperation.TerminatingDelete terminatingDelete;
+    private RowsFetchSpec<Map.Entry<Long, Long>> idsByOrdinalFetchSpec;
+
+    /**
+     * Fetch spec for recipe versions.
+     */
+    @Mock
+    private RowsFetchSpec<RecipeVersion> versionsFetchSpec;
+
+    /**
+     * Fetch spec for statements without results.
+     */
+    @Mock
+    private FetchSpec<Map<String, Object>> fetchSpec;
+
+    /**
+     * Connection factory.
+     */
+    @Mock
+    private ConnectionFactory connectionFactory;
+
+    /**
+     * Connection factory metadata.
+     */
+    @Mock
+    private ConnectionFactoryMetadata connectionFactoryMetadata;
+
+    /**
+     * Test findAllAfter seeks past the cursor for each sort key.
+     * @param sortKey
+     * @param hasCursor
+     */
+    @ParameterizedTest
+    @CsvSource({"RECIPE_ID, false", "RECIPE_ID, true", "NAME, false", "NAME, true",
+        "LAST_MODIFIED_DATE_TIME, false", "LAST_MODIFIED_DATE_TIME, true"})
+    void testFindAllAfter(final RecipeSortKey sortKey, final boolean hasCursor) {
+
+        RecipeRepository recipeRepository = new RecipeRepository(template);
+        var recipes = Instancio.ofList(Recipe.class).size(PAGE_SIZE_10).create();
+        var cursor = hasCursor ? RecipeCursor.after(sortKey, Instancio.create(Recipe.class)) : null;
+        var bindsSortValue = hasCursor && sortKey != RecipeSortKey.RECIPE_ID;
+
+        when(template.getDatabaseClient()).thenReturn(databaseClient);
+        when(databaseClient.sql(anyString())).thenReturn(executeSpec);
+        when(executeSpec.bind(anyString(), any())).thenReturn(executeSpec);
+        when(executeSpec.<Recipe>map(any(BiFunction.class))).thenReturn(rowsFetchSpec);
+        when(rowsFetchSpec.all()).thenReturn(Flux.fromIterable(recipes));
+
+        var response = recipeRepository.findAllAfter(sortKey, cursor, PAGE_SIZE_10);
+
+        StepVerifier.create(response)
+            .expectNextSequence(recipes)
+            .verifyComplete();
+
+        var query = RecipeRepository.getKeysetQuery(RecipeRowMapper.getSelectList(""), sortKey, cursor);
+        verify(databaseClient, times(1)).sql(eq(query));
+        verify(executeSpec, times(1)).bind(eq(RecipeRepository.LIMIT), eq(PAGE_SIZE_10));
+        verify(executeSpec, times(hasCursor ? 1 : 0)).bind(eq(RecipeRepository.RECIPE_ID), any());
+        verify(executeSpec, times(bindsSortValue ? 1 : 0)).bind(eq(RecipeRepository.SORT_VALUE), any());
+        verify(rowsFetchSpec, times(1)).all();
+        assertEquals(hasCursor, query.contains(":recipeId"));
+        assertEquals(bindsSortValue, query.contains(String.format("(%s, recipe_id) >", sortKey.getColumnName())));
+    }
+
+    /**
+     * Test findAllVersions reads the versions of the page, or of all recipes when there is no page.
+     * @param startPage
+     * @param pageSize
+     */
+    @ParameterizedTest
+    @CsvSource({"0, 0", "0, 10", "1, 0", "1, 10", "3, 10"})
+    void testFindAllVersions(final long startPage, final int pageSize) {
+
+        RecipeRepository recipeRepository = new RecipeRepository(template);
+        var versions = Instancio.ofList(RecipeVersion.class).size(PAGE_SIZE_10).create();
+        var paged = startPage > 0 && pageSize > 0;
+
+        when(template.getDatabaseClient()).thenReturn(databaseClient);
+        when(databaseClient.sql(anyString())).thenReturn(executeSpec);
+        if (paged) {
+            when(executeSpec.bind(anyString(), any())).thenReturn(executeSpec);
+        }
+        when(executeSpec.<RecipeVersion>map(any(BiFunction.class))).thenReturn(versionsFetchSpec);
+        when(versionsFetchSpec.all()).thenReturn(Flux.fromIterable(versions));
+
+        var response = recipeRepository.findAllVersions(startPage, pageSize);
+
+        StepVerifier.create(response)
+            .expectNextSequence(versions)
+            .verifyComplete();
+
+        verify(databaseClient, times(1))
+            .sql(eq(paged ? RecipeRepository.VERSIONS_PAGE_QUERY : RecipeRepository.VERSIONS_QUERY));
+        verify(executeSpec, times(paged ? 1 : 0)).bind(eq(RecipeRepository.LIMIT), eq(pageSize));
+        verify(executeSpec, times(paged ? 1 : 0))
+            .bind(eq(RecipeRepository.OFFSET), eq((startPage - 1) * pageSize));
+        verify(versionsFetchSpec, times(1)).all();
+        verifyNoMoreInteractions(databaseClient, executeSpec, versionsFetchSpec);
+    }
+
+    /**
+     * Test findAllVersionsAfter selects only the version columns of the page findAllAfter finds.
+     * @param sortKey
+     */
+    @ParameterizedTest
+    @EnumSource(RecipeSortKey.class)
+    void testFindAllVersionsAfter(final RecipeSortKey sortKey) {
+
+        RecipeRepository recipeRepository = new RecipeRepository(template);
+        var versions = Instancio.ofList(RecipeVersion.class).size(PAGE_SIZE_10).create();
+        var cursor = RecipeCursor.after(sortKey, Instancio.create(Recipe.class));
+
+        when(template.getDatabaseClient()).thenReturn(databaseClient);
+        when(databaseClient.sql(anyString())).thenReturn(executeSpec);
+        when(executeSpec.bind(anyString(), any())).thenReturn(executeSpec);
+        when(executeSpec.<RecipeVersion>map(any(BiFunction.class))).thenReturn(versionsFetchSpec);
+        when(versionsFetchSpec.all()).thenReturn(Flux.fromIterable(versions));
+
+        var response = recipeRepository.findAllVersionsAfter(sortKey, cursor, PAGE_SIZE_10);
+
+        StepVerifier.create(response)
+            .expectNextSequence(versions)
+            .verifyComplete();
+
+        var query = RecipeRepository.getKeysetQuery(RecipeVersionRowMapper.SELECT_LIST, sortKey, cursor);
+        verify(databaseClient, times(1)).sql(eq(query));
+        verify(executeSpec, times(1)).bind(eq(RecipeRepository.LIMIT), eq(PAGE_SIZE_10));
+        verify(executeSpec, times(1)).bind(eq(RecipeRepository.RECIPE_ID), eq(cursor.getRecipeId()));
+        verify(versionsFetchSpec, times(1)).all();
+        assertEquals(query.replace(RecipeVersionRowMapper.SELECT_LIST, RecipeRowMapper.getSelectList("")),
+            RecipeRepository.getKeysetQuery(RecipeRowMapper.getSelectList(""), sortKey, cursor));
+    }
 
     /**
      * Test findAllByName with no recipes.
@@ -140,19 +289,19 @@ public class RecipeRepositoryTest {
 
         RecipeRepository recipeRepository = new RecipeRepository(template);
 
-        when(template.select(Recipe.class)).thenReturn(reactiveSelect);
-        when(reactiveSelect.from(eq(Recipe.RECIPES_TABLE_NAME))).thenReturn(selectWithProjection);
-        when(selectWithProjection.matching(any(Query.class))).thenReturn(terminatingSelect);
-        when(terminatingSelect.all()).thenReturn(Flux.empty());
+        when(template.getDatabaseClient()).thenReturn(databaseClient);
+        when(databaseClient.sql(anyString())).thenReturn(executeSpec);
+        when(executeSpec.bind(anyString(), any())).thenReturn(executeSpec);
+        when(executeSpec.<Recipe>map(any(BiFunction.class))).thenReturn(rowsFetchSpec);
+        when(rowsFetchSpec.all()).thenReturn(Flux.empty());
 
         var response = recipeRepository.findAllByName("recipe");
 
         StepVerifier.create(response).verifyComplete();
 
-        verify(template, times(1)).select(Recipe.class);
-        verify(reactiveSelect, times(1)).from(eq(Recipe.RECIPES_TABLE_NAME));
-        verify(selectWithProjection, times(1)).matching(any(Query.class));
-        verify(terminatingSelect, times(1)).all();
+        verify(databaseClient, times(1)).sql(eq(RecipeRepository.RECIPES_BY_NAME_QUERY));
+        verify(executeSpec, times(1)).bind(eq(RecipeRepository.NAME), eq("recipe"));
+        verify(rowsFetchSpec, times(1)).all();
         verifyNoMoreInteractions(template);
     }
 
@@ -165,10 +314,11 @@ public class RecipeRepositoryTest {
         RecipeRepository recipeRepository = new RecipeRepository(template);
         var recipe = Instancio.create(Recipe.class);
 
-        when(template.select(Recipe.class)).thenReturn(reactiveSelect);
-        when(reactiveSelect.from(eq(Recipe.RECIPES_TABLE_NAME))).thenReturn(selectWithProjection);
-        when(selectWithProjection.matching(any(Query.class))).thenReturn(terminatingSelect);
-        when(terminatingSelect.all()).thenReturn(Flux.just(recipe));
+        when(template.getDatabaseClient()).thenReturn(databaseClient);
+        when(databaseClient.sql(anyString())).thenReturn(executeSpec);
+        when(executeSpec.bind(anyString(), any())).thenReturn(executeSpec);
+        when(executeSpec.<Recipe>map(any(BiFunction.class))).thenReturn(rowsFetchSpec);
+        when(rowsFetchSpec.all()).thenReturn(Flux.just(recipe));
 
         var response = recipeRepository.findAllByName("recipe");
 
@@ -176,10 +326,51 @@ public class RecipeRepositoryTest {
             .expectNextMatches(result -> result.equals(recipe))
             .verifyComplete();
 
-        verify(template, times(1)).select(Recipe.class);
-        verify(reactiveSelect, times(1)).from(eq(Recipe.RECIPES_TABLE_NAME));
-        verify(selectWithProjection, times(1)).matching(any(Query.class));
-        verify(terminatingSelect, times(1)).all();
+        verify(databaseClient, times(1)).sql(eq(RecipeRepository.RECIPES_BY_NAME_QUERY));
+        verify(executeSpec, times(1)).bind(eq(RecipeRepository.NAME), eq("recipe"));
+        verify(rowsFetchSpec, times(1)).all();
+        verifyNoMoreInteractions(template);
+    }
+
+    /**
+     * Test findAllById finds the recipes with one statement.
+     */
+    @Test
+    void testFindAllById() {
+
+        RecipeRepository recipeRepository = new RecipeRepository(template);
+        var recipes = Instancio.ofList(Recipe.class).size(PAGE_SIZE_10).create();
+
+        when(template.getDatabaseClient()).thenReturn(databaseClient);
+        when(databaseClient.sql(anyString())).thenReturn(executeSpec);
+        when(executeSpec.bind(anyString(), any())).thenReturn(executeSpec);
+        when(executeSpec.<Recipe>map(any(BiFunction.class))).thenReturn(rowsFetchSpec);
+        when(rowsFetchSpec.all()).thenReturn(Flux.fromIterable(recipes));
+
+        var response = recipeRepository.findAllById(recipes.stream().map(Recipe::getRecipeId).toList());
+
+        StepVerifier.create(response)
+            .expectNextSequence(recipes)
+            .verifyComplete();
+
+        verify(databaseClient, times(1)).sql(eq(RecipeRepository.RECIPES_BY_IDS_QUERY));
+        verify(executeSpec, times(1)).bind(eq(RecipeRepository.RECIPE_IDS),
+            eq(recipes.stream().map(Recipe::getRecipeId).toArray(Long[]::new)));
+        verify(rowsFetchSpec, times(1)).all();
+        verifyNoMoreInteractions(template);
+    }
+
+    /**
+     * Test findAllById doesn't query the database without recipe ids.
+     */
+    @Test
+    void testFindAllByIdNoRecipeIds() {
+
+        RecipeRepository recipeRepository = new RecipeRepository(template);
+
+        StepVerifier.create(recipeRepository.findAllById(List.of()))
+            .verifyComplete();
+
         verifyNoMoreInteractions(template);
     }
 
@@ -192,10 +383,11 @@ public class RecipeRepositoryTest {
         RecipeRepository recipeRepository = new RecipeRepository(template);
         var recipes = Instancio.ofList(Recipe.class).size(new Random().nextInt(PAGE_SIZE_10 - 2) + 2).create();
 
-        when(template.select(Recipe.class)).thenReturn(reactiveSelect);
-        when(reactiveSelect.from(eq(Recipe.RECIPES_TABLE_NAME))).thenReturn(selectWithProjection);
-        when(selectWithProjection.matching(any(Query.class))).thenReturn(terminatingSelect);
-        when(terminatingSelect.all()).thenReturn(Flux.fromIterable(recipes));
+        when(template.getDatabaseClient()).thenReturn(databaseClient);
+        when(databaseClient.sql(anyString())).thenReturn(executeSpec);
+        when(executeSpec.bind(anyString(), any())).thenReturn(executeSpec);
+        when(executeSpec.<Recipe>map(any(BiFunction.class))).thenReturn(rowsFetchSpec);
+        when(rowsFetchSpec.all()).thenReturn(Flux.fromIterable(recipes));
 
         var response = recipeRepository.findAllByName("recipe");
 
@@ -206,10 +398,9 @@ public class RecipeRepositoryTest {
         }
         recipeVerifier.verifyComplete();
 
-        verify(template, times(1)).select(Recipe.class);
-        verify(reactiveSelect, times(1)).from(eq(Recipe.RECIPES_TABLE_NAME));
-        verify(selectWithProjection, times(1)).matching(any(Query.class));
-        verify(terminatingSelect, times(1)).all();
+        verify(databaseClient, times(1)).sql(eq(RecipeRepository.RECIPES_BY_NAME_QUERY));
+        verify(executeSpec, times(1)).bind(eq(RecipeRepository.NAME), eq("recipe"));
+        verify(rowsFetchSpec, times(1)).all();
         verifyNoMoreInteractions(template);
     }
 
@@ -223,20 +414,26 @@ public class RecipeRepositoryTest {
     void testFindAllNoRecipesFound(final long startPage, final int pageSize) {
 
         RecipeRepository recipeRepository = new RecipeRepository(template);
+        var paged = startPage > 0 && pageSize > 0;
 
-        when(template.select(Recipe.class)).thenReturn(reactiveSelect);
-        when(reactiveSelect.from(eq(Recipe.RECIPES_TABLE_NAME))).thenReturn(selectWithProjection);
-        when(selectWithProjection.matching(any(Query.class))).thenReturn(terminatingSelect);
-        when(terminatingSelect.all()).thenReturn(Flux.empty());
+        when(template.getDatabaseClient()).thenReturn(databaseClient);
+        when(databaseClient.sql(anyString())).thenReturn(executeSpec);
+        if (paged) {
+            when(executeSpec.bind(anyString(), any())).thenReturn(executeSpec);
+        }
+        when(executeSpec.<Recipe>map(any(BiFunction.class))).thenReturn(rowsFetchSpec);
+        when(rowsFetchSpec.all()).thenReturn(Flux.empty());
 
         var response = recipeRepository.findAll(startPage, pageSize);
 
         StepVerifier.create(response).verifyComplete();
 
-        verify(template, times(1)).select(Recipe.class);
-        verify(reactiveSelect, times(1)).from(eq(Recipe.RECIPES_TABLE_NAME));
-        verify(selectWithProjection, times(1)).matching(any(Query.class));
-        verify(terminatingSelect, times(1)).all();
+        verify(databaseClient, times(1))
+            .sql(eq(paged ? RecipeRepository.RECIPES_PAGE_QUERY : RecipeRepository.RECIPES_IN_ORDER_QUERY));
+        verify(executeSpec, times(paged ? 1 : 0)).bind(eq(RecipeRepository.LIMIT), eq(pageSize));
+        verify(executeSpec, times(paged ? 1 : 0))
+            .bind(eq(RecipeRepository.OFFSET), eq((startPage - 1) * pageSize));
+        verify(rowsFetchSpec, times(1)).all();
         verifyNoMoreInteractions(template);
     }
 
@@ -252,10 +449,11 @@ public class RecipeRepositoryTest {
         RecipeRepository recipeRepository = new RecipeRepository(template);
         var recipe = Instancio.create(Recipe.class);
 
-        when(template.select(Recipe.class)).thenReturn(reactiveSelect);
-        when(reactiveSelect.from(eq(Recipe.RECIPES_TABLE_NAME))).thenReturn(selectWithProjection);
-        when(selectWithProjection.matching(any(Query.class))).thenReturn(terminatingSelect);
-        when(terminatingSelect.all()).thenReturn(Flux.just(recipe));
+        when(template.getDatabaseClient()).thenReturn(databaseClient);
+        when(databaseClient.sql(anyString())).thenReturn(executeSpec);
+        when(executeSpec.bind(anyString(), any())).thenReturn(executeSpec);
+        when(executeSpec.<Recipe>map(any(BiFunction.class))).thenReturn(rowsFetchSpec);
+        when(rowsFetchSpec.all()).thenReturn(Flux.just(recipe));
 
         var response = recipeRepository.findAll(FIRST_PAGE, PAGE_SIZE_10);
 
@@ -263,10 +461,10 @@ public class RecipeRepositoryTest {
                 .expectNextMatches(result -> result.equals(recipe))
                 .verifyComplete();
 
-        verify(template, times(1)).select(Recipe.class);
-        verify(reactiveSelect, times(1)).from(eq(Recipe.RECIPES_TABLE_NAME));
-        verify(selectWithProjection, times(1)).matching(any(Query.class));
-        verify(terminatingSelect, times(1)).all();
+        verify(databaseClient, times(1)).sql(eq(RecipeRepository.RECIPES_PAGE_QUERY));
+        verify(executeSpec, times(1)).bind(eq(RecipeRepository.LIMIT), eq(PAGE_SIZE_10));
+        verify(executeSpec, times(1)).bind(eq(RecipeRepository.OFFSET), eq(0L));
+        verify(rowsFetchSpec, times(1)).all();
         verifyNoMoreInteractions(template);
     }
 
@@ -282,10 +480,11 @@ public class RecipeRepositoryTest {
         RecipeRepository recipeRepository = new RecipeRepository(template);
         var recipes = Instancio.ofList(Recipe.class).size(new Random().nextInt(PAGE_SIZE_10 - 2) + 2).create();
 
-        when(template.select(Recipe.class)).thenReturn(reactiveSelect);
-        when(reactiveSelect.from(eq(Recipe.RECIPES_TABLE_NAME))).thenReturn(selectWithProjection);
-        when(selectWithProjection.matching(any(Query.class))).thenReturn(terminatingSelect);
-        when(terminatingSelect.all()).thenReturn(Flux.fromIterable(recipes));
+        when(template.getDatabaseClient()).thenReturn(databaseClient);
+        when(databaseClient.sql(anyString())).thenReturn(executeSpec);
+        when(executeSpec.bind(anyString(), any())).thenReturn(executeSpec);
+        when(executeSpec.<Recipe>map(any(BiFunction.class))).thenReturn(rowsFetchSpec);
+        when(rowsFetchSpec.all()).thenReturn(Flux.fromIterable(recipes));
 
         var response = recipeRepository.findAll(FIRST_PAGE, PAGE_SIZE_10);
 
@@ -296,10 +495,10 @@ public class RecipeRepositoryTest {
         }
         recipeVerifier.verifyComplete();
 
-        verify(template, times(1)).select(Recipe.class);
-        verify(reactiveSelect, times(1)).from(eq(Recipe.RECIPES_TABLE_NAME));
-        verify(selectWithProjection, times(1)).matching(any(Query.class));
-        verify(terminatingSelect, times(1)).all();
+        verify(databaseClient, times(1)).sql(eq(RecipeRepository.RECIPES_PAGE_QUERY));
+        verify(executeSpec, times(1)).bind(eq(RecipeRepository.LIMIT), eq(PAGE_SIZE_10));
+        verify(executeSpec, times(1)).bind(eq(RecipeRepository.OFFSET), eq(0L));
+        verify(rowsFetchSpec, times(1)).all();
         verifyNoMoreInteractions(template);
     }
 
@@ -311,9 +510,10 @@ public class RecipeRepositoryTest {
 
         RecipeRepository recipeRepository = new RecipeRepository(template);
 
-        when(template.select(Recipe.class)).thenReturn(reactiveSelect);
-        when(reactiveSelect.from(eq(Recipe.RECIPES_TABLE_NAME))).thenReturn(selectWithProjection);
-        when(selectWithProjection.count()).thenReturn(Mono.just(NUMBER_OF_RECIPES));
+        when(template.getDatabaseClient()).thenReturn(databaseClient);
+        when(databaseClient.sql(anyString())).thenReturn(executeSpec);
+        when(executeSpec.<Long>map(any(Function.class))).thenReturn(countFetchSpec);
+        when(countFetchSpec.one()).thenReturn(Mono.just(NUMBER_OF_RECIPES));
 
         var response = recipeRepository.countAll();
 
@@ -321,12 +521,45 @@ public class RecipeRepositoryTest {
                 .expectNextMatches(result -> result == NUMBER_OF_RECIPES)
                 .verifyComplete();
 
-        verify(template, times(1)).select(Recipe.class);
-        verify(reactiveSelect, times(1)).from(eq(Recipe.RECIPES_TABLE_NAME));
-        verify(selectWithProjection, times(1)).count();
+        verify(template, times(1)).getDatabaseClient();
+        verify(databaseClient, times(1)).sql(eq(RecipeRepository.COUNT_QUERY));
+        verify(countFetchSpec, times(1)).one();
         verifyNoMoreInteractions(template);
     }
 
+    /**
+     * Test estimateCount uses the estimate for the database, and counts when there is no estimate yet.
+     * @param databaseName
+     * @param estimate
+     * @param expectedCount
+     */
+    @ParameterizedTest
+    @CsvSource({"PostgreSQL, 5, 5", "PostgreSQL, -1, 7", "H2, 3, 3"})
+    void testEstimateCount(final String databaseName, final long estimate, final long expectedCount) {
+
+        RecipeRepository recipeRepository = new RecipeRepository(template);
+        var usesEstimate = estimate >= 0;
+
+        when(template.getDatabaseClient()).thenReturn(databaseClient);
+        when(databaseClient.getConnectionFactory()).thenReturn(connectionFactory);
+        when(connectionFactory.getMetadata()).thenReturn(connectionFactoryMetadata);
+        when(connectionFactoryMetadata.getName()).thenReturn(databaseName);
+        when(databaseClient.sql(anyString())).thenReturn(executeSpec);
+        when(executeSpec.<Long>map(any(Function.class))).thenReturn(countFetchSpec);
+        when(countFetchSpec.one()).thenReturn(Mono.just(estimate), Mono.just(NUMBER_OF_RECIPES));
+
+        var response = recipeRepository.estimateCount();
+
+        StepVerifier.create(response)
+                .expectNextMatches(result -> result == expectedCount)
+                .verifyComplete();
+
+        verify(databaseClient, times(1)).sql(eq("H2".equals(databaseName)
+            ? RecipeRepository.H2_ESTIMATED_COUNT_QUERY : RecipeRepository.POSTGRES_ESTIMATED_COUNT_QUERY));
+        verify(databaseClient, times(usesEstimate ? 0 : 1)).sql(eq(RecipeRepository.COUNT_QUERY));
+        verify(countFetchSpec, times(usesEstimate ? 1 : 2)).one();
+    }
+
     /**
      * Test existsById where it doesn't exist.
      */
@@ -335,10 +568,11 @@ public class RecipeRepositoryTest {
 
         RecipeRepository recipeRepository = new RecipeRepository(template);
 
-        when(template.select(Recipe.class)).thenReturn(reactiveSelect);
-        when(reactiveSelect.from(eq(Recipe.RECIPES_TABLE_NAME))).thenReturn(selectWithProjection);
-        when(selectWithProjection.matching(any(Query.class))).thenReturn(terminatingSelect);
-        when(terminatingSelect.exists()).thenReturn(Mono.just(false));
+        when(template.getDatabaseClient()).thenReturn(databaseClient);
+        when(databaseClient.sql(anyString())).thenReturn(executeSpec);
+        when(executeSpec.bind(anyString(), any())).thenReturn(executeSpec);
+        when(executeSpec.<Long>map(any(Function.class))).thenReturn(countFetchSpec);
+        when(countFetchSpec.one()).thenReturn(Mono.empty());
 
         var response = recipeRepository.existsById(RECIPE_ID);
 
@@ -346,10 +580,10 @@ public class RecipeRepositoryTest {
                 .expectNextMatches(result -> !result)
                 .verifyComplete();
 
-        verify(template, times(1)).select(Recipe.class);
-        verify(reactiveSelect, times(1)).from(eq(Recipe.RECIPES_TABLE_NAME));
-        verify(selectWithProjection, times(1)).matching(any(Query.class));
-        verify(terminatingSelect, times(1)).exists();
+        verify(template, times(1)).getDatabaseClient();
+        verify(databaseClient, times(1)).sql(eq(RecipeRepository.RECIPE_ID_BY_ID_QUERY));
+        verify(executeSpec, times(1)).bind(eq(RecipeRepository.RECIPE_ID), eq(RECIPE_ID));
+        verify(countFetchSpec, times(1)).one();
         verifyNoMoreInteractions(template);
     }
 
@@ -361,10 +595,11 @@ public class RecipeRepositoryTest {
 
         RecipeRepository recipeRepository = new RecipeRepository(template);
 
-        when(template.select(Recipe.class)).thenReturn(reactiveSelect);
-        when(reactiveSelect.from(eq(Recipe.RECIPES_TABLE_NAME))).thenReturn(selectWithProjection);
-        when(selectWithProjection.matching(any(Query.class))).thenReturn(terminatingSelect);
-        when(terminatingSelect.exists()).thenReturn(Mono.just(true));
+        when(template.getDatabaseClient()).thenReturn(databaseClient);
+        when(databaseClient.sql(anyString())).thenReturn(executeSpec);
+        when(executeSpec.bind(anyString(), any())).thenReturn(executeSpec);
+        when(executeSpec.<Long>map(any(Function.class))).thenReturn(countFetchSpec);
+        when(countFetchSpec.one()).thenReturn(Mono.just(RECIPE_ID));
 
         var response = recipeRepository.existsById(RECIPE_ID);
 
@@ -372,10 +607,10 @@ public class RecipeRepositoryTest {
                 .expectNextMatches(result -> result)
                 .verifyComplete();
 
-        verify(template, times(1)).select(Recipe.class);
-        verify(reactiveSelect, times(1)).from(eq(Recipe.RECIPES_TABLE_NAME));
-        verify(selectWithProjection, times(1)).matching(any(Query.class));
-        verify(terminatingSelect, times(1)).exists();
+        verify(template, times(1)).getDatabaseClient();
+        verify(databaseClient, times(1)).sql(eq(RecipeRepository.RECIPE_ID_BY_ID_QUERY));
+        verify(executeSpec, times(1)).bind(eq(RecipeRepository.RECIPE_ID), eq(RECIPE_ID));
+        verify(countFetchSpec, times(1)).one();
         verifyNoMoreInteractions(template);
     }
 
@@ -387,20 +622,20 @@ public class RecipeRepositoryTest {
 
         RecipeRepository recipeRepository = new RecipeRepository(template);
 
-        when(template.select(Recipe.class)).thenReturn(reactiveSelect);
-        when(reactiveSelect.from(eq(Recipe.RECIPES_TABLE_NAME))).thenReturn(selectWithProjection);
-        when(selectWithProjection.matching(any(Query.class))).thenReturn(terminatingSelect);
-        when(terminatingSelect.one()).thenReturn(Mono.empty());
+        when(template.getDatabaseClient()).thenReturn(databaseClient);
+        when(databaseClient.sql(anyString())).thenReturn(executeSpec);
+        when(executeSpec.bind(anyString(), any())).thenReturn(executeSpec);
+        when(executeSpec.<Recipe>map(any(BiFunction.class))).thenReturn(rowsFetchSpec);
+        when(rowsFetchSpec.one()).thenReturn(Mono.empty());
 
         var response = recipeRepository.findById(RECIPE_ID);
 
         StepVerifier.create(response)
                 .verifyComplete();
 
-        verify(template, times(1)).select(Recipe.class);
-        verify(reactiveSelect, times(1)).from(eq(Recipe.RECIPES_TABLE_NAME));
-        verify(selectWithProjection, times(1)).matching(any(Query.class));
-        verify(terminatingSelect, times(1)).one();
+        verify(databaseClient, times(1)).sql(eq(RecipeRepository.RECIPE_BY_ID_QUERY));
+        verify(executeSpec, times(1)).bind(eq(RecipeRepository.RECIPE_ID), eq(RECIPE_ID));
+        verify(rowsFetchSpec, times(1)).one();
         verifyNoMoreInteractions(template);
     }
 
@@ -413,10 +648,11 @@ public class RecipeRepositoryTest {
         RecipeRepository recipeRepository = new RecipeRepository(template);
         var recipe = Instancio.create(Recipe.class);
 
-        when(template.select(Recipe.class)).thenReturn(reactiveSelect);
-        when(reactiveSelect.from(eq(Recipe.RECIPES_TABLE_NAME))).thenReturn(selectWithProjection);
-        when(selectWithProjection.matching(any(Query.class))).thenReturn(terminatingSelect);
-        when(terminatingSelect.one()).thenReturn(Mono.just(recipe));
+        when(template.getDatabaseClient()).thenReturn(databaseClient);
+        when(databaseClient.sql(anyString())).thenReturn(executeSpec);
+        when(executeSpec.bind(anyString(), any())).thenReturn(executeSpec);
+        when(executeSpec.<Recipe>map(any(BiFunction.class))).thenReturn(rowsFetchSpec);
+        when(rowsFetchSpec.one()).thenReturn(Mono.just(recipe));
 
         var response = recipeRepository.findById(RECIPE_ID);
 
@@ -424,13 +660,40 @@ public class RecipeRepositoryTest {
                 .expectNextMatches(result -> result.equals(recipe))
                 .verifyComplete();
 
-        verify(template, times(1)).select(Recipe.class);
-        verify(reactiveSelect, times(1)).from(eq(Recipe.RECIPES_TABLE_NAME));
-        verify(selectWithProjection, times(1)).matching(any(Query.class));
-        verify(terminatingSelect, times(1)).one();
+        verify(databaseClient, times(1)).sql(eq(RecipeRepository.RECIPE_BY_ID_QUERY));
+        verify(executeSpec, times(1)).bind(eq(RecipeRepository.RECIPE_ID), eq(RECIPE_ID));
+        verify(rowsFetchSpec, times(1)).one();
         verifyNoMoreInteractions(template);
     }
 
+    /**
+     * Test findVersionById reads only the version of the recipe.
+     */
+    @Test
+    void testFindVersionById() {
+
+        RecipeRepository recipeRepository = new RecipeRepository(template);
+        var version = Instancio.create(RecipeVersion.class);
+
+        when(template.getDatabaseClient()).thenReturn(databaseClient);
+        when(databaseClient.sql(anyString())).thenReturn(executeSpec);
+        when(executeSpec.bind(anyString(), any())).thenReturn(executeSpec);
+        when(executeSpec.<RecipeVersion>map(any(BiFunction.class))).thenReturn(versionsFetchSpec);
+        when(versionsFetchSpec.one()).thenReturn(Mono.just(version));
+
+        var response = recipeRepository.findVersionById(RECIPE_ID);
+
+        StepVerifier.create(response)
+                .expectNext(version)
+                .verifyComplete();
+
+        verify(databaseClient, times(1)).sql(eq(RecipeRepository.VERSION_BY_ID_QUERY));
+        verify(executeSpec, times(1)).bind(eq(RecipeRepository.RECIPE_ID), eq(RECIPE_ID));
+        verify(executeSpec, times(1)).map(any(BiFunction.class));
+        verify(versionsFetchSpec, times(1)).one();
+        verifyNoMoreInteractions(databaseClient, executeSpec, versionsFetchSpec);
+    }
+
     /**
      * Test save.
      */
@@ -457,30 +720,147 @@ public class RecipeRepositoryTest {
     }
 
     /**
-     * Test update.
+     * Test saveAll inserts the recipes in batches and sets the generated ids in input order.
+     * @param databaseName
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"PostgreSQL", "H2"})
+    void testSaveAll(final String databaseName) {
+
+        RecipeRepository recipeRepository = new RecipeRepository(template);
+        var recipes = Instancio.ofList(Recipe.class).size((int) NUMBER_OF_RECIPES).create();
+        var batchSize = 2;
+        var numberOfBatches = (recipes.size() + batchSize - 1) / batchSize;
+        var isH2 = "H2".equals(databaseName);
+
+        ReflectionTestUtils.setField(recipeRepository, "batchInsertSize", batchSize);
+        when(template.getDatabaseClient()).thenReturn(databaseClient);
+        when(databaseClient.getConnectionFactory()).thenReturn(connectionFactory);
+        when(connectionFactory.getMetadata()).thenReturn(connectionFactoryMetadata);
+        when(connectionFactoryMetadata.getName()).thenReturn(databaseName);
+        when(databaseClient.sql(anyString())).thenReturn(executeSpec);
+        when(executeSpec.bind(anyString(), any())).thenReturn(executeSpec);
+        when(executeSpec.<Map.Entry<Long, Long>>map(any(Function.class))).thenReturn(idsByOrdinalFetchSpec);
+        var when = when(idsByOrdinalFetchSpec.all());
+        for (long firstId = 1; firstId <= recipes.size(); firstId += batchSize) {
+            var previousId = firstId - 1;
+            when = when.thenReturn(Flux.fromStream(
+                LongStream.rangeClosed(1, Math.min(batchSize, recipes.size() - previousId)).boxed()
+                    .sorted(Comparator.reverseOrder())
+                    .map(ordinal -> Map.entry(ordinal, previousId + ordinal))));
+        }
+        if (isH2) {
+            when(executeSpec.fetch()).thenReturn(fetchSpec);
+            when(fetchSpec.rowsUpdated()).thenReturn(Mono.just((long) batchSize));
+        }
+
+        var response = recipeRepository.saveAll(recipes);
+
+        StepVerifier.create(response)
+            .expectNextSequence(recipes)
+            .verifyComplete();
+
+        for (int idx = 0; idx < recipes.size(); idx++) {
+            assertEquals(idx + 1L, recipes.get(idx).getRecipeId());
+        }
+        verify(databaseClient, times(numberOfBatches)).sql(eq(BatchInserts.getInsertQuery(isH2,
+            Recipe.RECIPES_TABLE_NAME, Recipe.RECIPE_ID_COLUMN_NAME, RecipeRepository.RECIPE_COLUMNS)));
+        verify(databaseClient, times(isH2 ? numberOfBatches : 0)).sql(eq(BatchInserts.getAllocateIdsQuery(
+            Recipe.RECIPES_TABLE_NAME, Recipe.RECIPE_ID_COLUMN_NAME)));
+        verify(executeSpec, times(numberOfBatches * (RecipeRepository.RECIPE_COLUMNS.size() + (isH2 ? 2 : 0))))
+            .bind(anyString(), any());
+        verify(idsByOrdinalFetchSpec, times(numberOfBatches)).all();
+    }
+
+    /**
+     * Test allocateVariations picks the statement for the database and allocates the variations of all the names,
+     * in name order, with one statement.
+     * @param databaseName
+     * @param h2
+     */
+    @ParameterizedTest
+    @CsvSource({"PostgreSQL, false", "H2, true"})
+    void testAllocateVariations(final String databaseName, final boolean h2) {
+
+        RecipeRepository recipeRepository = new RecipeRepository(template);
+        var counts = Map.of("second", 1, "first", 2);
+        var expectedQuery =
+            h2 ? RecipeRepository.H2_ALLOCATE_VARIATIONS_QUERY : RecipeRepository.POSTGRES_ALLOCATE_VARIATIONS_QUERY;
+
+        when(template.getDatabaseClient()).thenReturn(databaseClient);
+        when(databaseClient.getConnectionFactory()).thenReturn(connectionFactory);
+        when(connectionFactory.getMetadata()).thenReturn(connectionFactoryMetadata);
+        when(connectionFactoryMetadata.getName()).thenReturn(databaseName);
+        when(databaseClient.sql(anyString())).thenReturn(executeSpec);
+        when(executeSpec.bind(anyString(), any())).thenReturn(executeSpec);
+        when(executeSpec.<Map.Entry<String, Integer>>map(any(Function.class))).thenReturn(variationsFetchSpec);
+        when(variationsFetchSpec.all()).thenReturn(Flux.just(Map.entry("first", 2), Map.entry("second", 1)));
+
+        var response = recipeRepository.allocateVariations(counts);
+
+        StepVerifier.create(response)
+            .expectNext(Map.of("first", 2, "second", 1))
+            .verifyComplete();
+
+        verify(databaseClient, times(1)).sql(eq(expectedQuery));
+        verify(executeSpec, times(1)).bind(eq(RecipeRepository.NAMES), eq(new String[] {"first", "second"}));
+        verify(executeSpec, times(1)).bind(eq(RecipeRepository.COUNTS), eq(new Integer[] {2, 1}));
+        verify(variationsFetchSpec, times(1)).all();
+    }
+
+    /**
+     * Test allocateVariations without names doesn't query the database.
      */
     @Test
-    void testUpdate() {
+    void testAllocateVariationsWithoutNames() {
+
+        RecipeRepository recipeRepository = new RecipeRepository(template);
+
+        var response = recipeRepository.allocateVariations(Map.of());
+
+        StepVerifier.create(response)
+            .expectNext(Map.of())
+            .verifyComplete();
+
+        verifyNoMoreInteractions(template);
+    }
+
+    /**
+     * Test update only updates the recipe's version when it has one.
+     * @param versioned
+     */
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void testUpdate(final boolean versioned) {
 
         RecipeRepository recipeRepository = new RecipeRepository(template);
         var recipe = Instancio.create(Recipe.class);
+        if (!versioned) {
+            recipe.setVersion(null);
+        }
 
-        when(template.update(eq(ReactiveUpdateOperation.UpdateWithTable.class))).thenReturn(reactiveUpdate);
-        when(reactiveUpdate.inTable(eq(Recipe.RECIPES_TABLE_NAME))).thenReturn(updateWithQuery);
-        when(updateWithQuery.matching(any(Query.class))).thenReturn(terminatingUpdate);
-        when(terminatingUpdate.apply(any(Update.class))).thenReturn(Mono.just(RECIPE_ID));
+        when(template.getDatabaseClient()).thenReturn(databaseClient);
+        when(databaseClient.sql(anyString())).thenReturn(executeSpec);
+        when(executeSpec.bind(anyString(), any())).thenReturn(executeSpec);
+        when(executeSpec.fetch()).thenReturn(fetchSpec);
+        when(fetchSpec.rowsUpdated()).thenReturn(Mono.just(1L));
 
         var response = recipeRepository.update(recipe);
 
         StepVerifier.create(response)
-                .expectNextMatches(result -> result == RECIPE_ID)
+                .expectNext(1L)
                 .verifyComplete();
 
-        verify(template, times(1)).update(eq(ReactiveUpdateOperation.UpdateWithTable.class));
-        verify(reactiveUpdate, times(1)).inTable(eq(Recipe.RECIPES_TABLE_NAME));
-        verify(updateWithQuery, times(1)).matching(any(Query.class));
-        verify(terminatingUpdate, times(1)).apply(any(Update.class));
-        verifyNoMoreInteractions(template);
+        verify(databaseClient, times(1))
+                .sql(eq(versioned ? RecipeRepository.UPDATE_VERSION_QUERY : RecipeRepository.UPDATE_QUERY));
+        verify(executeSpec, times(1)).bind(eq(RecipeRepository.RECIPE_ID), eq(recipe.getRecipeId()));
+        verify(executeSpec, times(1)).bind(eq(Recipe.NAME_COLUMN_NAME), eq(recipe.getName()));
+        verify(executeSpec, times(1)).bind(eq(Recipe.DESCRIPTION_COLUMN_NAME), eq(recipe.getDescription()));
+        verify(executeSpec, times(1))
+                .bind(eq(RecipeRepository.LAST_MODIFIED_DATE_TIME), eq(recipe.getLastModifiedDateTime()));
+        verify(executeSpec, times(versioned ? 1 : 0)).bind(eq(Recipe.VERSION_COLUMN_NAME), any());
+        verify(fetchSpec, times(1)).rowsUpdated();
+        verifyNoMoreInteractions(databaseClient, executeSpec, fetchSpec);
     }
 
     /**
@@ -508,4 +888,137 @@ public class RecipeRepositoryTest {
         verify(terminatingDelete, times(1)).all();
         verifyNoMoreInteractions(template);
     }
+
+    /**
+     * Test deleteByIdWithIngredientsAndInstructions deletes with one statement on PostgreSQL, and with a statement
+     * per table on H2.
+     * @param databaseName
+     * @param deleted If the recipe existed
+     */
+    @ParameterizedTest
+    @CsvSource({"PostgreSQL, true", "PostgreSQL, false", "H2, true", "H2, false"})
+    void testDeleteByIdWithIngredientsAndInstructions(final String databaseName, final boolean deleted) {
+
+        RecipeRepository recipeRepository = new RecipeRepository(template);
+        var isH2 = "H2".equals(databaseName);
+
+        when(template.getDatabaseClient()).thenReturn(databaseClient);
+        when(databaseClient.getConnectionFactory()).thenReturn(connectionFactory);
+        when(connectionFactory.getMetadata()).thenReturn(connectionFactoryMetadata);
+        when(connectionFactoryMetadata.getName()).thenReturn(databaseName);
+        when(databaseClient.sql(anyString())).thenReturn(executeSpec);
+        when(executeSpec.bind(eq(RecipeRepository.RECIPE_ID), eq(RECIPE_ID))).thenReturn(executeSpec);
+        when(executeSpec.<Long>map(any(Function.class))).thenReturn(countFetchSpec);
+        when(countFetchSpec.all()).thenReturn(deleted ? Flux.just(RECIPE_ID) : Flux.empty());
+        if (isH2) {
+            when(executeSpec.fetch()).thenReturn(fetchSpec);
+            when(fetchSpec.rowsUpdated()).thenReturn(Mono.just(0L));
+        }
+
+        var response = recipeRepository.deleteByIdWithIngredientsAndInstructions(RECIPE_ID);
+
+        var verifier = StepVerifier.create(response);
+        if (deleted) {
+            verifier.expectNext(RECIPE_ID);
+        }
+        verifier.verifyComplete();
+
+        if (isH2) {
+            RecipeRepository.H2_DELETE_CASCADE_FORMATS.forEach(format -> verify(databaseClient, times(1))
+                .sql(eq(String.format(format, RecipeRepository.MATCH_RECIPE_ID))));
+            verify(databaseClient, times(1))
+                .sql(eq(String.format(RecipeRepository.H2_DELETE_RECIPES_FORMAT, RecipeRepository.MATCH_RECIPE_ID)));
+            verify(fetchSpec, times(RecipeRepository.H2_DELETE_CASCADE_FORMATS.size())).rowsUpdated();
+        } else {
+            verify(databaseClient, times(1))
+                .sql(eq(String.format(RecipeRepository.POSTGRES_DELETE_CASCADE_FORMAT, RecipeRepository.MATCH_RECIPE_ID)));
+            verify(databaseClient, times(1)).sql(anyString());
+        }
+        verify(countFetchSpec, times(1)).all();
+        verify(template, times(0)).delete(eq(Recipe.class));
+    }
+
+    /**
+     * Test deleteAllByIdsWithIngredientsAndInstructions binds the recipe ids as one array.
+     * @param databaseName
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"PostgreSQL", "H2"})
+    void testDeleteAllByIdsWithIngredientsAndInstructions(final String databaseName) {
+
+        RecipeRepository recipeRepository = new RecipeRepository(template);
+        var recipeIds = List.of(RECIPE_ID, RECIPE_ID + 1);
+        var isH2 = "H2".equals(databaseName);
+
+        when(template.getDatabaseClient()).thenReturn(databaseClient);
+        when(databaseClient.getConnectionFactory()).thenReturn(connectionFactory);
+        when(connectionFactory.getMetadata()).thenReturn(connectionFactoryMetadata);
+        when(connectionFactoryMetadata.getName()).thenReturn(databaseName);
+        when(databaseClient.sql(anyString())).thenReturn(executeSpec);
+        when(executeSpec.bind(eq(RecipeRepository.RECIPE_IDS), any(Long[].class))).thenReturn(executeSpec);
+        when(executeSpec.<Long>map(any(Function.class))).thenReturn(countFetchSpec);
+        when(countFetchSpec.all()).thenReturn(Flux.fromIterable(recipeIds));
+        if (isH2) {
+            when(executeSpec.fetch()).thenReturn(fetchSpec);
+            when(fetchSpec.rowsUpdated()).thenReturn(Mono.just(0L));
+        }
+
+        var response = recipeRepository.deleteAllByIdsWithIngredientsAndInstructions(recipeIds);
+
+        StepVerifier.create(response)
+            .expectNextSequence(recipeIds)
+            .verifyComplete();
+
+        if (isH2) {
+            verify(databaseClient, times(RecipeRepository.H2_DELETE_CASCADE_FORMATS.size() + 1)).sql(anyString());
+            verify(databaseClient, times(1))
+                .sql(eq(String.format(RecipeRepository.H2_DELETE_RECIPES_FORMAT, RecipeRepository.MATCH_ANY_RECIPE_ID)));
+        } else {
+            verify(databaseClient, times(1)).sql(anyString());
+            verify(databaseClient, times(1)).sql(eq(String.format(RecipeRepository.POSTGRES_DELETE_CASCADE_FORMAT,
+                RecipeRepository.MATCH_ANY_RECIPE_ID)));
+        }
+        verify(executeSpec, times(isH2 ? RecipeRepository.H2_DELETE_CASCADE_FORMATS.size() + 1 : 1))
+            .bind(eq(RecipeRepository.RECIPE_IDS), eq(recipeIds.toArray(Long[]::new)));
+    }
+
+    /**
+     * Test deleteAllByIdsWithIngredientsAndInstructions does not query the database when there are no ids.
+     */
+    @Test
+    void testDeleteAllByIdsWithIngredientsAndInstructionsWithoutIds() {
+
+        RecipeRepository recipeRepository = new RecipeRepository(template);
+
+        StepVerifier.create(recipeRepository.deleteAllByIdsWithIngredientsAndInstructions(List.of()))
+            .verifyComplete();
+
+        verifyNoMoreInteractions(template);
+    }
+
+    /**
+     * Test findIdsLastModifiedBefore.
+     */
+    @Test
+    void testFindIdsLastModifiedBefore() {
+
+        RecipeRepository recipeRepository = new RecipeRepository(template);
+        var lastModifiedBefore = LocalDateTime.now();
+
+        when(template.getDatabaseClient()).thenReturn(databaseClient);
+        when(databaseClient.sql(eq(RecipeRepository.IDS_LAST_MODIFIED_BEFORE_QUERY))).thenReturn(executeSpec);
+        when(executeSpec.bind(anyString(), any())).thenReturn(executeSpec);
+        when(executeSpec.<Long>map(any(Function.class))).thenReturn(countFetchSpec);
+        when(countFetchSpec.all()).thenReturn(Flux.just(RECIPE_ID));
+
+        var response = recipeRepository.findIdsLastModifiedBefore(lastModifiedBefore, PAGE_SIZE_10);
+
+        StepVerifier.create(response)
+            .expectNext(RECIPE_ID)
+            .verifyComplete();
+
+        verify(executeSpec, times(1)).bind(eq(RecipeRepository.LAST_MODIFIED_BEFORE), eq(lastModifiedBefore));
+        verify(executeSpec, times(1)).bind(eq(RecipeRepository.LIMIT), eq(PAGE_SIZE_10));
+        verify(countFetchSpec, times(1)).all();
+    }
 }
@@ -0,0 +1,315 @@
+package org.grego.recipeservice.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import org.grego.recipeservice.mapping.ArrayRow;
+import org.grego.recipeservice.mapping.RecipeRowMapper;
+import org.grego.recipeservice.model.Recipe;
+import org.instancio.Instancio;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.powermock.modules.junit4.PowerMockRunner;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.FetchSpec;
+import org.springframework.r2dbc.core.RowsFetchSpec;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test the RecipeSnapshotRepository.
+ */
+@ExtendWith(MockitoExtension.class)
+@RunWith(PowerMockRunner.class)
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+@Tag("UnitTests")
+public class RecipeSnapshotRepositoryTest {
+    /**
+     * Recipe id to seek past.
+     */
+    public static final long RECIPE_ID = 1L;
+
+    /**
+     * Page number.
+     */
+    public static final long PAGE_NUMBER = 2L;
+
+    /**
+     * Page size.
+     */
+    public static final int PAGE_SIZE = 10;
+
+    /**
+     * The Rddbc entity template used to perform reactive database operations.
+     */
+    @Mock
+    private R2dbcEntityTemplate template;
+
+    /**
+     * Database client.
+     */
+    @Mock
+    private DatabaseClient databaseClient;
+
+    /**
+     * Connection factory.
+     */
+    @Mock
+    private ConnectionFactory connectionFactory;
+
+    /**
+     * Connection factory metadata.
+     */
+    @Mock
+    private ConnectionFactoryMetadata connectionFactoryMetadata;
+
+    /**
+     * Execute spec.
+     */
+    @Mock
+    private DatabaseClient.GenericExecuteSpec executeSpec;
+
+    /**
+     * Fetch spec.
+     */
+    @Mock
+    private RowsFetchSpec<Recipe> fetchSpec;
+
+    /**
+     * Fetch spec of the recipe ids.
+     */
+    @Mock
+    private RowsFetchSpec<Long> recipeIdsFetchSpec;
+
+    /**
+     * Fetch spec of the updates.
+     */
+    @Mock
+    private FetchSpec<Map<String, Object>> updateFetchSpec;
+
+    /**
+     * Object mapper for reading the snapshot JSON.
+     */
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Test findById picks the statement for the database and maps the ingredients and instructions of the snapshot.
+     * @param databaseName
+     * @param h2
+     * @throws Exception
+     */
+    @ParameterizedTest
+    @CsvSource({"PostgreSQL, false", "H2, true"})
+    void testFindById(final String databaseName, final boolean h2) throws Exception {
+
+        var recipeSnapshotRepository = new RecipeSnapshotRepository(template, objectMapper);
+        var recipe = Instancio.create(Recipe.class);
+        var recipeRow = ArrayRow.of(recipe);
+        var columnNames = new ArrayList<>(RecipeRowMapper.COLUMN_NAMES);
+        var columnValues = new ArrayList<>(RecipeRowMapper.COLUMN_NAMES.stream()
+            .map(column -> recipeRow.get(column, Object.class)).toList());
+        columnNames.add("recipe_snapshot");
+        columnValues.add(objectMapper.writeValueAsString(Map.of("ingredients", recipe.getIngredients())));
+        var row = new ArrayRow(columnNames, columnValues);
+        ArgumentCaptor<BiFunction<Row, RowMetadata, Recipe>> mappingFunction = ArgumentCaptor.forClass(BiFunction.class);
+        var expectedQuery = h2 ? RecipeSnapshotRepository.H2_QUERY : RecipeSnapshotRepository.POSTGRES_QUERY;
+
+        givenDatabase(databaseName);
+        when(executeSpec.bind(anyString(), anyLong())).thenReturn(executeSpec);
+        when(executeSpec.map(mappingFunction.capture())).thenReturn(fetchSpec);
+        when(fetchSpec.one()).thenReturn(Mono.just(recipe));
+
+        var response = recipeSnapshotRepository.findById(recipe.getRecipeId());
+
+        StepVerifier.create(response)
+            .expectNextMatches(result -> result.equals(recipe))
+            .verifyComplete();
+
+        var mappedRecipe = mappingFunction.getValue().apply(row, row.getMetadata());
+
+        verify(databaseClient, times(1)).sql(eq(expectedQuery));
+        verify(executeSpec, times(1)).bind(eq(RecipeSnapshotRepository.RECIPE_ID), eq(recipe.getRecipeId()));
+        verify(fetchSpec, times(1)).one();
+        assertEquals(recipe.getRecipeId(), mappedRecipe.getRecipeId());
+        assertEquals(recipe.getName(), mappedRecipe.getName());
+        assertEquals(recipe.getVersion(), mappedRecipe.getVersion());
+        assertEquals(recipe.getIngredients(), mappedRecipe.getIngredients());
+        assertEquals(Collections.emptyList(), mappedRecipe.getInstructions());
+    }
+
+    /**
+     * Test findAll picks the page statement for the database and binds the page.
+     * @param databaseName
+     * @param h2
+     */
+    @ParameterizedTest
+    @CsvSource({"PostgreSQL, false", "H2, true"})
+    void testFindAllPage(final String databaseName, final boolean h2) {
+
+        var recipeSnapshotRepository = new RecipeSnapshotRepository(template, objectMapper);
+        var recipes = Instancio.ofList(Recipe.class).size(2).create();
+        var expectedQuery = h2 ? RecipeSnapshotRepository.H2_PAGE_QUERY : RecipeSnapshotRepository.POSTGRES_PAGE_QUERY;
+
+        givenDatabase(databaseName);
+        when(executeSpec.bind(anyString(), any())).thenReturn(executeSpec);
+        when(executeSpec.map(any(BiFunction.class))).thenReturn(fetchSpec);
+        when(fetchSpec.all()).thenReturn(Flux.fromIterable(recipes));
+
+        StepVerifier.create(recipeSnapshotRepository.findAll(PAGE_NUMBER, PAGE_SIZE))
+            .expectNextSequence(recipes)
+            .verifyComplete();
+
+        verify(databaseClient, times(1)).sql(eq(expectedQuery));
+        verify(executeSpec, times(1)).bind(eq(RecipeSnapshotRepository.LIMIT), eq(PAGE_SIZE));
+        verify(executeSpec, times(1)).bind(eq(RecipeSnapshotRepository.OFFSET), eq((PAGE_NUMBER - 1) * PAGE_SIZE));
+        verify(fetchSpec, times(1)).all();
+    }
+
+    /**
+     * Test findAll reads every recipe when there's no page.
+     */
+    @Test
+    void testFindAllWithoutPage() {
+
+        var recipeSnapshotRepository = new RecipeSnapshotRepository(template, objectMapper);
+        var recipes = Instancio.ofList(Recipe.class).size(2).create();
+
+        givenDatabase("PostgreSQL");
+        when(executeSpec.map(any(BiFunction.class))).thenReturn(fetchSpec);
+        when(fetchSpec.all()).thenReturn(Flux.fromIterable(recipes));
+
+        StepVerifier.create(recipeSnapshotRepository.findAll(0, 0))
+            .expectNextSequence(recipes)
+            .verifyComplete();
+
+        verify(databaseClient, times(1)).sql(eq(RecipeSnapshotRepository.POSTGRES_ALL_QUERY));
+        verify(fetchSpec, times(1)).all();
+    }
+
+    /**
+     * Test refresh and backfill pick the statement for the database and bind the recipe ids.
+     * @param databaseName
+     * @param h2
+     */
+    @ParameterizedTest
+    @CsvSource({"PostgreSQL, false", "H2, true"})
+    void testRefreshAndBackfill(final String databaseName, final boolean h2) {
+
+        var recipeSnapshotRepository = new RecipeSnapshotRepository(template, objectMapper);
+
+        givenDatabase(databaseName);
+        when(executeSpec.bind(anyString(), any())).thenReturn(executeSpec);
+        when(executeSpec.fetch()).thenReturn(updateFetchSpec);
+        when(updateFetchSpec.rowsUpdated()).thenReturn(Mono.just(2L), Mono.just(1L));
+
+        StepVerifier.create(recipeSnapshotRepository.refresh(List.of(RECIPE_ID, RECIPE_ID + 1)))
+            .expectNext(2L)
+            .verifyComplete();
+        StepVerifier.create(recipeSnapshotRepository.backfill(List.of(RECIPE_ID)))
+            .expectNext(1L)
+            .verifyComplete();
+
+        verify(databaseClient, times(1)).sql(eq(h2 ? RecipeSnapshotRepository.H2_REFRESH
+            : RecipeSnapshotRepository.POSTGRES_REFRESH));
+        verify(databaseClient, times(1)).sql(eq(h2 ? RecipeSnapshotRepository.H2_BACKFILL
+            : RecipeSnapshotRepository.POSTGRES_BACKFILL));
+        verify(executeSpec, times(1)).bind(eq(RecipeSnapshotRepository.RECIPE_IDS), eq(new Long[] {RECIPE_ID, RECIPE_ID + 1}));
+        verify(executeSpec, times(1)).bind(eq(RecipeSnapshotRepository.RECIPE_IDS), eq(new Long[] {RECIPE_ID}));
+    }
+
+    /**
+     * Test clear uses the same statement on every database and binds the recipe ids.
+     */
+    @Test
+    void testClear() {
+
+        var recipeSnapshotRepository = new RecipeSnapshotRepository(template, objectMapper);
+
+        givenDatabase("H2");
+        when(executeSpec.bind(anyString(), any())).thenReturn(executeSpec);
+        when(executeSpec.fetch()).thenReturn(updateFetchSpec);
+        when(updateFetchSpec.rowsUpdated()).thenReturn(Mono.just(1L));
+
+        StepVerifier.create(recipeSnapshotRepository.clear(List.of(RECIPE_ID)))
+            .expectNext(1L)
+            .verifyComplete();
+
+        verify(databaseClient, times(1)).sql(eq(RecipeSnapshotRepository.CLEAR));
+        verify(executeSpec, times(1)).bind(eq(RecipeSnapshotRepository.RECIPE_IDS), eq(new Long[] {RECIPE_ID}));
+    }
+
+    /**
+     * Test refresh does nothing without recipe ids.
+     */
+    @Test
+    void testRefreshWithoutRecipeIds() {
+
+        var recipeSnapshotRepository = new RecipeSnapshotRepository(template, objectMapper);
+
+        StepVerifier.create(recipeSnapshotRepository.refresh(List.of()))
+            .expectNext(0L)
+            .verifyComplete();
+
+        verifyNoInteractions(databaseClient);
+    }
+
+    /**
+     * Test findIdsWithoutSnapshot seeks past the recipe id with the limit.
+     */
+    @Test
+    void testFindIdsWithoutSnapshot() {
+
+        var recipeSnapshotRepository = new RecipeSnapshotRepository(template, objectMapper);
+
+        when(template.getDatabaseClient()).thenReturn(databaseClient);
+        when(databaseClient.sql(anyString())).thenReturn(executeSpec);
+        when(executeSpec.bind(anyString(), any())).thenReturn(executeSpec);
+        when(executeSpec.map(any(Function.class))).thenReturn(recipeIdsFetchSpec);
+        when(recipeIdsFetchSpec.all()).thenReturn(Flux.just(RECIPE_ID + 1, RECIPE_ID + 2));
+
+        StepVerifier.create(recipeSnapshotRepository.findIdsWithoutSnapshot(RECIPE_ID, PAGE_SIZE))
+            .expectNext(RECIPE_ID + 1, RECIPE_ID + 2)
+            .verifyComplete();
+
+        verify(databaseClient, times(1)).sql(eq(RecipeSnapshotRepository.WITHOUT_SNAPSHOT_QUERY));
+        verify(executeSpec, times(1)).bind(eq(RecipeSnapshotRepository.RECIPE_ID), eq(RECIPE_ID));
+        verify(executeSpec, times(1)).bind(eq(RecipeSnapshotRepository.LIMIT), eq(PAGE_SIZE));
+    }
+
+    private void givenDatabase(final String databaseName) {
+        when(template.getDatabaseClient()).thenReturn(databaseClient);
+        when(databaseClient.getConnectionFactory()).thenReturn(connectionFactory);
+        when(connectionFactory.getMetadata()).thenReturn(connectionFactoryMetadata);
+        when(connectionFactoryMetadata.getName()).thenReturn(databaseName);
+        when(databaseClient.sql(anyString())).thenReturn(executeSpec);
+    }
+}
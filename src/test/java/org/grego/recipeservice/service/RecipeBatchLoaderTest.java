@@ -0,0 +1,126 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice.service;
+
+import org.grego.recipeservice.model.Recipe;
+import org.instancio.Instancio;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test functionality of RecipeBatchLoader class.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Tag("UnitTests")
+public class RecipeBatchLoaderTest {
+    /**
+     * Most recipe ids loaded together.
+     */
+    private static final int MAXIMUM_BATCH_SIZE = 3;
+
+    /**
+     * Window long enough that batches are only loaded once they are full.
+     */
+    private static final Duration LONG_WINDOW = Duration.ofMinutes(1);
+
+    /**
+     * Window short enough that batches are loaded before they are full.
+     */
+    private static final Duration SHORT_WINDOW = Duration.ofMillis(1);
+
+    /**
+     * Test reads are loaded together once the batch is full, each read getting its own recipe, and a read without a
+     * recipe completing empty.
+     */
+    @Test
+    void testLoadFullBatch() {
+        var recipes = Instancio.ofList(Recipe.class).size(2).create();
+        var batches = new CopyOnWriteArrayList<List<Long>>();
+        var recipeBatchLoader = new RecipeBatchLoader(getLoader(recipes, batches), MAXIMUM_BATCH_SIZE, LONG_WINDOW);
+
+        try {
+            var response = Mono.zip(recipeBatchLoader.load(recipes.get(0).getRecipeId()),
+                    recipeBatchLoader.load(-1L).map(List::of).defaultIfEmpty(List.of()),
+                    recipeBatchLoader.load(recipes.get(1).getRecipeId()));
+
+            StepVerifier.create(response)
+                    .expectNextMatches(result -> result.getT1().equals(recipes.get(0)) && result.getT2().isEmpty()
+                            && result.getT3().equals(recipes.get(1)))
+                    .verifyComplete();
+        } finally {
+            recipeBatchLoader.dispose();
+        }
+
+        assertEquals(List.of(List.of(recipes.get(0).getRecipeId(), -1L, recipes.get(1).getRecipeId())), batches);
+    }
+
+    /**
+     * Test a batch that isn't full is loaded once the window passes.
+     */
+    @Test
+    void testLoadAfterWindow() {
+        var recipe = Instancio.create(Recipe.class);
+        var batches = new CopyOnWriteArrayList<List<Long>>();
+        var recipeBatchLoader = new RecipeBatchLoader(getLoader(List.of(recipe), batches), MAXIMUM_BATCH_SIZE,
+                SHORT_WINDOW);
+
+        try {
+            StepVerifier.create(recipeBatchLoader.load(recipe.getRecipeId()))
+                    .expectNext(recipe)
+                    .verifyComplete();
+        } finally {
+            recipeBatchLoader.dispose();
+        }
+
+        assertEquals(List.of(List.of(recipe.getRecipeId())), batches);
+    }
+
+    /**
+     * Test every read in a batch fails when the batch fails to load, and later batches still load.
+     */
+    @Test
+    void testLoadError() {
+        var recipe = Instancio.create(Recipe.class);
+        var recipeBatchLoader = new RecipeBatchLoader(recipeIds -> recipeIds.contains(-1L)
+                ? Mono.error(new IllegalStateException("Connection refused"))
+                : Mono.just(Map.of(recipe.getRecipeId(), recipe)), 1, LONG_WINDOW);
+
+        try {
+            StepVerifier.create(recipeBatchLoader.load(-1L))
+                    .verifyError(IllegalStateException.class);
+            StepVerifier.create(recipeBatchLoader.load(recipe.getRecipeId()))
+                    .expectNext(recipe)
+                    .verifyComplete();
+        } finally {
+            recipeBatchLoader.dispose();
+        }
+    }
+
+    private static Function<List<Long>, Mono<Map<Long, Recipe>>> getLoader(final List<Recipe> recipes,
+                                                                            final List<List<Long>> batches) {
+        var recipesById = recipes.stream().collect(Collectors.toMap(Recipe::getRecipeId, Function.identity()));
+
+        return recipeIds -> {
+            batches.add(recipeIds);
+            return Mono.just(recipeIds.stream()
+                    .filter(recipesById::containsKey)
+                    .collect(Collectors.toMap(Function.identity(), recipesById::get)));
+        };
+    }
+}
@@ -0,0 +1,254 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice.service;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.grego.recipeservice.model.Recipe;
+import org.instancio.Instancio;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.transaction.reactive.TransactionContextManager;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test functionality of RecipeCache class.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Tag("UnitTests")
+public class RecipeCacheTest {
+    /**
+     * Maximum number of recipes cached.
+     */
+    private static final long MAXIMUM_SIZE = 10;
+
+    /**
+     * How long recipes are cached.
+     */
+    private static final Duration TIME_TO_LIVE = Duration.ofMinutes(1);
+
+    /**
+     * Registry the metrics are recorded in.
+     */
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * Before running tests record the metrics.
+     */
+    @BeforeAll
+    void init() {
+        Metrics.addRegistry(meterRegistry);
+    }
+
+    /**
+     * After running tests stop recording the metrics.
+     */
+    @AfterAll
+    void close() {
+        Metrics.removeRegistry(meterRegistry);
+        meterRegistry.close();
+    }
+
+    /**
+     * Test get loads a recipe once and then returns it from the cache.
+     */
+    @Test
+    void testGetCachesRecipe() {
+        var recipeCache = new RecipeCache(MAXIMUM_SIZE, TIME_TO_LIVE);
+        var recipe = Instancio.create(Recipe.class);
+        var loads = new AtomicInteger();
+
+        for (int get = 0; get < 2; get++) {
+            StepVerifier.create(recipeCache.get(recipe.getRecipeId(), recipeId -> {
+                        loads.incrementAndGet();
+                        return Mono.just(recipe);
+                    }))
+                    .expectNext(recipe)
+                    .verifyComplete();
+        }
+
+        assertEquals(1, loads.get());
+        assertNotNull(Metrics.globalRegistry.find("cache.gets").tag("cache", RecipeCache.CACHE_NAME).functionCounter());
+    }
+
+    /**
+     * Test get doesn't cache a recipe that isn't found.
+     */
+    @Test
+    void testGetDoesNotCacheMissingRecipe() {
+        var recipeCache = new RecipeCache(MAXIMUM_SIZE, TIME_TO_LIVE);
+        var loads = new AtomicInteger();
+
+        for (int get = 0; get < 2; get++) {
+            StepVerifier.create(recipeCache.get(1L, recipeId -> {
+                        loads.incrementAndGet();
+                        return Mono.<Recipe>empty();
+                    }))
+                    .verifyComplete();
+        }
+
+        assertEquals(2, loads.get());
+    }
+
+    /**
+     * Test a disabled cache loads the recipe every time.
+     */
+    @Test
+    void testGetDisabled() {
+        var recipeCache = new RecipeCache(0, TIME_TO_LIVE);
+        var recipe = Instancio.create(Recipe.class);
+        var loads = new AtomicInteger();
+
+        for (int get = 0; get < 2; get++) {
+            StepVerifier.create(recipeCache.get(recipe.getRecipeId(), recipeId -> {
+                        loads.incrementAndGet();
+                        return Mono.just(recipe);
+                    }))
+                    .expectNext(recipe)
+                    .verifyComplete();
+        }
+
+        assertEquals(2, loads.get());
+    }
+
+    /**
+     * Test invalidateAfterCompletion removes the recipe straight away without a transaction.
+     */
+    @Test
+    void testInvalidateAfterCompletionWithoutTransaction() {
+        var recipeCache = new RecipeCache(MAXIMUM_SIZE, TIME_TO_LIVE);
+        var recipe = Instancio.create(Recipe.class);
+        var loads = new AtomicInteger();
+
+        getRecipe(recipeCache, recipe, loads);
+
+        StepVerifier.create(recipeCache.invalidateAfterCompletion(List.of(recipe.getRecipeId())))
+                .verifyComplete();
+
+        getRecipe(recipeCache, recipe, loads);
+        assertEquals(2, loads.get());
+    }
+
+    /**
+     * Test invalidateAfterCompletion keeps the recipe until the transaction completes.
+     */
+    @Test
+    void testInvalidateAfterCompletionWithTransaction() {
+        var recipeCache = new RecipeCache(MAXIMUM_SIZE, TIME_TO_LIVE);
+        var recipe = Instancio.create(Recipe.class);
+        var loads = new AtomicInteger();
+
+        getRecipe(recipeCache, recipe, loads);
+
+        var transaction = TransactionSynchronizationManager.forCurrentTransaction()
+                .doOnNext(TransactionSynchronizationManager::initSynchronization)
+                .flatMap(manager -> recipeCache.invalidateAfterCompletion(List.of(recipe.getRecipeId()))
+                        .then(Mono.fromRunnable(() -> getRecipe(recipeCache, recipe, loads)))
+                        .then(Flux.defer(() -> Flux.fromIterable(manager.getSynchronizations()))
+                                .concatMap(synchronization -> synchronization
+                                        .afterCompletion(TransactionSynchronization.STATUS_COMMITTED))
+                                .then()))
+                .contextWrite(TransactionContextManager.createTransactionContext())
+                .contextWrite(TransactionContextManager.getOrCreateContextHolder());
+
+        StepVerifier.create(transaction)
+                .verifyComplete();
+
+        assertEquals(1, loads.get());
+        getRecipe(recipeCache, recipe, loads);
+        assertEquals(2, loads.get());
+    }
+
+    /**
+     * Test concurrent reads of a recipe share one load, whether the cache is enabled or disabled, and are counted.
+     * @param maximumSize
+     */
+    @ParameterizedTest
+    @ValueSource(longs = {0, MAXIMUM_SIZE})
+    void testGetCoalescesConcurrentReads(final long maximumSize) {
+        var recipeCache = new RecipeCache(maximumSize, TIME_TO_LIVE);
+        var recipe = Instancio.create(Recipe.class);
+        var loads = new AtomicInteger();
+        var load = Sinks.<Recipe>one();
+        var coalesced = getCoalesced();
+        Function<Long, Mono<Recipe>> loader = recipeId -> {
+            loads.incrementAndGet();
+            return load.asMono();
+        };
+
+        var first = recipeCache.get(recipe.getRecipeId(), loader).toFuture();
+        var second = recipeCache.get(recipe.getRecipeId(), loader).toFuture();
+
+        load.tryEmitValue(recipe);
+
+        assertEquals(recipe, first.join());
+        assertEquals(recipe, second.join());
+        assertEquals(1, loads.get());
+        assertEquals(coalesced + 1, getCoalesced());
+    }
+
+    /**
+     * Test a read that is cancelled doesn't cancel the load shared with another read, and the load is cancelled once
+     * every read is.
+     */
+    @Test
+    void testGetCancelsSharedLoadWithLastRead() {
+        var recipeCache = new RecipeCache(0, TIME_TO_LIVE);
+        var recipe = Instancio.create(Recipe.class);
+        var load = Sinks.<Recipe>one();
+        var cancelled = new AtomicBoolean();
+        Function<Long, Mono<Recipe>> loader = recipeId -> load.asMono().doOnCancel(() -> cancelled.set(true));
+
+        var first = recipeCache.get(recipe.getRecipeId(), loader).subscribe();
+        var second = recipeCache.get(recipe.getRecipeId(), loader).toFuture();
+
+        first.dispose();
+        assertFalse(cancelled.get());
+
+        load.tryEmitValue(recipe);
+        assertEquals(recipe, second.join());
+
+        var otherLoad = Sinks.<Recipe>one();
+        var third = recipeCache.get(recipe.getRecipeId(), recipeId -> otherLoad.asMono()
+                .doOnCancel(() -> cancelled.set(true))).subscribe();
+
+        third.dispose();
+        assertTrue(cancelled.get());
+    }
+
+    private static double getCoalesced() {
+        return Metrics.globalRegistry.find(RecipeCache.COALESCED_METRIC_NAME).counter().count();
+    }
+
+    private static void getRecipe(final RecipeCache recipeCache, final Recipe recipe, final AtomicInteger loads) {
+        recipeCache.get(recipe.getRecipeId(), recipeId -> {
+            loads.incrementAndGet();
+            return Mono.just(recipe);
+        }).block();
+    }
+}
@@ -0,0 +1,224 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice.service;
+
+import io.r2dbc.postgresql.api.Notification;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.postgresql.api.PostgresqlResult;
+import io.r2dbc.postgresql.api.PostgresqlStatement;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.powermock.modules.junit4.PowerMockRunner;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test functionality of RecipeInvalidationBus class, using a mock PostgreSQL connection.
+ */
+@ExtendWith(MockitoExtension.class)
+@RunWith(PowerMockRunner.class)
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+@Tag("UnitTests")
+public class RecipeInvalidationBusTest {
+    /**
+     * Maximum number of recipes cached.
+     */
+    private static final long MAXIMUM_SIZE = 10;
+
+    /**
+     * How long to wait for the listener.
+     */
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    /**
+     * Database client to publish and listen with.
+     */
+    @Mock
+    private DatabaseClient client;
+
+    /**
+     * Connection factory of the database client.
+     */
+    @Mock
+    private ConnectionFactory connectionFactory;
+
+    /**
+     * Metadata of the connection factory.
+     */
+    @Mock
+    private ConnectionFactoryMetadata connectionFactoryMetadata;
+
+    /**
+     * Execute spec for the notifications.
+     */
+    @Mock
+    private DatabaseClient.GenericExecuteSpec notifyExecuteSpec;
+
+    /**
+     * Listener connection.
+     */
+    @Mock
+    private PostgresqlConnection connection;
+
+    /**
+     * Listen statement.
+     */
+    @Mock
+    private PostgresqlStatement listenStatement;
+
+    /**
+     * Result of the listen statement.
+     */
+    @Mock
+    private PostgresqlResult listenResult;
+
+    /**
+     * Test publish does nothing when notifications are disabled.
+     */
+    @Test
+    void testPublishDisabled() {
+        var recipeInvalidationBus = new RecipeInvalidationBus(client, null, false, Duration.ZERO, Duration.ZERO);
+
+        StepVerifier.create(recipeInvalidationBus.publish(List.of(1L)))
+                .verifyComplete();
+
+        verifyNoInteractions(client);
+    }
+
+    /**
+     * Test publish does nothing on a database other than PostgreSQL.
+     */
+    @Test
+    void testPublishNotPostgresql() {
+        when(client.getConnectionFactory()).thenReturn(connectionFactory);
+        when(connectionFactory.getMetadata()).thenReturn(connectionFactoryMetadata);
+        when(connectionFactoryMetadata.getName()).thenReturn("H2");
+
+        var recipeInvalidationBus = new RecipeInvalidationBus(client, null, true, Duration.ZERO, Duration.ZERO);
+
+        StepVerifier.create(recipeInvalidationBus.publish(List.of(1L)))
+                .verifyComplete();
+
+        verify(client, times(1)).getConnectionFactory();
+        verifyNoMoreInteractions(client);
+    }
+
+    /**
+     * Test publish notifies the recipe ids in one statement.
+     */
+    @Test
+    void testPublish() {
+        var recipeInvalidationBus = getRecipeInvalidationBus(new RecipeCache(MAXIMUM_SIZE, Duration.ofMinutes(1)));
+
+        when(client.sql(eq(RecipeInvalidationBus.NOTIFY_QUERY))).thenReturn(notifyExecuteSpec);
+        when(notifyExecuteSpec.bind(eq(RecipeInvalidationBus.RECIPE_IDS), any(Long[].class))).thenReturn(notifyExecuteSpec);
+        when(notifyExecuteSpec.then()).thenReturn(Mono.empty());
+
+        StepVerifier.create(recipeInvalidationBus.publish(List.of(1L, 2L)))
+                .verifyComplete();
+
+        verify(client, times(1)).sql(eq(RecipeInvalidationBus.NOTIFY_QUERY));
+        verify(notifyExecuteSpec, times(1)).bind(eq(RecipeInvalidationBus.RECIPE_IDS), eq(new Long[] {1L, 2L}));
+        verify(notifyExecuteSpec, times(1)).then();
+    }
+
+    /**
+     * Test listen emits the recipe ids notified, skipping payloads that aren't recipe ids, and clears the cache once
+     * listening starts and again when the connection is lost.
+     */
+    @Test
+    void testListen() {
+        var recipeCache = spy(new RecipeCache(MAXIMUM_SIZE, Duration.ofMinutes(1)));
+        var recipeInvalidationBus = getRecipeInvalidationBus(recipeCache);
+
+        when(connectionFactory.create()).thenAnswer(invocation -> Mono.just(connection));
+        givenListenerConnection(Flux.empty(), "1", "not a recipe id", "2");
+
+        StepVerifier.create(recipeInvalidationBus.listen())
+                .expectNext(1L, 2L)
+                .verifyError(IllegalStateException.class);
+
+        verify(connection, times(1)).createStatement(eq(RecipeInvalidationBus.LISTEN_STATEMENT));
+        verify(connection, times(1)).close();
+        verify(recipeCache, times(2)).invalidateAll();
+    }
+
+    /**
+     * Test start removes notified recipes from the cache and reconnects when the listener connection can't be made.
+     */
+    @Test
+    void testStartReconnects() {
+        var recipeCache = spy(new RecipeCache(MAXIMUM_SIZE, Duration.ofMinutes(1)));
+        var recipeInvalidationBus = getRecipeInvalidationBus(recipeCache);
+
+        givenListenerConnection(Flux.never(), "1");
+        when(connectionFactory.create())
+                .thenAnswer(invocation -> Mono.error(new IllegalStateException("Connection refused")))
+                .thenAnswer(invocation -> Mono.just(connection));
+
+        try {
+            recipeInvalidationBus.start();
+
+            verify(recipeCache, timeout(TIMEOUT_MILLIS).times(1)).invalidate(eq(List.of(1L)));
+            verify(recipeCache, timeout(TIMEOUT_MILLIS).times(2)).invalidateAll();
+            verify(listenStatement, times(1)).execute();
+            verify(connectionFactory, times(2)).create();
+        } finally {
+            recipeInvalidationBus.stop();
+        }
+    }
+
+    private RecipeInvalidationBus getRecipeInvalidationBus(final RecipeCache recipeCache) {
+        when(client.getConnectionFactory()).thenReturn(connectionFactory);
+        when(connectionFactory.getMetadata()).thenReturn(connectionFactoryMetadata);
+        when(connectionFactoryMetadata.getName()).thenReturn(RecipeInvalidationBus.POSTGRESQL);
+
+        return new RecipeInvalidationBus(client, recipeCache, true, Duration.ofMillis(1), Duration.ofMillis(1));
+    }
+
+    private void givenListenerConnection(final Flux<Notification> afterPayloads, final String... payloads) {
+        var notifications = new ArrayList<Notification>();
+
+        for (var payload : payloads) {
+            var notification = mock(Notification.class);
+
+            when(notification.getParameter()).thenReturn(payload);
+            notifications.add(notification);
+        }
+
+        when(connection.getNotifications()).thenAnswer(invocation -> Flux.fromIterable(notifications)
+                .concatWith(afterPayloads));
+        when(connection.createStatement(eq(RecipeInvalidationBus.LISTEN_STATEMENT))).thenReturn(listenStatement);
+        when(listenStatement.execute()).thenAnswer(invocation -> Flux.just(listenResult));
+        when(listenResult.getRowsUpdated()).thenReturn(Mono.just(0L));
+        when(connection.close()).thenAnswer(invocation -> Mono.empty());
+    }
+}
@@ -4,50 +4,74 @@ import co.elastic.clients.elasticsearch._types.ShardStatistics;
 import co.elastic.clients.elasticsearch.core.SearchRequest;
 import co.elastic.clients.elasticsearch.core.SearchResponse;
 import co.elastic.clients.elasticsearch.core.search.HitsMetadata;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.grego.recipeservice.document.RecipeDoc;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import org.grego.recipeservice.mapping.ArrayRow;
 import org.grego.recipeservice.mapping.RecipeMapper;
 import org.grego.recipeservice.model.Ingredient;
 import org.grego.recipeservice.model.Instruction;
 import org.grego.recipeservice.model.Recipe;
+import org.grego.recipeservice.model.RecipeCursor;
+import org.grego.recipeservice.model.RecipeDeleteProgress;
+import org.grego.recipeservice.model.RecipeImportResult;
+import org.grego.recipeservice.model.RecipeSortKey;
+import org.grego.recipeservice.model.RecipeVersion;
+import org.grego.recipeservice.model.RecipesByIds;
 import org.grego.recipeservice.repository.IngredientRepository;
 import org.grego.recipeservice.repository.InstructionRepository;
+import org.grego.recipeservice.repository.RecipeAggregateRepository;
 import org.grego.recipeservice.repository.RecipeRepository;
 import org.grego.recipeservice.repository.RecipeSearchRepository;
+import org.grego.recipeservice.repository.RecipeSnapshotRepository;
 import org.instancio.Instancio;
-import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.runner.RunWith;
 import org.mapstruct.factory.Mappers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.powermock.modules.junit4.PowerMockRunner;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.elasticsearch.client.elc.ReactiveElasticsearchClient;
 import org.springframework.data.elasticsearch.core.ReactiveElasticsearchOperations;
 import org.springframework.r2dbc.core.DatabaseClient;
-import org.springframework.r2dbc.core.FetchSpec;
+import org.springframework.r2dbc.core.RowsFetchSpec;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
@@ -74,45 +98,40 @@ public class RecipeServiceTest {
      */
     private static final int PAGE_SIZE_10 = 10;
 
+    /**
+     * Number of recipes on a page.
+     */
+    private static final int NUMBER_OF_RECIPES = 3;
+
     /**
      * Recipe id for a recipe that doesn't exist.
      */
     public static final long NON_EXISTENT_RECIPE_ID = 0;
 
     /**
-     * The value returned for update.
+     * The number of recipes update changes when the recipe's version matches.
      */
-    public static final long LONG_RETURN_VALUE = 0L;
+    public static final long UPDATED_COUNT = 1L;
 
     /**
-     * Search text to search Elasticsearch.
+     * The number of recipes update changes when the recipe's version has changed.
      */
-    public static final String SEARCH_TEXT = "search text";
+    public static final long NOT_UPDATED_COUNT = 0L;
 
     /**
-     * Elasticsearch took.
+     * Search text to search Elasticsearch.
      */
-    public static final int TOOK_ELASTICSEARCH = 3;
+    public static final String SEARCH_TEXT = "search text";
 
     /**
-     * Ingredient field name mapping.
+     * Message of an error saving to the database.
      */
-    private static final Map<String, String> INGREDIENT_FIELD_NAME_MAPPING = Map.of(
-            "ingredientId", Ingredient.INGREDIENT_ID_COLUMN_NAME,
-            "quantity", Ingredient.QUANTITY_COLUMN_NAME,
-            "ingredient", Ingredient.INGREDIENT_COLUMN_NAME,
-            "ingredientNumber", Ingredient.INGREDIENT_NUMBER_COLUMN_NAME,
-            "quantitySpecifier", Ingredient.QUANTITY_SPECIFIER_COLUMN_NAME
-    );
+    public static final String DATABASE_ERROR = "database error";
 
     /**
-     * Instruction field name mapping.
+     * Elasticsearch took.
      */
-    private static final Map<String, String> INSTRUCTION_FIELD_NAME_MAPPING = Map.of(
-            "instructionId", Instruction.INSTRUCTION_ID_COLUMN_NAME,
-            "instructionNumber", Instruction.INSTRUCTION_NUMBER_COLUMN_NAME,
-            "instruction", Instruction.INSTRUCTION_COLUMN_NAME
-    );
+    public static final int TOOK_ELASTICSEARCH = 3;
 
     /**
      * Instance of the RecipeService that is being tested.
@@ -158,6 +177,18 @@ public class RecipeServiceTest {
     @Mock
     private RecipeSearchRepository recipeSearchRepository;
 
+    /**
+     * Recipe aggregate repository to read a recipe with its ingredients and instructions in one statement.
+     */
+    @Mock
+    private RecipeAggregateRepository recipeAggregateRepository;
+
+    /**
+     * Recipe snapshot repository to keep and read each recipe's snapshot of its ingredients and instructions.
+     */
+    @Mock
+    private RecipeSnapshotRepository recipeSnapshotRepository;
+
     /**
      * Database client to perform operation in the database.
      */
@@ -180,13 +211,31 @@ public class RecipeServiceTest {
      * Fetch spec for ingredients.
      */
     @Mock
-    private FetchSpec<Map<String, Object>> ingredientsFetchSpec;
+    private RowsFetchSpec<Object> ingredientsFetchSpec;
+
+    /**
+     * Function mapping the ingredient rows.
+     */
+    @Captor
+    private ArgumentCaptor<BiFunction<Row, RowMetadata, Object>> ingredientsMappingFunction;
 
     /**
      * Fetch spec for instructions.
      */
     @Mock
-    private FetchSpec<Map<String, Object>> instructionsFetchSpec;
+    private RowsFetchSpec<Object> instructionsFetchSpec;
+
+    /**
+     * Function mapping the instruction rows.
+     */
+    @Captor
+    private ArgumentCaptor<BiFunction<Row, RowMetadata, Object>> instructionsMappingFunction;
+
+    /**
+     * Transactional operator for the batches of an import.
+     */
+    @Mock
+    private TransactionalOperator transactionalOperator;
 
     /**
      * Recipe mapper for creating RecipeDoc objects from Recipe objects.
@@ -194,6 +243,19 @@ public class RecipeServiceTest {
     @Spy
     private RecipeMapper recipeMapper = Mappers.getMapper(RecipeMapper.class);
 
+    /**
+     * Recipe cache, disabled so every read goes to the repositories.
+     */
+    @Spy
+    private RecipeCache recipeCache = new RecipeCache(0, Duration.ZERO);
+
+    /**
+     * Recipe invalidation bus, disabled so no notifications are published.
+     */
+    @Spy
+    private RecipeInvalidationBus recipeInvalidationBus = new RecipeInvalidationBus(null, null, false, Duration.ZERO,
+        Duration.ZERO);
+
     /**
      * To convert objects to JSON and JSON to maps.
      */
@@ -218,6 +280,86 @@ public class RecipeServiceTest {
             ingredientRepository, instructionRepository, recipeSearchRepository, client);
     }
 
+    /**
+     * Test getAllRecipes in the summary view reads only the recipes table.
+     */
+    @Test
+    void testGetAllRecipesSummary() {
+
+        var recipes = Instancio.ofList(Recipe.class).size(2).create().stream()
+            .map(RecipeServiceTest::getRecipeWithoutIngredientsOrInstructions)
+            .toList();
+
+        when(recipeRepository.findAll(anyLong(), anyInt())).thenReturn(Flux.fromIterable(recipes));
+
+        StepVerifier.create(recipeService.getAllRecipes(PAGE_NUMBER_1, PAGE_SIZE_10, RecipeView.SUMMARY))
+            .expectNextSequence(recipes)
+            .verifyComplete();
+
+        verify(recipeRepository, times(1)).findAll(eq((long) PAGE_NUMBER_1), eq(PAGE_SIZE_10));
+        verifyNoMoreInteractions(elasticsearchOperations, elasticsearchClient, recipeRepository,
+            ingredientRepository, instructionRepository, recipeSearchRepository, client);
+    }
+
+    /**
+     * Test getAllRecipes reads the recipes from their snapshots when the read mode is snapshot.
+     */
+    @Test
+    void testGetAllRecipesSnapshot() {
+
+        var recipes = Instancio.ofList(Recipe.class).size(2).create();
+
+        ReflectionTestUtils.setField(recipeService, "recipeReadMode", RecipeReadMode.SNAPSHOT);
+        when(recipeSnapshotRepository.findAll(anyLong(), anyInt())).thenReturn(Flux.fromIterable(recipes));
+
+        StepVerifier.create(recipeService.getAllRecipes(PAGE_NUMBER_1, PAGE_SIZE_10))
+            .expectNextSequence(recipes)
+            .verifyComplete();
+
+        verify(recipeSnapshotRepository, times(1)).findAll(eq((long) PAGE_NUMBER_1), eq(PAGE_SIZE_10));
+        verifyNoMoreInteractions(elasticsearchOperations, elasticsearchClient, recipeRepository,
+            ingredientRepository, instructionRepository, recipeSearchRepository, client, recipeSnapshotRepository);
+    }
+
+    /**
+     * Test getRecipesAfter in the summary view reads only the recipes table.
+     */
+    @Test
+    void testGetRecipesAfterSummary() {
+
+        var recipe = getRecipeWithoutIngredientsOrInstructions(Instancio.create(Recipe.class));
+
+        when(recipeRepository.findAllAfter(any(RecipeSortKey.class), any(), anyInt())).thenReturn(Flux.just(recipe));
+
+        StepVerifier.create(recipeService.getRecipesAfter(RecipeSortKey.NAME, null, PAGE_SIZE_10, RecipeView.SUMMARY))
+            .expectNext(recipe)
+            .verifyComplete();
+
+        verify(recipeRepository, times(1)).findAllAfter(eq(RecipeSortKey.NAME), isNull(), eq(PAGE_SIZE_10));
+        verifyNoMoreInteractions(elasticsearchOperations, elasticsearchClient, recipeRepository,
+            ingredientRepository, instructionRepository, recipeSearchRepository, client);
+    }
+
+    /**
+     * Test getRecipeById in the summary view reads only the recipes table, without the recipe cache.
+     */
+    @Test
+    void testGetRecipeByIdSummary() {
+
+        var recipe = getRecipeWithoutIngredientsOrInstructions(Instancio.create(Recipe.class));
+
+        when(recipeRepository.findById(anyLong())).thenReturn(Mono.just(recipe));
+
+        StepVerifier.create(recipeService.getRecipeById(recipe.getRecipeId(), RecipeView.SUMMARY))
+            .expectNext(recipe)
+            .verifyComplete();
+
+        verify(recipeRepository, times(1)).findById(eq(recipe.getRecipeId()));
+        verifyNoInteractions(recipeCache);
+        verifyNoMoreInteractions(elasticsearchOperations, elasticsearchClient, recipeRepository,
+            ingredientRepository, instructionRepository, recipeSearchRepository, client);
+    }
+
     /**
      * Test getAllRecipes with one recipe.
      */
@@ -227,18 +369,18 @@ public class RecipeServiceTest {
         var recipe = Instancio.create(Recipe.class);
 
         Flux<Recipe> recipeFlux = Flux.just(getRecipeWithoutIngredientsOrInstructions(recipe));
-        Flux<Map<String, Object>> ingredientsMapFlux = Flux.fromIterable(getIngredientMaps(recipe.getIngredients()));
-        Flux<Map<String, Object>> instructionsMapFlux = Flux.fromIterable(getInstructionMaps(recipe.getInstructions()));
+        var ingredientRows = getRecipeIngredientRows(recipe.getRecipeId(), recipe.getIngredients());
+        var instructionRows = getRecipeInstructionRows(recipe.getRecipeId(), recipe.getInstructions());
 
         when(recipeRepository.findAll(anyLong(), anyInt())).thenReturn(recipeFlux);
-        when(client.sql(eq(RecipeService.INGREDIENTS_MATCHING_QUERY))).thenReturn(ingredientsExecuteSpec);
-        when(ingredientsExecuteSpec.bind(anyString(), anyLong())).thenReturn(ingredientsExecuteSpec);
-        when(ingredientsExecuteSpec.fetch()).thenReturn(ingredientsFetchSpec);
-        when(ingredientsFetchSpec.all()).thenReturn(ingredientsMapFlux);
-        when(client.sql(eq(RecipeService.INSTRUCTIONS_MATCHING_QUERY))).thenReturn(instructionsExecuteSpec);
-        when(instructionsExecuteSpec.bind(anyString(), anyLong())).thenReturn(instructionsExecuteSpec);
-        when(instructionsExecuteSpec.fetch()).thenReturn(instructionsFetchSpec);
-        when(instructionsFetchSpec.all()).thenReturn(instructionsMapFlux);
+        when(client.sql(eq(RecipeService.INGREDIENTS_MATCHING_ANY_QUERY))).thenReturn(ingredientsExecuteSpec);
+        when(ingredientsExecuteSpec.bind(anyString(), any(Long[].class))).thenReturn(ingredientsExecuteSpec);
+        when(ingredientsExecuteSpec.map(ingredientsMappingFunction.capture())).thenReturn(ingredientsFetchSpec);
+        when(ingredientsFetchSpec.all()).thenAnswer(invocation -> mapRows(ingredientsMappingFunction, ingredientRows));
+        when(client.sql(eq(RecipeService.INSTRUCTIONS_MATCHING_ANY_QUERY))).thenReturn(instructionsExecuteSpec);
+        when(instructionsExecuteSpec.bind(anyString(), any(Long[].class))).thenReturn(instructionsExecuteSpec);
+        when(instructionsExecuteSpec.map(instructionsMappingFunction.capture())).thenReturn(instructionsFetchSpec);
+        when(instructionsFetchSpec.all()).thenAnswer(invocation -> mapRows(instructionsMappingFunction, instructionRows));
 
         var response = recipeService.getAllRecipes(PAGE_NUMBER_1, PAGE_SIZE_10);
 
@@ -249,19 +391,276 @@ public class RecipeServiceTest {
             .verifyComplete();
 
         verify(recipeRepository, times(1)).findAll(anyLong(), anyInt());
+        verify(client, times(1)).sql(eq(RecipeService.INGREDIENTS_MATCHING_ANY_QUERY));
+        verify(ingredientsExecuteSpec, times(1)).bind(anyString(), any(Long[].class));
+        verify(ingredientsExecuteSpec, times(1)).map(any(BiFunction.class));
+        verify(ingredientsFetchSpec, times(1)).all();
+        verify(client, times(1)).sql(eq(RecipeService.INSTRUCTIONS_MATCHING_ANY_QUERY));
+        verify(instructionsExecuteSpec, times(1)).bind(anyString(), any(Long[].class));
+        verify(instructionsExecuteSpec, times(1)).map(any(BiFunction.class));
+        verify(instructionsFetchSpec, times(1)).all();
+        verifyNoMoreInteractions(elasticsearchOperations, elasticsearchClient, recipeRepository,
+            ingredientRepository, instructionRepository, recipeSearchRepository, client);
+    }
+
+    /**
+     * Test getAllRecipes with more than one recipe loads the ingredients and instructions with one query each
+     * and keeps the order of the page.
+     */
+    @Test
+    void testGetAllRecipesMoreThanOneRecipe() {
+
+        var recipes = Instancio.ofList(Recipe.class).size(NUMBER_OF_RECIPES).create();
+        var recipeIds = new ArrayList<Long>();
+        for (var recipe : recipes) {
+            recipe.setRecipeId(recipeIds.size() + 1);
+            recipeIds.add(recipe.getRecipeId());
+        }
+        recipes.get(recipes.size() - 1).setIngredients(Collections.emptyList());
+
+        Flux<Recipe> recipeFlux = Flux.fromIterable(recipes.stream()
+            .map(RecipeServiceTest::getRecipeWithoutIngredientsOrInstructions)
+            .collect(Collectors.toList()));
+        var ingredientRows = recipes.stream()
+            .flatMap(recipe -> getRecipeIngredientRows(recipe.getRecipeId(), recipe.getIngredients()).stream())
+            .collect(Collectors.toList());
+        var instructionRows = recipes.stream()
+            .flatMap(recipe -> getRecipeInstructionRows(recipe.getRecipeId(), recipe.getInstructions()).stream())
+            .collect(Collectors.toList());
+
+        when(recipeRepository.findAll(anyLong(), anyInt())).thenReturn(recipeFlux);
+        when(client.sql(eq(RecipeService.INGREDIENTS_MATCHING_ANY_QUERY))).thenReturn(ingredientsExecuteSpec);
+        when(ingredientsExecuteSpec.bind(anyString(), any(Long[].class))).thenReturn(ingredientsExecuteSpec);
+        when(ingredientsExecuteSpec.map(ingredientsMappingFunction.capture())).thenReturn(ingredientsFetchSpec);
+        when(ingredientsFetchSpec.all()).thenAnswer(invocation -> mapRows(ingredientsMappingFunction, ingredientRows));
+        when(client.sql(eq(RecipeService.INSTRUCTIONS_MATCHING_ANY_QUERY))).thenReturn(instructionsExecuteSpec);
+        when(instructionsExecuteSpec.bind(anyString(), any(Long[].class))).thenReturn(instructionsExecuteSpec);
+        when(instructionsExecuteSpec.map(instructionsMappingFunction.capture())).thenReturn(instructionsFetchSpec);
+        when(instructionsFetchSpec.all()).thenAnswer(invocation -> mapRows(instructionsMappingFunction, instructionRows));
+
+        var response = recipeService.getAllRecipes(PAGE_NUMBER_1, PAGE_SIZE_10);
+
+        StepVerifier.create(response)
+            .expectNextSequence(recipes)
+            .verifyComplete();
+
         verify(recipeRepository, times(1)).findAll(anyLong(), anyInt());
-        verify(client, times(1)).sql(eq(RecipeService.INGREDIENTS_MATCHING_QUERY));
-        verify(ingredientsExecuteSpec, times(1)).bind(anyString(), anyLong());
-        verify(ingredientsExecuteSpec, times(1)).fetch();
+        verify(client, times(1)).sql(eq(RecipeService.INGREDIENTS_MATCHING_ANY_QUERY));
+        verify(ingredientsExecuteSpec, times(1)).bind(eq(RecipeService.RECIPE_IDS), eq(recipeIds.toArray(new Long[0])));
+        verify(ingredientsExecuteSpec, times(1)).map(any(BiFunction.class));
         verify(ingredientsFetchSpec, times(1)).all();
-        verify(client, times(1)).sql(eq(RecipeService.INSTRUCTIONS_MATCHING_QUERY));
-        verify(instructionsExecuteSpec, times(1)).bind(anyString(), anyLong());
-        verify(instructionsExecuteSpec, times(1)).fetch();
+        verify(client, times(1)).sql(eq(RecipeService.INSTRUCTIONS_MATCHING_ANY_QUERY));
+        verify(instructionsExecuteSpec, times(1)).bind(eq(RecipeService.RECIPE_IDS), eq(recipeIds.toArray(new Long[0])));
+        verify(instructionsExecuteSpec, times(1)).map(any(BiFunction.class));
         verify(instructionsFetchSpec, times(1)).all();
         verifyNoMoreInteractions(elasticsearchOperations, elasticsearchClient, recipeRepository,
             ingredientRepository, instructionRepository, recipeSearchRepository, client);
     }
 
+    /**
+     * Test getAllRecipeVersions and getRecipeVersionsAfter get the versions without loading the recipes.
+     */
+    @Test
+    void testGetRecipeVersions() {
+
+        var versions = Instancio.ofList(RecipeVersion.class).size(PAGE_SIZE_10).create();
+        var cursor = RecipeCursor.after(RecipeSortKey.NAME, Instancio.create(Recipe.class));
+
+        when(recipeRepository.findAllVersions(anyLong(), anyInt())).thenReturn(Flux.fromIterable(versions));
+        when(recipeRepository.findAllVersionsAfter(any(RecipeSortKey.class), any(RecipeCursor.class), anyInt()))
+            .thenReturn(Flux.fromIterable(versions));
+
+        StepVerifier.create(recipeService.getAllRecipeVersions(PAGE_NUMBER_1, PAGE_SIZE_10))
+            .expectNextSequence(versions)
+            .verifyComplete();
+        StepVerifier.create(recipeService.getRecipeVersionsAfter(RecipeSortKey.NAME, cursor, PAGE_SIZE_10))
+            .expectNextSequence(versions)
+            .verifyComplete();
+
+        verify(recipeRepository, times(1)).findAllVersions(eq((long) PAGE_NUMBER_1), eq(PAGE_SIZE_10));
+        verify(recipeRepository, times(1)).findAllVersionsAfter(eq(RecipeSortKey.NAME), eq(cursor), eq(PAGE_SIZE_10));
+        verifyNoMoreInteractions(elasticsearchOperations, elasticsearchClient, recipeRepository,
+            ingredientRepository, instructionRepository, recipeSearchRepository, client);
+    }
+
+    /**
+     * Test getRecipeVersionById gets the version without loading the recipe.
+     */
+    @Test
+    void testGetRecipeVersionById() {
+
+        var version = Instancio.create(RecipeVersion.class);
+
+        when(recipeRepository.findVersionById(anyLong())).thenReturn(Mono.just(version));
+
+        StepVerifier.create(recipeService.getRecipeVersionById(version.getRecipeId()))
+            .expectNext(version)
+            .verifyComplete();
+
+        verify(recipeRepository, times(1)).findVersionById(eq(version.getRecipeId()));
+        verifyNoMoreInteractions(elasticsearchOperations, elasticsearchClient, recipeRepository,
+            ingredientRepository, instructionRepository, recipeSearchRepository, client);
+    }
+
+    /**
+     * Test getRecipesAfter loads the page after the cursor with its ingredients and instructions.
+     */
+    @Test
+    void testGetRecipesAfter() {
+
+        var recipe = Instancio.create(Recipe.class);
+        var cursor = RecipeCursor.after(RecipeSortKey.NAME, Instancio.create(Recipe.class));
+
+        Flux<Recipe> recipeFlux = Flux.just(getRecipeWithoutIngredientsOrInstructions(recipe));
+        var ingredientRows = getRecipeIngredientRows(recipe.getRecipeId(), recipe.getIngredients());
+        var instructionRows = getRecipeInstructionRows(recipe.getRecipeId(), recipe.getInstructions());
+
+        when(recipeRepository.findAllAfter(any(RecipeSortKey.class), any(RecipeCursor.class), anyInt()))
+            .thenReturn(recipeFlux);
+        when(client.sql(eq(RecipeService.INGREDIENTS_MATCHING_ANY_QUERY))).thenReturn(ingredientsExecuteSpec);
+        when(ingredientsExecuteSpec.bind(anyString(), any(Long[].class))).thenReturn(ingredientsExecuteSpec);
+        when(ingredientsExecuteSpec.map(ingredientsMappingFunction.capture())).thenReturn(ingredientsFetchSpec);
+        when(ingredientsFetchSpec.all()).thenAnswer(invocation -> mapRows(ingredientsMappingFunction, ingredientRows));
+        when(client.sql(eq(RecipeService.INSTRUCTIONS_MATCHING_ANY_QUERY))).thenReturn(instructionsExecuteSpec);
+        when(instructionsExecuteSpec.bind(anyString(), any(Long[].class))).thenReturn(instructionsExecuteSpec);
+        when(instructionsExecuteSpec.map(instructionsMappingFunction.capture())).thenReturn(instructionsFetchSpec);
+        when(instructionsFetchSpec.all()).thenAnswer(invocation -> mapRows(instructionsMappingFunction, instructionRows));
+
+        var response = recipeService.getRecipesAfter(RecipeSortKey.NAME, cursor, PAGE_SIZE_10);
+
+        StepVerifier.create(response)
+            .expectNextMatches(result -> result.equals(recipe))
+            .verifyComplete();
+
+        verify(recipeRepository, times(1)).findAllAfter(eq(RecipeSortKey.NAME), eq(cursor), eq(PAGE_SIZE_10));
+        verify(client, times(1)).sql(eq(RecipeService.INGREDIENTS_MATCHING_ANY_QUERY));
+        verify(ingredientsExecuteSpec, times(1)).bind(anyString(), any(Long[].class));
+        verify(ingredientsExecuteSpec, times(1)).map(any(BiFunction.class));
+        verify(ingredientsFetchSpec, times(1)).all();
+        verify(client, times(1)).sql(eq(RecipeService.INSTRUCTIONS_MATCHING_ANY_QUERY));
+        verify(instructionsExecuteSpec, times(1)).bind(anyString(), any(Long[].class));
+        verify(instructionsExecuteSpec, times(1)).map(any(BiFunction.class));
+        verify(instructionsFetchSpec, times(1)).all();
+        verifyNoMoreInteractions(elasticsearchOperations, elasticsearchClient, recipeRepository,
+            ingredientRepository, instructionRepository, recipeSearchRepository, client);
+    }
+
+    /**
+     * Test streamAllRecipes loads the ingredients and instructions a chunk at a time and keeps the order of the page.
+     */
+    @Test
+    void testStreamAllRecipes() {
+
+        var recipes = Instancio.ofList(Recipe.class).size(NUMBER_OF_RECIPES).create();
+        for (var recipe : recipes) {
+            recipe.setRecipeId(recipes.indexOf(recipe) + 1);
+        }
+
+        Flux<Recipe> recipeFlux = Flux.fromIterable(recipes.stream()
+            .map(RecipeServiceTest::getRecipeWithoutIngredientsOrInstructions)
+            .collect(Collectors.toList()));
+        var ingredientRows = recipes.stream()
+            .flatMap(recipe -> getRecipeIngredientRows(recipe.getRecipeId(), recipe.getIngredients()).stream())
+            .collect(Collectors.toList());
+        var instructionRows = recipes.stream()
+            .flatMap(recipe -> getRecipeInstructionRows(recipe.getRecipeId(), recipe.getInstructions()).stream())
+            .collect(Collectors.toList());
+
+        ReflectionTestUtils.setField(recipeService, "streamChunkSize", NUMBER_OF_RECIPES - 1);
+        when(recipeRepository.findAll(anyLong(), anyInt())).thenReturn(recipeFlux);
+        when(client.sql(eq(RecipeService.INGREDIENTS_MATCHING_ANY_QUERY))).thenReturn(ingredientsExecuteSpec);
+        when(ingredientsExecuteSpec.bind(anyString(), any(Long[].class))).thenReturn(ingredientsExecuteSpec);
+        when(ingredientsExecuteSpec.map(ingredientsMappingFunction.capture())).thenReturn(ingredientsFetchSpec);
+        when(ingredientsFetchSpec.all()).thenAnswer(invocation -> mapRows(ingredientsMappingFunction, ingredientRows));
+        when(client.sql(eq(RecipeService.INSTRUCTIONS_MATCHING_ANY_QUERY))).thenReturn(instructionsExecuteSpec);
+        when(instructionsExecuteSpec.bind(anyString(), any(Long[].class))).thenReturn(instructionsExecuteSpec);
+        when(instructionsExecuteSpec.map(instructionsMappingFunction.capture())).thenReturn(instructionsFetchSpec);
+        when(instructionsFetchSpec.all()).thenAnswer(invocation -> mapRows(instructionsMappingFunction, instructionRows));
+
+        var response = recipeService.streamAllRecipes(PAGE_NUMBER_1, PAGE_SIZE_10);
+
+        StepVerifier.create(response)
+            .expectNextSequence(recipes)
+            .verifyComplete();
+
+        verify(recipeRepository, times(1)).findAll(eq((long) PAGE_NUMBER_1), eq(PAGE_SIZE_10));
+        verify(client, times(2)).sql(eq(RecipeService.INGREDIENTS_MATCHING_ANY_QUERY));
+        verify(ingredientsExecuteSpec, times(1)).bind(eq(RecipeService.RECIPE_IDS), eq(new Long[] {1L, 2L}));
+        verify(ingredientsExecuteSpec, times(1)).bind(eq(RecipeService.RECIPE_IDS), eq(new Long[] {(long) NUMBER_OF_RECIPES}));
+        verify(ingredientsExecuteSpec, times(2)).map(any(BiFunction.class));
+        verify(ingredientsFetchSpec, times(2)).all();
+        verify(client, times(2)).sql(eq(RecipeService.INSTRUCTIONS_MATCHING_ANY_QUERY));
+        verify(instructionsExecuteSpec, times(2)).bind(eq(RecipeService.RECIPE_IDS), any(Long[].class));
+        verify(instructionsExecuteSpec, times(2)).map(any(BiFunction.class));
+        verify(instructionsFetchSpec, times(2)).all();
+        verifyNoMoreInteractions(elasticsearchOperations, elasticsearchClient, recipeRepository,
+            ingredientRepository, instructionRepository, recipeSearchRepository, client);
+    }
+
+    /**
+     * Test streamAllRecipes in the summary view reads only the recipes table.
+     */
+    @Test
+    void testStreamAllRecipesSummary() {
+
+        var recipes = Instancio.ofList(Recipe.class).size(NUMBER_OF_RECIPES).create();
+
+        when(recipeRepository.findAll(anyLong(), anyInt())).thenReturn(Flux.fromIterable(recipes));
+
+        var response = recipeService.streamAllRecipes(PAGE_NUMBER_1, PAGE_SIZE_10, RecipeView.SUMMARY);
+
+        StepVerifier.create(response)
+            .expectNextSequence(recipes)
+            .verifyComplete();
+
+        verify(recipeRepository, times(1)).findAll(eq((long) PAGE_NUMBER_1), eq(PAGE_SIZE_10));
+        verifyNoMoreInteractions(elasticsearchOperations, elasticsearchClient, recipeRepository,
+            ingredientRepository, instructionRepository, recipeSearchRepository, client);
+    }
+
+    /**
+     * Test streamRecipesAfter in the summary view reads only the recipes table.
+     */
+    @Test
+    void testStreamRecipesAfterSummary() {
+
+        var recipes = Instancio.ofList(Recipe.class).size(NUMBER_OF_RECIPES).create();
+        var cursor = RecipeCursor.after(RecipeSortKey.RECIPE_ID, Instancio.create(Recipe.class));
+
+        when(recipeRepository.findAllAfter(any(RecipeSortKey.class), any(RecipeCursor.class), anyInt()))
+            .thenReturn(Flux.fromIterable(recipes));
+
+        var response = recipeService.streamRecipesAfter(RecipeSortKey.RECIPE_ID, cursor, PAGE_SIZE_10, RecipeView.SUMMARY);
+
+        StepVerifier.create(response)
+            .expectNextSequence(recipes)
+            .verifyComplete();
+
+        verify(recipeRepository, times(1)).findAllAfter(eq(RecipeSortKey.RECIPE_ID), eq(cursor), eq(PAGE_SIZE_10));
+        verifyNoMoreInteractions(elasticsearchOperations, elasticsearchClient, recipeRepository,
+            ingredientRepository, instructionRepository, recipeSearchRepository, client);
+    }
+
+    /**
+     * Test streamRecipesAfter with no recipes after the cursor.
+     */
+    @Test
+    void testStreamRecipesAfterEmpty() {
+
+        var cursor = RecipeCursor.after(RecipeSortKey.RECIPE_ID, Instancio.create(Recipe.class));
+
+        when(recipeRepository.findAllAfter(any(RecipeSortKey.class), any(RecipeCursor.class), anyInt()))
+            .thenReturn(Flux.empty());
+
+        var response = recipeService.streamRecipesAfter(RecipeSortKey.RECIPE_ID, cursor, PAGE_SIZE_10);
+
+        StepVerifier.create(response).verifyComplete();
+
+        verify(recipeRepository, times(1)).findAllAfter(eq(RecipeSortKey.RECIPE_ID), eq(cursor), eq(PAGE_SIZE_10));
+        verifyNoMoreInteractions(elasticsearchOperations, elasticsearchClient, recipeRepository,
+            ingredientRepository, instructionRepository, recipeSearchRepository, client);
+    }
+
     /**
      * Test getRecipeCount.
      */
@@ -281,6 +680,32 @@ public class RecipeServiceTest {
             ingredientRepository, instructionRepository, recipeSearchRepository, client);
     }
 
+    /**
+     * Test getRecipeCount with each count mode.
+     * @param countMode
+     */
+    @ParameterizedTest
+    @EnumSource(RecipeCountMode.class)
+    void testGetRecipeCountWithCountMode(final RecipeCountMode countMode) {
+
+        if (countMode == RecipeCountMode.EXACT) {
+            when(recipeRepository.countAll()).thenReturn(Mono.just(COUNT_ZERO));
+        } else {
+            when(recipeRepository.estimateCount()).thenReturn(Mono.just(COUNT_ZERO));
+        }
+
+        var response = recipeService.getRecipeCount(countMode);
+
+        StepVerifier.create(response)
+            .expectNextMatches(result -> result == COUNT_ZERO)
+            .verifyComplete();
+
+        verify(recipeRepository, times(countMode == RecipeCountMode.EXACT ? 1 : 0)).countAll();
+        verify(recipeRepository, times(countMode == RecipeCountMode.ESTIMATED ? 1 : 0)).estimateCount();
+        verifyNoMoreInteractions(elasticsearchOperations, elasticsearchClient, recipeRepository,
+            ingredientRepository, instructionRepository, recipeSearchRepository, client);
+    }
+
     /**
      * Test getRecipeById where recipe does not exist.
      */
@@ -288,18 +713,18 @@ public class RecipeServiceTest {
     void testGetRecipesByIdDoesNotExist() {
 
         Mono<Recipe> recipeMono = Mono.empty();
-        Flux<Map<String, Object>> ingredientsMapFlux = Flux.empty();
-        Flux<Map<String, Object>> instructionsMapFlux = Flux.empty();
+        List<Row> ingredientRows = Collections.emptyList();
+        List<Row> instructionRows = Collections.emptyList();
 
         when(recipeRepository.findById(anyLong())).thenReturn(recipeMono);
         when(client.sql(eq(RecipeService.INGREDIENTS_MATCHING_QUERY))).thenReturn(ingredientsExecuteSpec);
         when(ingredientsExecuteSpec.bind(anyString(), anyLong())).thenReturn(ingredientsExecuteSpec);
-        when(ingredientsExecuteSpec.fetch()).thenReturn(ingredientsFetchSpec);
-        when(ingredientsFetchSpec.all()).thenReturn(ingredientsMapFlux);
+        when(ingredientsExecuteSpec.map(ingredientsMappingFunction.capture())).thenReturn(ingredientsFetchSpec);
+        when(ingredientsFetchSpec.all()).thenAnswer(invocation -> mapRows(ingredientsMappingFunction, ingredientRows));
         when(client.sql(eq(RecipeService.INSTRUCTIONS_MATCHING_QUERY))).thenReturn(instructionsExecuteSpec);
         when(instructionsExecuteSpec.bind(anyString(), anyLong())).thenReturn(instructionsExecuteSpec);
-        when(instructionsExecuteSpec.fetch()).thenReturn(instructionsFetchSpec);
-        when(instructionsFetchSpec.all()).thenReturn(instructionsMapFlux);
+        when(instructionsExecuteSpec.map(instructionsMappingFunction.capture())).thenReturn(instructionsFetchSpec);
+        when(instructionsFetchSpec.all()).thenAnswer(invocation -> mapRows(instructionsMappingFunction, instructionRows));
 
         var response = recipeService.getRecipeById(NON_EXISTENT_RECIPE_ID);
 
@@ -308,11 +733,11 @@ public class RecipeServiceTest {
         verify(recipeRepository, times(1)).findById(anyLong());
         verify(client, times(1)).sql(eq(RecipeService.INGREDIENTS_MATCHING_QUERY));
         verify(ingredientsExecuteSpec, times(1)).bind(anyString(), anyLong());
-        verify(ingredientsExecuteSpec, times(1)).fetch();
+        verify(ingredientsExecuteSpec, times(1)).map(any(BiFunction.class));
         verify(ingredientsFetchSpec, times(1)).all();
         verify(client, times(1)).sql(eq(RecipeService.INSTRUCTIONS_MATCHING_QUERY));
         verify(instructionsExecuteSpec, times(1)).bind(anyString(), anyLong());
-        verify(instructionsExecuteSpec, times(1)).fetch();
+        verify(instructionsExecuteSpec, times(1)).map(any(BiFunction.class));
         verify(instructionsFetchSpec, times(1)).all();
         verifyNoMoreInteractions(elasticsearchOperations, elasticsearchClient, recipeRepository,
             ingredientRepository, instructionRepository, recipeSearchRepository, client);
@@ -327,18 +752,18 @@ public class RecipeServiceTest {
         var recipe = Instancio.create(Recipe.class);
 
         Mono<Recipe> recipeMono = Mono.just(getRecipeWithoutIngredientsOrInstructions(recipe));
-        Flux<Map<String, Object>> ingredientsMapFlux = Flux.fromIterable(getIngredientMaps(recipe.getIngredients()));
-        Flux<Map<String, Object>> instructionsMapFlux = Flux.fromIterable(getInstructionMaps(recipe.getInstructions()));
+        var ingredientRows = getIngredientRows(recipe.getIngredients());
+        var instructionRows = getInstructionRows(recipe.getInstructions());
 
         when(recipeRepository.findById(anyLong())).thenReturn(recipeMono);
         when(client.sql(eq(RecipeService.INGREDIENTS_MATCHING_QUERY))).thenReturn(ingredientsExecuteSpec);
         when(ingredientsExecuteSpec.bind(anyString(), anyLong())).thenReturn(ingredientsExecuteSpec);
-        when(ingredientsExecuteSpec.fetch()).thenReturn(ingredientsFetchSpec);
-        when(ingredientsFetchSpec.all()).thenReturn(ingredientsMapFlux);
+        when(ingredientsExecuteSpec.map(ingredientsMappingFunction.capture())).thenReturn(ingredientsFetchSpec);
+        when(ingredientsFetchSpec.all()).thenAnswer(invocation -> mapRows(ingredientsMappingFunction, ingredientRows));
         when(client.sql(eq(RecipeService.INSTRUCTIONS_MATCHING_QUERY))).thenReturn(instructionsExecuteSpec);
         when(instructionsExecuteSpec.bind(anyString(), anyLong())).thenReturn(instructionsExecuteSpec);
-        when(instructionsExecuteSpec.fetch()).thenReturn(instructionsFetchSpec);
-        when(instructionsFetchSpec.all()).thenReturn(instructionsMapFlux);
+        when(instructionsExecuteSpec.map(instructionsMappingFunction.capture())).thenReturn(instructionsFetchSpec);
+        when(instructionsFetchSpec.all()).thenAnswer(invocation -> mapRows(instructionsMappingFunction, instructionRows));
 
         var response = recipeService.getRecipeById(NON_EXISTENT_RECIPE_ID);
 
@@ -351,40 +776,212 @@ public class RecipeServiceTest {
         verify(recipeRepository, times(1)).findById(anyLong());
         verify(client, times(1)).sql(eq(RecipeService.INGREDIENTS_MATCHING_QUERY));
         verify(ingredientsExecuteSpec, times(1)).bind(anyString(), anyLong());
-        verify(ingredientsExecuteSpec, times(1)).fetch();
+        verify(ingredientsExecuteSpec, times(1)).map(any(BiFunction.class));
         verify(ingredientsFetchSpec, times(1)).all();
         verify(client, times(1)).sql(eq(RecipeService.INSTRUCTIONS_MATCHING_QUERY));
         verify(instructionsExecuteSpec, times(1)).bind(anyString(), anyLong());
-        verify(instructionsExecuteSpec, times(1)).fetch();
+        verify(instructionsExecuteSpec, times(1)).map(any(BiFunction.class));
         verify(instructionsFetchSpec, times(1)).all();
         verifyNoMoreInteractions(elasticsearchOperations, elasticsearchClient, recipeRepository,
             ingredientRepository, instructionRepository, recipeSearchRepository, client);
     }
 
     /**
-     * Test addRecipe.
+     * Test getRecipeById reads the recipe with one statement when the read mode is aggregate.
      */
     @Test
-    void testAddRecipe() {
+    void testGetRecipesByIdAggregate() {
 
         var recipe = Instancio.create(Recipe.class);
 
-        Flux<Recipe> existingRecipesFlux = Flux.empty();
+        ReflectionTestUtils.setField(recipeService, "recipeReadMode", RecipeReadMode.AGGREGATE);
+        when(recipeAggregateRepository.findById(anyLong())).thenReturn(Mono.just(recipe));
+
+        var response = recipeService.getRecipeById(recipe.getRecipeId());
+
+        StepVerifier.create(response)
+            .expectNextMatches(result -> result.equals(recipe))
+            .verifyComplete();
+
+        verify(recipeAggregateRepository, times(1)).findById(eq(recipe.getRecipeId()));
+        verifyNoMoreInteractions(elasticsearchOperations, elasticsearchClient, recipeRepository,
+            ingredientRepository, instructionRepository, recipeSearchRepository, client, recipeAggregateRepository);
+    }
+
+    /**
+     * Test getRecipeById reads the recipe from its snapshot when the read mode is snapshot.
+     */
+    @Test
+    void testGetRecipesByIdSnapshot() {
+
+        var recipe = Instancio.create(Recipe.class);
+
+        ReflectionTestUtils.setField(recipeService, "recipeReadMode", RecipeReadMode.SNAPSHOT);
+        when(recipeSnapshotRepository.findById(anyLong())).thenReturn(Mono.just(recipe));
+
+        var response = recipeService.getRecipeById(recipe.getRecipeId());
+
+        StepVerifier.create(response)
+            .expectNextMatches(result -> result.equals(recipe))
+            .verifyComplete();
+
+        verify(recipeSnapshotRepository, times(1)).findById(eq(recipe.getRecipeId()));
+        verifyNoMoreInteractions(elasticsearchOperations, elasticsearchClient, recipeRepository,
+            ingredientRepository, instructionRepository, recipeSearchRepository, client, recipeSnapshotRepository);
+    }
+
+    /**
+     * Test getRecipeById loads recipes read at the same time together, with one query for each table.
+     */
+    @Test
+    void testGetRecipesByIdBatched() {
+
+        var recipes = Instancio.ofList(Recipe.class).size(2).create();
+        var recipeIds = recipes.stream().map(Recipe::getRecipeId).toList();
+        var ingredientRows = new ArrayList<Row>();
+        var instructionRows = new ArrayList<Row>();
+
+        recipes.forEach(recipe -> {
+            ingredientRows.addAll(getRecipeIngredientRows(recipe.getRecipeId(), recipe.getIngredients()));
+            instructionRows.addAll(getRecipeInstructionRows(recipe.getRecipeId(), recipe.getInstructions()));
+        });
+
+        ReflectionTestUtils.setField(recipeService, "recipeBatchSize", recipes.size());
+        ReflectionTestUtils.setField(recipeService, "recipeBatchWindow", Duration.ofMinutes(1));
+        when(recipeRepository.findAllById(anyList())).thenReturn(Flux.fromIterable(recipes)
+            .map(RecipeServiceTest::getRecipeWithoutIngredientsOrInstructions));
+        when(client.sql(eq(RecipeService.INGREDIENTS_MATCHING_ANY_QUERY))).thenReturn(ingredientsExecuteSpec);
+        when(ingredientsExecuteSpec.bind(anyString(), any(Long[].class))).thenReturn(ingredientsExecuteSpec);
+        when(ingredientsExecuteSpec.map(ingredientsMappingFunction.capture())).thenReturn(ingredientsFetchSpec);
+        when(ingredientsFetchSpec.all()).thenAnswer(invocation -> mapRows(ingredientsMappingFunction, ingredientRows));
+        when(client.sql(eq(RecipeService.INSTRUCTIONS_MATCHING_ANY_QUERY))).thenReturn(instructionsExecuteSpec);
+        when(instructionsExecuteSpec.bind(anyString(), any(Long[].class))).thenReturn(instructionsExecuteSpec);
+        when(instructionsExecuteSpec.map(instructionsMappingFunction.capture())).thenReturn(instructionsFetchSpec);
+        when(instructionsFetchSpec.all()).thenAnswer(invocation -> mapRows(instructionsMappingFunction, instructionRows));
+
+        recipeService.startRecipeBatchLoader();
+
+        try {
+            var response = Mono.zip(recipeService.getRecipeById(recipeIds.get(0)),
+                recipeService.getRecipeById(recipeIds.get(1)));
+
+            StepVerifier.create(response)
+                .expectNextMatches(result -> result.getT1().equals(recipes.get(0)) && result.getT2().equals(recipes.get(1)))
+                .verifyComplete();
+        } finally {
+            recipeService.stopRecipeBatchLoader();
+        }
+
+        verify(recipeRepository, times(1)).findAllById(eq(recipeIds));
+        verify(client, times(1)).sql(eq(RecipeService.INGREDIENTS_MATCHING_ANY_QUERY));
+        verify(ingredientsExecuteSpec, times(1)).bind(eq(RecipeService.RECIPE_IDS), eq(recipeIds.toArray(new Long[0])));
+        verify(ingredientsExecuteSpec, times(1)).map(any(BiFunction.class));
+        verify(ingredientsFetchSpec, times(1)).all();
+        verify(client, times(1)).sql(eq(RecipeService.INSTRUCTIONS_MATCHING_ANY_QUERY));
+        verify(instructionsExecuteSpec, times(1)).bind(eq(RecipeService.RECIPE_IDS), eq(recipeIds.toArray(new Long[0])));
+        verify(instructionsExecuteSpec, times(1)).map(any(BiFunction.class));
+        verify(instructionsFetchSpec, times(1)).all();
+        verifyNoMoreInteractions(elasticsearchOperations, elasticsearchClient, recipeRepository,
+            ingredientRepository, instructionRepository, recipeSearchRepository, client);
+    }
+
+    /**
+     * Test getRecipesByIds loads the recipes with one query for each table and returns them in the order of their
+     * ids, each once, with the ids that have no recipe.
+     */
+    @Test
+    void testGetRecipesByIds() {
+
+        var recipes = Instancio.ofList(Recipe.class).size(2).create();
+        var foundRecipeIds = recipes.stream().map(Recipe::getRecipeId).toList();
+        var recipeIds = List.of(foundRecipeIds.get(1), -1L, foundRecipeIds.get(0), foundRecipeIds.get(1));
+        var ingredientRows = new ArrayList<Row>();
+        var instructionRows = new ArrayList<Row>();
+
+        recipes.forEach(recipe -> {
+            ingredientRows.addAll(getRecipeIngredientRows(recipe.getRecipeId(), recipe.getIngredients()));
+            instructionRows.addAll(getRecipeInstructionRows(recipe.getRecipeId(), recipe.getInstructions()));
+        });
+
+        when(recipeRepository.findAllById(anyList())).thenReturn(Flux.fromIterable(recipes)
+            .map(RecipeServiceTest::getRecipeWithoutIngredientsOrInstructions));
+        when(client.sql(eq(RecipeService.INGREDIENTS_MATCHING_ANY_QUERY))).thenReturn(ingredientsExecuteSpec);
+        when(ingredientsExecuteSpec.bind(anyString(), any(Long[].class))).thenReturn(ingredientsExecuteSpec);
+        when(ingredientsExecuteSpec.map(ingredientsMappingFunction.capture())).thenReturn(ingredientsFetchSpec);
+        when(ingredientsFetchSpec.all()).thenAnswer(invocation -> mapRows(ingredientsMappingFunction, ingredientRows));
+        when(client.sql(eq(RecipeService.INSTRUCTIONS_MATCHING_ANY_QUERY))).thenReturn(instructionsExecuteSpec);
+        when(instructionsExecuteSpec.bind(anyString(), any(Long[].class))).thenReturn(instructionsExecuteSpec);
+        when(instructionsExecuteSpec.map(instructionsMappingFunction.capture())).thenReturn(instructionsFetchSpec);
+        when(instructionsFetchSpec.all()).thenAnswer(invocation -> mapRows(instructionsMappingFunction, instructionRows));
+
+        StepVerifier.create(recipeService.getRecipesByIds(recipeIds))
+            .expectNext(new RecipesByIds(List.of(recipes.get(1), recipes.get(0)), List.of(-1L)))
+            .verifyComplete();
+
+        verify(recipeRepository, times(1)).findAllById(eq(List.of(foundRecipeIds.get(1), -1L, foundRecipeIds.get(0))));
+        verify(client, times(1)).sql(eq(RecipeService.INGREDIENTS_MATCHING_ANY_QUERY));
+        verify(ingredientsExecuteSpec, times(1)).bind(eq(RecipeService.RECIPE_IDS), eq(foundRecipeIds.toArray(new Long[0])));
+        verify(ingredientsExecuteSpec, times(1)).map(any(BiFunction.class));
+        verify(ingredientsFetchSpec, times(1)).all();
+        verify(client, times(1)).sql(eq(RecipeService.INSTRUCTIONS_MATCHING_ANY_QUERY));
+        verify(instructionsExecuteSpec, times(1)).bind(eq(RecipeService.RECIPE_IDS), eq(foundRecipeIds.toArray(new Long[0])));
+        verify(instructionsExecuteSpec, times(1)).map(any(BiFunction.class));
+        verify(instructionsFetchSpec, times(1)).all();
+        verifyNoMoreInteractions(elasticsearchOperations, elasticsearchClient, recipeRepository,
+            ingredientRepository, instructionRepository, recipeSearchRepository, client);
+    }
+
+    /**
+     * Test getRecipeById reads the recipe once and then returns it from the recipe cache.
+     */
+    @Test
+    void testGetRecipesByIdCached() {
+
+        var recipe = Instancio.create(Recipe.class);
+
+        ReflectionTestUtils.setField(recipeService, "recipeReadMode", RecipeReadMode.AGGREGATE);
+        ReflectionTestUtils.setField(recipeService, "recipeCache", new RecipeCache(PAGE_SIZE_10, Duration.ofMinutes(1)));
+        when(recipeAggregateRepository.findById(anyLong())).thenReturn(Mono.just(recipe));
+
+        StepVerifier.create(recipeService.getRecipeById(recipe.getRecipeId()))
+            .expectNext(recipe)
+            .verifyComplete();
+        StepVerifier.create(recipeService.getRecipeById(recipe.getRecipeId()))
+            .expectNext(recipe)
+            .verifyComplete();
+
+        verify(recipeAggregateRepository, times(1)).findById(eq(recipe.getRecipeId()));
+        verifyNoMoreInteractions(elasticsearchOperations, elasticsearchClient, recipeRepository,
+            ingredientRepository, instructionRepository, recipeSearchRepository, client, recipeAggregateRepository);
+    }
+
+    /**
+     * Test addRecipe, which rebuilds the recipe's snapshot when the snapshots are kept and removes it otherwise.
+     * @param readMode
+     * @param snapshotEnabled
+     * @param expectedRefreshes
+     */
+    @ParameterizedTest
+    @CsvSource({"MULTI_QUERY, true, 1", "SNAPSHOT, false, 1", "MULTI_QUERY, false, 0"})
+    void testAddRecipe(final RecipeReadMode readMode, final boolean snapshotEnabled, final int expectedRefreshes) {
+
+        ReflectionTestUtils.setField(recipeService, "recipeReadMode", readMode);
+        ReflectionTestUtils.setField(recipeService, "recipeSnapshotEnabled", snapshotEnabled);
+        var recipe = Instancio.create(Recipe.class);
+
         Flux<Ingredient> ingredientsFlux = Flux.fromIterable(recipe.getIngredients());
         Flux<Instruction> instructionsFlux = Flux.fromIterable(recipe.getInstructions());
 
-        when(recipeRepository.findAllByName(anyString())).thenReturn(existingRecipesFlux);
+        when(recipeRepository.allocateVariations(any())).thenReturn(Mono.just(Map.of(recipe.getName(), 2)));
         when(recipeRepository.save(any(Recipe.class))).thenReturn(Mono.just(recipe));
-        when(ingredientRepository.saveAll(any(List.class))).thenReturn(ingredientsFlux);
-        when(instructionRepository.saveAll(any(List.class))).thenReturn(instructionsFlux);
-        when(client.sql(anyString()))
-            .thenReturn(instructionsExecuteSpec)
-            .thenReturn(ingredientsExecuteSpec);
-        when(instructionsExecuteSpec.fetch()).thenReturn(instructionsFetchSpec);
-        when(ingredientsExecuteSpec.fetch()).thenReturn(ingredientsFetchSpec);
-        when(instructionsFetchSpec.all()).thenReturn(Flux.empty());
-        when(ingredientsFetchSpec.all()).thenReturn(Flux.empty());
+        when(ingredientRepository.saveAll(anyLong(), any(List.class))).thenReturn(ingredientsFlux);
+        when(instructionRepository.saveAll(anyLong(), any(List.class))).thenReturn(instructionsFlux);
         when(recipeSearchRepository.save(any(RecipeDoc.class))).thenReturn(Mono.empty());
+        if (expectedRefreshes > 0) {
+            when(recipeSnapshotRepository.refresh(anyCollection())).thenReturn(Mono.just(1L));
+        } else {
+            when(recipeSnapshotRepository.clear(anyCollection())).thenReturn(Mono.just(0L));
+        }
 
         var response = recipeService.addRecipe(recipe);
 
@@ -394,18 +991,118 @@ public class RecipeServiceTest {
             })
             .verifyComplete();
 
-        verify(recipeRepository, times(1)).findAllByName(anyString());
+        assertEquals(2, recipe.getVariation());
+        verify(recipeRepository, times(1)).allocateVariations(eq(Map.of(recipe.getName(), 1)));
         verify(recipeRepository, times(1)).save(any(Recipe.class));
-        verify(ingredientRepository, times(1)).saveAll(any(List.class));
-        verify(instructionRepository, times(1)).saveAll(any(List.class));
-        verify(client, times(2)).sql(anyString());
-        verify(instructionsExecuteSpec, times(1)).fetch();
-        verify(ingredientsExecuteSpec, times(1)).fetch();
-        verify(instructionsFetchSpec, times(1)).all();
-        verify(ingredientsFetchSpec, times(1)).all();
+        verify(ingredientRepository, times(1)).saveAll(eq(recipe.getRecipeId()), eq(recipe.getIngredients()));
+        verify(instructionRepository, times(1)).saveAll(eq(recipe.getRecipeId()), eq(recipe.getInstructions()));
         verify(recipeSearchRepository, times(1)).save(any(RecipeDoc.class));
+        verify(recipeSnapshotRepository, times(expectedRefreshes)).refresh(eq(List.of(recipe.getRecipeId())));
+        verify(recipeSnapshotRepository, times(1 - expectedRefreshes)).clear(eq(List.of(recipe.getRecipeId())));
         verifyNoMoreInteractions(elasticsearchOperations, elasticsearchClient, recipeRepository,
-            ingredientRepository, instructionRepository, recipeSearchRepository, client);
+            ingredientRepository, instructionRepository, recipeSearchRepository, recipeSnapshotRepository, client);
+    }
+
+    /**
+     * Test exportRecipes streams the recipes after the recipe id from a cursor with the export fetch size.
+     */
+    @Test
+    void testExportRecipes() {
+
+        ReflectionTestUtils.setField(recipeService, "exportFetchSize", PAGE_SIZE_10);
+        var recipes = Instancio.ofList(Recipe.class).size(NUMBER_OF_RECIPES).create();
+
+        when(recipeAggregateRepository.findAllAfter(NON_EXISTENT_RECIPE_ID, PAGE_SIZE_10))
+            .thenReturn(Flux.fromIterable(recipes));
+
+        var response = recipeService.exportRecipes(NON_EXISTENT_RECIPE_ID);
+
+        StepVerifier.create(response)
+            .expectNextSequence(recipes)
+            .verifyComplete();
+
+        verify(recipeAggregateRepository, times(1)).findAllAfter(eq(NON_EXISTENT_RECIPE_ID), eq(PAGE_SIZE_10));
+        verifyNoMoreInteractions(elasticsearchOperations, elasticsearchClient, recipeRepository,
+            ingredientRepository, instructionRepository, recipeSearchRepository, recipeAggregateRepository, client);
+    }
+
+    /**
+     * Test importRecipes saves and indexes each batch, giving recipes the next variation for their name and
+     * reporting recipes that fail validation.
+     */
+    @Test
+    void testImportRecipes() {
+
+        ReflectionTestUtils.setField(recipeService, "importBatchSize", 2);
+        var recipes = Instancio.ofList(Recipe.class).size(NUMBER_OF_RECIPES).create();
+        recipes.get(1).setName(recipes.get(0).getName());
+        var invalidRecipe = Instancio.create(Recipe.class);
+        invalidRecipe.setName(" ");
+
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(recipeRepository.allocateVariations(any()))
+            .thenReturn(Mono.just(Map.of(recipes.get(0).getName(), NUMBER_OF_RECIPES + 2)),
+                Mono.just(Map.of(recipes.get(2).getName(), 1)));
+        when(recipeRepository.saveAll(any(List.class)))
+            .thenAnswer(invocation -> Flux.fromIterable(invocation.<List<Recipe>>getArgument(0)));
+        when(ingredientRepository.saveAllOf(any(List.class)))
+            .thenAnswer(invocation -> Flux.fromIterable(invocation.<List<Recipe>>getArgument(0))
+                .flatMapIterable(Recipe::getIngredients));
+        when(instructionRepository.saveAllOf(any(List.class)))
+            .thenAnswer(invocation -> Flux.fromIterable(invocation.<List<Recipe>>getArgument(0))
+                .flatMapIterable(Recipe::getInstructions));
+        when(recipeSearchRepository.saveAll(any(List.class))).thenReturn(Flux.empty());
+        ReflectionTestUtils.setField(recipeService, "recipeSnapshotEnabled", true);
+        when(recipeSnapshotRepository.refresh(anyCollection())).thenReturn(Mono.just(1L));
+
+        var response = recipeService.importRecipes(
+            Flux.just(recipes.get(0), recipes.get(1), invalidRecipe, recipes.get(2)));
+
+        StepVerifier.create(response)
+            .expectNext(RecipeImportResult.imported(0, recipes.get(0).getRecipeId()))
+            .expectNext(RecipeImportResult.imported(1, recipes.get(1).getRecipeId()))
+            .expectNext(RecipeImportResult.failed(2, "Name is required"))
+            .expectNext(RecipeImportResult.imported(NUMBER_OF_RECIPES, recipes.get(2).getRecipeId()))
+            .verifyComplete();
+
+        assertEquals(NUMBER_OF_RECIPES + 1, recipes.get(0).getVariation());
+        assertEquals(NUMBER_OF_RECIPES + 2, recipes.get(1).getVariation());
+        assertEquals(1, recipes.get(2).getVariation());
+        verify(transactionalOperator, times(2)).transactional(any(Mono.class));
+        verify(recipeRepository, times(1)).allocateVariations(eq(Map.of(recipes.get(0).getName(), 2)));
+        verify(recipeRepository, times(1)).allocateVariations(eq(Map.of(recipes.get(2).getName(), 1)));
+        verify(recipeRepository, times(2)).saveAll(any(List.class));
+        verify(ingredientRepository, times(2)).saveAllOf(any(List.class));
+        verify(instructionRepository, times(2)).saveAllOf(any(List.class));
+        verify(recipeSearchRepository, times(2)).saveAll(any(List.class));
+        verify(recipeSnapshotRepository, times(1)).refresh(eq(List.of(recipes.get(0).getRecipeId(),
+            recipes.get(1).getRecipeId())));
+        verify(recipeSnapshotRepository, times(1)).refresh(eq(List.of(recipes.get(2).getRecipeId())));
+        verifyNoMoreInteractions(elasticsearchOperations, elasticsearchClient, recipeRepository,
+            ingredientRepository, instructionRepository, recipeSearchRepository, recipeSnapshotRepository, client);
+    }
+
+    /**
+     * Test importRecipes reports every recipe of a batch that fails to save, without indexing it.
+     */
+    @Test
+    void testImportRecipesSaveFails() {
+
+        var recipes = Instancio.ofList(Recipe.class).size(2).create();
+
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(recipeRepository.allocateVariations(any())).thenReturn(Mono.error(new IllegalStateException(DATABASE_ERROR)));
+
+        var response = recipeService.importRecipes(Flux.fromIterable(recipes));
+
+        StepVerifier.create(response)
+            .expectNext(RecipeImportResult.failed(0, DATABASE_ERROR))
+            .expectNext(RecipeImportResult.failed(1, DATABASE_ERROR))
+            .verifyComplete();
+
+        verify(recipeRepository, times(1)).allocateVariations(any());
+        verifyNoMoreInteractions(elasticsearchOperations, elasticsearchClient, recipeRepository,
+            ingredientRepository, instructionRepository, recipeSearchRepository, recipeSnapshotRepository, client);
     }
 
     /**
@@ -434,15 +1131,19 @@ public class RecipeServiceTest {
             .thenReturn(ingredientsExecuteSpec)
             .thenReturn(instructionsExecuteSpec);
         when(ingredientsExecuteSpec.bind(anyString(), anyLong())).thenReturn(ingredientsExecuteSpec);
-        when(ingredientsExecuteSpec.fetch()).thenReturn(ingredientsFetchSpec);
-        when(ingredientsFetchSpec.all()).thenReturn(Flux.fromIterable(getIngredientMaps(existingRecipe.getIngredients())));
+        when(ingredientsExecuteSpec.map(ingredientsMappingFunction.capture())).thenReturn(ingredientsFetchSpec);
+        when(ingredientsFetchSpec.all())
+            .thenAnswer(invocation -> mapRows(ingredientsMappingFunction, getIngredientRows(existingRecipe.getIngredients())));
         when(instructionsExecuteSpec.bind(anyString(), anyLong())).thenReturn(instructionsExecuteSpec);
-        when(instructionsExecuteSpec.fetch()).thenReturn(instructionsFetchSpec);
-        when(instructionsFetchSpec.all()).thenReturn(Flux.fromIterable(getInstructionMaps(existingRecipe.getInstructions())));
-        when(recipeRepository.update(any(Recipe.class))).thenReturn(Mono.just(LONG_RETURN_VALUE));
+        when(instructionsExecuteSpec.map(instructionsMappingFunction.capture())).thenReturn(instructionsFetchSpec);
+        when(instructionsFetchSpec.all())
+            .thenAnswer(invocation -> mapRows(instructionsMappingFunction, getInstructionRows(existingRecipe.getInstructions())));
+        when(recipeRepository.update(any(Recipe.class))).thenReturn(Mono.just(UPDATED_COUNT));
         when(ingredientRepository.updateAll(any(List.class))).thenReturn(Flux.fromIterable(updatedRecipe.getIngredients()));
         when(instructionRepository.updateAll(any(List.class))).thenReturn(Flux.fromIterable(updatedRecipe.getInstructions()));
         when(recipeSearchRepository.save(any(RecipeDoc.class))).thenReturn(Mono.empty());
+        ReflectionTestUtils.setField(recipeService, "recipeSnapshotEnabled", true);
+        when(recipeSnapshotRepository.refresh(anyCollection())).thenReturn(Mono.just(1L));
 
         var response = recipeService.updateRecipe(updatedRecipe);
 
@@ -455,16 +1156,65 @@ public class RecipeServiceTest {
         verify(recipeRepository, times(1)).findById(anyLong());
         verify(client, times(2)).sql(anyString());
         verify(ingredientsExecuteSpec, times(1)).bind(anyString(), anyLong());
-        verify(ingredientsExecuteSpec, times(1)).fetch();
+        verify(ingredientsExecuteSpec, times(1)).map(any(BiFunction.class));
         verify(ingredientsFetchSpec, times(1)).all();
         verify(instructionsExecuteSpec, times(1)).bind(anyString(), anyLong());
-        verify(instructionsExecuteSpec, times(1)).fetch();
+        verify(instructionsExecuteSpec, times(1)).map(any(BiFunction.class));
         verify(instructionsFetchSpec, times(1)).all();
         verify(recipeRepository, times(1)).update(any(Recipe.class));
         verify(ingredientRepository, times(1)).updateAll(any(List.class));
         verify(instructionRepository, times(1)).updateAll(any(List.class));
         verify(recipeSearchRepository, times(1)).save(any(RecipeDoc.class));
         verify(recipeSearchRepository, times(1)).save(any(RecipeDoc.class));
+        verify(recipeCache, times(1)).invalidateAfterCompletion(eq(List.of(updatedRecipe.getRecipeId())));
+        verify(recipeInvalidationBus, times(1)).publish(eq(List.of(updatedRecipe.getRecipeId())));
+        verify(recipeSnapshotRepository, times(1)).refresh(eq(List.of(updatedRecipe.getRecipeId())));
+        verifyNoMoreInteractions(elasticsearchOperations, elasticsearchClient, recipeRepository,
+            ingredientRepository, instructionRepository, recipeSearchRepository, recipeSnapshotRepository, client);
+    }
+
+    /**
+     * Test updateRecipe when the recipe has changed since it was read.
+     */
+    @Test
+    void testUpdateRecipeVersionConflict() {
+        var existingRecipe = Instancio.create(Recipe.class);
+        var updatedRecipe = getRecipeWithoutIngredientsOrInstructions(existingRecipe);
+
+        updatedRecipe.setVersion(existingRecipe.getVersion() - 1);
+
+        when(recipeRepository.update(any(Recipe.class))).thenReturn(Mono.just(NOT_UPDATED_COUNT));
+        when(recipeRepository.findById(anyLong())).thenReturn(Mono.just(existingRecipe));
+
+        var response = recipeService.updateRecipe(updatedRecipe);
+
+        StepVerifier.create(response)
+            .expectError(OptimisticLockingFailureException.class)
+            .verify();
+
+        verify(recipeRepository, times(1)).update(any(Recipe.class));
+        verify(recipeRepository, times(1)).findById(anyLong());
+        verifyNoMoreInteractions(elasticsearchOperations, elasticsearchClient, recipeRepository,
+            ingredientRepository, instructionRepository, recipeSearchRepository, client);
+    }
+
+    /**
+     * Test updateRecipe when the recipe does not exist.
+     */
+    @Test
+    void testUpdateRecipeNotFound() {
+        var recipe = Instancio.create(Recipe.class);
+
+        when(recipeRepository.update(any(Recipe.class))).thenReturn(Mono.just(NOT_UPDATED_COUNT));
+        when(recipeRepository.findById(anyLong())).thenReturn(Mono.empty());
+
+        var response = recipeService.updateRecipe(recipe);
+
+        StepVerifier.create(response)
+            .verifyComplete();
+
+        verify(recipeRepository, times(1)).update(any(Recipe.class));
+        verify(recipeRepository, times(1)).findById(anyLong());
         verifyNoMoreInteractions(elasticsearchOperations, elasticsearchClient, recipeRepository,
             ingredientRepository, instructionRepository, recipeSearchRepository, client);
     }
@@ -481,19 +1231,22 @@ public class RecipeServiceTest {
         Mono<Recipe> existingRecipeMono = Mono.just(existingRecipe);
 
         when(recipeRepository.findById(anyLong())).thenReturn(existingRecipeMono);
-        when(client.sql(anyString()))
-            .thenReturn(ingredientsExecuteSpec)
-            .thenReturn(instructionsExecuteSpec);
+        when(client.sql(eq(RecipeService.INGREDIENTS_MATCHING_QUERY))).thenReturn(ingredientsExecuteSpec);
+        when(client.sql(eq(RecipeService.INSTRUCTIONS_MATCHING_QUERY))).thenReturn(instructionsExecuteSpec);
         when(ingredientsExecuteSpec.bind(anyString(), anyLong())).thenReturn(ingredientsExecuteSpec);
-        when(ingredientsExecuteSpec.fetch()).thenReturn(ingredientsFetchSpec);
+        when(ingredientsExecuteSpec.map(ingredientsMappingFunction.capture())).thenReturn(ingredientsFetchSpec);
         when(ingredientsFetchSpec.all()).thenReturn(Flux.empty());
         when(instructionsExecuteSpec.bind(anyString(), anyLong())).thenReturn(instructionsExecuteSpec);
-        when(instructionsExecuteSpec.fetch()).thenReturn(instructionsFetchSpec);
+        when(instructionsExecuteSpec.map(instructionsMappingFunction.capture())).thenReturn(instructionsFetchSpec);
         when(instructionsFetchSpec.all()).thenReturn(Flux.empty());
-        when(recipeRepository.update(any(Recipe.class))).thenReturn(Mono.just(LONG_RETURN_VALUE));
-        when(ingredientRepository.saveAll(any(List.class))).thenReturn(Flux.fromIterable(updatedRecipe.getIngredients()));
-        when(instructionRepository.saveAll(any(List.class))).thenReturn(Flux.fromIterable(updatedRecipe.getInstructions()));
+        when(recipeRepository.update(any(Recipe.class))).thenReturn(Mono.just(UPDATED_COUNT));
+        when(ingredientRepository.saveAll(anyLong(), any(List.class)))
+            .thenReturn(Flux.fromIterable(updatedRecipe.getIngredients()));
+        when(instructionRepository.saveAll(anyLong(), any(List.class)))
+            .thenReturn(Flux.fromIterable(updatedRecipe.getInstructions()));
         when(recipeSearchRepository.save(any(RecipeDoc.class))).thenReturn(Mono.empty());
+        ReflectionTestUtils.setField(recipeService, "recipeSnapshotEnabled", true);
+        when(recipeSnapshotRepository.refresh(anyCollection())).thenReturn(Mono.just(1L));
 
         var response = recipeService.updateRecipe(updatedRecipe);
 
@@ -504,19 +1257,21 @@ public class RecipeServiceTest {
             .verifyComplete();
 
         verify(recipeRepository, times(1)).findById(anyLong());
-        verify(client, atLeastOnce()).sql(anyString());
+        verify(client, times(1)).sql(eq(RecipeService.INGREDIENTS_MATCHING_QUERY));
+        verify(client, times(1)).sql(eq(RecipeService.INSTRUCTIONS_MATCHING_QUERY));
         verify(ingredientsExecuteSpec, times(1)).bind(anyString(), anyLong());
-        verify(ingredientsExecuteSpec, atLeastOnce()).fetch();
-        verify(ingredientsFetchSpec, atLeastOnce()).all();
+        verify(ingredientsExecuteSpec, times(1)).map(any(BiFunction.class));
+        verify(ingredientsFetchSpec, times(1)).all();
         verify(instructionsExecuteSpec, times(1)).bind(anyString(), anyLong());
-        verify(instructionsExecuteSpec, atLeastOnce()).fetch();
-        verify(instructionsFetchSpec, atLeastOnce()).all();
+        verify(instructionsExecuteSpec, times(1)).map(any(BiFunction.class));
+        verify(instructionsFetchSpec, times(1)).all();
         verify(recipeRepository, times(1)).update(any(Recipe.class));
-        verify(ingredientRepository, times(1)).saveAll(any(List.class));
-        verify(instructionRepository, times(1)).saveAll(any(List.class));
+        verify(ingredientRepository, times(1)).saveAll(eq(updatedRecipe.getRecipeId()), any(List.class));
+        verify(instructionRepository, times(1)).saveAll(eq(updatedRecipe.getRecipeId()), any(List.class));
         verify(recipeSearchRepository, times(1)).save(any(RecipeDoc.class));
+        verify(recipeSnapshotRepository, times(1)).refresh(eq(List.of(updatedRecipe.getRecipeId())));
         verifyNoMoreInteractions(elasticsearchOperations, elasticsearchClient, recipeRepository,
-            ingredientRepository, instructionRepository, recipeSearchRepository, client);
+            ingredientRepository, instructionRepository, recipeSearchRepository, recipeSnapshotRepository, client);
     }
 
     /**
@@ -531,19 +1286,22 @@ public class RecipeServiceTest {
         Mono<Recipe> existingRecipeMono = Mono.just(existingRecipe);
 
         when(recipeRepository.findById(anyLong())).thenReturn(existingRecipeMono);
-        when(client.sql(anyString()))
-            .thenReturn(ingredientsExecuteSpec)
-            .thenReturn(instructionsExecuteSpec);
+        when(client.sql(eq(RecipeService.INGREDIENTS_MATCHING_QUERY))).thenReturn(ingredientsExecuteSpec);
+        when(client.sql(eq(RecipeService.INSTRUCTIONS_MATCHING_QUERY))).thenReturn(instructionsExecuteSpec);
         when(ingredientsExecuteSpec.bind(anyString(), anyLong())).thenReturn(ingredientsExecuteSpec);
-        when(ingredientsExecuteSpec.fetch()).thenReturn(ingredientsFetchSpec);
-        when(ingredientsFetchSpec.all()).thenReturn(Flux.fromIterable(getIngredientMaps(existingRecipe.getIngredients())));
+        when(ingredientsExecuteSpec.map(ingredientsMappingFunction.capture())).thenReturn(ingredientsFetchSpec);
+        when(ingredientsFetchSpec.all())
+            .thenAnswer(invocation -> mapRows(ingredientsMappingFunction, getIngredientRows(existingRecipe.getIngredients())));
         when(instructionsExecuteSpec.bind(anyString(), anyLong())).thenReturn(instructionsExecuteSpec);
-        when(instructionsExecuteSpec.fetch()).thenReturn(instructionsFetchSpec);
-        when(instructionsFetchSpec.all()).thenReturn(Flux.fromIterable(getInstructionMaps(existingRecipe.getInstructions())));
-        when(recipeRepository.update(any(Recipe.class))).thenReturn(Mono.just(LONG_RETURN_VALUE));
+        when(instructionsExecuteSpec.map(instructionsMappingFunction.capture())).thenReturn(instructionsFetchSpec);
+        when(instructionsFetchSpec.all())
+            .thenAnswer(invocation -> mapRows(instructionsMappingFunction, getInstructionRows(existingRecipe.getInstructions())));
+        when(recipeRepository.update(any(Recipe.class))).thenReturn(Mono.just(UPDATED_COUNT));
         when(ingredientRepository.deleteAllByIds(any(List.class))).thenReturn(Flux.empty());
         when(instructionRepository.deleteAllByIds(any(List.class))).thenReturn(Flux.empty());
         when(recipeSearchRepository.save(any(RecipeDoc.class))).thenReturn(Mono.empty());
+        ReflectionTestUtils.setField(recipeService, "recipeSnapshotEnabled", true);
+        when(recipeSnapshotRepository.refresh(anyCollection())).thenReturn(Mono.just(1L));
 
         var response = recipeService.updateRecipe(updatedRecipe);
 
@@ -554,19 +1312,21 @@ public class RecipeServiceTest {
             .verifyComplete();
 
         verify(recipeRepository, times(1)).findById(anyLong());
-        verify(client, atLeastOnce()).sql(anyString());
+        verify(client, times(1)).sql(eq(RecipeService.INGREDIENTS_MATCHING_QUERY));
+        verify(client, times(1)).sql(eq(RecipeService.INSTRUCTIONS_MATCHING_QUERY));
         verify(ingredientsExecuteSpec, times(1)).bind(anyString(), anyLong());
-        verify(ingredientsExecuteSpec, times(1)).fetch();
+        verify(ingredientsExecuteSpec, times(1)).map(any(BiFunction.class));
         verify(ingredientsFetchSpec, times(1)).all();
         verify(instructionsExecuteSpec, times(1)).bind(anyString(), anyLong());
-        verify(instructionsExecuteSpec, atLeastOnce()).fetch();
-        verify(instructionsFetchSpec, atLeastOnce()).all();
+        verify(instructionsExecuteSpec, times(1)).map(any(BiFunction.class));
+        verify(instructionsFetchSpec, times(1)).all();
         verify(recipeRepository, times(1)).update(any(Recipe.class));
         verify(ingredientRepository, times(1)).deleteAllByIds(any(List.class));
         verify(instructionRepository, times(1)).deleteAllByIds(any(List.class));
         verify(recipeSearchRepository, times(1)).save(any(RecipeDoc.class));
+        verify(recipeSnapshotRepository, times(1)).refresh(eq(List.of(updatedRecipe.getRecipeId())));
         verifyNoMoreInteractions(elasticsearchOperations, elasticsearchClient, recipeRepository,
-            ingredientRepository, instructionRepository, recipeSearchRepository, client);
+            ingredientRepository, instructionRepository, recipeSearchRepository, recipeSnapshotRepository, client);
     }
 
     /**
@@ -575,36 +1335,14 @@ public class RecipeServiceTest {
     @Test
     void testDeleteRecipeByIdDoesNotExist() {
 
-        when(client.sql(anyString()))
-            .thenReturn(ingredientsExecuteSpec)
-            .thenReturn(instructionsExecuteSpec);
-        when(ingredientsExecuteSpec.bind(anyString(), anyLong())).thenReturn(ingredientsExecuteSpec);
-        when(ingredientsExecuteSpec.fetch()).thenReturn(ingredientsFetchSpec);
-        when(ingredientsFetchSpec.all()).thenReturn(Flux.empty());
-        when(instructionsExecuteSpec.bind(anyString(), anyLong())).thenReturn(instructionsExecuteSpec);
-        when(instructionsExecuteSpec.fetch()).thenReturn(instructionsFetchSpec);
-        when(instructionsFetchSpec.all()).thenReturn(Flux.empty());
-        when(recipeRepository.deleteById(anyLong())).thenReturn(Mono.just(LONG_RETURN_VALUE));
-        when(ingredientRepository.deleteAllByIds(any(List.class))).thenReturn(Flux.empty());
-        when(instructionRepository.deleteAllByIds(any(List.class))).thenReturn(Flux.empty());
-        when(recipeSearchRepository.deleteById(anyLong())).thenReturn(Mono.empty());
+        when(recipeRepository.deleteByIdWithIngredientsAndInstructions(anyLong())).thenReturn(Mono.empty());
 
         var response = recipeService.deleteRecipeById(NON_EXISTENT_RECIPE_ID);
 
         StepVerifier.create(response)
                 .verifyComplete();
 
-        verify(client, atLeastOnce()).sql(anyString());
-        verify(ingredientsExecuteSpec, times(1)).bind(anyString(), anyLong());
-        verify(ingredientsExecuteSpec, times(1)).fetch();
-        verify(ingredientsFetchSpec, times(1)).all();
-        verify(instructionsExecuteSpec, times(1)).bind(anyString(), anyLong());
-        verify(instructionsExecuteSpec, atLeastOnce()).fetch();
-        verify(instructionsFetchSpec, atLeastOnce()).all();
-        verify(recipeRepository, times(1)).deleteById(anyLong());
-        verify(ingredientRepository, times(1)).deleteAllByIds(any(List.class));
-        verify(instructionRepository, times(1)).deleteAllByIds(any(List.class));
-        verify(recipeSearchRepository, times(1)).deleteById(anyLong());
+        verify(recipeRepository, times(1)).deleteByIdWithIngredientsAndInstructions(eq(NON_EXISTENT_RECIPE_ID));
         verifyNoMoreInteractions(elasticsearchOperations, elasticsearchClient, recipeRepository,
             ingredientRepository, instructionRepository, recipeSearchRepository, client);
     }
@@ -617,39 +1355,78 @@ public class RecipeServiceTest {
 
         var recipe = Instancio.create(Recipe.class);
 
-        when(client.sql(anyString()))
-                .thenReturn(ingredientsExecuteSpec)
-                .thenReturn(instructionsExecuteSpec);
-        when(ingredientsExecuteSpec.bind(anyString(), anyLong())).thenReturn(ingredientsExecuteSpec);
-        when(ingredientsExecuteSpec.fetch()).thenReturn(ingredientsFetchSpec);
-        when(ingredientsFetchSpec.all()).thenReturn(Flux.fromIterable(getIngredientMaps(recipe.getIngredients())));
-        when(instructionsExecuteSpec.bind(anyString(), anyLong())).thenReturn(instructionsExecuteSpec);
-        when(instructionsExecuteSpec.fetch()).thenReturn(instructionsFetchSpec);
-        when(instructionsFetchSpec.all()).thenReturn(Flux.fromIterable(getInstructionMaps(recipe.getInstructions())));
-        when(recipeRepository.deleteById(anyLong())).thenReturn(Mono.just(LONG_RETURN_VALUE));
-        when(ingredientRepository.deleteAllByIds(any(List.class)))
-            .thenReturn(Flux.fromIterable(recipe.getIngredients().stream()
-                .map(Ingredient::getIngredientId).collect(Collectors.toList())));
-        when(instructionRepository.deleteAllByIds(any(List.class)))
-            .thenReturn(Flux.fromIterable(recipe.getInstructions().stream()
-                .map(Instruction::getInstructionId).collect(Collectors.toList())));
+        when(recipeRepository.deleteByIdWithIngredientsAndInstructions(anyLong()))
+            .thenReturn(Mono.just(recipe.getRecipeId()));
         when(recipeSearchRepository.deleteById(anyLong())).thenReturn(Mono.empty());
 
-        var response = recipeService.deleteRecipeById(NON_EXISTENT_RECIPE_ID);
+        var response = recipeService.deleteRecipeById(recipe.getRecipeId());
 
-        StepVerifier.create(response).verifyComplete();
+        StepVerifier.create(response)
+            .expectNext(recipe.getRecipeId())
+            .verifyComplete();
 
-        verify(client, atLeastOnce()).sql(anyString());
-        verify(ingredientsExecuteSpec, times(1)).bind(anyString(), anyLong());
-        verify(ingredientsExecuteSpec, times(1)).fetch();
-        verify(ingredientsFetchSpec, times(1)).all();
-        verify(instructionsExecuteSpec, times(1)).bind(anyString(), anyLong());
-        verify(instructionsExecuteSpec, atLeastOnce()).fetch();
-        verify(instructionsFetchSpec, atLeastOnce()).all();
-        verify(recipeRepository, times(1)).deleteById(anyLong());
-        verify(ingredientRepository, times(1)).deleteAllByIds(any(List.class));
-        verify(instructionRepository, times(1)).deleteAllByIds(any(List.class));
-        verify(recipeSearchRepository, times(1)).deleteById(anyLong());
+        verify(recipeRepository, times(1)).deleteByIdWithIngredientsAndInstructions(eq(recipe.getRecipeId()));
+        verify(recipeSearchRepository, times(1)).deleteById(eq(recipe.getRecipeId()));
+        verify(recipeCache, times(1)).invalidateAfterCompletion(eq(List.of(recipe.getRecipeId())));
+        verify(recipeInvalidationBus, times(1)).publish(eq(List.of(recipe.getRecipeId())));
+        verifyNoMoreInteractions(elasticsearchOperations, elasticsearchClient, recipeRepository,
+            ingredientRepository, instructionRepository, recipeSearchRepository, client);
+    }
+
+    /**
+     * Test deleteRecipesByIds deletes the distinct ids in chunks, and only removes the deleted recipes from search.
+     */
+    @Test
+    void testDeleteRecipesByIds() {
+
+        ReflectionTestUtils.setField(recipeService, "bulkDeleteChunkSize", 2);
+        var firstChunk = List.of(1L, 2L);
+        var secondChunk = List.of(NON_EXISTENT_RECIPE_ID);
+
+        when(recipeRepository.deleteAllByIdsWithIngredientsAndInstructions(firstChunk))
+            .thenReturn(Flux.fromIterable(firstChunk));
+        when(recipeRepository.deleteAllByIdsWithIngredientsAndInstructions(secondChunk)).thenReturn(Flux.empty());
+        when(recipeSearchRepository.deleteAllById(firstChunk)).thenReturn(Mono.empty());
+
+        var response = recipeService.deleteRecipesByIds(List.of(1L, 2L, 1L, NON_EXISTENT_RECIPE_ID));
+
+        StepVerifier.create(response)
+            .expectNext(new RecipeDeleteProgress(1, firstChunk, firstChunk.size()))
+            .expectNext(new RecipeDeleteProgress(2, List.of(), firstChunk.size()))
+            .verifyComplete();
+
+        verify(recipeRepository, times(1)).deleteAllByIdsWithIngredientsAndInstructions(eq(firstChunk));
+        verify(recipeRepository, times(1)).deleteAllByIdsWithIngredientsAndInstructions(eq(secondChunk));
+        verify(recipeSearchRepository, times(1)).deleteAllById(eq(firstChunk));
+        verify(recipeInvalidationBus, times(1)).publish(eq(firstChunk));
+        verifyNoMoreInteractions(elasticsearchOperations, elasticsearchClient, recipeRepository,
+            ingredientRepository, instructionRepository, recipeSearchRepository, client);
+    }
+
+    /**
+     * Test deleteRecipesLastModifiedBefore deletes chunks until no recipes are left to delete.
+     */
+    @Test
+    void testDeleteRecipesLastModifiedBefore() {
+
+        ReflectionTestUtils.setField(recipeService, "bulkDeleteChunkSize", 2);
+        var lastModifiedBefore = LocalDateTime.now();
+        var chunk = List.of(1L, 2L);
+
+        when(recipeRepository.findIdsLastModifiedBefore(lastModifiedBefore, 2))
+            .thenReturn(Flux.fromIterable(chunk), Flux.empty());
+        when(recipeRepository.deleteAllByIdsWithIngredientsAndInstructions(chunk)).thenReturn(Flux.fromIterable(chunk));
+        when(recipeSearchRepository.deleteAllById(chunk)).thenReturn(Mono.empty());
+
+        var response = recipeService.deleteRecipesLastModifiedBefore(lastModifiedBefore);
+
+        StepVerifier.create(response)
+            .expectNext(new RecipeDeleteProgress(1, chunk, chunk.size()))
+            .verifyComplete();
+
+        verify(recipeRepository, times(2)).findIdsLastModifiedBefore(eq(lastModifiedBefore), eq(2));
+        verify(recipeRepository, times(1)).deleteAllByIdsWithIngredientsAndInstructions(eq(chunk));
+        verify(recipeSearchRepository, times(1)).deleteAllById(eq(chunk));
         verifyNoMoreInteractions(elasticsearchOperations, elasticsearchClient, recipeRepository,
             ingredientRepository, instructionRepository, recipeSearchRepository, client);
     }
@@ -680,36 +1457,27 @@ public class RecipeServiceTest {
                 ingredientRepository, instructionRepository, recipeSearchRepository, client);
     }
 
-    @NotNull
-    private List<Map<String, Object>> getIngredientMaps(final List<Ingredient> ingredients) {
-        return ingredients.stream().map(ingredient -> {
-            try {
-                var map = objectMapper.readValue(objectMapper.writeValueAsString(ingredient), HashMap.class);
-                Map<String, Object> ingredientMap = new HashMap<>();
-                for (var key : map.keySet()) {
-                    ingredientMap.put(INGREDIENT_FIELD_NAME_MAPPING.get(key.toString()), map.get(key));
-                }
-                return ingredientMap;
-            } catch (JsonProcessingException e) {
-                throw new RuntimeException(e);
-            }
-        }).collect(Collectors.toList());
-    }
-
-    @NotNull
-    private List<Map<String, Object>> getInstructionMaps(final List<Instruction> instructions) {
-        return instructions.stream().map(instruction -> {
-            try {
-                var map = objectMapper.readValue(objectMapper.writeValueAsString(instruction), HashMap.class);
-                Map<String, Object> instructionMap = new HashMap<>();
-                for (var key : map.keySet()) {
-                    instructionMap.put(INSTRUCTION_FIELD_NAME_MAPPING.get(key.toString()), map.get(key));
-                }
-                return instructionMap;
-            } catch (JsonProcessingException e) {
-                throw new RuntimeException(e);
-            }
-        }).collect(Collectors.toList());
+    private static List<Row> getIngredientRows(final List<Ingredient> ingredients) {
+        return ingredients.stream().map(ArrayRow::of).collect(Collectors.toList());
+    }
+
+    private static List<Row> getInstructionRows(final List<Instruction> instructions) {
+        return instructions.stream().map(ArrayRow::of).collect(Collectors.toList());
+    }
+
+    private static List<Row> getRecipeIngredientRows(final long recipeId, final List<Ingredient> ingredients) {
+        return ingredients.stream().map(ingredient -> ArrayRow.of(ingredient).withRecipeId(recipeId))
+                .collect(Collectors.toList());
+    }
+
+    private static List<Row> getRecipeInstructionRows(final long recipeId, final List<Instruction> instructions) {
+        return instructions.stream().map(instruction -> ArrayRow.of(instruction).withRecipeId(recipeId))
+                .collect(Collectors.toList());
+    }
+
+    private static Flux<Object> mapRows(final ArgumentCaptor<BiFunction<Row, RowMetadata, Object>> mappingFunction,
+                                        final List<Row> rows) {
+        return Flux.fromIterable(rows).map(row -> mappingFunction.getValue().apply(row, row.getMetadata()));
     }
 
     private static Recipe getRecipeWithoutIngredientsOrInstructions(final Recipe recipe) {
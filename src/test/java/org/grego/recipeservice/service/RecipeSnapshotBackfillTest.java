@@ -0,0 +1,120 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice.service;
+
+import org.grego.recipeservice.repository.RecipeSnapshotRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.powermock.modules.junit4.PowerMockRunner;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test functionality of RecipeSnapshotBackfill class.
+ */
+@ExtendWith(MockitoExtension.class)
+@RunWith(PowerMockRunner.class)
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+@Tag("UnitTests")
+public class RecipeSnapshotBackfillTest {
+    /**
+     * Number of recipes backfilled in each statement.
+     */
+    private static final int CHUNK_SIZE = 2;
+
+    /**
+     * Recipe id without a snapshot in the last chunk.
+     */
+    private static final long LAST_RECIPE_ID = 4L;
+
+    /**
+     * Repository maintaining the recipe snapshots.
+     */
+    @Mock
+    private RecipeSnapshotRepository recipeSnapshotRepository;
+
+    /**
+     * Test backfill works through the recipes without a snapshot a chunk at a time, seeking past each chunk, until
+     * none are left.
+     */
+    @Test
+    void testBackfill() {
+        var recipeSnapshotBackfill = new RecipeSnapshotBackfill(recipeSnapshotRepository, CHUNK_SIZE, true,
+                RecipeReadMode.MULTI_QUERY);
+
+        when(recipeSnapshotRepository.findIdsWithoutSnapshot(anyLong(), anyInt()))
+                .thenReturn(Flux.just(1L, 2L), Flux.just(LAST_RECIPE_ID), Flux.empty());
+        when(recipeSnapshotRepository.backfill(anyList()))
+                .thenReturn(Mono.just(2L), Mono.just(0L));
+
+        StepVerifier.create(recipeSnapshotBackfill.backfill())
+                .expectNext(2L, 0L)
+                .verifyComplete();
+
+        verify(recipeSnapshotRepository, times(1)).findIdsWithoutSnapshot(eq(0L), eq(CHUNK_SIZE));
+        verify(recipeSnapshotRepository, times(1)).findIdsWithoutSnapshot(eq(2L), eq(CHUNK_SIZE));
+        verify(recipeSnapshotRepository, times(1)).findIdsWithoutSnapshot(eq(LAST_RECIPE_ID), eq(CHUNK_SIZE));
+        verify(recipeSnapshotRepository, times(1)).backfill(eq(List.of(1L, 2L)));
+        verify(recipeSnapshotRepository, times(1)).backfill(eq(List.of(LAST_RECIPE_ID)));
+        verifyNoMoreInteractions(recipeSnapshotRepository);
+    }
+
+    /**
+     * Test start backfills in the snapshot read mode without the snapshots being enabled.
+     */
+    @Test
+    void testStartSnapshotReadMode() {
+        var recipeSnapshotBackfill = new RecipeSnapshotBackfill(recipeSnapshotRepository, CHUNK_SIZE, false,
+                RecipeReadMode.SNAPSHOT);
+
+        when(recipeSnapshotRepository.findIdsWithoutSnapshot(anyLong(), anyInt())).thenReturn(Flux.empty());
+
+        recipeSnapshotBackfill.start();
+        recipeSnapshotBackfill.stop();
+
+        verify(recipeSnapshotRepository, times(1)).findIdsWithoutSnapshot(eq(0L), eq(CHUNK_SIZE));
+        verifyNoMoreInteractions(recipeSnapshotRepository);
+    }
+
+    /**
+     * Test start does nothing when the backfill or the snapshots are disabled.
+     * @param chunkSize
+     * @param snapshotEnabled
+     * @param readMode
+     */
+    @ParameterizedTest
+    @CsvSource({"0, true, SNAPSHOT", "2, false, MULTI_QUERY", "2, false, AGGREGATE"})
+    void testStartDisabled(final int chunkSize, final boolean snapshotEnabled, final RecipeReadMode readMode) {
+        var recipeSnapshotBackfill = new RecipeSnapshotBackfill(recipeSnapshotRepository, chunkSize, snapshotEnabled,
+                readMode);
+
+        recipeSnapshotBackfill.start();
+        recipeSnapshotBackfill.stop();
+
+        verifyNoInteractions(recipeSnapshotRepository);
+    }
+}
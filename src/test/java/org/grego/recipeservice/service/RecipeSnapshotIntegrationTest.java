@@ -0,0 +1,133 @@
+/**
+ * Recipe Service.
+ * Copyright: none
+ *
+ * @author Greg-O
+ */
+package org.grego.recipeservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.spi.ConnectionFactories;
+import org.grego.recipeservice.mapping.RecipeMapper;
+import org.grego.recipeservice.model.Ingredient;
+import org.grego.recipeservice.model.Instruction;
+import org.grego.recipeservice.model.QuantitySpecifier;
+import org.grego.recipeservice.model.Recipe;
+import org.grego.recipeservice.repository.IngredientRepository;
+import org.grego.recipeservice.repository.InstructionRepository;
+import org.grego.recipeservice.repository.RecipeRepository;
+import org.grego.recipeservice.repository.RecipeSearchRepository;
+import org.grego.recipeservice.repository.RecipeSnapshotRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test the recipe snapshots kept by RecipeService against H2, as they are turned off and on again.
+ */
+@Tag("IntegrationTests")
+class RecipeSnapshotIntegrationTest {
+    /**
+     * Number of recipes backfilled in each statement.
+     */
+    private static final int CHUNK_SIZE = 10;
+
+    /**
+     * Recipe service writing and reading the recipes.
+     */
+    private RecipeService recipeService;
+
+    /**
+     * Repository maintaining the recipe snapshots.
+     */
+    private RecipeSnapshotRepository recipeSnapshotRepository;
+
+    /**
+     * Create the recipe service over a new H2 database.
+     */
+    @BeforeEach
+    void setUp() {
+        var connectionFactory = ConnectionFactories.get(
+            "r2dbc:h2:mem:///recipe-snapshot-" + System.nanoTime() + "?options=DB_CLOSE_DELAY=-1");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).populate(connectionFactory).block();
+
+        var template = new R2dbcEntityTemplate(connectionFactory);
+        var recipeCache = new RecipeCache(0, Duration.ofMinutes(1));
+        var recipeSearchRepository = mock(RecipeSearchRepository.class);
+
+        when(recipeSearchRepository.save(any())).thenReturn(Mono.empty());
+        recipeSnapshotRepository = new RecipeSnapshotRepository(template, new ObjectMapper());
+        recipeService = new RecipeService();
+        ReflectionTestUtils.setField(recipeService, "recipeRepository", new RecipeRepository(template));
+        ReflectionTestUtils.setField(recipeService, "ingredientRepository", new IngredientRepository(template));
+        ReflectionTestUtils.setField(recipeService, "instructionRepository", new InstructionRepository(template));
+        ReflectionTestUtils.setField(recipeService, "recipeSnapshotRepository", recipeSnapshotRepository);
+        ReflectionTestUtils.setField(recipeService, "recipeSearchRepository", recipeSearchRepository);
+        ReflectionTestUtils.setField(recipeService, "recipeCache", recipeCache);
+        ReflectionTestUtils.setField(recipeService, "recipeInvalidationBus", new RecipeInvalidationBus(
+            template.getDatabaseClient(), recipeCache, true, Duration.ofSeconds(1), Duration.ofMinutes(1)));
+        ReflectionTestUtils.setField(recipeService, "client", template.getDatabaseClient());
+        ReflectionTestUtils.setField(recipeService, "recipeMapper", Mappers.getMapper(RecipeMapper.class));
+    }
+
+    /**
+     * Test a recipe updated while the snapshots are off is read as updated once they are on again, rather than from
+     * the snapshot written before they were turned off.
+     */
+    @Test
+    void testUpdateWhileDisabledThenEnable() {
+
+        setSnapshots(RecipeReadMode.MULTI_QUERY, true);
+        var recipeId = recipeService.addRecipe(getRecipe("flour")).block().getRecipeId();
+
+        setSnapshots(RecipeReadMode.MULTI_QUERY, false);
+        var recipe = recipeService.getRecipeById(recipeId).block();
+        recipe.getIngredients().get(0).setIngredient("sugar");
+        recipeService.updateRecipe(recipe).block();
+
+        setSnapshots(RecipeReadMode.SNAPSHOT, false);
+        new RecipeSnapshotBackfill(recipeSnapshotRepository, CHUNK_SIZE, false, RecipeReadMode.SNAPSHOT)
+            .backfill()
+            .blockLast();
+
+        assertEquals("sugar", recipeService.getRecipeById(recipeId).block().getIngredients().get(0).getIngredient());
+        assertEquals("sugar", recipeSnapshotRepository.findById(recipeId).block().getIngredients().get(0).getIngredient());
+    }
+
+    private void setSnapshots(final RecipeReadMode readMode, final boolean snapshotEnabled) {
+        ReflectionTestUtils.setField(recipeService, "recipeReadMode", readMode);
+        ReflectionTestUtils.setField(recipeService, "recipeSnapshotEnabled", snapshotEnabled);
+    }
+
+    private static Recipe getRecipe(final String ingredient) {
+        return Recipe.builder()
+            .name("bread")
+            .description("loaf")
+            .ingredients(new ArrayList<>(List.of(Ingredient.builder()
+                .ingredientNumber(1)
+                .ingredient(ingredient)
+                .quantity(1.0)
+                .quantitySpecifier(QuantitySpecifier.Cup)
+                .build())))
+            .instructions(new ArrayList<>(List.of(Instruction.builder()
+                .instructionNumber(1)
+                .instruction("bake")
+                .build())))
+            .build();
+    }
+}
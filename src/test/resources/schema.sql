@@ -1,38 +1,62 @@
+-- The ids are taken from sequences named like the ones PostgreSQL creates for BIGSERIAL, so batch inserts can
+-- allocate them ahead of inserting the rows.
+CREATE SEQUENCE IF NOT EXISTS ingredients_ingredient_id_seq;
+
+CREATE SEQUENCE IF NOT EXISTS instructions_instruction_id_seq;
+
+CREATE SEQUENCE IF NOT EXISTS recipes_recipe_id_seq;
+
+CREATE TABLE IF NOT EXISTS recipes (
+    recipe_id  BIGINT DEFAULT NEXT VALUE FOR recipes_recipe_id_seq NOT NULL,
+    creation_date_time TIMESTAMP NOT NULL,
+    description VARCHAR(255) NOT NULL,
+    last_modified_date_time TIMESTAMP NOT NULL,
+    name VARCHAR(256) NOT NULL,
+    variation INT4 NOT NULL,
+    version INT8 NOT NULL DEFAULT 0,
+    PRIMARY KEY (recipe_id)
+);
+
 CREATE TABLE IF NOT EXISTS ingredients (
-	ingredient_id  BIGSERIAL NOT NULL,
+	ingredient_id  BIGINT DEFAULT NEXT VALUE FOR ingredients_ingredient_id_seq NOT NULL,
     ingredient VARCHAR(256) NOT NULL,
     ingredient_number INT CONSTRAINT positive_ingredient_number CHECK (ingredient_number > 0),
     quantity DECIMAL(10,2) NOT NULL,
     quantity_specifier VARCHAR(255) NOT NULL,
+    recipe_id INT8 REFERENCES recipes (recipe_id),
     PRIMARY KEY (ingredient_id)
 );
 
 CREATE TABLE IF NOT EXISTS instructions (
-	instruction_id  BIGSERIAL NOT NULL,
+	instruction_id  BIGINT DEFAULT NEXT VALUE FOR instructions_instruction_id_seq NOT NULL,
     instruction VARCHAR(255) NOT NULL,
     instruction_number INT CONSTRAINT positive_instruction_number CHECK (instruction_number > 0),
+    recipe_id INT8 REFERENCES recipes (recipe_id),
     PRIMARY KEY (instruction_id)
 );
 
-CREATE TABLE IF NOT EXISTS recipes (
-    recipe_id  BIGSERIAL NOT NULL,
-    creation_date_time TIMESTAMP NOT NULL,
-    description VARCHAR(255) NOT NULL,
-    last_modified_date_time TIMESTAMP NOT NULL,
+ALTER TABLE recipes ADD COLUMN IF NOT EXISTS version INT8 NOT NULL DEFAULT 0;
+
+ALTER TABLE recipes ADD COLUMN IF NOT EXISTS recipe_snapshot JSON;
+
+CREATE INDEX IF NOT EXISTS recipes_name_recipe_id_idx ON recipes (name, recipe_id);
+
+CREATE INDEX IF NOT EXISTS recipes_last_modified_date_time_recipe_id_idx ON recipes (last_modified_date_time, recipe_id);
+
+CREATE TABLE IF NOT EXISTS recipe_variations (
     name VARCHAR(256) NOT NULL,
     variation INT4 NOT NULL,
-    PRIMARY KEY (recipe_id)
+    PRIMARY KEY (name)
 );
 
-CREATE TABLE IF NOT EXISTS recipes_ingredients (
-	recipe_recipe_id INT8 NOT NULL,
-    ingredients_ingredient_id INT8 NOT NULL
-);
+INSERT INTO recipe_variations (name, variation)
+    SELECT r.name, MAX(r.variation) FROM recipes r
+    WHERE NOT EXISTS (SELECT 1 FROM recipe_variations v WHERE v.name = r.name)
+    GROUP BY r.name;
 
-CREATE TABLE IF NOT EXISTS recipes_instructions (
-	recipe_recipe_id INT8 NOT NULL,
-    instructions_instruction_id INT8 NOT NULL
-);
+CREATE INDEX IF NOT EXISTS ingredients_recipe_id_ingredient_number_idx ON ingredients (recipe_id, ingredient_number);
+
+CREATE INDEX IF NOT EXISTS instructions_recipe_id_instruction_number_idx ON instructions (recipe_id, instruction_number);
 
 --ALTER TABLE recipes
 --	DROP CONSTRAINT IF EXISTS unique_recipe_name_and_variation;